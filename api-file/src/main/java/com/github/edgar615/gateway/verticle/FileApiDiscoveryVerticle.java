@@ -46,12 +46,29 @@ public class FileApiDiscoveryVerticle extends AbstractVerticle {
         JsonObject importConfig = new JsonObject()
                 .put("path", path);
         FileApiImporter importer = new FileApiImporter();
-        discovery.registerImporter(importer, importConfig, ar -> {
-            if (ar.succeeded()) {
-                startFuture.complete();
-            } else {
-                startFuture.fail(ar.cause());
-            }
+        Future<Void> restoreFuture = Future.future();
+        if (discovery.options().getSnapshotPath() != null) {
+            //先从快照中恢复API，文件导入完成之前就可以提供服务，恢复失败不影响文件导入
+            discovery.restoreSnapshot(ar -> restoreFuture.complete());
+        } else {
+            restoreFuture.complete();
+        }
+        if (discovery.options().isDeltaEvents()) {
+            //接收其他节点通过ApiDefinitionVerticle修改的API
+            discovery.subscribeChanges(ar -> {
+                if (ar.failed()) {
+                    LOGGER.error("[Verticle] [subscribeChanges] failed", ar.cause());
+                }
+            });
+        }
+        restoreFuture.setHandler(rar -> {
+            discovery.registerImporter(importer, importConfig, ar -> {
+                if (ar.succeeded()) {
+                    startFuture.complete();
+                } else {
+                    startFuture.fail(ar.cause());
+                }
+            });
         });
 
         String reloadAddr = RELOAD_ADDR_PREFIX;
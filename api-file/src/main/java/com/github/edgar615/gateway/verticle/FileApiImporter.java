@@ -1,13 +1,18 @@
 package com.github.edgar615.gateway.verticle;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
 import com.github.edgar615.gateway.core.apidiscovery.ApiImporter;
 import com.github.edgar615.gateway.core.apidiscovery.ApiPublisher;
 import com.github.edgar615.gateway.core.definition.ApiDefinition;
-import io.vertx.core.CompositeFuture;
+import com.github.edgar615.gateway.core.metric.ApiMetric;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.FileProps;
 import io.vertx.core.json.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,13 +20,24 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * 从文件中读取Api.
+ * <p>
+ * 每个文件保存了一个API，导入时会记录每个文件的修改时间、大小、内容的hash和文件中定义的API名称.
+ * 重新加载时只读取修改时间或大小发生变化的文件，内容的hash也没有变化的文件不会重新解析和发布；
+ * 只有文件被删除（或者文件中的API改名）时才会删除对应的API.
  *
  * @author Edgar  Date 2017/3/30
  */
@@ -29,7 +45,20 @@ class FileApiImporter implements ApiImporter {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FileApiImporter.class);
 
-    private final Set<String> imported = new HashSet<>();
+    /**
+     * 文件路径与文件信息的映射，只在导入成功后整体替换
+     */
+    private volatile Map<String, FileEntry> files = ImmutableMap.of();
+
+    /**
+     * API名称与定义它的文件的映射，只在导入成功后整体替换
+     */
+    private volatile Map<String, String> owners = ImmutableMap.of();
+
+    /**
+     * 解析API的线程池，并发数由decode.parallelism指定，默认为CPU的核数
+     */
+    private ForkJoinPool decodePool;
 
     private Vertx vertx;
 
@@ -43,61 +72,20 @@ class FileApiImporter implements ApiImporter {
         this.vertx = vertx;
         this.publisher = publisher;
         this.config = config;
+        int parallelism = config.getInteger("decode.parallelism",
+                                            Runtime.getRuntime().availableProcessors());
+        if (parallelism > 1) {
+            this.decodePool = createDecodePool(parallelism);
+        }
         doImport(complete);
     }
 
     public void doImport(Future<Void> complete) {
-        String path = config.getString("path");
-        vertx.<List<String>>executeBlocking(f -> {
-            try {
-                List<String> apiList = readFromFile(path);
-                f.complete(apiList);
-            } catch (Exception e) {
-                f.fail(e);
-            }
-        }, ar -> {
-            if (ar.succeeded()) {
-                List<Future> futures = addApiList(publisher, decode(ar.result()));
-                LOGGER.info("[ApiDiscovery] [apiImport] {path:{}} import api from file", path);
-                checkResult(futures, complete);
-            } else {
-                LOGGER.error("[ApiDiscovery] [apiImport] {path:{}} import api from file", path,
-                             ar.cause());
-                complete.complete();
-            }
-        });
+        importChanged(complete);
     }
 
     public void reload(Future<Void> complete) {
-        String path = config.getString("path");
-        vertx.<List<String>>executeBlocking(f -> {
-            try {
-                List<String> apiList = readFromFile(path);
-                f.complete(apiList);
-            } catch (Exception e) {
-                f.fail(e);
-            }
-        }, ar -> {
-            if (ar.succeeded()) {
-                List<ApiDefinition> definitions = decode(ar.result());
-                List<String> existsNames = definitions.stream().map(d -> d.name())
-                        .collect(Collectors.toList());
-                //删除已经不存在的
-                imported.forEach(api -> {
-                    if (!existsNames.contains(api)) {
-                        publisher.unpublish(api, uar -> imported
-                                .removeIf(name -> api.equalsIgnoreCase(name)));
-                    }
-                });
-                List<Future> futures = addApiList(publisher, definitions);
-                LOGGER.info("[ApiDiscovery] [apiImport] {path:{}} import api from file", path);
-                checkResult(futures, complete);
-            } else {
-                LOGGER.error("[ApiDiscovery] [apiImport] {path:{}} import api from file", path,
-                             ar.cause());
-                complete.complete();
-            }
-        });
+        importChanged(complete);
     }
 
     @Override
@@ -107,27 +95,19 @@ class FileApiImporter implements ApiImporter {
 
     @Override
     public void close(Handler<Void> closeHandler) {
+        if (decodePool != null) {
+            decodePool.shutdown();
+        }
         if (publisher == null) {
             closeHandler.handle(null);
             return;
         }
         // Remove all the services that has been imported
-        List<Future> list = new ArrayList<>();
-        imported.forEach(name -> {
-            Future<Void> fut = Future.future();
-            fut.setHandler(ar -> {
-                LOGGER.info("[ApiDiscovery] [apiUnPublish] [name:{}]", name);
-                if (ar.succeeded()) {
-                    list.add(Future.succeededFuture());
-                } else {
-                    list.add(Future.failedFuture(ar.cause()));
-                }
-            });
-            publisher.unpublish(name, fut.completer());
-        });
-
-        CompositeFuture.all(list).setHandler(ar -> {
-            imported.clear();
+        Future<Void> future = Future.future();
+        unpublishAll(new ArrayList<>(owners.keySet()), future);
+        future.setHandler(ar -> {
+            files = ImmutableMap.of();
+            owners = ImmutableMap.of();
             if (ar.succeeded()) {
                 LOGGER.info("[ApiDiscovery] [importClosed] close api import: {}",
                             FileApiImporter.class.getSimpleName());
@@ -141,77 +121,315 @@ class FileApiImporter implements ApiImporter {
         });
     }
 
-    private void checkResult(List<Future> futures, Future<Void> complete) {
-        CompositeFuture.all(futures)
-                .setHandler(ar -> {
-                    if (ar.succeeded()) {
-                        complete.complete();
-                        return;
-                    }
-                    complete.fail(ar.cause());
-                });
+    /**
+     * 对比文件索引，发布发生变化的API，删除文件已经不存在的API.
+     * 发布成功后才会替换文件索引，失败的文件在下次加载时会被重新读取.
+     *
+     * @param complete 回调
+     */
+    private void importChanged(Future<Void> complete) {
+        String path = config.getString("path");
+        Map<String, FileEntry> previousFiles = files;
+        Map<String, String> previousOwners = owners;
+        vertx.<ImportPlan>executeBlocking(f -> {
+            try {
+                f.complete(plan(path, previousFiles, previousOwners));
+            } catch (Exception e) {
+                f.fail(e);
+            }
+        }, ar -> {
+            if (ar.failed()) {
+                LOGGER.error("[ApiDiscovery] [apiImport] {path:{}} import api from file", path,
+                             ar.cause());
+                complete.complete();
+                return;
+            }
+            ImportPlan plan = ar.result();
+            LOGGER.info("[ApiDiscovery] [apiImport] {path:{}, files:{}, changed:{}, failed:{},"
+                        + " removed:{}, decodeTime:{}} import api from file", path,
+                        plan.files.size(), plan.definitions.size(), plan.failed,
+                        plan.staleNames.size(), plan.decodeTime);
+            Future<Void> applyFuture = Future.future();
+            apply(plan.definitions, plan.staleNames, applyFuture);
+            applyFuture.setHandler(iar -> {
+                if (iar.failed()) {
+                    complete.fail(iar.cause());
+                    return;
+                }
+                files = plan.files;
+                owners = plan.owners;
+                complete.complete();
+            });
+        });
     }
 
-    private List<ApiDefinition> decode(List<String> apiList) {
+    /**
+     * 扫描目录，找出需要发布和删除的API.
+     *
+     * @param path           文件或目录
+     * @param previousFiles  上次导入的文件索引
+     * @param previousOwners 上次导入的API名称
+     * @return ImportPlan
+     */
+    private ImportPlan plan(String path, Map<String, FileEntry> previousFiles,
+                            Map<String, String> previousOwners) {
+        Map<String, FileEntry> currentFiles = new HashMap<>();
+        List<ChangedFile> changedFiles = new ArrayList<>();
+        for (String file : listFiles(path)) {
+            FileProps props = vertx.fileSystem().propsBlocking(file);
+            FileEntry previous = previousFiles.get(file);
+            if (previous != null && previous.lastModified == props.lastModifiedTime()
+                && previous.size == props.size()) {
+                currentFiles.put(file, previous);
+                continue;
+            }
+            Buffer buffer = vertx.fileSystem().readFileBlocking(file);
+            HashCode hash = Hashing.murmur3_128().hashBytes(buffer.getBytes());
+            if (previous != null && previous.hash.equals(hash)) {
+                currentFiles.put(file, new FileEntry(props, hash, previous.name));
+                continue;
+            }
+            changedFiles.add(new ChangedFile(file, props, hash, buffer));
+        }
+
+        long started = System.nanoTime();
+        List<ApiDefinition> decoded = decodeAll(changedFiles);
+        long decodeTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        Map<String, String> currentOwners = new HashMap<>(previousOwners);
+        Set<String> released = new HashSet<>();
         List<ApiDefinition> definitions = new ArrayList<>();
-        for (String source : apiList) {
-            try {
-                ApiDefinition d = ApiDefinition.fromJson(new JsonObject(source));
-                definitions.add(d);
-            } catch (Exception e) {
-                LOGGER.error("[ApiDiscovery] [apiPublish]", e);
+        for (int i = 0; i < changedFiles.size(); i++) {
+            ChangedFile changed = changedFiles.get(i);
+            ApiDefinition definition = decoded.get(i);
+            String name = definition == null ? null : definition.name();
+            FileEntry previous = previousFiles.get(changed.file);
+            if (previous != null && previous.name != null && !previous.name.equals(name)) {
+                release(currentOwners, released, previous.name, changed.file);
+            }
+            if (definition != null) {
+                definitions.add(definition);
+                currentOwners.put(name, changed.file);
             }
+            currentFiles.put(changed.file, new FileEntry(changed.props, changed.hash, name));
         }
-        return definitions;
+        for (Map.Entry<String, FileEntry> entry : previousFiles.entrySet()) {
+            if (!currentFiles.containsKey(entry.getKey()) && entry.getValue().name != null) {
+                release(currentOwners, released, entry.getValue().name, entry.getKey());
+            }
+        }
+        //其他文件中还定义了同名的API时不删除
+        List<String> staleNames = released.stream()
+                .filter(name -> !currentOwners.containsKey(name))
+                .collect(Collectors.toList());
+        ApiMetric.definitionDecode(FileApiImporter.class.getSimpleName(), definitions.size(),
+                                   changedFiles.size() - definitions.size(), decodeTime);
+        return new ImportPlan(currentFiles, currentOwners, definitions, staleNames,
+                              changedFiles.size() - definitions.size(), decodeTime);
     }
 
-    private List<Future> addApiList(ApiPublisher publisher, List<ApiDefinition> apiList) {
-        List<Future> futures = new ArrayList<>();
-        for (ApiDefinition definition : apiList) {
+    /**
+     * 解析发生变化的文件，文件较多时在解析线程池中并行解析.
+     * 解析失败的文件对应的位置为null，不会影响其他文件.
+     *
+     * @param changedFiles 发生变化的文件
+     * @return 与changedFiles顺序一致的API
+     */
+    private List<ApiDefinition> decodeAll(List<ChangedFile> changedFiles) {
+        if (decodePool == null || changedFiles.size() < 2) {
+            return changedFiles.stream()
+                    .map(changed -> decode(changed.file, changed.buffer))
+                    .collect(Collectors.toList());
+        }
+        List<Callable<ApiDefinition>> tasks = changedFiles.stream()
+                .<Callable<ApiDefinition>>map(changed -> () -> decode(changed.file, changed.buffer))
+                .collect(Collectors.toList());
+        List<ApiDefinition> definitions = new ArrayList<>(tasks.size());
+        for (java.util.concurrent.Future<ApiDefinition> future : decodePool.invokeAll(tasks)) {
             try {
-                Future<ApiDefinition> addFuture = addApi(publisher, definition);
-                futures.add(addFuture);
-            } catch (Exception e) {
-                LOGGER.error("[ApiDiscovery] [apiPublish]", e);
+                definitions.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                //decode已经捕获了所有的异常
+                definitions.add(null);
             }
         }
-        return futures;
+        return definitions;
+    }
+
+    private void release(Map<String, String> owners, Set<String> released, String name,
+                         String file) {
+        if (file.equals(owners.get(name))) {
+            owners.remove(name);
+            released.add(name);
+        }
+    }
+
+    /**
+     * 在注册表的一次修改中发布变化的API并删除不存在的API.
+     *
+     * @param definitions 发布的API
+     * @param staleNames  删除的API名称
+     * @param complete    回调
+     */
+    private void apply(List<ApiDefinition> definitions, List<String> staleNames,
+                       Future<Void> complete) {
+        if (definitions.isEmpty() && staleNames.isEmpty()) {
+            complete.complete();
+            return;
+        }
+        publisher.apply(definitions, staleNames, ar -> {
+            if (ar.failed()) {
+                LOGGER.error("[ApiDiscovery] [apiPublish]", ar.cause());
+                complete.fail(ar.cause());
+                return;
+            }
+            if (!staleNames.isEmpty()) {
+                LOGGER.info("[ApiDiscovery] [apiUnPublish] {names:{}}", staleNames);
+            }
+            complete.complete();
+        });
     }
 
-    private Future<ApiDefinition> addApi(ApiPublisher publisher, ApiDefinition definition) {
-        Future<ApiDefinition> future = Future.future();
-        publisher.publish(definition, ar -> {
+    /**
+     * 在注册表的一次修改中删除所有的API.
+     *
+     * @param names    API名称
+     * @param complete 回调
+     */
+    private void unpublishAll(List<String> names, Future<Void> complete) {
+        if (names.isEmpty()) {
+            complete.complete();
+            return;
+        }
+        publisher.unpublishAll(names, ar -> {
             if (ar.failed()) {
-                future.fail(ar.cause());
+                LOGGER.error("[ApiDiscovery] [apiUnPublish]", ar.cause());
+                complete.fail(ar.cause());
                 return;
             }
-            imported.add(definition.name());
-            future.complete(ar.result());
+            LOGGER.info("[ApiDiscovery] [apiUnPublish] {names:{}}", names);
+            complete.complete();
         });
-        return future;
     }
 
-    private List<String> readFromFile(String path) {
+    private ApiDefinition decode(String file, Buffer buffer) {
+        try {
+            return ApiDefinition.fromJson(new JsonObject(buffer));
+        } catch (Exception e) {
+            LOGGER.error("[ApiDiscovery] [apiPublish] {path:{}} failed decode file", file, e);
+            return null;
+        }
+    }
+
+    private static ForkJoinPool createDecodePool(int parallelism) {
+        ClassLoader classLoader = FileApiImporter.class.getClassLoader();
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread =
+                    ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("api-file-decoder-" + thread.getPoolIndex());
+            //插件通过ServiceLoader加载
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        }, null, false);
+    }
+
+    private List<String> listFiles(String path) {
         List<String> datas = new ArrayList<>();
         if (Files.isDirectory(new File(path).toPath())) {
             List<String> paths = vertx.fileSystem().readDirBlocking(path);
             for (String p : paths) {
                 if (Files.isDirectory(new File(p).toPath())) {
-                    datas.addAll(readFromFile(p));
+                    datas.addAll(listFiles(p));
                 } else if (p.endsWith(".json")) {
-                    String defineJson = vertx.fileSystem().readFileBlocking(p).toString();
-                    datas.add(defineJson);
+                    datas.add(p);
                 }
             }
         } else if (path.endsWith(".json")) {
-            Buffer buffer = vertx.fileSystem().readFileBlocking(path);
-            try {
-                String defineJson = buffer.toString();
-                datas.add(defineJson);
-            } catch (Exception e) {
-                LOGGER.error("[ApiDiscovery] [apiImport] {path:{}} failed read file", path, e);
-            }
+            datas.add(path);
         }
         return datas;
     }
+
+    /**
+     * 文件的修改时间、大小、内容的hash和文件中定义的API名称.
+     */
+    private static class FileEntry {
+
+        private final long lastModified;
+
+        private final long size;
+
+        private final HashCode hash;
+
+        /**
+         * 解析失败时为null
+         */
+        private final String name;
+
+        private FileEntry(FileProps props, HashCode hash, String name) {
+            this.lastModified = props.lastModifiedTime();
+            this.size = props.size();
+            this.hash = hash;
+            this.name = name;
+        }
+    }
+
+    /**
+     * 内容发生变化，需要重新解析的文件.
+     */
+    private static class ChangedFile {
+
+        private final String file;
+
+        private final FileProps props;
+
+        private final HashCode hash;
+
+        private final Buffer buffer;
+
+        private ChangedFile(String file, FileProps props, HashCode hash, Buffer buffer) {
+            this.file = file;
+            this.props = props;
+            this.hash = hash;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * 一次导入需要发布和删除的API，以及导入成功后的文件索引.
+     */
+    private static class ImportPlan {
+
+        private final Map<String, FileEntry> files;
+
+        private final Map<String, String> owners;
+
+        private final List<ApiDefinition> definitions;
+
+        private final List<String> staleNames;
+
+        /**
+         * 解析失败的文件数
+         */
+        private final int failed;
+
+        /**
+         * 解析耗时，毫秒
+         */
+        private final long decodeTime;
+
+        private ImportPlan(Map<String, FileEntry> files, Map<String, String> owners,
+                           List<ApiDefinition> definitions, List<String> staleNames,
+                           int failed, long decodeTime) {
+            this.files = ImmutableMap.copyOf(files);
+            this.owners = ImmutableMap.copyOf(owners);
+            this.definitions = definitions;
+            this.staleNames = staleNames;
+            this.failed = failed;
+            this.decodeTime = decodeTime;
+        }
+    }
 }
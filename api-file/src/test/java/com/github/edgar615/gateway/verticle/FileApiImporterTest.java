@@ -1,5 +1,6 @@
 package com.github.edgar615.gateway.verticle;
 
+import com.github.edgar615.gateway.core.apidiscovery.ApiChangeEvent;
 import com.github.edgar615.gateway.core.apidiscovery.ApiDiscovery;
 import com.github.edgar615.gateway.core.apidiscovery.ApiDiscoveryOptions;
 import com.github.edgar615.gateway.core.apidiscovery.ApiImporter;
@@ -13,6 +14,13 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -184,4 +192,79 @@ public class FileApiImporterTest {
         });
         Awaitility.await().until(() -> check5.get());
     }
+
+    @Test
+    public void testReloadOnlyChangedFiles(TestContext testContext) throws IOException {
+        Path dir = Files.createTempDirectory("api");
+        Files.copy(Paths.get("src/test/resources/api/device_add.json"),
+                   dir.resolve("device_add.json"));
+        Files.copy(Paths.get("src/test/resources/api/device/device_update.json"),
+                   dir.resolve("device_update.json"));
+        ApiDiscovery discovery = ApiDiscovery.create(vertx,
+                                                     new ApiDiscoveryOptions());
+        List<ApiChangeEvent> events = new CopyOnWriteArrayList<>();
+        vertx.eventBus().<JsonObject>consumer(ApiDiscoveryOptions.DEFAULT_CHANGED_ADDRESS,
+                                              msg -> events.add(
+                                                      ApiChangeEvent.fromJson(msg.body())));
+
+        FileApiImporter apiImporter = new FileApiImporter();
+        AtomicBoolean check1 = new AtomicBoolean();
+        discovery.registerImporter(apiImporter, new JsonObject().put("path", dir.toString()),
+                                   ar -> check1.set(ar.succeeded()));
+        Awaitility.await().until(() -> check1.get() && events.size() == 1);
+        testContext.assertEquals(2, events.get(0).added().size());
+
+        //内容没有变化，不会重新发布
+        Files.setLastModifiedTime(dir.resolve("device_add.json"),
+                                  FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        AtomicBoolean check2 = new AtomicBoolean();
+        Future<Void> touchFuture = Future.future();
+        touchFuture.setHandler(ar -> check2.set(ar.succeeded()));
+        apiImporter.reload(touchFuture);
+        Awaitility.await().until(() -> check2.get());
+        testContext.assertEquals(1, events.size());
+
+        //删除文件只会删除这个文件中的API
+        Files.delete(dir.resolve("device_update.json"));
+        AtomicBoolean check3 = new AtomicBoolean();
+        Future<Void> deleteFuture = Future.future();
+        deleteFuture.setHandler(ar -> check3.set(ar.succeeded()));
+        apiImporter.reload(deleteFuture);
+        Awaitility.await().until(() -> check3.get() && events.size() == 2);
+        testContext.assertTrue(events.get(1).added().isEmpty());
+        testContext.assertTrue(events.get(1).updated().isEmpty());
+        testContext.assertEquals("update_device", events.get(1).removed().get(0));
+        testContext.assertEquals(1, discovery.snapshot().size());
+    }
+
+    @Test
+    public void testParallelDecodeShouldSkipInvalidFile(TestContext testContext)
+            throws IOException {
+        Path dir = Files.createTempDirectory("api");
+        Files.copy(Paths.get("src/test/resources/api/device_add.json"),
+                   dir.resolve("device_add.json"));
+        Files.copy(Paths.get("src/test/resources/api/device/device_update.json"),
+                   dir.resolve("device_update.json"));
+        Files.copy(Paths.get("src/test/resources/invalid/invalid_json.json"),
+                   dir.resolve("invalid_json.json"));
+        ApiDiscovery discovery = ApiDiscovery.create(vertx,
+                                                     new ApiDiscoveryOptions());
+        JsonObject jsonObject = new JsonObject()
+                .put("path", dir.toString())
+                .put("decode.parallelism", 4);
+
+        AtomicBoolean check1 = new AtomicBoolean();
+        discovery.registerImporter(new FileApiImporter(), jsonObject, ar -> {
+            if (ar.succeeded()) {
+                check1.set(true);
+            } else {
+                ar.cause().printStackTrace();
+                testContext.fail();
+            }
+        });
+        Awaitility.await().until(() -> check1.get());
+        testContext.assertEquals(2, discovery.snapshot().size());
+        testContext.assertNotNull(discovery.snapshot().definition("add_device"));
+        testContext.assertNotNull(discovery.snapshot().definition("update_device"));
+    }
 }
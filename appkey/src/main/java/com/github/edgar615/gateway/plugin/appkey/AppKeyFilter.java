@@ -5,6 +5,7 @@ import com.google.common.base.Strings;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
 import com.github.edgar615.gateway.core.dispatch.Filter;
 import com.github.edgar615.gateway.core.utils.Consts;
@@ -148,7 +149,12 @@ public class AppKeyFilter implements Filter {
 
     @Override
     public boolean shouldFilter(ApiContext apiContext) {
-        return apiContext.apiDefinition().plugin(AppKeyPlugin.class.getSimpleName()) != null;
+        return apiContext.apiDefinition().plugin(AppKeyPlugin.class) != null;
+    }
+
+    @Override
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.plugin(AppKeyPlugin.class) != null;
     }
 
     @Override
@@ -1,11 +1,11 @@
 package com.github.edgar615.gateway.plugin.appkey;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.gateway.core.rpc.RpcRequest;
 import com.github.edgar615.gateway.core.rpc.eventbus.EventbusRpcRequest;
 import com.github.edgar615.gateway.core.rpc.http.HttpRpcRequest;
-import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 
@@ -16,7 +16,7 @@ import java.util.Base64;
  * 在校验通过之后，将调用方信息base64编码后，加入到下游服务的请求头
  * x-client-appkey : base64编码的字符串
  */
-public class AppKeyHeaderFilter implements Filter {
+public class AppKeyHeaderFilter implements SyncFilter {
 
     private final Vertx vertx;
 
@@ -36,11 +36,16 @@ public class AppKeyHeaderFilter implements Filter {
 
     @Override
     public boolean shouldFilter(ApiContext apiContext) {
-        return apiContext.apiDefinition().plugin(AppKeyPlugin.class.getSimpleName()) != null;
+        return apiContext.apiDefinition().plugin(AppKeyPlugin.class) != null;
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.plugin(AppKeyPlugin.class) != null;
+    }
+
+    @Override
+    public ApiContext doFilter(ApiContext apiContext) {
         JsonObject appKeyJson = new JsonObject();
         appKeyJson.put("appKey", apiContext.variables().getOrDefault("client_appKey", "anonymous"));
         if (apiContext.variables().containsKey("client_appId")) {
@@ -66,7 +71,7 @@ public class AppKeyHeaderFilter implements Filter {
                 eventbusRpcRequest.addHeader("x-client-appkey", clientBase64);
             }
         }
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
 }
\ No newline at end of file
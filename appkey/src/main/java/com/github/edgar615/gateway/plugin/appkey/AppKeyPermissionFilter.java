@@ -2,13 +2,13 @@ package com.github.edgar615.gateway.plugin.appkey;
 
 import com.google.common.base.Splitter;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.gateway.core.plugin.scope.ScopePlugin;
 import com.github.edgar615.gateway.core.utils.Consts;
 import com.github.edgar615.util.exception.DefaultErrorCode;
 import com.github.edgar615.util.exception.SystemException;
-import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
@@ -27,7 +27,7 @@ import java.util.Set;
  * <p>
  * 该filter的order=1100
  */
-public class AppKeyPermissionFilter implements Filter {
+public class AppKeyPermissionFilter implements SyncFilter {
     private static final Logger LOGGER = LoggerFactory.getLogger(AppKeyPermissionFilter.class);
 
     private final Vertx vertx;
@@ -55,14 +55,18 @@ public class AppKeyPermissionFilter implements Filter {
 
     @Override
     public boolean shouldFilter(ApiContext apiContext) {
-        return apiContext.apiDefinition().plugin(ScopePlugin.class.getSimpleName()) != null
+        return apiContext.apiDefinition().plugin(ScopePlugin.class) != null
                && apiContext.variables().containsKey("client_appKey");
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
-        ScopePlugin plugin = (ScopePlugin) apiContext.apiDefinition()
-                .plugin(ScopePlugin.class.getSimpleName());
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.plugin(ScopePlugin.class) != null;
+    }
+
+    @Override
+    public ApiContext doFilter(ApiContext apiContext) {
+        ScopePlugin plugin = apiContext.apiDefinition().plugin(ScopePlugin.class);
         String permission = plugin.scope();
 
         Set<String> permissions = new HashSet<>();
@@ -82,13 +86,13 @@ public class AppKeyPermissionFilter implements Filter {
         }
         if (permissions.contains("all") || permissions.contains(permission)) {
             log(apiContext.id(), "ClientPermissionAdmitted");
-            completeFuture.complete(apiContext);
+            return apiContext;
         } else {
             SystemException ex = SystemException.create(DefaultErrorCode.PERMISSION_DENIED)
                     .setDetails("The appKey does not have permission")
                     .set("ClientPermissions", permissions)
                     .set("permission", permission);
-            failed(completeFuture, apiContext.id(), "AppKeyPermissionDenied", ex);
+            throw failed(apiContext.id(), "AppKeyPermissionDenied", ex);
         }
 
     }
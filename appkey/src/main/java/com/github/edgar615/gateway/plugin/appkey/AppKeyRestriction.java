@@ -91,4 +91,9 @@ public interface AppKeyRestriction extends ApiPlugin {
     default String name() {
         return AppKeyRestriction.class.getSimpleName();
     }
+
+    @Override
+    default boolean requiresJsonBody() {
+        return false;
+    }
 }
@@ -1,10 +1,9 @@
 package com.github.edgar615.gateway.plugin.appkey;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.util.exception.DefaultErrorCode;
 import com.github.edgar615.util.exception.SystemException;
-import io.vertx.core.Future;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
@@ -32,7 +31,7 @@ import java.util.List;
  * </pre>
  * Created by edgar on 16-12-24.
  */
-public class AppKeyRestrictionFilter implements Filter {
+public class AppKeyRestrictionFilter implements SyncFilter {
 
     private final List<String> globalBlacklist = new ArrayList<>();
 
@@ -68,14 +67,13 @@ public class AppKeyRestrictionFilter implements Filter {
         }
         return !globalBlacklist.isEmpty()
                || !globalWhitelist.isEmpty()
-               || apiContext.apiDefinition().plugin(AppKeyRestriction.class.getSimpleName())
+               || apiContext.apiDefinition().plugin(AppKeyRestriction.class)
                   != null;
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
-        AppKeyRestriction plugin = (AppKeyRestriction) apiContext.apiDefinition()
-                .plugin(AppKeyRestriction.class.getSimpleName());
+    public ApiContext doFilter(ApiContext apiContext) {
+        AppKeyRestriction plugin = apiContext.apiDefinition().plugin(AppKeyRestriction.class);
         List<String> blacklist = new ArrayList<>(globalBlacklist);
         List<String> whitelist = new ArrayList<>(globalWhitelist);
         if (plugin != null) {
@@ -85,17 +83,15 @@ public class AppKeyRestrictionFilter implements Filter {
         String appKey = (String) apiContext.variables().getOrDefault("client_appKey", "anonymous");
         //匹配到白名单则允许通过
         if (satisfyList(appKey, whitelist)) {
-            completeFuture.complete(apiContext);
-            return;
+            return apiContext;
         }
         //匹配到黑名单则禁止通过
         if (satisfyList(appKey, blacklist)) {
             SystemException e = SystemException.create(DefaultErrorCode.PERMISSION_DENIED)
                     .set("details", "The appKey is forbidden");
-            failed(completeFuture, apiContext.id(), "AppKeyForbidden", e);
-            return;
+            throw failed(apiContext.id(), "AppKeyForbidden", e);
         }
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
     private boolean satisfyList(String appKey, List<String> list) {
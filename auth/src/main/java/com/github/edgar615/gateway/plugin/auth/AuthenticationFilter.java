@@ -2,6 +2,7 @@ package com.github.edgar615.gateway.plugin.auth;
 
 import com.google.common.base.Strings;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
 import com.github.edgar615.gateway.core.dispatch.Filter;
 import com.github.edgar615.gateway.core.utils.Consts;
@@ -60,10 +61,15 @@ public class AuthenticationFilter implements Filter {
     @Override
     public boolean shouldFilter(ApiContext apiContext) {
         return apiContext.apiDefinition()
-                       .plugin(AuthenticationPlugin.class.getSimpleName()) != null
+                       .plugin(AuthenticationPlugin.class) != null
                && apiContext.principal() == null;
     }
 
+    @Override
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.plugin(AuthenticationPlugin.class) != null;
+    }
+
     @Override
     public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
         try {
@@ -22,6 +22,11 @@ public class AuthenticationPlugin implements ApiPlugin {
         return AuthenticationPlugin.class.getSimpleName();
     }
 
+    @Override
+    public boolean requiresJsonBody() {
+        return false;
+    }
+
 
     @Override
     public String toString() {
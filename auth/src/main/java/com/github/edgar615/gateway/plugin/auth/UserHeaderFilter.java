@@ -1,11 +1,10 @@
 package com.github.edgar615.gateway.plugin.auth;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.gateway.core.rpc.RpcRequest;
 import com.github.edgar615.gateway.core.rpc.eventbus.EventbusRpcRequest;
 import com.github.edgar615.gateway.core.rpc.http.HttpRpcRequest;
-import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 
@@ -15,7 +14,7 @@ import java.util.Base64;
  * 在校验通过之后，将调用方信息base64编码后，加入到下游服务的请求头
  * x-client-appkey : base64编码的字符串
  */
-public class UserHeaderFilter implements Filter {
+public class UserHeaderFilter implements SyncFilter {
 
     private final Vertx vertx;
 
@@ -39,7 +38,7 @@ public class UserHeaderFilter implements Filter {
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+    public ApiContext doFilter(ApiContext apiContext) {
         String principalBase64 =
                 Base64.getEncoder().encodeToString(apiContext.principal().encode().getBytes());
         for (RpcRequest rpcRequest : apiContext.requests()) {
@@ -52,7 +51,7 @@ public class UserHeaderFilter implements Filter {
                 eventbusRpcRequest.addHeader("x-client-principal", principalBase64);
             }
         }
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.github.edgar615.gateway.plugin.auth;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
 import com.github.edgar615.gateway.core.dispatch.Filter;
 import com.github.edgar615.gateway.core.utils.Consts;
@@ -72,10 +73,15 @@ public class UserLoaderFilter implements Filter {
             return false;
         }
         return apiContext.apiDefinition()
-                       .plugin(UserLoaderPlugin.class.getSimpleName()) != null
+                       .plugin(UserLoaderPlugin.class) != null
                && apiContext.principal().containsKey(userKey);
     }
 
+    @Override
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.plugin(UserLoaderPlugin.class) != null;
+    }
+
     @Override
     public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
         Object userId = apiContext.principal().getValue(userKey);
@@ -22,6 +22,11 @@ public class UserLoaderPlugin implements ApiPlugin {
         return UserLoaderPlugin.class.getSimpleName();
     }
 
+    @Override
+    public boolean requiresJsonBody() {
+        return false;
+    }
+
 
     @Override
     public String toString() {
@@ -2,12 +2,12 @@ package com.github.edgar615.gateway.plugin.auth;
 
 import com.google.common.base.Splitter;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.gateway.core.plugin.scope.ScopePlugin;
 import com.github.edgar615.util.exception.DefaultErrorCode;
 import com.github.edgar615.util.exception.SystemException;
-import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import org.slf4j.Logger;
@@ -25,7 +25,7 @@ import java.util.Set;
  * <p>
  * 该filter的order=1100
  */
-public class UserPermissionFilter implements Filter {
+public class UserPermissionFilter implements SyncFilter {
     private static final Logger LOGGER = LoggerFactory.getLogger(UserPermissionFilter.class);
 
     UserPermissionFilter(Vertx vertx, JsonObject config) {
@@ -43,14 +43,18 @@ public class UserPermissionFilter implements Filter {
 
     @Override
     public boolean shouldFilter(ApiContext apiContext) {
-        return apiContext.apiDefinition().plugin(ScopePlugin.class.getSimpleName()) != null
+        return apiContext.apiDefinition().plugin(ScopePlugin.class) != null
                && apiContext.principal() != null;
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
-        ScopePlugin plugin = (ScopePlugin) apiContext.apiDefinition()
-                .plugin(ScopePlugin.class.getSimpleName());
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.plugin(ScopePlugin.class) != null;
+    }
+
+    @Override
+    public ApiContext doFilter(ApiContext apiContext) {
+        ScopePlugin plugin = apiContext.apiDefinition().plugin(ScopePlugin.class);
         String appScope = plugin.scope();
 
         Set<String> permissions = new HashSet<>();
@@ -64,11 +68,11 @@ public class UserPermissionFilter implements Filter {
 
         if (permissions.contains("all") || permissions.contains(appScope)) {
             log(apiContext.id(), "UserPermissionAdmitted");
-            completeFuture.complete(apiContext);
+            return apiContext;
         } else {
             SystemException ex = SystemException.create(DefaultErrorCode.PERMISSION_DENIED)
                     .set("details", "User does not have permission");
-            failed(completeFuture, apiContext.id(), "UserPermissionDenied", ex);
+            throw failed(apiContext.id(), "UserPermissionDenied", ex);
         }
 
     }
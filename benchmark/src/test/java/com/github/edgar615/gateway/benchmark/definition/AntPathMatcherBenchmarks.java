@@ -0,0 +1,71 @@
+package com.github.edgar615.gateway.benchmark.definition;
+
+import com.github.edgar615.gateway.core.utils.AntPathMatcher;
+import com.github.edgar615.gateway.core.utils.AntPathPattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比较AntPathMatcher与预编译的AntPathPattern.
+ *
+ * @author Edgar  Date 2018/12/6
+ */
+@State(Scope.Benchmark)
+public class AntPathMatcherBenchmarks {
+
+    @Param({"/devices/**", "/**/alie", "/trip/api/*x"})
+    private String pattern;
+
+    private String path = "/devices/1234567/trip/api/alie";
+
+    private AntPathPattern antPathPattern;
+
+    @Setup
+    public void setup() {
+        antPathPattern = AntPathPattern.compile(pattern);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Fork(1)
+    public boolean testMatcher() {
+        AntPathMatcher matcher = new AntPathMatcher.Builder().build();
+        return matcher.isMatch(pattern, path);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Fork(1)
+    public boolean testPattern() {
+        return antPathPattern.isMatch(path);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Fork(1)
+    public String testMatcherExtract() {
+        AntPathMatcher matcher = new AntPathMatcher.Builder().build();
+        return matcher.extractPathWithinPattern(pattern, path);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Fork(1)
+    public String testPatternExtract() {
+        return antPathPattern.extractPathWithinPattern(path);
+    }
+
+}
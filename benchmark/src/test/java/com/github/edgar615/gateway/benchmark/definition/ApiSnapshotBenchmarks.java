@@ -0,0 +1,80 @@
+package com.github.edgar615.gateway.benchmark.definition;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.gateway.core.definition.ApiDefinitionBinaryCodec;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比较启动时从JSON和从二进制快照中恢复API的耗时.
+ *
+ * @author Edgar  Date 2018/12/10
+ */
+@State(Scope.Benchmark)
+public class ApiSnapshotBenchmarks {
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    private List<String> jsonList;
+
+    private byte[] snapshot;
+
+    @Setup
+    public void setup() {
+        jsonList = new ArrayList<>(size);
+        List<ApiDefinition> definitions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            JsonObject jsonObject = new JsonObject()
+                    .put("name", "device.get." + i)
+                    .put("method", "GET")
+                    .put("path", "/devices/" + i)
+                    .put("order", i % 10)
+                    .put("scope", "device:read")
+                    .put("endpoints", new JsonArray().add(new JsonObject()
+                                                                  .put("type", "simple-http")
+                                                                  .put("name", "default")
+                                                                  .put("host", "localhost")
+                                                                  .put("port", 8080)
+                                                                  .put("path", "/devices/" + i)));
+            jsonList.add(jsonObject.encode());
+            definitions.add(ApiDefinition.fromJson(jsonObject));
+        }
+        snapshot = ApiDefinitionBinaryCodec.encode(1, definitions).getBytes();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public List<ApiDefinition> testJson() {
+        List<ApiDefinition> definitions = new ArrayList<>(jsonList.size());
+        for (String json : jsonList) {
+            definitions.add(ApiDefinition.fromJson(new JsonObject(json)));
+        }
+        return definitions;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public List<ApiDefinition> testSnapshot() {
+        return ApiDefinitionBinaryCodec.decode(ByteBuffer.wrap(snapshot));
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.github.edgar615.gateway.dispatch;
+
+import com.google.common.collect.Lists;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.gateway.core.definition.SimpleHttpEndpoint;
+import com.github.edgar615.gateway.core.dispatch.ApiContext;
+import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.utils.Filters;
+import com.github.edgar615.util.vertx.task.Task;
+import io.vertx.core.Future;
+import io.vertx.core.http.HttpMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比较每个请求遍历所有filter（Filters.doFilter）和按照API的执行计划（FilterPlan）跳过filter的吞吐量.
+ * <p>
+ * 模拟网关中的filter：只有少数filter对所有API生效，其他的filter依赖API上的插件.
+ * 放在dispatch包中是为了直接使用FilterChain.
+ *
+ * @author Edgar  Date 2018/12/14
+ */
+@State(Scope.Benchmark)
+public class FilterPlanBenchmarks {
+
+    @Param({"25"})
+    private int pluginFilters;
+
+    private Filter[] filters;
+
+    private FilterChain filterChain;
+
+    private ApiDefinition apiDefinition;
+
+    @Setup
+    public void setup() {
+        List<Filter> filterList = new ArrayList<>();
+        for (int i = 0; i < pluginFilters; i++) {
+            filterList.add(new PluginFilter("plugin" + i, i));
+        }
+        filterList.add(new PluginFilter(null, pluginFilters));
+        filterList.add(new PluginFilter(null, pluginFilters + 1));
+        filterList.add(new PluginFilter(null, pluginFilters + 2));
+        Filters.sort(filterList);
+        filters = filterList.toArray(new Filter[filterList.size()]);
+        filterChain = new FilterChain(filters, () -> 1);
+        apiDefinition = ApiDefinition.create("device.get", HttpMethod.GET, "/devices",
+                                             Lists.newArrayList(SimpleHttpEndpoint
+                                                                        .http("device.get",
+                                                                              HttpMethod.GET,
+                                                                              "/devices", 80,
+                                                                              "localhost")));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public ApiContext testTask() {
+        Task<ApiContext> task = Task.create();
+        task.complete(apiContext());
+        ApiContext[] result = new ApiContext[1];
+        Filters.doFilter(task, Arrays.asList(filters))
+                .andThen(apiContext -> result[0] = apiContext);
+        return result[0];
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Fork(1)
+    public ApiContext testPlan() {
+        ApiContext[] result = new ApiContext[1];
+        filterChain.execute(apiContext(), apiContext -> {
+        }, ar -> result[0] = ar.result());
+        return result[0];
+    }
+
+    private ApiContext apiContext() {
+        ApiContext apiContext = ApiContext.create(HttpMethod.GET, "/devices", null, null, null);
+        apiContext.setApiDefinition(apiDefinition);
+        return apiContext;
+    }
+
+    private static class PluginFilter implements Filter {
+
+        private final String plugin;
+
+        private final int order;
+
+        private PluginFilter(String plugin, int order) {
+            this.plugin = plugin;
+            this.order = order;
+        }
+
+        @Override
+        public String type() {
+            return PRE;
+        }
+
+        @Override
+        public int order() {
+            return order;
+        }
+
+        @Override
+        public boolean shouldFilter(ApiContext apiContext) {
+            return supports(apiContext.apiDefinition());
+        }
+
+        @Override
+        public boolean supports(ApiDefinition apiDefinition) {
+            return plugin == null || apiDefinition.plugin(plugin) != null;
+        }
+
+        @Override
+        public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+            completeFuture.complete(apiContext);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.github.edgar615.gateway.dispatch;
+
+import com.google.common.collect.Lists;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.gateway.core.definition.SimpleHttpEndpoint;
+import com.github.edgar615.gateway.core.dispatch.ApiContext;
+import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
+import com.github.edgar615.gateway.core.metric.FilterMetrics;
+import com.github.edgar615.gateway.core.utils.Filters;
+import com.github.edgar615.util.vertx.task.Task;
+import io.vertx.core.Future;
+import io.vertx.core.http.HttpMethod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比较同步filter通过Future/Task执行和通过SyncFilter在循环中直接执行的延迟.
+ * <p>
+ * 每个请求执行syncFilters个同步filter和2个异步filter（异步filter直接完成，只计算Future的开销）.
+ * <ul>
+ * <li>testTask：Filters.doFilter，每个filter都经过Task</li>
+ * <li>testFuture：FilterChain，所有的filter都实现Filter，每个filter创建一个Future</li>
+ * <li>testSync：FilterChain，同步filter实现SyncFilter，只有异步filter创建Future</li>
+ * <li>testSyncWithMetrics：与testSync相同，同时记录每个filter的统计（FilterMetrics）</li>
+ * </ul>
+ * SampleTime模式会输出p99等百分位，使用-prof gc运行可以查看每个请求分配的内存（gc.alloc.rate.norm）.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+@State(Scope.Benchmark)
+public class SyncFilterBenchmarks {
+
+    @Param({"20"})
+    private int syncFilters;
+
+    private Filter[] asyncFilters;
+
+    private FilterChain futureChain;
+
+    private FilterChain syncChain;
+
+    private FilterChain metricsChain;
+
+    private ApiDefinition apiDefinition;
+
+    @Setup
+    public void setup() {
+        asyncFilters = new Filter[syncFilters + 2];
+        Filter[] mixedFilters = new Filter[syncFilters + 2];
+        for (int i = 0; i < syncFilters; i++) {
+            asyncFilters[i] = new AsyncFilter(i);
+            mixedFilters[i] = new InlineFilter(i);
+        }
+        for (int i = syncFilters; i < syncFilters + 2; i++) {
+            asyncFilters[i] = new AsyncFilter(i);
+            mixedFilters[i] = new AsyncFilter(i);
+        }
+        futureChain = new FilterChain(asyncFilters, () -> 1);
+        syncChain = new FilterChain(mixedFilters, () -> 1);
+        metricsChain = new FilterChain(mixedFilters, () -> 1, new FilterMetrics());
+        apiDefinition = ApiDefinition.create("device.get", HttpMethod.GET, "/devices",
+                                             Lists.newArrayList(SimpleHttpEndpoint
+                                                                        .http("device.get",
+                                                                              HttpMethod.GET,
+                                                                              "/devices", 80,
+                                                                              "localhost")));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Fork(1)
+    public ApiContext testTask() {
+        Task<ApiContext> task = Task.create();
+        task.complete(apiContext());
+        ApiContext[] result = new ApiContext[1];
+        Filters.doFilter(task, Arrays.asList(asyncFilters))
+                .andThen(apiContext -> result[0] = apiContext);
+        return result[0];
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Fork(1)
+    public ApiContext testFuture() {
+        return execute(futureChain);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Fork(1)
+    public ApiContext testSync() {
+        return execute(syncChain);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Fork(1)
+    public ApiContext testSyncWithMetrics() {
+        return execute(metricsChain);
+    }
+
+    private ApiContext execute(FilterChain filterChain) {
+        ApiContext[] result = new ApiContext[1];
+        filterChain.execute(apiContext(), apiContext -> {
+        }, ar -> result[0] = ar.result());
+        return result[0];
+    }
+
+    private ApiContext apiContext() {
+        ApiContext apiContext = ApiContext.create(HttpMethod.GET, "/devices", null, null, null);
+        apiContext.setApiDefinition(apiDefinition);
+        return apiContext;
+    }
+
+    private static class AsyncFilter implements Filter {
+
+        private final int order;
+
+        private AsyncFilter(int order) {
+            this.order = order;
+        }
+
+        @Override
+        public String type() {
+            return PRE;
+        }
+
+        @Override
+        public int order() {
+            return order;
+        }
+
+        @Override
+        public boolean shouldFilter(ApiContext apiContext) {
+            return true;
+        }
+
+        @Override
+        public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+            apiContext.addVariable("order", order);
+            completeFuture.complete(apiContext);
+        }
+    }
+
+    private static class InlineFilter implements SyncFilter {
+
+        private final int order;
+
+        private InlineFilter(int order) {
+            this.order = order;
+        }
+
+        @Override
+        public String type() {
+            return PRE;
+        }
+
+        @Override
+        public int order() {
+            return order;
+        }
+
+        @Override
+        public boolean shouldFilter(ApiContext apiContext) {
+            return true;
+        }
+
+        @Override
+        public ApiContext doFilter(ApiContext apiContext) {
+            apiContext.addVariable("order", order);
+            return apiContext;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.edgar615.gateway.circuitbreaker;
+
+import com.github.edgar615.gateway.core.metric.PrometheusCollector;
+import com.github.edgar615.gateway.core.metric.PrometheusWriter;
+import io.vertx.circuitbreaker.CircuitBreaker;
+import io.vertx.circuitbreaker.CircuitBreakerState;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 输出断路器的状态.
+ * <p>
+ * 每个DispatchHandler都有自己的断路器注册表，同名的断路器按状态计数：
+ * gateway_circuit_breaker_state{name="...",state="open"}表示处于打开状态的断路器数量.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public class CircuitBreakerCollector implements PrometheusCollector {
+
+    private static final CircuitBreakerState[] STATES = CircuitBreakerState.values();
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        //断路器名称 -> 每个状态的数量，最后一个元素是失败次数
+        Map<String, long[]> states = new TreeMap<>();
+        for (CircuitBreaker circuitBreaker : CircuitBreakerRegistryImpl.circuitBreakers()) {
+            long[] counts = states.computeIfAbsent(circuitBreaker.name(),
+                                                   k -> new long[STATES.length + 1]);
+            counts[circuitBreaker.state().ordinal()]++;
+            counts[STATES.length] += circuitBreaker.failureCount();
+        }
+
+        writer.family("gateway_circuit_breaker_state", PrometheusWriter.GAUGE,
+                      "Circuit breakers in each state");
+        states.forEach((name, counts) -> {
+            for (CircuitBreakerState state : STATES) {
+                writer.sample("gateway_circuit_breaker_state", counts[state.ordinal()],
+                              "name", name, "state", state.name().toLowerCase());
+            }
+        });
+
+        writer.family("gateway_circuit_breaker_failures", PrometheusWriter.GAUGE,
+                      "Recent failures recorded by circuit breakers");
+        states.forEach((name, counts) -> writer.sample("gateway_circuit_breaker_failures",
+                                                       counts[STATES.length], "name", name));
+    }
+}
@@ -11,12 +11,18 @@ import io.vertx.core.json.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 /**
  * 断路器的注册类.
  * 内部使用个Guava Cache来实现，使用expireAfterAccess来设置过期策略。
+ * 创建的注册表保存在一个弱引用的集合中，用于输出断路器的状态.
  *
  * @author Edgar  Date 2017/8/1
  */
@@ -25,6 +31,12 @@ class CircuitBreakerRegistryImpl implements CircuitBreakerRegistry {
     private static final Logger LOGGER
             = LoggerFactory.getLogger(CircuitBreakerRegistry.class.getSimpleName());
 
+    /**
+     * 所有的注册表，只用于输出度量值
+     */
+    private static final Set<CircuitBreakerRegistryImpl> REGISTRIES =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
     private final Vertx vertx;
 
     private final LoadingCache<String, CircuitBreaker> cache;
@@ -42,6 +54,20 @@ class CircuitBreakerRegistryImpl implements CircuitBreakerRegistry {
                         return create(circuitBreakerName);
                     }
                 });
+        REGISTRIES.add(this);
+    }
+
+    /**
+     * @return 所有注册表中的断路器
+     */
+    static List<CircuitBreaker> circuitBreakers() {
+        List<CircuitBreaker> circuitBreakers = new ArrayList<>();
+        synchronized (REGISTRIES) {
+            for (CircuitBreakerRegistryImpl registry : REGISTRIES) {
+                circuitBreakers.addAll(registry.cache.asMap().values());
+            }
+        }
+        return circuitBreakers;
     }
 
     @Override
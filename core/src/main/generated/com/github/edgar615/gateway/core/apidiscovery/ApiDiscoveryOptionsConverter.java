@@ -27,24 +27,52 @@ import io.vertx.core.json.JsonArray;
 public class ApiDiscoveryOptionsConverter {
 
   public static void fromJson(JsonObject json, ApiDiscoveryOptions obj) {
+    if (json.getValue("changeBatchInterval") instanceof Number) {
+      obj.setChangeBatchInterval(((Number)json.getValue("changeBatchInterval")).longValue());
+    }
+    if (json.getValue("changedAddress") instanceof String) {
+      obj.setChangedAddress((String)json.getValue("changedAddress"));
+    }
+    if (json.getValue("deltaEvents") instanceof Boolean) {
+      obj.setDeltaEvents((Boolean)json.getValue("deltaEvents"));
+    }
     if (json.getValue("name") instanceof String) {
       obj.setName((String)json.getValue("name"));
     }
     if (json.getValue("publishedAddress") instanceof String) {
       obj.setPublishedAddress((String)json.getValue("publishedAddress"));
     }
+    if (json.getValue("resolutionCacheSize") instanceof Number) {
+      obj.setResolutionCacheSize(((Number)json.getValue("resolutionCacheSize")).intValue());
+    }
+    if (json.getValue("restoreTimeout") instanceof Number) {
+      obj.setRestoreTimeout(((Number)json.getValue("restoreTimeout")).longValue());
+    }
+    if (json.getValue("snapshotPath") instanceof String) {
+      obj.setSnapshotPath((String)json.getValue("snapshotPath"));
+    }
     if (json.getValue("unpublishedAddress") instanceof String) {
       obj.setUnpublishedAddress((String)json.getValue("unpublishedAddress"));
     }
   }
 
   public static void toJson(ApiDiscoveryOptions obj, JsonObject json) {
+    json.put("changeBatchInterval", obj.getChangeBatchInterval());
+    if (obj.getChangedAddress() != null) {
+      json.put("changedAddress", obj.getChangedAddress());
+    }
+    json.put("deltaEvents", obj.isDeltaEvents());
     if (obj.getName() != null) {
       json.put("name", obj.getName());
     }
     if (obj.getPublishedAddress() != null) {
       json.put("publishedAddress", obj.getPublishedAddress());
     }
+    json.put("resolutionCacheSize", obj.getResolutionCacheSize());
+    json.put("restoreTimeout", obj.getRestoreTimeout());
+    if (obj.getSnapshotPath() != null) {
+      json.put("snapshotPath", obj.getSnapshotPath());
+    }
     if (obj.getUnpublishedAddress() != null) {
       json.put("unpublishedAddress", obj.getUnpublishedAddress());
     }
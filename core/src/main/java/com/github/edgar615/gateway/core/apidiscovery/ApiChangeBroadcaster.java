@@ -0,0 +1,374 @@
+package com.github.edgar615.gateway.core.apidiscovery;
+
+import com.google.common.hash.Hashing;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 增量事件的发送和接收.
+ * <p>
+ * ApiDiscovery的实例很多（每个filter、命令都会创建），所以发送方的地址、合并事件的缓冲区和订阅都放在这个类中，
+ * 同一个Vertx的同一个changedAddress只有一个实例，保存在LocalMap中.
+ * 每个ApiDiscovery通过get获取实例时增加引用计数，ApiDiscovery.close()时通过release减少，
+ * 最后一个引用释放时注销订阅、取消未发送的事件.
+ * 事件总线的订阅注册在第一次获取实例的调用方的Context上，这个verticle卸载之前需要关闭它创建的ApiDiscovery.
+ * <ul>
+ * <li>发送：按照changeBatchInterval合并事件，间隔内的多次修改只发送一个ApiChangeEvent</li>
+ * <li>拉取：在source地址上根据API名称返回本地注册表中的API</li>
+ * <li>订阅：比较事件中的hash和本地API的hash，只拉取不同的API，接收的API直接写入本地注册表，不会再次广播</li>
+ * </ul>
+ *
+ * @author Edgar  Date 2018/12/13
+ */
+class ApiChangeBroadcaster implements Shareable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApiDiscovery.class);
+
+    private static final String MAP_NAME = "api-change-broadcaster";
+
+    /**
+     * 拉取API的最大次数
+     */
+    private static final int FETCH_ATTEMPTS = 3;
+
+    /**
+     * 拉取失败后重试的间隔，每次重试递增
+     */
+    private static final long FETCH_RETRY_DELAY = 1000;
+
+    private final Vertx vertx;
+
+    private final String changedAddress;
+
+    private final ApiDefinitionBackend backend;
+
+    /**
+     * 其他节点拉取API的地址
+     */
+    private final String source;
+
+    /**
+     * 每个发送方最后成功处理的注册表版本号，用来丢弃乱序的事件
+     */
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+    /**
+     * 等待发送的事件
+     */
+    private ApiChangeEvent pending;
+
+    private long timerId = -1;
+
+    private boolean subscribed;
+
+    private boolean closed;
+
+    /**
+     * 引用计数，只在LocalMap的锁内修改
+     */
+    private int references;
+
+    private final MessageConsumer<JsonArray> fetcher;
+
+    private volatile MessageConsumer<JsonObject> subscriber;
+
+    private ApiChangeBroadcaster(Vertx vertx, String changedAddress,
+                                 ApiDefinitionBackend backend) {
+        this.vertx = vertx;
+        this.changedAddress = changedAddress;
+        this.backend = backend;
+        this.source = changedAddress + "." + UUID.randomUUID().toString();
+        this.fetcher = vertx.eventBus().consumer(source, this::fetch);
+    }
+
+    static ApiChangeBroadcaster get(Vertx vertx, String changedAddress,
+                                    ApiDefinitionBackend backend) {
+        LocalMap<String, ApiChangeBroadcaster> broadcasters =
+                vertx.sharedData().getLocalMap(MAP_NAME);
+        synchronized (broadcasters) {
+            ApiChangeBroadcaster broadcaster = broadcasters.get(changedAddress);
+            if (broadcaster == null) {
+                broadcaster = new ApiChangeBroadcaster(vertx, changedAddress, backend);
+                broadcasters.put(changedAddress, broadcaster);
+            }
+            broadcaster.references++;
+            return broadcaster;
+        }
+    }
+
+    /**
+     * 释放get返回的实例，最后一个引用释放时关闭.
+     */
+    void release() {
+        LocalMap<String, ApiChangeBroadcaster> broadcasters =
+                vertx.sharedData().getLocalMap(MAP_NAME);
+        synchronized (broadcasters) {
+            if (references <= 0 || --references > 0) {
+                return;
+            }
+            broadcasters.removeIfPresent(changedAddress, this);
+        }
+        close();
+    }
+
+    /**
+     * 计算API内容的hash.
+     * <p>
+     * 插件的属性按插件的顺序合并到JSON中，而解码后插件的顺序可能不同，所以所有的key排序之后再计算.
+     *
+     * @param definition API
+     * @return hash
+     */
+    static String hash(ApiDefinition definition) {
+        return Hashing.murmur3_128()
+                .hashString(canonical(definition.toJson()).encode(), StandardCharsets.UTF_8)
+                .toString();
+    }
+
+    /**
+     * 按key排序的JsonObject，数组的顺序保持不变.
+     */
+    static JsonObject canonical(JsonObject jsonObject) {
+        JsonObject sorted = new JsonObject();
+        new TreeSet<>(jsonObject.fieldNames())
+                .forEach(key -> sorted.put(key, canonical(jsonObject.getValue(key))));
+        return sorted;
+    }
+
+    private static Object canonical(Object value) {
+        if (value instanceof JsonObject) {
+            return canonical((JsonObject) value);
+        }
+        if (value instanceof JsonArray) {
+            JsonArray array = new JsonArray();
+            ((JsonArray) value).forEach(item -> array.add(canonical(item)));
+            return array;
+        }
+        return value;
+    }
+
+    String source() {
+        return source;
+    }
+
+    /**
+     * 发送事件.
+     *
+     * @param event         事件，需要包含hash
+     * @param batchInterval 合并事件的时间间隔，小于等于0时立即发送
+     */
+    void publish(ApiChangeEvent event, long batchInterval) {
+        ApiChangeEvent sending;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (pending == null && batchInterval > 0) {
+                timerId = vertx.setTimer(batchInterval, l -> flush());
+            }
+            pending = pending == null ? event : pending.merge(event);
+            if (batchInterval > 0) {
+                return;
+            }
+            sending = pending;
+            pending = null;
+        }
+        send(sending);
+    }
+
+    private void flush() {
+        ApiChangeEvent sending;
+        synchronized (this) {
+            sending = pending;
+            pending = null;
+            timerId = -1;
+        }
+        if (sending != null) {
+            send(sending);
+        }
+    }
+
+    private void send(ApiChangeEvent event) {
+        LOGGER.info("[ApiDiscovery] [changed] {}", event);
+        vertx.eventBus().publish(changedAddress, event.toJson());
+    }
+
+    /**
+     * 订阅其他节点的增量事件，重复订阅直接返回成功.
+     *
+     * @param appliedHandler    本地注册表修改之后的回调，在订阅方的Context上调用
+     * @param completionHandler 订阅完成的回调，在调用方的Context上调用
+     */
+    void subscribe(Handler<ApiChangeEvent> appliedHandler,
+                   Handler<AsyncResult<Void>> completionHandler) {
+        synchronized (this) {
+            if (closed) {
+                completionHandler.handle(Future.failedFuture("broadcaster closed"));
+                return;
+            }
+            if (subscribed) {
+                completionHandler.handle(Future.succeededFuture());
+                return;
+            }
+            subscribed = true;
+        }
+        Context caller = vertx.getOrCreateContext();
+        subscriber = vertx.eventBus().consumer(changedAddress, msg -> {
+            try {
+                apply(ApiChangeEvent.fromJson(msg.body()), appliedHandler);
+            } catch (Exception e) {
+                LOGGER.error("[ApiDiscovery] [applyChange] {}", msg.body(), e);
+            }
+        });
+        subscriber.completionHandler(
+                ar -> caller.runOnContext(c -> completionHandler.handle(ar)));
+    }
+
+    private void apply(ApiChangeEvent event, Handler<ApiChangeEvent> appliedHandler) {
+        //本节点发送的事件和没有hash的批量导入事件不需要处理
+        if (event.source() == null || source.equals(event.source())) {
+            return;
+        }
+        Long last = generations.get(event.source());
+        if (last != null && last >= event.generation()) {
+            return;
+        }
+
+        ApiRegistrySnapshot snapshot = backend.snapshot();
+        List<String> removed = new ArrayList<>();
+        for (String name : event.removed()) {
+            if (snapshot.definition(name) != null) {
+                removed.add(name);
+            }
+        }
+        if (!removed.isEmpty()) {
+            backend.removeAll(removed, ar -> applied(ar, appliedHandler));
+        }
+        fetch(event, appliedHandler, 1);
+    }
+
+    /**
+     * 拉取hash与本地不同的API.
+     * <p>
+     * 只有写入本地注册表之后才记录发送方的版本号，拉取失败时按递增的间隔重试，重试时重新比较hash，
+     * 拉取到的总是发送方当前的API，所以重试不会覆盖更新的修改.
+     */
+    private void fetch(ApiChangeEvent event, Handler<ApiChangeEvent> appliedHandler, int attempt) {
+        ApiRegistrySnapshot snapshot = backend.snapshot();
+        JsonArray changed = new JsonArray();
+        event.hashes().forEach((name, hash) -> {
+            if (!Objects.equals(snapshot.hash(name), hash)) {
+                changed.add(name);
+            }
+        });
+        LOGGER.info("[ApiDiscovery] [applyChange] {source:{}, generation:{}, fetch:{}, attempt:{}}",
+                    event.source(), event.generation(), changed.size(), attempt);
+        if (changed.isEmpty()) {
+            received(event);
+            return;
+        }
+        vertx.eventBus().<JsonArray>send(event.source(), changed, ar -> {
+            if (ar.failed()) {
+                retry(event, appliedHandler, attempt, ar.cause());
+                return;
+            }
+            List<ApiDefinition> definitions = new ArrayList<>();
+            JsonArray body = ar.result().body();
+            for (int i = 0; i < body.size(); i++) {
+                definitions.add(ApiDefinition.fromJson(body.getJsonObject(i)));
+            }
+            backend.storeAll(definitions, false, sar -> {
+                if (sar.failed()) {
+                    retry(event, appliedHandler, attempt, sar.cause());
+                    return;
+                }
+                received(event);
+                applied(sar, appliedHandler);
+            });
+        });
+    }
+
+    private void retry(ApiChangeEvent event, Handler<ApiChangeEvent> appliedHandler, int attempt,
+                       Throwable cause) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+        }
+        if (attempt >= FETCH_ATTEMPTS) {
+            LOGGER.error("[ApiDiscovery] [fetch] {source:{}, generation:{}, attempt:{}}",
+                         event.source(), event.generation(), attempt, cause);
+            return;
+        }
+        LOGGER.warn("[ApiDiscovery] [fetch] {source:{}, generation:{}, attempt:{}, cause:{}}",
+                    event.source(), event.generation(), attempt, cause.getMessage());
+        vertx.setTimer(FETCH_RETRY_DELAY * attempt,
+                       l -> fetch(event, appliedHandler, attempt + 1));
+    }
+
+    private void received(ApiChangeEvent event) {
+        generations.merge(event.source(), event.generation(), Math::max);
+    }
+
+    private void applied(AsyncResult<ApiChangeEvent> ar, Handler<ApiChangeEvent> appliedHandler) {
+        if (ar.succeeded() && !ar.result().isEmpty()) {
+            appliedHandler.handle(ar.result());
+        }
+    }
+
+    /**
+     * 注销订阅并丢弃未发送的事件.
+     */
+    private void close() {
+        synchronized (this) {
+            closed = true;
+            pending = null;
+            if (timerId >= 0) {
+                vertx.cancelTimer(timerId);
+                timerId = -1;
+            }
+        }
+        for (MessageConsumer<?> consumer : new MessageConsumer<?>[]{fetcher, subscriber}) {
+            if (consumer != null) {
+                consumer.unregister();
+            }
+        }
+    }
+
+    /**
+     * 返回本地注册表中的API，不存在的API直接忽略.
+     */
+    private void fetch(Message<JsonArray> msg) {
+        ApiRegistrySnapshot snapshot = backend.snapshot();
+        JsonArray definitions = new JsonArray();
+        for (int i = 0; i < msg.body().size(); i++) {
+            ApiDefinition definition = snapshot.definition(msg.body().getString(i));
+            if (definition != null) {
+                definitions.add(definition.toJson());
+            }
+        }
+        msg.reply(definitions);
+    }
+}
@@ -0,0 +1,209 @@
+package com.github.edgar615.gateway.core.apidiscovery;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 批量修改注册表后发送的事件.
+ * <p>
+ * 单个发布API时会在事件总线上广播整个API的JSON，批量导入上万个API时会产生上万次广播.
+ * 批量修改只发送一个事件，事件中只包含新增、修改和删除的API名称以及修改后的注册表版本号，需要API详情的接收方可以从注册表中读取.
+ * <p>
+ * 开启ApiDiscoveryOptions.deltaEvents后，单个API的发布和删除也使用这个事件，并且带上API内容的hash和发送方的地址，
+ * 集群中的其他节点比较本地API的hash，只在hash不同时才向发送方拉取API.
+ *
+ * @author Edgar  Date 2018/12/8
+ */
+public class ApiChangeEvent {
+
+    private final long generation;
+
+    private final List<String> added;
+
+    private final List<String> updated;
+
+    private final List<String> removed;
+
+    /**
+     * 新增和修改的API内容的hash
+     */
+    private final Map<String, String> hashes;
+
+    /**
+     * 拉取API的地址
+     */
+    private final String source;
+
+    ApiChangeEvent(long generation, Collection<String> added, Collection<String> updated,
+                   Collection<String> removed) {
+        this(generation, added, updated, removed, ImmutableMap.of(), null);
+    }
+
+    ApiChangeEvent(long generation, Collection<String> added, Collection<String> updated,
+                   Collection<String> removed, Map<String, String> hashes, String source) {
+        this.generation = generation;
+        this.added = ImmutableList.copyOf(added);
+        this.updated = ImmutableList.copyOf(updated);
+        this.removed = ImmutableList.copyOf(removed);
+        this.hashes = ImmutableMap.copyOf(hashes);
+        this.source = source;
+    }
+
+    public static ApiChangeEvent fromJson(JsonObject jsonObject) {
+        Map<String, String> hashes = new HashMap<>();
+        JsonObject hashJson = jsonObject.getJsonObject("hashes", new JsonObject());
+        for (String name : hashJson.fieldNames()) {
+            hashes.put(name, hashJson.getString(name));
+        }
+        return new ApiChangeEvent(jsonObject.getLong("generation", 0L),
+                                  names(jsonObject.getJsonArray("added")),
+                                  names(jsonObject.getJsonArray("updated")),
+                                  names(jsonObject.getJsonArray("removed")),
+                                  hashes, jsonObject.getString("source"));
+    }
+
+    private static List<String> names(JsonArray jsonArray) {
+        List<String> names = new ArrayList<>();
+        if (jsonArray != null) {
+            for (int i = 0; i < jsonArray.size(); i++) {
+                names.add(jsonArray.getString(i));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @return 修改后的注册表版本号
+     */
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * @return 新增的API名称
+     */
+    public List<String> added() {
+        return added;
+    }
+
+    /**
+     * @return 被替换的API名称
+     */
+    public List<String> updated() {
+        return updated;
+    }
+
+    /**
+     * @return 删除的API名称
+     */
+    public List<String> removed() {
+        return removed;
+    }
+
+    /**
+     * @return 新增和修改的API内容的hash，没有开启增量事件时为空
+     */
+    public Map<String, String> hashes() {
+        return hashes;
+    }
+
+    /**
+     * @return 拉取API的事件总线地址，没有开启增量事件时为null
+     */
+    public String source() {
+        return source;
+    }
+
+    /**
+     * 为事件加上API内容的hash和拉取API的地址.
+     *
+     * @param hashes API内容的hash
+     * @param source 拉取API的地址
+     * @return ApiChangeEvent
+     */
+    ApiChangeEvent withDelta(Map<String, String> hashes, String source) {
+        return new ApiChangeEvent(generation, added, updated, removed, hashes, source);
+    }
+
+    /**
+     * 将之后发生的修改合并到这个事件，每个API只保留最后的状态.
+     * <p>
+     * 先删除后新增的API视为修改，新增后又修改的API仍然视为新增.
+     *
+     * @param next 之后发生的修改
+     * @return 合并后的事件
+     */
+    ApiChangeEvent merge(ApiChangeEvent next) {
+        Set<String> mergedAdded = new LinkedHashSet<>(added);
+        Set<String> mergedUpdated = new LinkedHashSet<>(updated);
+        Set<String> mergedRemoved = new LinkedHashSet<>(removed);
+        Map<String, String> mergedHashes = new HashMap<>(hashes);
+        for (String name : next.added) {
+            if (mergedRemoved.remove(name)) {
+                mergedUpdated.add(name);
+            } else {
+                mergedAdded.add(name);
+            }
+        }
+        for (String name : next.updated) {
+            if (!mergedAdded.contains(name)) {
+                mergedRemoved.remove(name);
+                mergedUpdated.add(name);
+            }
+        }
+        for (String name : next.removed) {
+            mergedAdded.remove(name);
+            mergedUpdated.remove(name);
+            mergedHashes.remove(name);
+            mergedRemoved.add(name);
+        }
+        mergedHashes.putAll(next.hashes);
+        return new ApiChangeEvent(Math.max(generation, next.generation), mergedAdded,
+                                  mergedUpdated, mergedRemoved, mergedHashes,
+                                  next.source == null ? source : next.source);
+    }
+
+    /**
+     * @return 如果注册表没有发生变化，返回true
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+    }
+
+    public JsonObject toJson() {
+        JsonObject jsonObject = new JsonObject()
+                .put("generation", generation)
+                .put("added", new JsonArray(new ArrayList<>(added)))
+                .put("updated", new JsonArray(new ArrayList<>(updated)))
+                .put("removed", new JsonArray(new ArrayList<>(removed)));
+        if (!hashes.isEmpty()) {
+            jsonObject.put("hashes", new JsonObject(new HashMap<>(hashes)));
+        }
+        if (source != null) {
+            jsonObject.put("source", source);
+        }
+        return jsonObject;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper("ApiChangeEvent")
+                .add("generation", generation)
+                .add("added", added.size())
+                .add("updated", updated.size())
+                .add("removed", removed.size())
+                .toString();
+    }
+}
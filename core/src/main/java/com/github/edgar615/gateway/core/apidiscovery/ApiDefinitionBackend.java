@@ -4,6 +4,7 @@ import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -16,9 +17,54 @@ public interface ApiDefinitionBackend {
 
     void remove(String name, Handler<AsyncResult<ApiDefinition>> resultHandler);
 
+    /**
+     * 批量保存API，所有的API在一次修改中生效.
+     *
+     * @param definitions   API列表
+     * @param replace       如果为true，删除不在definitions中的API
+     * @param resultHandler 回调函数，返回注册表的变化
+     */
+    void storeAll(Collection<ApiDefinition> definitions, boolean replace,
+                  Handler<AsyncResult<ApiChangeEvent>> resultHandler);
+
+    /**
+     * 批量删除API，所有的API在一次修改中删除.
+     *
+     * @param names         API名称
+     * @param resultHandler 回调函数，返回注册表的变化
+     */
+    void removeAll(Collection<String> names, Handler<AsyncResult<ApiChangeEvent>> resultHandler);
+
+    /**
+     * 批量删除和保存API，所有的修改在一次修改中生效，先删除再保存.
+     *
+     * @param upserts       保存的API
+     * @param removals      删除的API名称
+     * @param resultHandler 回调函数，返回注册表的变化
+     */
+    void apply(Collection<ApiDefinition> upserts, Collection<String> removals,
+               Handler<AsyncResult<ApiChangeEvent>> resultHandler);
+
     void getDefinitions(Handler<AsyncResult<List<ApiDefinition>>> resultHandler);
 
     void getDefinition(String name, Handler<AsyncResult<ApiDefinition>> resultHandler);
 
+    /**
+     * 根据请求方法、路径匹配API，返回的结果按照 相等>正则>ant 的优先级筛选.
+     *
+     * @param method        请求方法
+     * @param path          请求路径
+     * @param resultHandler 回调函数
+     */
+    void filter(String method, String path,
+                Handler<AsyncResult<List<ApiDefinition>>> resultHandler);
+
     void clear(Handler<AsyncResult<Void>> resultHandler);
+
+    /**
+     * 读取注册表当前的快照，该方法不会阻塞.
+     *
+     * @return ApiRegistrySnapshot
+     */
+    ApiRegistrySnapshot snapshot();
 }
@@ -32,6 +32,9 @@ public interface ApiDiscovery extends ApiPublisher {
     ApiDiscovery registerImporter(ApiImporter importer, JsonObject config,
                                   Handler<AsyncResult<Void>> completionHandler);
 
+    /**
+     * 关闭ApiDiscovery，开启了deltaEvents时释放增量事件的订阅.
+     */
     void close();
 
     /**
@@ -73,6 +76,48 @@ public interface ApiDiscovery extends ApiPublisher {
 
     ApiDiscoveryOptions options();
 
+    /**
+     * 订阅集群中其他节点发送的增量事件，只在本地API的hash与事件中的hash不同时才向发送方拉取API，
+     * 拉取的API直接写入本地注册表. 需要开启ApiDiscoveryOptions.deltaEvents.
+     *
+     * @param completionHandler 订阅完成的回调
+     */
+    void subscribeChanges(Handler<AsyncResult<Void>> completionHandler);
+
+    /**
+     * 路由解析的缓存，通过ApiDiscoveryOptions.resolutionCacheSize开启.
+     *
+     * @return ApiResolutionCache，未开启缓存时返回null
+     */
+    ApiResolutionCache resolutionCache();
+
+    /**
+     * 注册表当前的快照，快照创建后不再修改，同一个快照上的多次查找看到的是同一组API.
+     *
+     * @return ApiRegistrySnapshot
+     */
+    ApiRegistrySnapshot snapshot();
+
+    /**
+     * 注册表当前的版本号，每次修改注册表都会增加，可以用来判断注册表是否发生了变化.
+     *
+     * @return 版本号
+     */
+    default long generation() {
+        return snapshot().generation();
+    }
+
+    /**
+     * 从ApiDiscoveryOptions.snapshotPath指定的快照文件中恢复API，注册表中已经存在的API不会被覆盖.
+     * <p>
+     * 恢复的API可以在导入类完成导入之前提供服务.
+     * 之后所有注册的导入类都导入成功时，没有被导入类重新发布的API会被删除.
+     * 有导入类失败，或者ApiDiscoveryOptions.restoreTimeout内没有导入类完成时，恢复的API继续保留.
+     *
+     * @param resultHandler 回调函数，返回注册表的变化
+     */
+    void restoreSnapshot(Handler<AsyncResult<ApiChangeEvent>> resultHandler);
+
     /**
      * 清除所有api
      *
@@ -1,5 +1,7 @@
 package com.github.edgar615.gateway.core.apidiscovery;
 
+import com.google.common.collect.Iterables;
+
 import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.util.exception.DefaultErrorCode;
 import com.github.edgar615.util.exception.SystemException;
@@ -11,10 +13,18 @@ import io.vertx.core.json.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -37,24 +47,91 @@ class ApiDiscoveryImpl implements ApiDiscovery {
 
     private final String unpublishedAddress;
 
+    private final String changedAddress;
+
     private final Set<ApiImporter> importers = new CopyOnWriteArraySet<>();
 
     private final ApiDiscoveryOptions options;
 
+    private final ApiResolutionCache resolutionCache;
+
+    /**
+     * 增量事件的发送和接收，没有开启deltaEvents时为null
+     */
+    private final ApiChangeBroadcaster broadcaster;
+
+    /**
+     * 注册表快照文件，没有配置snapshotPath时为null
+     */
+    private final ApiSnapshotStore snapshotStore;
+
+    /**
+     * 从快照文件中恢复、还没有被导入类确认的API
+     */
+    private final Map<String, ApiDefinition> restored = new ConcurrentHashMap<>();
+
+    /**
+     * 正在启动的导入类的数量
+     */
+    private final AtomicInteger pendingImports = new AtomicInteger();
+
+    /**
+     * 本轮启动的导入类中是否有失败的
+     */
+    private final AtomicBoolean importFailed = new AtomicBoolean();
+
+    /**
+     * 恢复快照的等待时间是否已经超时，超时后不再等待没有完成的导入类
+     */
+    private final AtomicBoolean restoreTimedOut = new AtomicBoolean();
+
+    /**
+     * 是否已经释放了broadcaster
+     */
+    private final AtomicBoolean closed = new AtomicBoolean();
+
     ApiDiscoveryImpl(Vertx vertx, ApiDiscoveryOptions options) {
         Objects.requireNonNull(options.getPublishedAddress());
         Objects.requireNonNull(options.getUnpublishedAddress());
         this.vertx = vertx;
         this.options = options;
-        this.backend = new DefaultApiDefinitionBackend(vertx, NAME);
+        if (options.getResolutionCacheSize() > 0) {
+            this.resolutionCache = new ApiResolutionCache(options.getResolutionCacheSize());
+        } else {
+            this.resolutionCache = null;
+        }
+        this.backend = new DefaultApiDefinitionBackend(vertx, NAME, resolutionCache);
         this.publishedAddress = options.getPublishedAddress();
         this.unpublishedAddress = options.getUnpublishedAddress();
+        this.changedAddress = options.getChangedAddress();
+        if (options.getSnapshotPath() != null) {
+            this.snapshotStore = new ApiSnapshotStore(options.getSnapshotPath());
+        } else {
+            this.snapshotStore = null;
+        }
+        if (options.isDeltaEvents()) {
+            this.broadcaster = ApiChangeBroadcaster.get(vertx, changedAddress, backend);
+        } else {
+            this.broadcaster = null;
+        }
     }
 
     @Override
     public void publish(ApiDefinition definition,
                         Handler<AsyncResult<ApiDefinition>> resultHandler) {
         LOGGER.info("[ApiDiscovery] [publish] {name:{}}", definition.name());
+        if (broadcaster != null) {
+            //只发送增量事件
+            backend.storeAll(Collections.singletonList(definition), false,
+                             ar -> publishChange(ar, car -> {
+                                 if (car.failed()) {
+                                     resultHandler.handle(Future.failedFuture(car.cause()));
+                                 } else {
+                                     resultHandler.handle(Future.succeededFuture(definition));
+                                 }
+                             }));
+            return;
+        }
         backend.store(definition, ar -> {
             if (ar.succeeded()) {
                 vertx.eventBus().publish(publishedAddress, definition.toJson());
@@ -66,6 +143,19 @@ class ApiDiscoveryImpl implements ApiDiscovery {
     @Override
     public void unpublish(String name, Handler<AsyncResult<Void>> resultHandler) {
         LOGGER.info("[ApiDiscovery] [unpublish] {name:{}}", name);
+        if (broadcaster != null) {
+            //只发送增量事件
+            backend.removeAll(Collections.singletonList(name), ar -> publishChange(ar, car -> {
+                if (car.failed()) {
+                    resultHandler.handle(Future.failedFuture(car.cause()));
+                } else if (car.result().removed().isEmpty()) {
+                    resultHandler.handle(Future.failedFuture("Api: '" + name + "' not found"));
+                } else {
+                    resultHandler.handle(Future.succeededFuture());
+                }
+            }));
+            return;
+        }
         backend.remove(name, ar -> {
             if (ar.failed()) {
                 resultHandler.handle(Future.failedFuture(ar.cause()));
@@ -80,15 +170,189 @@ class ApiDiscoveryImpl implements ApiDiscovery {
 
     }
 
+    @Override
+    public void publishAll(Collection<ApiDefinition> definitions,
+                           Handler<AsyncResult<ApiChangeEvent>> resultHandler) {
+        Objects.requireNonNull(definitions);
+        LOGGER.info("[ApiDiscovery] [publishAll] {size:{}}", definitions.size());
+        backend.storeAll(definitions, false, ar -> publishChange(ar, resultHandler));
+    }
+
+    @Override
+    public void replaceAll(Collection<ApiDefinition> definitions,
+                           Handler<AsyncResult<ApiChangeEvent>> resultHandler) {
+        Objects.requireNonNull(definitions);
+        LOGGER.info("[ApiDiscovery] [replaceAll] {size:{}}", definitions.size());
+        backend.storeAll(definitions, true, ar -> publishChange(ar, resultHandler));
+    }
+
+    @Override
+    public void unpublishAll(Collection<String> names,
+                             Handler<AsyncResult<ApiChangeEvent>> resultHandler) {
+        Objects.requireNonNull(names);
+        LOGGER.info("[ApiDiscovery] [unpublishAll] {size:{}}", names.size());
+        backend.removeAll(names, ar -> publishChange(ar, resultHandler));
+    }
+
+    @Override
+    public void apply(Collection<ApiDefinition> upserts, Collection<String> removals,
+                      Handler<AsyncResult<ApiChangeEvent>> resultHandler) {
+        Objects.requireNonNull(upserts);
+        Objects.requireNonNull(removals);
+        LOGGER.info("[ApiDiscovery] [apply] {upserts:{}, removals:{}}", upserts.size(),
+                    removals.size());
+        backend.apply(upserts, removals, ar -> publishChange(ar, resultHandler));
+    }
+
+    private void publishChange(AsyncResult<ApiChangeEvent> ar,
+                               Handler<AsyncResult<ApiChangeEvent>> resultHandler) {
+        if (ar.succeeded() && !ar.result().isEmpty()) {
+            if (broadcaster != null) {
+                broadcaster.publish(withDelta(ar.result()), options.getChangeBatchInterval());
+            } else {
+                LOGGER.info("[ApiDiscovery] [changed] {}", ar.result());
+                vertx.eventBus().publish(changedAddress, ar.result().toJson());
+            }
+            writeSnapshot();
+        }
+        resultHandler.handle(ar);
+    }
+
+    /**
+     * 为新增和修改的API附加hash，hash缓存在快照中.
+     */
+    private ApiChangeEvent withDelta(ApiChangeEvent event) {
+        ApiRegistrySnapshot current = backend.snapshot();
+        Map<String, String> hashes = new HashMap<>();
+        for (String name : Iterables.concat(event.added(), event.updated())) {
+            String hash = current.hash(name);
+            if (hash != null) {
+                hashes.put(name, hash);
+            }
+        }
+        return event.withDelta(hashes, broadcaster.source());
+    }
+
+    @Override
+    public void subscribeChanges(Handler<AsyncResult<Void>> completionHandler) {
+        if (broadcaster == null) {
+            completionHandler.handle(Future.failedFuture("deltaEvents required"));
+            return;
+        }
+        broadcaster.subscribe(event -> writeSnapshot(), completionHandler);
+    }
+
+    @Override
+    public void restoreSnapshot(Handler<AsyncResult<ApiChangeEvent>> resultHandler) {
+        if (snapshotStore == null) {
+            resultHandler.handle(Future.failedFuture("snapshotPath required"));
+            return;
+        }
+        long started = System.nanoTime();
+        vertx.<List<ApiDefinition>>executeBlocking(f -> {
+            try {
+                f.complete(snapshotStore.read());
+            } catch (Exception e) {
+                f.fail(e);
+            }
+        }, ar -> {
+            if (ar.failed()) {
+                LOGGER.error("[ApiDiscovery] [restoreSnapshot] {path:{}}", snapshotStore.path(),
+                             ar.cause());
+                resultHandler.handle(Future.failedFuture(ar.cause()));
+                return;
+            }
+            ApiRegistrySnapshot current = backend.snapshot();
+            List<ApiDefinition> definitions = ar.result().stream()
+                    .filter(d -> current.definition(d.name()) == null)
+                    .collect(Collectors.toList());
+            definitions.forEach(d -> restored.put(d.name(), d));
+            LOGGER.info("[ApiDiscovery] [restoreSnapshot] {path:{}, size:{}, restored:{}, time:{}}",
+                        snapshotStore.path(), ar.result().size(), definitions.size(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            if (options.getRestoreTimeout() > 0) {
+                vertx.setTimer(options.getRestoreTimeout(), t -> {
+                    //导入类可能一直不结束，超时后不论是否还有正在启动的导入类都不再等待
+                    restoreTimedOut.set(true);
+                    keepRestored("timeout");
+                });
+            }
+            backend.storeAll(definitions, false, sar -> publishChange(sar, resultHandler));
+        });
+    }
+
+    /**
+     * 导入类失败或者等待超时时，无法判断恢复的API是否已经删除，继续保留这些API，不再等待导入类确认，之后可以正常写入快照文件.
+     *
+     * @param reason 原因
+     */
+    private void keepRestored(String reason) {
+        if (restored.isEmpty()) {
+            return;
+        }
+        LOGGER.warn("[ApiDiscovery] [restoreSnapshot] {reason:{}, unconfirmed:{}}", reason,
+                    restored.size());
+        restored.clear();
+        writeSnapshot();
+    }
+
+    /**
+     * 所有导入类都导入成功后，删除从快照中恢复但没有被重新发布的API.
+     */
+    private void validateRestored() {
+        if (restored.isEmpty()) {
+            writeSnapshot();
+            return;
+        }
+        ApiRegistrySnapshot current = backend.snapshot();
+        List<String> staleNames = restored.values().stream()
+                .filter(d -> current.definition(d.name()) == d)
+                .map(ApiDefinition::name)
+                .collect(Collectors.toList());
+        restored.clear();
+        if (staleNames.isEmpty()) {
+            writeSnapshot();
+            return;
+        }
+        LOGGER.info("[ApiDiscovery] [restoreSnapshot] {stale:{}}", staleNames.size());
+        unpublishAll(staleNames, ar -> {
+        });
+    }
+
+    /**
+     * 将当前的注册表写入快照文件，导入类启动期间和恢复的API还没有确认时不写入.
+     * 恢复快照超时后不再等待导入类.
+     */
+    private void writeSnapshot() {
+        if (snapshotStore == null || !restored.isEmpty()) {
+            return;
+        }
+        if (pendingImports.get() > 0 && !restoreTimedOut.get()) {
+            return;
+        }
+        vertx.<Boolean>executeBlocking(f -> {
+            try {
+                f.complete(snapshotStore.write(backend.snapshot()));
+            } catch (Exception e) {
+                f.fail(e);
+            }
+        }, ar -> {
+            if (ar.failed()) {
+                LOGGER.error("[ApiDiscovery] [writeSnapshot] {path:{}}", snapshotStore.path(),
+                             ar.cause());
+            } else if (ar.result()) {
+                LOGGER.info("[ApiDiscovery] [writeSnapshot] {path:{}, generation:{}}",
+                            snapshotStore.path(), backend.snapshot().generation());
+            }
+        });
+    }
+
     @Override
     public void filter(String method, String path,
                        Handler<AsyncResult<List<ApiDefinition>>> resultHandler) {
         Objects.requireNonNull(method);
         Objects.requireNonNull(path);
-        JsonObject filter = new JsonObject()
-                .put("method", method)
-                .put("path", path);
-        getDefinitions(filter, resultHandler);
+        backend.filter(method, path, resultHandler);
     }
 
     @Override
@@ -148,6 +412,16 @@ class ApiDiscoveryImpl implements ApiDiscovery {
         return options;
     }
 
+    @Override
+    public ApiResolutionCache resolutionCache() {
+        return resolutionCache;
+    }
+
+    @Override
+    public ApiRegistrySnapshot snapshot() {
+        return backend.snapshot();
+    }
+
     @Override
     public ApiDiscovery registerImporter(ApiImporter importer, JsonObject config,
                                          Handler<AsyncResult<Void>> completionHandler) {
@@ -158,21 +432,32 @@ class ApiDiscoveryImpl implements ApiDiscovery {
             conf = config;
         }
 
+        pendingImports.incrementAndGet();
         Future<Void> completed = Future.future();
         completed.setHandler(
                 ar -> {
                     if (ar.failed()) {
+                        importFailed.set(true);
                         LOGGER.error("[ApiDiscovery] [importRegistered] register {} failed",
                                      importer.getClass().getSimpleName(),
                                      ar.cause().getMessage());
-                        if (completionHandler != null) {
-                            completionHandler.handle(Future.failedFuture(ar.cause()));
-                        }
                     } else {
                         importers.add(importer);
                         LOGGER.info("[ApiDiscovery] [importRegistered] register {}",
                                     importer.getClass().getSimpleName());
-                        if (completionHandler != null) {
+                    }
+                    if (pendingImports.decrementAndGet() == 0) {
+                        //所有导入类都成功时才删除没有被重新发布的API
+                        if (importFailed.getAndSet(false)) {
+                            keepRestored("import failed");
+                        } else {
+                            validateRestored();
+                        }
+                    }
+                    if (completionHandler != null) {
+                        if (ar.failed()) {
+                            completionHandler.handle(Future.failedFuture(ar.cause()));
+                        } else {
                             completionHandler.handle(Future.succeededFuture(null));
                         }
                     }
@@ -185,6 +470,9 @@ class ApiDiscoveryImpl implements ApiDiscovery {
 
     @Override
     public void close() {
+        if (broadcaster != null && closed.compareAndSet(false, true)) {
+            broadcaster.release();
+        }
         clear(ar -> {
         });
         LOGGER.info("[ApiDiscovery] [close]");
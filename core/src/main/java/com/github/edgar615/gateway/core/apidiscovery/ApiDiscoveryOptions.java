@@ -16,12 +16,51 @@ public class ApiDiscoveryOptions {
     public static final String DEFAULT_UNPUBLISHED_ADDRESS =
             "__com.github.edgar615.gateway.api.unpublished";
 
+    public static final String DEFAULT_CHANGED_ADDRESS =
+            "__com.github.edgar615.gateway.api.changed";
+
+    public static final int DEFAULT_RESOLUTION_CACHE_SIZE = 0;
+
+    public static final long DEFAULT_CHANGE_BATCH_INTERVAL = 0;
+
+    public static final long DEFAULT_RESTORE_TIMEOUT = 60000;
+
     private String name;
 
     private String publishedAddress = DEFAULT_PUBLISHED_ADDRESS;
 
     private String unpublishedAddress = DEFAULT_UNPUBLISHED_ADDRESS;
 
+    /**
+     * 批量修改API后发送ApiChangeEvent的地址
+     */
+    private String changedAddress = DEFAULT_CHANGED_ADDRESS;
+
+    /**
+     * 发布、删除单个API时是否只发送包含名称、版本号和内容hash的增量事件
+     */
+    private boolean deltaEvents;
+
+    /**
+     * 合并增量事件的时间间隔，单位毫秒，小于等于0表示不合并
+     */
+    private long changeBatchInterval = DEFAULT_CHANGE_BATCH_INTERVAL;
+
+    /**
+     * 注册表快照文件的路径
+     */
+    private String snapshotPath;
+
+    /**
+     * 从快照中恢复的API等待导入类确认的最长时间，单位毫秒
+     */
+    private long restoreTimeout = DEFAULT_RESTORE_TIMEOUT;
+
+    /**
+     * 路由解析缓存的最大数量，小于等于0表示不使用缓存
+     */
+    private int resolutionCacheSize = DEFAULT_RESOLUTION_CACHE_SIZE;
+
     public ApiDiscoveryOptions() {
     }
 
@@ -62,4 +101,98 @@ public class ApiDiscoveryOptions {
         this.unpublishedAddress = unpublishedAddress;
         return this;
     }
+
+    public String getChangedAddress() {
+        return changedAddress;
+    }
+
+    /**
+     * 设置批量修改API后发送ApiChangeEvent的地址.
+     *
+     * @param changedAddress 地址
+     * @return ApiDiscoveryOptions
+     */
+    public ApiDiscoveryOptions setChangedAddress(String changedAddress) {
+        this.changedAddress = changedAddress;
+        return this;
+    }
+
+    public boolean isDeltaEvents() {
+        return deltaEvents;
+    }
+
+    /**
+     * 设置是否发送增量事件.
+     * <p>
+     * 开启后发布、删除单个API不再向publishedAddress、unpublishedAddress广播整个API，而是向changedAddress发送
+     * 只包含名称、注册表版本号和内容hash的ApiChangeEvent，其他节点只在本地的hash不同时才拉取API.
+     *
+     * @param deltaEvents true：发送增量事件
+     * @return ApiDiscoveryOptions
+     */
+    public ApiDiscoveryOptions setDeltaEvents(boolean deltaEvents) {
+        this.deltaEvents = deltaEvents;
+        return this;
+    }
+
+    public long getChangeBatchInterval() {
+        return changeBatchInterval;
+    }
+
+    /**
+     * 设置合并增量事件的时间间隔，间隔内的多次修改只发送一个事件.
+     *
+     * @param changeBatchInterval 时间间隔，单位毫秒，小于等于0表示每次修改都立即发送
+     * @return ApiDiscoveryOptions
+     */
+    public ApiDiscoveryOptions setChangeBatchInterval(long changeBatchInterval) {
+        this.changeBatchInterval = changeBatchInterval;
+        return this;
+    }
+
+    public String getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    /**
+     * 设置注册表快照文件的路径，每次导入成功后会将注册表保存到这个文件，启动时可以从这个文件中恢复API.
+     *
+     * @param snapshotPath 文件路径，null表示不保存快照
+     * @return ApiDiscoveryOptions
+     */
+    public ApiDiscoveryOptions setSnapshotPath(String snapshotPath) {
+        this.snapshotPath = snapshotPath;
+        return this;
+    }
+
+    public long getRestoreTimeout() {
+        return restoreTimeout;
+    }
+
+    /**
+     * 设置从快照中恢复的API等待导入类确认的最长时间.
+     * 超时后不论是否还有正在启动的导入类，恢复的API都会继续保留，并重新开始写入快照文件.
+     *
+     * @param restoreTimeout 时间，单位毫秒，小于等于0表示一直等待
+     * @return ApiDiscoveryOptions
+     */
+    public ApiDiscoveryOptions setRestoreTimeout(long restoreTimeout) {
+        this.restoreTimeout = restoreTimeout;
+        return this;
+    }
+
+    public int getResolutionCacheSize() {
+        return resolutionCacheSize;
+    }
+
+    /**
+     * 设置路由解析缓存的最大数量.
+     *
+     * @param resolutionCacheSize 最大数量，小于等于0表示不使用缓存
+     * @return ApiDiscoveryOptions
+     */
+    public ApiDiscoveryOptions setResolutionCacheSize(int resolutionCacheSize) {
+        this.resolutionCacheSize = resolutionCacheSize;
+        return this;
+    }
 }
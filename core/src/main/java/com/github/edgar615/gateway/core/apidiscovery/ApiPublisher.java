@@ -4,6 +4,8 @@ import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 
+import java.util.Collection;
+
 /**
  * API的发布与注销接口.
  *
@@ -30,4 +32,45 @@ public interface ApiPublisher {
      * @param resultHandler 回调函数
      */
     void unpublish(String name, Handler<AsyncResult<Void>> resultHandler);
+
+    /**
+     * 批量添加路由映射，所有的映射在注册表的一次修改中生效，修改完成后只发送一个{@link ApiChangeEvent}.
+     * 重复添加的数据会覆盖掉原来的映射.
+     *
+     * @param definitions   路由映射
+     * @param resultHandler 回调函数，返回注册表的变化
+     */
+    void publishAll(Collection<ApiDefinition> definitions,
+                    Handler<AsyncResult<ApiChangeEvent>> resultHandler);
+
+    /**
+     * 使用一组路由映射替换注册表中所有的路由映射，不在definitions中的映射会被删除.
+     * 所有的修改在注册表的一次修改中生效，修改完成后只发送一个{@link ApiChangeEvent}.
+     *
+     * @param definitions   路由映射
+     * @param resultHandler 回调函数，返回注册表的变化
+     */
+    void replaceAll(Collection<ApiDefinition> definitions,
+                    Handler<AsyncResult<ApiChangeEvent>> resultHandler);
+
+    /**
+     * 根据name批量删除路由映射，不支持通配符.
+     * 所有的映射在注册表的一次修改中删除，修改完成后只发送一个{@link ApiChangeEvent}.
+     *
+     * @param names         name
+     * @param resultHandler 回调函数，返回注册表的变化
+     */
+    void unpublishAll(Collection<String> names,
+                      Handler<AsyncResult<ApiChangeEvent>> resultHandler);
+
+    /**
+     * 同时删除和添加路由映射，不支持通配符，先删除再添加.
+     * 所有的修改在注册表的一次修改中生效，修改完成后只发送一个{@link ApiChangeEvent}.
+     *
+     * @param upserts       添加或覆盖的路由映射
+     * @param removals      删除的name
+     * @param resultHandler 回调函数，返回注册表的变化
+     */
+    void apply(Collection<ApiDefinition> upserts, Collection<String> removals,
+               Handler<AsyncResult<ApiChangeEvent>> resultHandler);
 }
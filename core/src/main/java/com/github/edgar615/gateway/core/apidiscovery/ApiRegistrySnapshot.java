@@ -0,0 +1,241 @@
+package com.github.edgar615.gateway.core.apidiscovery;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import io.vertx.core.shareddata.Shareable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * API注册表的快照.
+ * <p>
+ * 最初注册表是一个LocalMap，每次只修改一个API，批量导入API时读取方可能看到只更新了一部分的路由，并且每次读取都要复制一次所有的API.
+ * 现在每次修改都会基于上一个快照创建一个新的快照（包括API和路由索引），然后整体替换掉原来的快照，同时版本号加1.
+ * 快照创建后不再修改，读取方只需要读取一次当前的快照，就可以在同一个版本上完成所有的查找.
+ * <p>
+ * 缓存和filter可以使用{@link #generation()}判断注册表是否发生了变化.
+ * <p>
+ * 增量事件需要API的hash，hash在第一次使用时计算并缓存在快照中，创建新快照时只有没有被修改的API会沿用原来的hash.
+ *
+ * @author Edgar  Date 2018/12/7
+ */
+public final class ApiRegistrySnapshot implements Shareable {
+
+    static final ApiRegistrySnapshot EMPTY =
+            new ApiRegistrySnapshot(ImmutableMap.of(), 0, ImmutableMap.of());
+
+    private final long generation;
+
+    private final Map<String, ApiDefinition> definitions;
+
+    private final List<ApiDefinition> definitionList;
+
+    private final ApiRouteIndex index;
+
+    /**
+     * API的hash，按需计算
+     */
+    private final Map<String, String> hashes;
+
+    private ApiRegistrySnapshot(Map<String, ApiDefinition> definitions, long generation,
+                                Map<String, String> hashes) {
+        this.generation = generation;
+        this.definitions = ImmutableMap.copyOf(definitions);
+        this.definitionList = ImmutableList.copyOf(this.definitions.values());
+        this.index = ApiRouteIndex.create(definitionList);
+        this.hashes = new ConcurrentHashMap<>(hashes);
+        this.hashes.keySet().retainAll(this.definitions.keySet());
+    }
+
+    /**
+     * @return 快照的版本号，每次修改注册表都会增加
+     */
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * @return 所有的API，不可修改
+     */
+    public List<ApiDefinition> definitions() {
+        return definitionList;
+    }
+
+    /**
+     * 根据名称查找API.
+     *
+     * @param name API名称
+     * @return API，不存在时返回null
+     */
+    public ApiDefinition definition(String name) {
+        return definitions.get(name);
+    }
+
+    /**
+     * @return API的数量
+     */
+    public int size() {
+        return definitions.size();
+    }
+
+    /**
+     * 返回API内容的hash，同一个快照中每个API只计算一次.
+     *
+     * @param name API名称
+     * @return hash，API不存在时返回null
+     */
+    public String hash(String name) {
+        ApiDefinition definition = definitions.get(name);
+        if (definition == null) {
+            return null;
+        }
+        return hashes.computeIfAbsent(name, k -> ApiChangeBroadcaster.hash(definition));
+    }
+
+    ApiRouteIndex index() {
+        return index;
+    }
+
+    /**
+     * 创建一个增加（或替换）了一个API的新快照.
+     *
+     * @param definition API
+     * @return 新的快照
+     */
+    ApiRegistrySnapshot put(ApiDefinition definition) {
+        Map<String, ApiDefinition> next = new LinkedHashMap<>(definitions);
+        next.put(definition.name(), definition);
+        return new ApiRegistrySnapshot(next, generation + 1,
+                                       hashesExcept(Collections.singleton(definition.name())));
+    }
+
+    /**
+     * 创建一个删除了一个API的新快照.
+     *
+     * @param name API名称
+     * @return 新的快照，如果API不存在，返回当前快照
+     */
+    ApiRegistrySnapshot remove(String name) {
+        if (!definitions.containsKey(name)) {
+            return this;
+        }
+        Map<String, ApiDefinition> next = new LinkedHashMap<>(definitions);
+        next.remove(name);
+        return new ApiRegistrySnapshot(next, generation + 1, hashes);
+    }
+
+    /**
+     * 创建一个批量增加（或替换）了多个API的新快照.
+     *
+     * @param definitions API列表，名称重复时后面的API会覆盖前面的API
+     * @param replace     如果为true，新快照中只包含definitions中的API
+     * @return 新的快照
+     */
+    ApiRegistrySnapshot putAll(Collection<ApiDefinition> definitions, boolean replace) {
+        Map<String, ApiDefinition> next =
+                replace ? new LinkedHashMap<>() : new LinkedHashMap<>(this.definitions);
+        Set<String> names = new HashSet<>();
+        for (ApiDefinition definition : definitions) {
+            next.put(definition.name(), definition);
+            names.add(definition.name());
+        }
+        return new ApiRegistrySnapshot(next, generation + 1, hashesExcept(names));
+    }
+
+    /**
+     * 创建一个批量删除了多个API的新快照.
+     *
+     * @param names API名称
+     * @return 新的快照
+     */
+    ApiRegistrySnapshot removeAll(Collection<String> names) {
+        Map<String, ApiDefinition> next = new LinkedHashMap<>(definitions);
+        //不使用keySet().removeAll，names是List时会对每个key调用一次List.contains
+        for (String name : names) {
+            next.remove(name);
+        }
+        return new ApiRegistrySnapshot(next, generation + 1, hashes);
+    }
+
+    /**
+     * 创建一个同时删除和增加（或替换）了多个API的新快照，先删除再增加.
+     *
+     * @param upserts  增加或替换的API
+     * @param removals 删除的API名称
+     * @return 新的快照
+     */
+    ApiRegistrySnapshot apply(Collection<ApiDefinition> upserts, Collection<String> removals) {
+        Map<String, ApiDefinition> next = new LinkedHashMap<>(definitions);
+        for (String name : removals) {
+            next.remove(name);
+        }
+        Set<String> names = new HashSet<>();
+        for (ApiDefinition definition : upserts) {
+            next.put(definition.name(), definition);
+            names.add(definition.name());
+        }
+        return new ApiRegistrySnapshot(next, generation + 1, hashesExcept(names));
+    }
+
+    /**
+     * 比较两个快照，返回新快照中新增、替换和删除的API.
+     * <p>
+     * API可能在原对象上修改之后再次发布（例如api.plugin命令），所以published中的API即使对象没有变化也认为是替换.
+     *
+     * @param next      新的快照
+     * @param published 显式发布的API名称
+     * @return ApiChangeEvent
+     */
+    ApiChangeEvent diff(ApiRegistrySnapshot next, Set<String> published) {
+        List<String> added = new ArrayList<>();
+        List<String> updated = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (ApiDefinition definition : next.definitionList) {
+            ApiDefinition previous = definitions.get(definition.name());
+            if (previous == null) {
+                added.add(definition.name());
+            } else if (previous != definition || published.contains(definition.name())) {
+                updated.add(definition.name());
+            }
+        }
+        for (String name : definitions.keySet()) {
+            if (!next.definitions.containsKey(name)) {
+                removed.add(name);
+            }
+        }
+        return new ApiChangeEvent(next.generation, added, updated, removed);
+    }
+
+    /**
+     * @return 一个不包含任何API的新快照
+     */
+    ApiRegistrySnapshot clear() {
+        return new ApiRegistrySnapshot(ImmutableMap.of(), generation + 1, ImmutableMap.of());
+    }
+
+    private Map<String, String> hashesExcept(Collection<String> names) {
+        Map<String, String> remaining = new HashMap<>(hashes);
+        remaining.keySet().removeAll(names);
+        return remaining;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper("ApiRegistrySnapshot")
+                .add("generation", generation)
+                .add("size", definitions.size())
+                .toString();
+    }
+}
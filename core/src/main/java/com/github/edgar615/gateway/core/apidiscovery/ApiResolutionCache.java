@@ -0,0 +1,190 @@
+package com.github.edgar615.gateway.core.apidiscovery;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 路由解析的缓存.
+ * <p>
+ * 大部分请求集中在少量的URL上，所以将(请求方法，请求路径)与匹配到的API列表缓存起来，只有缓存未命中时才需要做正则和ant匹配.
+ * 每个缓存项都记录了创建时的注册表版本，API发布或者删除之后注册表的版本会增加，此时整个缓存都会失效.
+ * 缓存的版本只会增加，读取到旧快照的请求（版本小于缓存的版本）直接跳过缓存，不会清空缓存.
+ *
+ * @author Edgar  Date 2018/12/4
+ */
+public class ApiResolutionCache {
+
+    private final Cache<RouteKey, Resolution> cache;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile long generation;
+
+    ApiResolutionCache(int maxSize) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .removalListener(notification -> {
+                    if (notification.getCause() == RemovalCause.SIZE) {
+                        evictions.increment();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 从缓存中读取API列表.
+     *
+     * @param generation 当前注册表的版本
+     * @param method     请求方法
+     * @param path       请求路径
+     * @return API列表，未命中返回null
+     */
+    List<ApiDefinition> get(long generation, String method, String path) {
+        long current = this.generation;
+        if (generation < current) {
+            misses.increment();
+            return null;
+        }
+        if (generation > current) {
+            invalidate(generation);
+        }
+        Resolution resolution = cache.getIfPresent(new RouteKey(method, path));
+        if (resolution == null || resolution.generation != generation) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return resolution.definitions;
+    }
+
+    /**
+     * 缓存API列表.
+     *
+     * @param generation  计算API列表时注册表的版本
+     * @param method      请求方法
+     * @param path        请求路径
+     * @param definitions API列表
+     */
+    void put(long generation, String method, String path, List<ApiDefinition> definitions) {
+        if (this.generation != generation) {
+            return;
+        }
+        cache.put(new RouteKey(method, path), new Resolution(generation, definitions));
+    }
+
+    private synchronized void invalidate(long generation) {
+        if (generation > this.generation) {
+            cache.invalidateAll();
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * @return 命中次数
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return 未命中次数
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return 因为超过容量被移除的缓存数量
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return 缓存的数量
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * @return 缓存对应的注册表版本
+     */
+    public long generation() {
+        return generation;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper("ApiResolutionCache")
+                .add("size", size())
+                .add("generation", generation)
+                .add("hits", hitCount())
+                .add("misses", missCount())
+                .add("evictions", evictionCount())
+                .toString();
+    }
+
+    private static class Resolution {
+
+        private final long generation;
+
+        private final List<ApiDefinition> definitions;
+
+        private Resolution(long generation, List<ApiDefinition> definitions) {
+            this.generation = generation;
+            this.definitions = definitions;
+        }
+    }
+
+    /**
+     * 缓存的KEY，请求方法忽略大小写，请求路径忽略最后的/.
+     */
+    private static class RouteKey {
+
+        private final String method;
+
+        private final String path;
+
+        private final int hash;
+
+        private RouteKey(String method, String path) {
+            if (path.length() > 1 && path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            this.method = method.toUpperCase();
+            this.path = path;
+            this.hash = 31 * this.method.hashCode() + path.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            RouteKey routeKey = (RouteKey) o;
+            return Objects.equals(method, routeKey.method)
+                   && Objects.equals(path, routeKey.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.github.edgar615.gateway.core.apidiscovery;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.gateway.core.definition.RegexPathApiDefinition;
+import io.vertx.core.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API路由的索引.
+ * <p>
+ * 最初ApiDiscovery.filter会将所有的API复制到一个新的List中，再对每个API做一次路径匹配，API数量较多时匹配的耗时随API数量线性增长。
+ * 所以在API发布或者删除时按请求方法重新构建一个索引：
+ * <ul>
+ * <li>普通路径和ant路径按"/"拆分后存入一个前缀树，ant路径保存在第一个包含通配符的路径段之前的节点上</li>
+ * <li>正则路径按照开头不包含元字符的路径段保存在前缀树上，同一个节点上的正则路径会合并为一个{@link RegexRoutes}</li>
+ * </ul>
+ * 查找时沿着请求路径遍历前缀树，遍历过程中不会创建新的字符串，返回的结果依然遵循 相等>正则>ant的优先级.
+ * <p>
+ * 索引创建后不再修改，作为{@link ApiRegistrySnapshot}的一部分被多个ApiDiscovery共享.
+ *
+ * @author Edgar  Date 2018/12/3
+ */
+class ApiRouteIndex {
+
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+
+    private static final Splitter SPLITTER = Splitter.on('/');
+
+    static final String REGEX_META_CHARS = "\\.[]{}()*+?^$|";
+
+    static final String REGEX_QUANTIFIERS = "*+?{";
+
+    private final Map<HttpMethod, MethodRoutes> routes;
+
+    private ApiRouteIndex(Map<HttpMethod, MethodRoutes> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * 根据API列表创建索引.
+     *
+     * @param definitions API列表
+     * @return ApiRouteIndex
+     */
+    static ApiRouteIndex create(Collection<ApiDefinition> definitions) {
+        Map<HttpMethod, NodeBuilder> trees = new EnumMap<>(HttpMethod.class);
+        for (ApiDefinition definition : definitions) {
+            NodeBuilder node = trees.computeIfAbsent(definition.method(), k -> new NodeBuilder());
+            if (definition.regexStyle()) {
+                for (String segment : regexPrefix(definition.path())) {
+                    node = node.children.computeIfAbsent(segment, k -> new NodeBuilder());
+                }
+                node.regex.add((RegexPathApiDefinition) definition);
+                continue;
+            }
+            for (String segment : SPLITTER.split(definition.path())) {
+                if (definition.antStyle() && isPattern(segment)) {
+                    break;
+                }
+                node = node.children.computeIfAbsent(segment, k -> new NodeBuilder());
+            }
+            if (definition.antStyle()) {
+                node.ant.add(definition);
+            } else {
+                node.exact.add(definition);
+            }
+        }
+        Map<HttpMethod, MethodRoutes> routes = new EnumMap<>(HttpMethod.class);
+        trees.forEach((method, tree) -> routes.put(method, new MethodRoutes(tree.build())));
+        return new ApiRouteIndex(routes);
+    }
+
+    /**
+     * 根据请求方法和路径查找API，结果已经按照 相等>正则>ant 的优先级筛选过.
+     *
+     * @param method 请求方法，不区分大小写
+     * @param path   请求路径
+     * @return API列表, 如果请求方法无法识别，返回null
+     */
+    List<ApiDefinition> match(String method, String path) {
+        HttpMethod httpMethod = null;
+        for (HttpMethod m : METHODS) {
+            if (m.name().equalsIgnoreCase(method)) {
+                httpMethod = m;
+                break;
+            }
+        }
+        if (httpMethod == null) {
+            return null;
+        }
+        MethodRoutes methodRoutes = routes.get(httpMethod);
+        if (methodRoutes == null) {
+            return Collections.emptyList();
+        }
+        return methodRoutes.match(path);
+    }
+
+    private static boolean isPattern(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0;
+    }
+
+    /**
+     * 计算正则表达式开头不包含元字符的路径段，所有匹配的请求路径都以这些路径段开头.
+     *
+     * @param regex 正则表达式
+     * @return 路径段
+     */
+    static List<String> regexPrefix(String regex) {
+        if (hasTopLevelAlternation(regex)) {
+            return Collections.emptyList();
+        }
+        List<String> segments = SPLITTER.splitToList(regex);
+        List<String> prefix = new ArrayList<>();
+        for (String segment : segments) {
+            if (!isLiteral(segment)) {
+                //量词作用于前面的/，最后一个路径段不一定完整出现在请求路径中
+                if (!segment.isEmpty() && REGEX_QUANTIFIERS.indexOf(segment.charAt(0)) >= 0
+                    && !prefix.isEmpty()) {
+                    prefix.remove(prefix.size() - 1);
+                }
+                return prefix;
+            }
+            prefix.add(segment);
+        }
+        return prefix;
+    }
+
+    private static boolean isLiteral(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (REGEX_META_CHARS.indexOf(segment.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean hasTopLevelAlternation(String regex) {
+        int depth = 0;
+        boolean inClass = false;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (inClass) {
+                if (c == ']') {
+                    inClass = false;
+                }
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class MethodRoutes {
+
+        private final Node root;
+
+        private MethodRoutes(Node root) {
+            this.root = root;
+        }
+
+        private List<ApiDefinition> match(String path) {
+            //与ApiDefinitionUtils.matchPath一样忽略最后的/
+            int end = path.length();
+            if (end > 1 && path.charAt(end - 1) == '/') {
+                end--;
+            }
+            Node node = root;
+            int start = 0;
+            while (node != null) {
+                int segmentEnd = path.indexOf('/', start);
+                if (segmentEnd < 0 || segmentEnd > end) {
+                    segmentEnd = end;
+                }
+                node = node.child(path, start, segmentEnd);
+                if (node != null && segmentEnd == end) {
+                    if (!node.exact.isEmpty()) {
+                        return node.exact;
+                    }
+                    break;
+                }
+                start = segmentEnd + 1;
+            }
+
+            RouteMatches regexMatched = null;
+            node = root;
+            start = 0;
+            while (node != null) {
+                if (node.regex != null) {
+                    regexMatched = node.regex.match(path, end, regexMatched);
+                }
+                if (start > end) {
+                    break;
+                }
+                int segmentEnd = path.indexOf('/', start);
+                if (segmentEnd < 0 || segmentEnd > end) {
+                    segmentEnd = end;
+                }
+                node = node.child(path, start, segmentEnd);
+                start = segmentEnd + 1;
+            }
+            if (regexMatched != null) {
+                return regexMatched;
+            }
+
+            List<ApiDefinition> matched = null;
+            node = root;
+            start = 0;
+            while (node != null) {
+                for (ApiDefinition definition : node.ant) {
+                    if (definition.matchPath(path)) {
+                        matched = add(matched, definition);
+                    }
+                }
+                if (start > end) {
+                    break;
+                }
+                int segmentEnd = path.indexOf('/', start);
+                if (segmentEnd < 0 || segmentEnd > end) {
+                    segmentEnd = end;
+                }
+                node = node.child(path, start, segmentEnd);
+                start = segmentEnd + 1;
+            }
+            return matched == null ? Collections.emptyList() : matched;
+        }
+
+        private List<ApiDefinition> add(List<ApiDefinition> matched, ApiDefinition definition) {
+            if (matched == null) {
+                matched = new ArrayList<>(2);
+            }
+            matched.add(definition);
+            return matched;
+        }
+    }
+
+    /**
+     * 前缀树的节点，子节点使用开放地址法保存，查找时直接使用请求路径中的字符计算hash，避免截取字符串.
+     */
+    private static class Node {
+
+        private final String[] keys;
+
+        private final Node[] children;
+
+        private final int mask;
+
+        private final List<ApiDefinition> exact;
+
+        private final List<ApiDefinition> ant;
+
+        private final RegexRoutes regex;
+
+        private Node(String[] keys, Node[] children, List<ApiDefinition> exact,
+                     List<ApiDefinition> ant, RegexRoutes regex) {
+            this.keys = keys;
+            this.children = children;
+            this.mask = keys.length - 1;
+            this.exact = exact;
+            this.ant = ant;
+            this.regex = regex;
+        }
+
+        private Node child(String path, int start, int end) {
+            if (keys.length == 0) {
+                return null;
+            }
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + path.charAt(i);
+            }
+            int length = end - start;
+            int index = spread(hash) & mask;
+            String key;
+            while ((key = keys[index]) != null) {
+                if (key.length() == length && path.regionMatches(start, key, 0, length)) {
+                    return children[index];
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    private static class NodeBuilder {
+
+        private final Map<String, NodeBuilder> children = new LinkedHashMap<>();
+
+        private final List<ApiDefinition> exact = new ArrayList<>();
+
+        private final List<ApiDefinition> ant = new ArrayList<>();
+
+        private final List<RegexPathApiDefinition> regex = new ArrayList<>();
+
+        private Node build() {
+            RegexRoutes regexRoutes = regex.isEmpty() ? null : new RegexRoutes(regex);
+            if (children.isEmpty()) {
+                return new Node(new String[0], new Node[0], ImmutableList.copyOf(exact),
+                                ImmutableList.copyOf(ant), regexRoutes);
+            }
+            //容量保持为2的幂，并且负载因子不超过0.5
+            int capacity = Integer.highestOneBit(children.size() * 2 - 1) << 1;
+            String[] keys = new String[capacity];
+            Node[] nodes = new Node[capacity];
+            for (Map.Entry<String, NodeBuilder> entry : children.entrySet()) {
+                int index = Node.spread(entry.getKey().hashCode()) & (capacity - 1);
+                while (keys[index] != null) {
+                    index = (index + 1) & (capacity - 1);
+                }
+                keys[index] = entry.getKey();
+                nodes[index] = entry.getValue().build();
+            }
+            return new Node(keys, nodes, ImmutableList.copyOf(exact), ImmutableList.copyOf(ant),
+                            regexRoutes);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.edgar615.gateway.core.apidiscovery;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.gateway.core.definition.ApiDefinitionBinaryCodec;
+import io.vertx.core.buffer.Buffer;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 将注册表保存到本地文件，启动时通过内存映射读取.
+ * <p>
+ * 写入时先写临时文件再原子替换，读取方不会读到写了一半的文件.
+ *
+ * @author Edgar  Date 2018/12/10
+ */
+class ApiSnapshotStore {
+
+    private final Path path;
+
+    /**
+     * 最后一次写入的注册表版本号
+     */
+    private long writtenGeneration = -1;
+
+    ApiSnapshotStore(String path) {
+        this.path = Paths.get(path);
+    }
+
+    /**
+     * 读取保存的API，文件不存在时返回空列表.
+     *
+     * @return API
+     * @throws IOException 文件无法读取
+     */
+    List<ApiDefinition> read() throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return Collections.emptyList();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer =
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return ApiDefinitionBinaryCodec.decode(buffer);
+        }
+    }
+
+    /**
+     * 保存注册表，如果这个版本已经保存过，不会重复写入.
+     *
+     * @param snapshot 注册表快照
+     * @return 如果写入了文件，返回true
+     * @throws IOException 文件无法写入
+     */
+    synchronized boolean write(ApiRegistrySnapshot snapshot) throws IOException {
+        if (snapshot.generation() == writtenGeneration) {
+            return false;
+        }
+        Buffer buffer = ApiDefinitionBinaryCodec.encode(snapshot.generation(),
+                                                        snapshot.definitions());
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, buffer.getBytes());
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        writtenGeneration = snapshot.generation();
+        return true;
+    }
+
+    Path path() {
+        return path;
+    }
+}
@@ -5,17 +5,26 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
 import io.vertx.core.shareddata.LocalMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 /**
  * 使用本地map存储API.
  * 最初LocalMap中存储的是string，但是经过压测发现每次通过string转为ApiDefinition，对性能的影响较大。
  * 所以将ApiDefinition声明为Shareable，存储在LocalMap中(性能有显著提升)
+ * <p>
+ * 现在LocalMap中只保存一个不可修改的{@link ApiRegistrySnapshot}，每次修改API都会创建一个新的快照（包括路由索引）并整体替换，
+ * 同一个Vertx中的多个ApiDiscovery共享这个快照，读取时只需要从LocalMap中读取一次.
+ * 如果开启了路由解析的缓存，会优先从缓存中读取匹配结果.
  *
  * @author Edgar  Date 2017/6/20
  */
@@ -23,10 +32,15 @@ class DefaultApiDefinitionBackend implements ApiDefinitionBackend {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ApiDefinitionBackend.class);
 
-    private final LocalMap<String, ApiDefinition> registry;
+    private static final String SNAPSHOT_KEY = "snapshot";
 
-    DefaultApiDefinitionBackend(Vertx vertx, String name) {
-        this.registry = vertx.sharedData().<String, ApiDefinition>getLocalMap(name);
+    private final LocalMap<String, ApiRegistrySnapshot> snapshots;
+
+    private final ApiResolutionCache resolutionCache;
+
+    DefaultApiDefinitionBackend(Vertx vertx, String name, ApiResolutionCache resolutionCache) {
+        this.snapshots = vertx.sharedData().<String, ApiRegistrySnapshot>getLocalMap(name);
+        this.resolutionCache = resolutionCache;
     }
 
     @Override
@@ -35,7 +49,7 @@ class DefaultApiDefinitionBackend implements ApiDefinitionBackend {
             resultHandler.handle(Future.failedFuture("definition is null"));
             return;
         }
-        registry.put(definition.name(), definition);
+        update(snapshot -> snapshot.put(definition));
         resultHandler.handle(Future.succeededFuture(definition));
     }
 
@@ -45,17 +59,60 @@ class DefaultApiDefinitionBackend implements ApiDefinitionBackend {
             resultHandler.handle(Future.failedFuture("name required"));
             return;
         }
-        ApiDefinition definition = registry.remove(name);
-        if (definition != null) {
-            resultHandler.handle(Future.succeededFuture(definition));
+        ApiDefinition[] removed = new ApiDefinition[1];
+        update(snapshot -> {
+            removed[0] = snapshot.definition(name);
+            return snapshot.remove(name);
+        });
+        if (removed[0] != null) {
+            resultHandler.handle(Future.succeededFuture(removed[0]));
         } else {
             resultHandler.handle(Future.failedFuture("Api: '" + name + "' not found"));
         }
     }
 
+    @Override
+    public void storeAll(Collection<ApiDefinition> definitions, boolean replace,
+                         Handler<AsyncResult<ApiChangeEvent>> resultHandler) {
+        if (definitions == null) {
+            resultHandler.handle(Future.failedFuture("definitions is null"));
+            return;
+        }
+        Set<String> published = definitions.stream()
+                .map(ApiDefinition::name)
+                .collect(Collectors.toSet());
+        resultHandler.handle(Future.succeededFuture(
+                updateAll(snapshot -> snapshot.putAll(definitions, replace), published)));
+    }
+
+    @Override
+    public void removeAll(Collection<String> names,
+                          Handler<AsyncResult<ApiChangeEvent>> resultHandler) {
+        if (names == null) {
+            resultHandler.handle(Future.failedFuture("names required"));
+            return;
+        }
+        resultHandler.handle(Future.succeededFuture(
+                updateAll(snapshot -> snapshot.removeAll(names), Collections.emptySet())));
+    }
+
+    @Override
+    public void apply(Collection<ApiDefinition> upserts, Collection<String> removals,
+                      Handler<AsyncResult<ApiChangeEvent>> resultHandler) {
+        if (upserts == null || removals == null) {
+            resultHandler.handle(Future.failedFuture("upserts and removals required"));
+            return;
+        }
+        Set<String> published = upserts.stream()
+                .map(ApiDefinition::name)
+                .collect(Collectors.toSet());
+        resultHandler.handle(Future.succeededFuture(
+                updateAll(snapshot -> snapshot.apply(upserts, removals), published)));
+    }
+
     @Override
     public void getDefinitions(Handler<AsyncResult<List<ApiDefinition>>> resultHandler) {
-        resultHandler.handle(Future.succeededFuture(new ArrayList<>(registry.values())));
+        resultHandler.handle(Future.succeededFuture(snapshot().definitions()));
     }
 
     @Override
@@ -64,7 +121,7 @@ class DefaultApiDefinitionBackend implements ApiDefinitionBackend {
             resultHandler.handle(Future.failedFuture("name required"));
             return;
         }
-        ApiDefinition definition = registry.get(name);
+        ApiDefinition definition = snapshot().definition(name);
         if (definition != null) {
             resultHandler.handle(Future.succeededFuture(definition));
         } else {
@@ -72,9 +129,84 @@ class DefaultApiDefinitionBackend implements ApiDefinitionBackend {
         }
     }
 
+    @Override
+    public void filter(String method, String path,
+                       Handler<AsyncResult<List<ApiDefinition>>> resultHandler) {
+        ApiRegistrySnapshot snapshot = snapshot();
+        List<ApiDefinition> definitions = null;
+        if (resolutionCache != null) {
+            definitions = resolutionCache.get(snapshot.generation(), method, path);
+            if (definitions != null) {
+                resultHandler.handle(Future.succeededFuture(definitions));
+                return;
+            }
+        }
+        definitions = snapshot.index().match(method, path);
+        if (definitions != null && resolutionCache != null) {
+            resolutionCache.put(snapshot.generation(), method, path, definitions);
+        }
+        if (definitions == null) {
+            //无法识别的请求方法，退化为逐个匹配
+            JsonObject filter = new JsonObject()
+                    .put("method", method)
+                    .put("path", path);
+            definitions = ApiDefinition.extractInOrder(snapshot.definitions().stream()
+                                                               .filter(d -> d.match(filter))
+                                                               .collect(Collectors.toList()));
+        }
+        resultHandler.handle(Future.succeededFuture(definitions));
+    }
+
     @Override
     public void clear(Handler<AsyncResult<Void>> resultHandler) {
-        registry.clear();
+        update(ApiRegistrySnapshot::clear);
         resultHandler.handle(Future.succeededFuture());
     }
+
+    @Override
+    public ApiRegistrySnapshot snapshot() {
+        ApiRegistrySnapshot snapshot = snapshots.get(SNAPSHOT_KEY);
+        return snapshot == null ? ApiRegistrySnapshot.EMPTY : snapshot;
+    }
+
+    /**
+     * 批量修改注册表，如果注册表没有发生变化，不会替换快照.
+     *
+     * @param operator  快照的修改函数
+     * @param published 显式发布的API名称，即使对象没有变化也认为是替换
+     * @return 注册表的变化
+     */
+    private ApiChangeEvent updateAll(UnaryOperator<ApiRegistrySnapshot> operator,
+                                     Set<String> published) {
+        ApiChangeEvent[] event = new ApiChangeEvent[1];
+        update(snapshot -> {
+            ApiRegistrySnapshot next = operator.apply(snapshot);
+            event[0] = snapshot.diff(next, published);
+            if (event[0].isEmpty()) {
+                event[0] = snapshot.diff(snapshot, Collections.emptySet());
+                return snapshot;
+            }
+            return next;
+        });
+        return event[0];
+    }
+
+    /**
+     * 基于当前的快照创建一个新的快照并替换，多个写入方之间通过LocalMap加锁.
+     *
+     * @param operator 快照的修改函数
+     * @return 新的快照
+     */
+    private ApiRegistrySnapshot update(UnaryOperator<ApiRegistrySnapshot> operator) {
+        synchronized (snapshots) {
+            ApiRegistrySnapshot previous = snapshot();
+            ApiRegistrySnapshot next = operator.apply(previous);
+            if (next != previous) {
+                snapshots.put(SNAPSHOT_KEY, next);
+                LOGGER.debug("[ApiDiscovery] [swapSnapshot] {size:{}, generation:{}}", next.size(),
+                             next.generation());
+            }
+            return next;
+        }
+    }
 }
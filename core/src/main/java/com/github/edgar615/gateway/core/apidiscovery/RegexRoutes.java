@@ -0,0 +1,256 @@
+package com.github.edgar615.gateway.core.apidiscovery;
+
+import com.github.edgar615.gateway.core.definition.RegexPathApiDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 一组正则路由的匹配器.
+ * <p>
+ * 最初每个正则路由都要单独创建一个Matcher做一次匹配，PathParamFilter在找到API后还要再匹配一次来读取分组.
+ * 这里将多个正则表达式合并成一个 (p1)|(p2)|(p3) 的表达式，一次匹配就可以得到第一个匹配的路由和它的分组，
+ * 每个正则表达式外层的分组用来判断是哪个正则表达式匹配成功.
+ * <p>
+ * 使用了反向引用或者命名分组的正则表达式合并后语义会发生变化，这类表达式依然单独匹配.
+ * <p>
+ * 合并后的表达式只能找到第一个匹配的路由，排在后面的路由也可能匹配同一个路径.
+ * 创建时根据每个正则表达式一定出现的开头和结尾字符计算哪些后面的路由可能与它匹配同一个路径，
+ * 匹配成功后只再单独匹配这些路由，开头或结尾的字符不同的路由不会再匹配.
+ *
+ * @author Edgar  Date 2018/12/5
+ */
+class RegexRoutes {
+
+    private static final Pattern BACK_REFERENCE =
+            Pattern.compile("\\\\[1-9]|\\\\k<|\\(\\?<[a-zA-Z]");
+
+    /**
+     * 会包含后面字符的转义序列
+     */
+    private static final String MULTI_CHAR_ESCAPES = "xu0cNpPk";
+
+    /**
+     * 合并后的正则表达式
+     */
+    private final Pattern combined;
+
+    /**
+     * 可以合并的路由
+     */
+    private final RegexPathApiDefinition[] combinedDefinitions;
+
+    /**
+     * 每个可以合并的路由在合并后的正则表达式中的外层分组
+     */
+    private final int[] markers;
+
+    /**
+     * 每个可以合并的路由的分组数量
+     */
+    private final int[] groupCounts;
+
+    /**
+     * 每个可以合并的路由之后，可能与它匹配同一个路径的路由的下标
+     */
+    private final int[][] overlaps;
+
+    /**
+     * 无法合并的路由
+     */
+    private final RegexPathApiDefinition[] standalone;
+
+    RegexRoutes(List<RegexPathApiDefinition> definitions) {
+        List<RegexPathApiDefinition> combinable = new ArrayList<>();
+        List<RegexPathApiDefinition> standaloneList = new ArrayList<>();
+        for (RegexPathApiDefinition definition : definitions) {
+            if (definitions.size() > 1
+                && !BACK_REFERENCE.matcher(definition.pattern().pattern()).find()) {
+                combinable.add(definition);
+            } else {
+                standaloneList.add(definition);
+            }
+        }
+        this.combinedDefinitions = combinable.toArray(new RegexPathApiDefinition[0]);
+        this.standalone = standaloneList.toArray(new RegexPathApiDefinition[0]);
+        this.markers = new int[combinedDefinitions.length];
+        this.groupCounts = new int[combinedDefinitions.length];
+        this.overlaps = overlaps(combinedDefinitions);
+        if (combinedDefinitions.length == 0) {
+            this.combined = null;
+            return;
+        }
+        StringBuilder regex = new StringBuilder();
+        int group = 1;
+        for (int i = 0; i < combinedDefinitions.length; i++) {
+            if (i > 0) {
+                regex.append('|');
+            }
+            Pattern pattern = combinedDefinitions[i].pattern();
+            regex.append('(').append(pattern.pattern()).append(')');
+            markers[i] = group;
+            groupCounts[i] = pattern.matcher("").groupCount();
+            group += groupCounts[i] + 1;
+        }
+        this.combined = Pattern.compile(regex.toString());
+    }
+
+    /**
+     * 匹配请求路径，将匹配的路由和分组加入到结果中.
+     *
+     * @param path    请求路径
+     * @param end     请求路径的结束位置，用来忽略最后的/
+     * @param matches 匹配结果，为null时会创建一个新的对象
+     * @return 匹配结果，如果没有匹配的路由并且matches为null，返回null
+     */
+    RouteMatches match(String path, int end, RouteMatches matches) {
+        if (combined != null) {
+            Matcher matcher = combined.matcher(path).region(0, end);
+            if (matcher.matches()) {
+                int winner = 0;
+                while (matcher.start(markers[winner]) < 0) {
+                    winner++;
+                }
+                matches = add(matches, combinedDefinitions[winner],
+                              groups(matcher, markers[winner] + 1, groupCounts[winner]));
+                //排在后面的路由也可能匹配，为了保持原有语义需要继续判断可能匹配同一个路径的路由
+                for (int i : overlaps[winner]) {
+                    matches = matchOne(combinedDefinitions[i], path, end, matches);
+                }
+            }
+        }
+        for (RegexPathApiDefinition definition : standalone) {
+            matches = matchOne(definition, path, end, matches);
+        }
+        return matches;
+    }
+
+    /**
+     * 计算每个路由之后可能与它匹配同一个路径的路由.
+     *
+     * @param definitions 可以合并的路由
+     * @return 下标数组
+     */
+    private static int[][] overlaps(RegexPathApiDefinition[] definitions) {
+        String[] prefixes = new String[definitions.length];
+        String[] suffixes = new String[definitions.length];
+        for (int i = 0; i < definitions.length; i++) {
+            prefixes[i] = literalPrefix(definitions[i].pattern());
+            suffixes[i] = literalSuffix(definitions[i].pattern());
+        }
+        int[][] overlaps = new int[definitions.length][];
+        int[] candidates = new int[definitions.length];
+        for (int i = 0; i < definitions.length; i++) {
+            int size = 0;
+            for (int j = i + 1; j < definitions.length; j++) {
+                if (!conflict(prefixes[i], prefixes[j], false)
+                    && !conflict(suffixes[i], suffixes[j], true)) {
+                    candidates[size++] = j;
+                }
+            }
+            overlaps[i] = Arrays.copyOf(candidates, size);
+        }
+        return overlaps;
+    }
+
+    /**
+     * 正则表达式开头的普通字符，所有匹配的路径都以这些字符开头，无法确定时返回空字符串.
+     *
+     * @param pattern 正则表达式
+     * @return 开头的字符
+     */
+    static String literalPrefix(Pattern pattern) {
+        String regex = pattern.pattern();
+        if (!literalAffixes(pattern)) {
+            return "";
+        }
+        int i = 0;
+        while (i < regex.length() && ApiRouteIndex.REGEX_META_CHARS.indexOf(regex.charAt(i)) < 0) {
+            i++;
+        }
+        //量词作用于前一个字符，这个字符不一定出现
+        if (i > 0 && i < regex.length()
+            && ApiRouteIndex.REGEX_QUANTIFIERS.indexOf(regex.charAt(i)) >= 0) {
+            i--;
+        }
+        return regex.substring(0, i);
+    }
+
+    /**
+     * 正则表达式结尾的普通字符，所有匹配的路径都以这些字符结尾，无法确定时返回空字符串.
+     *
+     * @param pattern 正则表达式
+     * @return 结尾的字符
+     */
+    static String literalSuffix(Pattern pattern) {
+        String regex = pattern.pattern();
+        if (!literalAffixes(pattern)) {
+            return "";
+        }
+        int i = regex.length();
+        while (i > 0 && ApiRouteIndex.REGEX_META_CHARS.indexOf(regex.charAt(i - 1)) < 0) {
+            i--;
+        }
+        //前面是\时第一个字符属于转义序列，例如\d，\x41、\u0041这类转义序列还会包含后面的字符
+        if (i > 0 && i < regex.length() && regex.charAt(i - 1) == '\\') {
+            if (MULTI_CHAR_ESCAPES.indexOf(regex.charAt(i)) >= 0) {
+                return "";
+            }
+            i++;
+        }
+        return regex.substring(i);
+    }
+
+    /**
+     * 有编译选项、内嵌选项或者顶层的|时，开头和结尾的字符不一定出现在路径中.
+     */
+    private static boolean literalAffixes(Pattern pattern) {
+        String regex = pattern.pattern();
+        return pattern.flags() == 0 && !regex.contains("(?")
+               && !ApiRouteIndex.hasTopLevelAlternation(regex);
+    }
+
+    /**
+     * 两个开头（或结尾）的字符串在较短的长度内有不同的字符时，不可能匹配同一个路径.
+     */
+    private static boolean conflict(String a, String b, boolean suffix) {
+        int length = Math.min(a.length(), b.length());
+        for (int k = 0; k < length; k++) {
+            char ca = suffix ? a.charAt(a.length() - 1 - k) : a.charAt(k);
+            char cb = suffix ? b.charAt(b.length() - 1 - k) : b.charAt(k);
+            if (ca != cb) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private RouteMatches matchOne(RegexPathApiDefinition definition, String path, int end,
+                                  RouteMatches matches) {
+        Matcher matcher = definition.pattern().matcher(path).region(0, end);
+        if (matcher.matches()) {
+            return add(matches, definition, groups(matcher, 1, matcher.groupCount()));
+        }
+        return matches;
+    }
+
+    private RouteMatches add(RouteMatches matches, RegexPathApiDefinition definition,
+                             String[] groups) {
+        if (matches == null) {
+            matches = new RouteMatches();
+        }
+        matches.add(definition, groups);
+        return matches;
+    }
+
+    private String[] groups(Matcher matcher, int from, int count) {
+        String[] groups = new String[count];
+        for (int i = 0; i < count; i++) {
+            groups[i] = matcher.group(from + i);
+        }
+        return groups;
+    }
+}
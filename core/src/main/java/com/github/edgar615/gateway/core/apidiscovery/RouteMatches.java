@@ -0,0 +1,85 @@
+package com.github.edgar615.gateway.core.apidiscovery;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 正则路由的匹配结果.
+ * <p>
+ * 除了匹配到的API之外，还保存了每个API的正则表达式在请求路径中的分组，PathParamFilter可以直接使用这些分组，不需要再做一次正则匹配.
+ * 该列表不可修改.
+ *
+ * @author Edgar  Date 2018/12/5
+ */
+public class RouteMatches extends AbstractList<ApiDefinition> implements RandomAccess {
+
+    /**
+     * 保存在上下文内部属性（{@link com.github.edgar615.gateway.core.dispatch.ApiContext#attribute(String)}）中的正则分组的名称.
+     */
+    public static final String PATH_GROUPS = "pathGroups";
+
+    private ApiDefinition[] definitions = new ApiDefinition[2];
+
+    private String[][] groups = new String[2][];
+
+    private int size;
+
+    RouteMatches() {
+    }
+
+    void add(ApiDefinition definition, String[] pathGroups) {
+        if (size == definitions.length) {
+            definitions = Arrays.copyOf(definitions, size * 2);
+            groups = Arrays.copyOf(groups, size * 2);
+        }
+        definitions[size] = definition;
+        groups[size] = pathGroups;
+        size++;
+    }
+
+    @Override
+    public ApiDefinition get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return definitions[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 返回API的正则表达式在请求路径中的分组.
+     *
+     * @param definition API
+     * @return 分组，未参与匹配的分组为null. 如果API不在列表中，返回null
+     */
+    public String[] pathGroups(ApiDefinition definition) {
+        for (int i = 0; i < size; i++) {
+            if (definitions[i] == definition) {
+                return groups[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 从ApiDiscovery.filter的结果中读取API的正则分组.
+     *
+     * @param definitions ApiDiscovery.filter返回的API列表
+     * @param definition  最终选择的API
+     * @return 分组, 如果不是正则路由的匹配结果，返回null
+     */
+    public static String[] pathGroups(List<ApiDefinition> definitions, ApiDefinition definition) {
+        if (definitions instanceof RouteMatches) {
+            return ((RouteMatches) definitions).pathGroups(definition);
+        }
+        return null;
+    }
+}
@@ -47,5 +47,14 @@ public interface ApiCmd {
         if (config.containsKey("unpublishedAddress")) {
             privateConfig.put("unpublishedAddress", config.getString("unpublishedAddress"));
         }
+        if (config.containsKey("changedAddress")) {
+            privateConfig.put("changedAddress", config.getString("changedAddress"));
+        }
+        if (config.containsKey("deltaEvents")) {
+            privateConfig.put("deltaEvents", config.getBoolean("deltaEvents"));
+        }
+        if (config.containsKey("changeBatchInterval")) {
+            privateConfig.put("changeBatchInterval", config.getLong("changeBatchInterval"));
+        }
     }
 }
@@ -2,36 +2,75 @@ package com.github.edgar615.gateway.core.definition;
 
 import com.google.common.base.Preconditions;
 
+import com.github.edgar615.gateway.core.utils.AntPathPattern;
 import io.vertx.core.http.HttpMethod;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * ant匹配规则的API定义.
+ * <p>
+ * API路径和忽略的规则在加入时就编译为{@link AntPathPattern}，匹配请求时不需要再解析.
  *
  * @author Edgar  Date 2018/1/11
  */
-class AntPathApiDefinition extends ApiDefinitionImpl {
+public class AntPathApiDefinition extends ApiDefinitionImpl {
 
     /**
      * 忽略的规则，如果匹配这个规则，将不再进行ant匹配.
      */
     private final List<String> ignoredPatterns = new ArrayList<>();
 
+    /**
+     * 编译后的忽略规则
+     */
+    private final List<AntPathPattern> compiledIgnoredPatterns = new ArrayList<>();
+
+    /**
+     * 编译后的API路径
+     */
+    private final AntPathPattern pattern;
+
     AntPathApiDefinition(String name, HttpMethod method, String path,
                          List<Endpoint> endpoints) {
         super(name, method, path, endpoints);
+        this.pattern = AntPathPattern.compile(path());
     }
 
     public AntPathApiDefinition addIgnoredPattern(String pattern) {
         Preconditions.checkNotNull(pattern);
         this.ignoredPatterns.add(pattern);
+        this.compiledIgnoredPatterns.add(AntPathPattern.compile(pattern));
         return this;
     }
 
     public List<String> ignoredPatterns() {
-        return ignoredPatterns;
+        return Collections.unmodifiableList(ignoredPatterns);
+    }
+
+    /**
+     * @return 编译后的API路径
+     */
+    public AntPathPattern pattern() {
+        return pattern;
+    }
+
+    /**
+     * 判断请求路径的前end个字符是否匹配，匹配任意一个忽略的规则都认为不匹配.
+     *
+     * @param path 请求路径
+     * @param end  请求路径的结束位置
+     * @return 如果匹配返回true
+     */
+    boolean matchPath(String path, int end) {
+        for (int i = 0; i < compiledIgnoredPatterns.size(); i++) {
+            if (compiledIgnoredPatterns.get(i).isMatch(path, end)) {
+                return false;
+            }
+        }
+        return pattern.isMatch(path, end);
     }
 
 }
@@ -0,0 +1,138 @@
+package com.github.edgar615.gateway.core.definition;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * API二进制格式的读取类，与{@link ApiBinaryOutput}对应.
+ * <p>
+ * 数据可以直接来自一个内存映射的文件，读取时先加载字符串表，之后的字符串都通过下标从字符串表中获取.
+ *
+ * @author Edgar  Date 2018/12/10
+ */
+public final class ApiBinaryInput {
+
+    private final ByteBuffer buffer;
+
+    private final String[] strings;
+
+    /**
+     * 从buffer的当前位置读取字符串表.
+     *
+     * @param buffer ByteBuffer
+     */
+    ApiBinaryInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+        int size = readVarInt();
+        this.strings = new String[size];
+        for (int i = 0; i < size; i++) {
+            byte[] bytes = new byte[readVarInt()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    int position() {
+        return buffer.position();
+    }
+
+    void position(int position) {
+        buffer.position(position);
+    }
+
+    public byte readByte() {
+        return buffer.get();
+    }
+
+    public boolean readBoolean() {
+        return buffer.get() != 0;
+    }
+
+    public int readVarInt() {
+        long value = readVarLong();
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalStateException("varint overflow: " + value);
+        }
+        return (int) value;
+    }
+
+    public long readLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public double readDouble() {
+        return buffer.getDouble();
+    }
+
+    public String readString() {
+        int index = readVarInt();
+        return index == 0 ? null : strings[index - 1];
+    }
+
+    /**
+     * 读取一个JSON值.
+     *
+     * @return JSON值
+     */
+    public Object readJson() {
+        byte tag = readByte();
+        switch (tag) {
+            case ApiBinaryOutput.JSON_NULL:
+                return null;
+            case ApiBinaryOutput.JSON_STRING:
+                return readString();
+            case ApiBinaryOutput.JSON_LONG:
+                long value = readLong();
+                if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                    return (int) value;
+                }
+                return value;
+            case ApiBinaryOutput.JSON_DOUBLE:
+                return readDouble();
+            case ApiBinaryOutput.JSON_TRUE:
+                return true;
+            case ApiBinaryOutput.JSON_FALSE:
+                return false;
+            case ApiBinaryOutput.JSON_OBJECT:
+                int fields = readVarInt();
+                JsonObject jsonObject = new JsonObject();
+                for (int i = 0; i < fields; i++) {
+                    jsonObject.put(readString(), readJson());
+                }
+                return jsonObject;
+            case ApiBinaryOutput.JSON_ARRAY:
+                int elements = readVarInt();
+                JsonArray jsonArray = new JsonArray();
+                for (int i = 0; i < elements; i++) {
+                    jsonArray.add(readJson());
+                }
+                return jsonArray;
+            default:
+                throw new IllegalStateException("unknown json tag: " + tag);
+        }
+    }
+
+    public JsonObject readJsonObject() {
+        return (JsonObject) readJson();
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IllegalStateException("malformed varint");
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.github.edgar615.gateway.core.definition;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API二进制格式的写入类.
+ * <p>
+ * 整数使用varint编码，字符串只写入在字符串表中的下标，相同的字符串（API路径的前缀、主机名、插件名等）在整个文件中只保存一次.
+ * 字符串表在{@link #toBuffer()}时写在数据的前面，读取时先加载字符串表.
+ * <p>
+ * 插件的编码类可以通过{@link #child()}创建一个共享字符串表的子输出，写完后使用{@link #writeChild(ApiBinaryOutput)}写入，
+ * 这样读取方不认识这个插件时可以根据长度跳过.
+ *
+ * @author Edgar  Date 2018/12/10
+ */
+public final class ApiBinaryOutput {
+
+    static final byte JSON_NULL = 0;
+
+    static final byte JSON_STRING = 1;
+
+    static final byte JSON_LONG = 2;
+
+    static final byte JSON_DOUBLE = 3;
+
+    static final byte JSON_TRUE = 4;
+
+    static final byte JSON_FALSE = 5;
+
+    static final byte JSON_OBJECT = 6;
+
+    static final byte JSON_ARRAY = 7;
+
+    private final Map<String, Integer> stringIndex;
+
+    private final List<String> strings;
+
+    private final Buffer buffer = Buffer.buffer();
+
+    ApiBinaryOutput() {
+        this(new HashMap<>(), new ArrayList<>());
+    }
+
+    private ApiBinaryOutput(Map<String, Integer> stringIndex, List<String> strings) {
+        this.stringIndex = stringIndex;
+        this.strings = strings;
+    }
+
+    /**
+     * @return 一个共享字符串表的输出
+     */
+    public ApiBinaryOutput child() {
+        return new ApiBinaryOutput(stringIndex, strings);
+    }
+
+    /**
+     * 写入子输出的长度和内容.
+     *
+     * @param child 子输出
+     * @return ApiBinaryOutput
+     */
+    public ApiBinaryOutput writeChild(ApiBinaryOutput child) {
+        writeVarInt(child.buffer.length());
+        buffer.appendBuffer(child.buffer);
+        return this;
+    }
+
+    public ApiBinaryOutput writeByte(int value) {
+        buffer.appendByte((byte) value);
+        return this;
+    }
+
+    public ApiBinaryOutput writeBoolean(boolean value) {
+        return writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * 写入一个非负整数，小于128的整数只占用一个字节.
+     *
+     * @param value 非负整数
+     * @return ApiBinaryOutput
+     */
+    public ApiBinaryOutput writeVarInt(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("negative varint: " + value);
+        }
+        return writeVarLong(value);
+    }
+
+    /**
+     * 写入一个long，使用zigzag编码，绝对值较小的负数也只占用少量字节.
+     *
+     * @param value long
+     * @return ApiBinaryOutput
+     */
+    public ApiBinaryOutput writeLong(long value) {
+        return writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public ApiBinaryOutput writeDouble(double value) {
+        buffer.appendDouble(value);
+        return this;
+    }
+
+    /**
+     * 写入字符串在字符串表中的下标，null写入0.
+     *
+     * @param value 字符串
+     * @return ApiBinaryOutput
+     */
+    public ApiBinaryOutput writeString(String value) {
+        if (value == null) {
+            return writeVarInt(0);
+        }
+        Integer index = stringIndex.get(value);
+        if (index == null) {
+            strings.add(value);
+            index = strings.size();
+            stringIndex.put(value, index);
+        }
+        return writeVarInt(index);
+    }
+
+    /**
+     * 写入任意的JSON值，没有实现二进制编码的插件使用这个方法写入JSON.
+     *
+     * @param value JSON值
+     * @return ApiBinaryOutput
+     */
+    public ApiBinaryOutput writeJson(Object value) {
+        if (value == null) {
+            writeByte(JSON_NULL);
+        } else if (value instanceof CharSequence || value instanceof Enum) {
+            writeByte(JSON_STRING).writeString(value.toString());
+        } else if (value instanceof Double || value instanceof Float) {
+            writeByte(JSON_DOUBLE).writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Number) {
+            writeByte(JSON_LONG).writeLong(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            writeByte((Boolean) value ? JSON_TRUE : JSON_FALSE);
+        } else if (value instanceof JsonObject) {
+            JsonObject jsonObject = (JsonObject) value;
+            writeByte(JSON_OBJECT).writeVarInt(jsonObject.size());
+            for (Map.Entry<String, Object> entry : jsonObject) {
+                writeString(entry.getKey());
+                writeJson(entry.getValue());
+            }
+        } else if (value instanceof JsonArray) {
+            JsonArray jsonArray = (JsonArray) value;
+            writeByte(JSON_ARRAY).writeVarInt(jsonArray.size());
+            for (Object element : jsonArray) {
+                writeJson(element);
+            }
+        } else if (value instanceof Map) {
+            writeJson(new JsonObject((Map) value));
+        } else if (value instanceof List) {
+            writeJson(new JsonArray((List) value));
+        } else {
+            throw new IllegalArgumentException("unsupported json value: " + value.getClass());
+        }
+        return this;
+    }
+
+    /**
+     * 将字符串表和数据合并为一个Buffer.
+     *
+     * @return Buffer
+     */
+    Buffer toBuffer() {
+        ApiBinaryOutput header = new ApiBinaryOutput();
+        header.writeVarInt(strings.size());
+        for (String value : strings) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            header.writeVarInt(bytes.length);
+            header.buffer.appendBytes(bytes);
+        }
+        return header.buffer.appendBuffer(buffer);
+    }
+
+    private ApiBinaryOutput writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.appendByte((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.appendByte((byte) value);
+        return this;
+    }
+}
@@ -139,6 +139,23 @@ public interface ApiDefinition extends Shareable {
         return apiPlugins.get(0);
     }
 
+    /**
+     * 根据插件类型返回插件
+     *
+     * @param type 插件类型，一般是插件的接口
+     * @param <T>  插件类型
+     * @return 如果未找到对应的插件，返回null;
+     */
+    default <T extends ApiPlugin> T plugin(Class<T> type) {
+        Preconditions.checkNotNull(type, "type cannot be null");
+        for (ApiPlugin plugin : plugins()) {
+            if (type.isInstance(plugin)) {
+                return type.cast(plugin);
+            }
+        }
+        return null;
+    }
+
     /**
      * 是否是ant风格
      *
@@ -157,6 +174,25 @@ public interface ApiDefinition extends Shareable {
         return this instanceof RegexPathApiDefinition;
     }
 
+    /**
+     * 是否直接透传请求体和响应体.
+     * 只有一个endpoint，并且所有的插件都不需要读取JSON格式的请求体、响应体时，网关直接转发原始的字节，不再解析和编码JSON.
+     * 全局的替换和转换不属于插件，透传的请求体、响应体中有需要替换的变量时由对应的filter解析之后再处理.
+     *
+     * @return 透传返回true
+     */
+    default boolean passThrough() {
+        if (endpoints().size() != 1) {
+            return false;
+        }
+        for (ApiPlugin plugin : plugins()) {
+            if (plugin.requiresJsonBody()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     default JsonObject toJson() {
         return ApiDefinitionEncoder.instance().apply(this);
     }
@@ -164,4 +200,14 @@ public interface ApiDefinition extends Shareable {
     default boolean match(JsonObject filter) {
         return ApiDefinitionUtils.match(this, filter);
     }
+
+    /**
+     * 判断请求路径是否与API的路径匹配.
+     *
+     * @param path 请求路径
+     * @return 匹配返回true
+     */
+    default boolean matchPath(String path) {
+        return ApiDefinitionUtils.matchPath(this, path);
+    }
 }
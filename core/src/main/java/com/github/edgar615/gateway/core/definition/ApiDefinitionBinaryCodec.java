@@ -0,0 +1,221 @@
+package com.github.edgar615.gateway.core.definition;
+
+import com.google.common.collect.ImmutableMap;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 将一组ApiDefinition编码为紧凑的二进制格式.
+ * <p>
+ * 重启时逐个将JSON解析为ApiDefinition的开销较大，网关可以将注册表保存为二进制文件，启动时直接从内存映射的文件中恢复.
+ * 格式如下（整数都是varint）：
+ * <pre>
+ *   magic(4字节) version(4字节) generation(8字节)
+ *   字符串表：数量 [长度 UTF-8]...
+ *   API数量 [API]...
+ *   API：name method path type [ignoredPatterns] endpoint数量 [type 内容]... 插件数量 [name 长度 内容]...
+ * </pre>
+ * endpoint和插件的内容分别由{@link EndpointCodec}和{@link ApiPluginFactory}的二进制编码方法写入，
+ * 无法识别的插件会根据长度跳过.
+ *
+ * @author Edgar  Date 2018/12/10
+ */
+public final class ApiDefinitionBinaryCodec {
+
+    /**
+     * AGSB
+     */
+    private static final int MAGIC = 0x41475342;
+
+    private static final int VERSION = 1;
+
+    private static final int TYPE_EXACT = 0;
+
+    private static final int TYPE_REGEX = 1;
+
+    private static final int TYPE_ANT = 2;
+
+    private static final Map<String, ApiPluginFactory> PLUGIN_FACTORIES =
+            index(ApiPlugin.factories, ApiPluginFactory::name);
+
+    private static final Map<String, EndpointCodec> ENDPOINT_CODECS =
+            index(Endpoints.codecList, EndpointCodec::type);
+
+    private ApiDefinitionBinaryCodec() {
+        throw new AssertionError("Not instantiable: " + ApiDefinitionBinaryCodec.class);
+    }
+
+    /**
+     * 编码.
+     *
+     * @param generation  注册表的版本号
+     * @param definitions API
+     * @return Buffer
+     */
+    public static Buffer encode(long generation, Collection<ApiDefinition> definitions) {
+        ApiBinaryOutput out = new ApiBinaryOutput();
+        out.writeVarInt(definitions.size());
+        for (ApiDefinition definition : definitions) {
+            writeDefinition(out, definition);
+        }
+        return Buffer.buffer()
+                .appendInt(MAGIC)
+                .appendInt(VERSION)
+                .appendLong(generation)
+                .appendBuffer(out.toBuffer());
+    }
+
+    /**
+     * 解码，buffer可以是内存映射的文件.
+     *
+     * @param buffer ByteBuffer
+     * @return API
+     * @throws IllegalStateException 文件格式或者版本不正确
+     */
+    public static List<ApiDefinition> decode(ByteBuffer buffer) {
+        checkHeader(buffer);
+        buffer.getLong();
+        ApiBinaryInput in = new ApiBinaryInput(buffer);
+        int size = in.readVarInt();
+        List<ApiDefinition> definitions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            definitions.add(readDefinition(in));
+        }
+        return definitions;
+    }
+
+    /**
+     * 读取编码时的注册表版本号.
+     *
+     * @param buffer ByteBuffer
+     * @return 版本号
+     */
+    public static long generation(ByteBuffer buffer) {
+        ByteBuffer duplicate = buffer.duplicate();
+        checkHeader(duplicate);
+        return duplicate.getLong();
+    }
+
+    private static void checkHeader(ByteBuffer buffer) {
+        if (buffer.remaining() < 16 || buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("not an api snapshot");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalStateException("unsupported snapshot version: " + version);
+        }
+    }
+
+    private static void writeDefinition(ApiBinaryOutput out, ApiDefinition definition) {
+        out.writeString(definition.name())
+                .writeString(definition.method().name())
+                .writeString(definition.path());
+        if (definition instanceof AntPathApiDefinition) {
+            List<String> ignoredPatterns = ((AntPathApiDefinition) definition).ignoredPatterns();
+            out.writeVarInt(TYPE_ANT).writeVarInt(ignoredPatterns.size());
+            ignoredPatterns.forEach(out::writeString);
+        } else if (definition instanceof RegexPathApiDefinition) {
+            out.writeVarInt(TYPE_REGEX);
+        } else {
+            out.writeVarInt(TYPE_EXACT);
+        }
+
+        out.writeVarInt(definition.endpoints().size());
+        for (Endpoint endpoint : definition.endpoints()) {
+            EndpointCodec codec = ENDPOINT_CODECS.get(endpoint.type().toLowerCase());
+            if (codec == null) {
+                throw new UnsupportedOperationException("unsupport endpoint type:"
+                                                        + endpoint.type());
+            }
+            out.writeString(codec.type());
+            codec.encodeBinary(endpoint, out);
+        }
+
+        List<ApiPlugin> plugins = definition.plugins();
+        out.writeVarInt(plugins.size());
+        for (ApiPlugin plugin : plugins) {
+            ApiPluginFactory factory = PLUGIN_FACTORIES.get(plugin.name().toLowerCase());
+            if (factory == null) {
+                throw new UnsupportedOperationException("no such factory->" + plugin.name());
+            }
+            ApiBinaryOutput pluginOut = out.child();
+            factory.encodeBinary(plugin, pluginOut);
+            out.writeString(factory.name()).writeChild(pluginOut);
+        }
+    }
+
+    private static ApiDefinition readDefinition(ApiBinaryInput in) {
+        String name = in.readString();
+        HttpMethod method = HttpMethod.valueOf(in.readString());
+        String path = in.readString();
+        int type = in.readVarInt();
+        List<String> ignoredPatterns = new ArrayList<>();
+        if (type == TYPE_ANT) {
+            int size = in.readVarInt();
+            for (int i = 0; i < size; i++) {
+                ignoredPatterns.add(in.readString());
+            }
+        }
+
+        int endpointSize = in.readVarInt();
+        List<Endpoint> endpoints = new ArrayList<>(endpointSize);
+        for (int i = 0; i < endpointSize; i++) {
+            String endpointType = in.readString();
+            EndpointCodec codec = ENDPOINT_CODECS.get(endpointType.toLowerCase());
+            if (codec == null) {
+                throw new UnsupportedOperationException("unsupport endpoint type:"
+                                                        + endpointType);
+            }
+            endpoints.add(codec.decodeBinary(in));
+        }
+
+        ApiDefinition definition;
+        if (type == TYPE_ANT) {
+            AntPathApiDefinition antPathApiDefinition =
+                    (AntPathApiDefinition) ApiDefinition.createAnt(name, method, path, endpoints);
+            ignoredPatterns.forEach(antPathApiDefinition::addIgnoredPattern);
+            definition = antPathApiDefinition;
+        } else if (type == TYPE_REGEX) {
+            definition = ApiDefinition.createRegex(name, method, path, endpoints);
+        } else {
+            definition = ApiDefinition.create(name, method, path, endpoints);
+        }
+
+        int pluginSize = in.readVarInt();
+        for (int i = 0; i < pluginSize; i++) {
+            String pluginName = in.readString();
+            int length = in.readVarInt();
+            int end = in.position() + length;
+            ApiPluginFactory factory = PLUGIN_FACTORIES.get(pluginName.toLowerCase());
+            if (factory != null) {
+                ApiPlugin plugin = factory.decodeBinary(in);
+                if (plugin != null) {
+                    definition.addPlugin(plugin);
+                }
+            }
+            //插件已经不存在时直接跳过
+            in.position(end);
+        }
+        return definition;
+    }
+
+    /**
+     * 按名称建立索引，与JSON的编解码一样，名称重复时使用第一个.
+     */
+    private static <T> Map<String, T> index(List<T> values, Function<T, String> key) {
+        Map<String, T> index = new HashMap<>();
+        for (T value : values) {
+            index.putIfAbsent(key.apply(value).toLowerCase(), value);
+        }
+        return ImmutableMap.copyOf(index);
+    }
+}
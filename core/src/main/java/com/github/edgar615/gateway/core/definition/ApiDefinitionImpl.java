@@ -3,16 +3,22 @@ package com.github.edgar615.gateway.core.definition;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import com.github.edgar615.util.base.MorePreconditions;
 import io.vertx.core.http.HttpMethod;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * API的路由转发定义.
  * 该类仅定义参数校验，转发规则.对于其他逻辑交由插件实现.
+ * <p>
+ * 每个请求会多次读取插件，所以插件保存在一个不可变的{@link PluginTable}中，增加或删除插件时重新创建，
+ * 读取时不需要加锁，也不会创建新的对象.
  *
  * @author Edgar  Date 2016/9/8
  */
@@ -40,7 +46,7 @@ class ApiDefinitionImpl implements ApiDefinition {
      */
     private final List<Endpoint> endpoints;
 
-    private final List<ApiPlugin> plugins = new ArrayList<>();
+    private volatile PluginTable pluginTable = PluginTable.EMPTY;
 
     ApiDefinitionImpl(String name, HttpMethod method, String path,
                       List<Endpoint> endpoints) {
@@ -85,26 +91,49 @@ class ApiDefinitionImpl implements ApiDefinition {
 
     @Override
     public List<ApiPlugin> plugins() {
-        return ImmutableList.copyOf(plugins);
+        return pluginTable.plugins;
     }
 
     @Override
-    public ApiDefinition addPlugin(ApiPlugin plugin) {
+    public ApiPlugin plugin(String name) {
+        Preconditions.checkNotNull(name, "name cannot be null");
+        List<ApiPlugin> plugins = pluginTable.plugins;
+        for (int i = 0; i < plugins.size(); i++) {
+            ApiPlugin plugin = plugins.get(i);
+            if (name.equalsIgnoreCase(plugin.name())) {
+                return plugin;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public <T extends ApiPlugin> T plugin(Class<T> type) {
+        Preconditions.checkNotNull(type, "type cannot be null");
+        return type.cast(pluginTable.types.get(type));
+    }
+
+    @Override
+    public synchronized ApiDefinition addPlugin(ApiPlugin plugin) {
         if (plugin == null) {
             return this;
         }
         Preconditions.checkNotNull(plugin, "plugin cannot be null");
-        removePlugin(plugin.name());
+        List<ApiPlugin> plugins = new ArrayList<>(pluginTable.plugins);
+        plugins.removeIf(p -> plugin.name().equalsIgnoreCase(p.name()));
         plugins.add(plugin);
+        pluginTable = new PluginTable(plugins);
         return this;
     }
 
     @Override
-    public ApiDefinition removePlugin(String name) {
+    public synchronized ApiDefinition removePlugin(String name) {
         Preconditions.checkNotNull(name, "name cannot be null");
         ApiPlugin apiPlugin = plugin(name);
         if (apiPlugin != null) {
+            List<ApiPlugin> plugins = new ArrayList<>(pluginTable.plugins);
             plugins.remove(apiPlugin);
+            pluginTable = new PluginTable(plugins);
         }
         return this;
     }
@@ -116,8 +145,45 @@ class ApiDefinitionImpl implements ApiDefinition {
                 .add("method", method)
                 .add("path", path)
                 .add("endpoints", endpoints)
-                .add("plugins", plugins)
+                .add("plugins", pluginTable.plugins)
                 .toString();
     }
 
+    /**
+     * 插件列表和按类型索引的插件，创建后不再修改.
+     */
+    private static class PluginTable {
+
+        private static final PluginTable EMPTY = new PluginTable(ImmutableList.of());
+
+        private final List<ApiPlugin> plugins;
+
+        /**
+         * 插件实现的所有ApiPlugin子类型到插件的映射，多个插件实现同一个类型时保留第一个
+         */
+        private final Map<Class<?>, ApiPlugin> types;
+
+        private PluginTable(List<ApiPlugin> plugins) {
+            this.plugins = ImmutableList.copyOf(plugins);
+            Map<Class<?>, ApiPlugin> types = new HashMap<>();
+            for (ApiPlugin plugin : plugins) {
+                register(types, plugin.getClass(), plugin);
+            }
+            this.types = ImmutableMap.copyOf(types);
+        }
+
+        private static void register(Map<Class<?>, ApiPlugin> types, Class<?> type,
+                                     ApiPlugin plugin) {
+            if (type == null || type == ApiPlugin.class
+                || !ApiPlugin.class.isAssignableFrom(type)) {
+                return;
+            }
+            types.putIfAbsent(type, plugin);
+            register(types, type.getSuperclass(), plugin);
+            for (Class<?> anInterface : type.getInterfaces()) {
+                register(types, anInterface, plugin);
+            }
+        }
+    }
+
 }
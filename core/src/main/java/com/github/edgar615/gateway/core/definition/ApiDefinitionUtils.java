@@ -1,6 +1,5 @@
 package com.github.edgar615.gateway.core.definition;
 
-import com.github.edgar615.gateway.core.utils.AntPathMatcher;
 import io.vertx.core.json.JsonObject;
 
 import java.util.regex.Matcher;
@@ -39,30 +38,25 @@ class ApiDefinitionUtils {
     }
 
     static boolean matchPath(ApiDefinition definition, String expected) {
-        if (expected.endsWith("/") && expected.length() > 1) {
-            expected = expected.substring(0, expected.length() - 1);
+        //忽略最后的/，直接使用结束位置避免截取字符串
+        int end = expected.length();
+        if (end > 1 && expected.charAt(end - 1) == '/') {
+            end--;
         }
         if (definition instanceof AntPathApiDefinition) {
-            AntPathMatcher matcher = new AntPathMatcher.Builder().build();
-            return !matchIgnore((AntPathApiDefinition) definition, matcher, expected)
-                   && matcher.isMatch(definition.path(), expected);
+            return ((AntPathApiDefinition) definition).matchPath(expected, end);
         } else if (definition instanceof RegexPathApiDefinition) {
             RegexPathApiDefinition regexPathApiDefinition = (RegexPathApiDefinition) definition;
             Pattern pattern = regexPathApiDefinition.pattern();
-            Matcher matcher = pattern.matcher(expected);
+            Matcher matcher = pattern.matcher(expected).region(0, end);
             return matcher.matches();
         } else {
-            return definition.path().equals(expected);
+            String path = definition.path();
+            return path.length() == end && expected.startsWith(path);
         }
 
     }
 
-    static boolean matchIgnore(AntPathApiDefinition definition, AntPathMatcher matcher,
-                               String expected) {
-        return definition.ignoredPatterns()
-                .stream().anyMatch(p -> matcher.isMatch(p, expected));
-    }
-
     static boolean match(Object actual, Object expected) {
         if (actual == null) {
             return false;
@@ -39,6 +39,18 @@ public interface ApiPlugin {
         throw new NoSuchElementException("no such factory->" + name);
     }
 
+    /**
+     * 插件是否需要读取或修改JSON格式的请求体、响应体.
+     * API上所有的插件都不需要时，网关直接透传请求体和响应体，见ApiDefinition.passThrough().
+     * 默认认为插件需要，只读取请求头、请求参数或者路由信息的插件需要覆盖这个方法返回false，
+     * 避免新增的插件因为忘记声明而拿不到JSON格式的请求体.
+     *
+     * @return 默认返回true
+     */
+    default boolean requiresJsonBody() {
+        return true;
+    }
+
     default JsonObject encode() {
         return factories.stream().filter(f -> this.name().equalsIgnoreCase(f.name()))
                 .map(f -> f.encode(this))
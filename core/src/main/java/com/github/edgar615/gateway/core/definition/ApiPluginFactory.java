@@ -14,4 +14,24 @@ public interface ApiPluginFactory extends JsonObjectCodec<ApiPlugin> {
     String name();
 
     ApiPlugin create();
+
+    /**
+     * 将插件写入二进制快照，默认写入{@link #encode(Object)}的JSON，插件可以覆盖这个方法使用更紧凑的格式.
+     *
+     * @param plugin 插件
+     * @param out    ApiBinaryOutput
+     */
+    default void encodeBinary(ApiPlugin plugin, ApiBinaryOutput out) {
+        out.writeJson(encode(plugin));
+    }
+
+    /**
+     * 从二进制快照中读取插件，必须与{@link #encodeBinary(ApiPlugin, ApiBinaryOutput)}对应.
+     *
+     * @param in ApiBinaryInput
+     * @return 插件
+     */
+    default ApiPlugin decodeBinary(ApiBinaryInput in) {
+        return decode(in.readJsonObject());
+    }
 }
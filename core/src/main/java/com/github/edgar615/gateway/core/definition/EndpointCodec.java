@@ -14,4 +14,24 @@ public interface EndpointCodec {
     JsonObject toJson(Endpoint endpoint);
 
     String type();
+
+    /**
+     * 将Endpoint写入二进制快照，默认写入{@link #toJson(Endpoint)}的JSON.
+     *
+     * @param endpoint Endpoint
+     * @param out      ApiBinaryOutput
+     */
+    default void encodeBinary(Endpoint endpoint, ApiBinaryOutput out) {
+        out.writeJson(toJson(endpoint));
+    }
+
+    /**
+     * 从二进制快照中读取Endpoint，必须与{@link #encodeBinary(Endpoint, ApiBinaryOutput)}对应.
+     *
+     * @param in ApiBinaryInput
+     * @return Endpoint
+     */
+    default Endpoint decodeBinary(ApiBinaryInput in) {
+        return fromJson(in.readJsonObject());
+    }
 }
@@ -16,7 +16,7 @@ import java.util.stream.Collectors;
  * @author Edgar  Date 2017/3/8
  */
 public class Endpoints {
-    private static final List<EndpointCodec> codecList
+    static final List<EndpointCodec> codecList
             = Lists.newArrayList(ServiceLoader.load(EndpointCodec.class));
 
     public static Endpoint fromJson(JsonObject jsonObject) {
@@ -42,6 +42,26 @@ public class SimpleHttpEndpointCodec implements EndpointCodec {
                 .put("method", httpEndpoint.method());
     }
 
+    @Override
+    public void encodeBinary(Endpoint endpoint, ApiBinaryOutput out) {
+        SimpleHttpEndpoint httpEndpoint = (SimpleHttpEndpoint) endpoint;
+        out.writeString(httpEndpoint.name())
+                .writeString(httpEndpoint.method().name())
+                .writeString(httpEndpoint.path())
+                .writeVarInt(httpEndpoint.port())
+                .writeString(httpEndpoint.host());
+    }
+
+    @Override
+    public Endpoint decodeBinary(ApiBinaryInput in) {
+        String name = in.readString();
+        HttpMethod method = HttpMethod.valueOf(in.readString());
+        String path = in.readString();
+        int port = in.readVarInt();
+        String host = in.readString();
+        return new SimpleHttpEndpointImpl(name, method, path, port, host);
+    }
+
     @Override
     public String type() {
         return SimpleHttpEndpoint.TYPE;
@@ -8,12 +8,15 @@ import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.rpc.RpcRequest;
 import com.github.edgar615.gateway.core.rpc.RpcResponse;
 import com.github.edgar615.gateway.core.utils.NumberUtils;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.json.JsonObject;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * API调用的上下文.
@@ -22,6 +25,11 @@ import java.util.UUID;
  */
 public interface ApiContext {
 
+    /**
+     * 保存是否透传请求体的内部属性名.
+     */
+    String PASS_THROUGH = "passThrough";
+
     /**
      * @return ID，全局唯一.
      */
@@ -38,10 +46,49 @@ public interface ApiContext {
     Multimap<String, String> headers();
 
     /**
+     * 返回请求头的第一个值，请求头的名称不区分大小写.
+     *
+     * @param name 请求头名称
+     * @return 请求头的值，不存在时返回null
+     */
+    default String header(String name) {
+        for (String key : headers().keySet()) {
+            if (key.equalsIgnoreCase(name)) {
+                Collection<String> values = headers().get(key);
+                return values.isEmpty() ? null : values.iterator().next();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 返回请求体.
+     * <p>
+     * 同一个请求的所有上下文共享请求体，返回的JSON是只读的，修改第一层的属性会抛出UnsupportedOperationException.
+     * 需要修改请求体时先通过copyJson复制，修改之后通过setBody设置.
+     *
      * @return 请求体, json格式.
      */
     JsonObject body();
 
+    /**
+     * 替换请求体，只影响当前上下文和之后从当前上下文copy()出来的上下文.
+     *
+     * @param body 请求体，可以为null
+     * @return ApiContext
+     */
+    ApiContext setBody(JsonObject body);
+
+    /**
+     * 原始的请求体，用于透传请求体的API直接转发，不需要再编码JSON.
+     *
+     * @return 请求体，没有请求体时返回null
+     */
+    default Buffer rawBody() {
+        JsonObject body = body();
+        return body == null ? null : body.toBuffer();
+    }
+
     /**
      * @return 请求路径.
      */
@@ -126,6 +173,56 @@ public interface ApiContext {
      */
     String nextRpcId();
 
+    /**
+     * 返回网关内部使用的属性.
+     * <p>
+     * 内部属性只用于在filter之间传递缓存（例如正则分组、客户端IP的数值），不属于variables，
+     * 不会输出到日志和响应头中.copy()会复制内部属性，修改不会记录在journal中.
+     * 默认的实现不保存任何属性，使用方需要在没有缓存时重新计算.
+     *
+     * @param name 属性名
+     * @return 属性值，不存在时返回null
+     */
+    default Object attribute(String name) {
+        return null;
+    }
+
+    /**
+     * 设置网关内部使用的属性，见{@link #attribute(String)}.
+     *
+     * @param name  属性名
+     * @param value 属性值
+     * @return ApiContext
+     */
+    default ApiContext setAttribute(String name, Object value) {
+        return this;
+    }
+
+    /**
+     * 是否直接透传请求体和响应体.
+     * <p>
+     * FilterChain在API的执行计划中计算一次并保存在内部属性中，没有执行计划时根据API计算.
+     *
+     * @return 透传返回true
+     */
+    default boolean passThrough() {
+        Object passThrough = attribute(PASS_THROUGH);
+        if (passThrough instanceof Boolean) {
+            return (Boolean) passThrough;
+        }
+        return apiDefinition() != null && apiDefinition().passThrough();
+    }
+
+    /**
+     * 通过copy()创建上下文之后，通过setPrincipal、setBody、addVariable、setApiDefinition、addRequest、addResponse、setResult所做的修改，
+     * 按修改的顺序排列，用于记录每个filter修改了哪些属性.
+     *
+     * @return 修改的属性
+     */
+    default List<String> journal() {
+        return Collections.emptyList();
+    }
+
     /**
      * 创建ApiContext对象.
      *
@@ -144,7 +241,26 @@ public interface ApiContext {
     }
 
     /**
-     * 创建ApiContext对象.该方法使用一个UUID作为ID.
+     * 使用HTTP请求的原始数据创建ApiContext对象.
+     * <p>
+     * 请求头、请求参数和请求体在第一次读取时才会转换为Multimap和JsonObject.
+     * 请求体不是JSON对象时，读取请求体会抛出SystemException.
+     *
+     * @param id      上下文ID，该值应该使用一个全局唯一ID
+     * @param method  HTTP方法
+     * @param path    请求路径
+     * @param headers 请求头
+     * @param params  请求参数
+     * @param body    请求体，可以为null
+     * @return ApiContext对象
+     */
+    static ApiContext wrap(String id, HttpMethod method, String path, MultiMap headers,
+                           MultiMap params, Buffer body) {
+        return new ApiContextImpl(id, method, path, RequestData.wrap(headers, params, body));
+    }
+
+    /**
+     * 创建ApiContext对象.该方法使用RequestIdGenerator生成ID.
      *
      * @param method  HTTP方法
      * @param path    请求路径
@@ -155,7 +271,8 @@ public interface ApiContext {
      */
     static ApiContext create(HttpMethod method, String path, Multimap<String, String> headers,
                              Multimap<String, String> params, JsonObject body) {
-        return create(UUID.randomUUID().toString(), method, path, headers, params, body);
+        return create(RequestIdGenerator.instance().nextId(), method, path, headers, params,
+                      body);
     }
 
     /**
@@ -185,15 +302,22 @@ public interface ApiContext {
 //      target.setApiDefinition(source.apiDefinition().copy());
             target.setApiDefinition(source.apiDefinition());
         }
+        if (source instanceof ApiContextImpl && target instanceof ApiContextImpl) {
+            ((ApiContextImpl) target).inheritRpcSequence((ApiContextImpl) source);
+            ((ApiContextImpl) target).inheritAttributes((ApiContextImpl) source);
+        }
     }
 
     /**
-     * 将ApiContext复制成为一个新的对象
+     * 将ApiContext复制成为一个新的对象.
+     * <p>
+     * 默认的实现会复制请求头、请求参数和请求体，ApiContext.create创建的上下文会直接共享这些不可变的数据，
+     * 只复制可变属性的容器，新对象的journal为空.
      *
      * @return ApiContext
      */
     default ApiContext copy() {
-        ApiContext apiContext;
+        ApiContextImpl apiContext;
         if (body() == null) {
             apiContext =
                     new ApiContextImpl(id(), method(), path(), ArrayListMultimap.create(headers()),
@@ -206,6 +330,8 @@ public interface ApiContext {
         }
 
         ApiContext.copyProperties(this, apiContext);
+        //copyProperties通过set方法复制属性，这些修改不属于新对象
+        apiContext.clearJournal();
         return apiContext;
     }
 
@@ -1,61 +1,110 @@
 package com.github.edgar615.gateway.core.dispatch;
 
 import com.google.common.base.MoreObjects;
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
 
+import com.github.edgar615.gateway.core.apidiscovery.RouteMatches;
 import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.rpc.RpcRequest;
 import com.github.edgar615.gateway.core.rpc.RpcResponse;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.json.JsonObject;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * ApiContext的实现.
+ * <p>
+ * 请求头、请求参数和请求体在创建后不会被修改，copy()创建的上下文直接共享这些数据.
+ * 通过ApiContext.wrap创建的上下文在第一次读取这些数据时才会解析.
+ * 请求体只读，setBody设置的请求体只保存在当前上下文中（copy()会继承），不会修改共享的RequestData.
+ * 可变的属性（变量、RPC请求、RPC响应）只复制容器，不再复制RPC请求和响应本身，filter完成后原来的上下文不再使用.
+ * 通过上下文的方法所做的修改会记录在journal中.
+ */
 class ApiContextImpl implements ApiContext {
 
     private final String path;
 
     private final HttpMethod method;
 
-    private final Multimap<String, String> headers;
+    /**
+     * 请求头、请求参数和请求体，所有的copy共享同一个对象
+     */
+    private final RequestData request;
 
-    private final Multimap<String, String> params;
+    private final Map<String, Object> variables;
 
-    private final JsonObject body;
+    private final List<RpcRequest> requests;
 
-    private final Map<String, Object> variables = new HashMap<>();
-
-    private final List<RpcRequest> requests = new ArrayList<>();
-
-    private final List<RpcResponse> responses = new ArrayList<>();
+    private final List<RpcResponse> responses;
 
     private final String id;
 
     private JsonObject principal;
 
+    /**
+     * setBody设置的只读请求体，bodyReplaced为false时使用RequestData中的请求体
+     */
+    private JsonObject body;
+
+    private boolean bodyReplaced;
+
     private ApiDefinition apiDefinition;
 
     private Result result;
 
+    /**
+     * 内部属性，第一次设置时创建
+     */
+    private Map<String, Object> attributes;
+
+    /**
+     * 修改记录，第一次修改时创建
+     */
+    private List<String> journal;
+
+    /**
+     * 已经生成的RPC请求ID的数量
+     */
+    private int rpcSequence;
+
     ApiContextImpl(String id, HttpMethod method, String path, Multimap<String, String> headers,
                    Multimap<String, String> params, JsonObject body) {
+        this(id, method, path, RequestData.create(headers, params, body));
+    }
+
+    ApiContextImpl(String id, HttpMethod method, String path, RequestData request) {
         this.id = id;
         this.path = path;
         this.method = method;
-        if (headers == null) {
-            headers = ArrayListMultimap.create();
-        }
-        this.headers = headers;
-        if (params == null) {
-            params = ArrayListMultimap.create();
+        this.request = request;
+        this.variables = new HashMap<>();
+        this.requests = new ArrayList<>();
+        this.responses = new ArrayList<>();
+    }
+
+    private ApiContextImpl(ApiContextImpl source) {
+        this.id = source.id;
+        this.path = source.path;
+        this.method = source.method;
+        this.request = source.request;
+        this.principal = source.principal;
+        this.body = source.body;
+        this.bodyReplaced = source.bodyReplaced;
+        this.apiDefinition = source.apiDefinition;
+        this.result = source.result;
+        this.variables = new HashMap<>(source.variables);
+        this.requests = new ArrayList<>(source.requests);
+        this.responses = new ArrayList<>(source.responses);
+        this.rpcSequence = source.rpcSequence;
+        if (source.attributes != null) {
+            this.attributes = new HashMap<>(source.attributes);
         }
-        this.params = params;
-        this.body = body;
     }
 
     @Override
@@ -65,20 +114,38 @@ class ApiContextImpl implements ApiContext {
 
     @Override
     public Multimap<String, String> params() {
-        return ImmutableMultimap.copyOf(params);
+        return request.params();
     }
 
     @Override
     public Multimap<String, String> headers() {
-        return ImmutableMultimap.copyOf(headers);
+        return request.headers();
+    }
+
+    @Override
+    public String header(String name) {
+        return request.header(name);
     }
 
     @Override
     public JsonObject body() {
-        if (body != null) {
-            return copyJson(body);
+        return bodyReplaced ? body : request.body();
+    }
+
+    @Override
+    public ApiContext setBody(JsonObject body) {
+        this.body = body == null ? null : RequestData.readOnly(body);
+        this.bodyReplaced = true;
+        record("body");
+        return this;
+    }
+
+    @Override
+    public Buffer rawBody() {
+        if (bodyReplaced) {
+            return body == null ? null : body.toBuffer();
         }
-        return null;
+        return request.rawBody();
     }
 
     @Override
@@ -99,6 +166,7 @@ class ApiContextImpl implements ApiContext {
     @Override
     public ApiContext setPrincipal(JsonObject principal) {
         this.principal = principal;
+        record("principal");
         return this;
     }
 
@@ -110,6 +178,7 @@ class ApiContextImpl implements ApiContext {
     @Override
     public ApiContext addVariable(String name, Object value) {
         variables.put(name, value);
+        record("variables." + name);
         return this;
     }
 
@@ -120,7 +189,13 @@ class ApiContextImpl implements ApiContext {
 
     @Override
     public ApiContext setApiDefinition(ApiDefinition apiDefinition) {
+        if (attributes != null && this.apiDefinition != apiDefinition) {
+            //与API相关的内部属性在API变化后失效
+            attributes.remove(PASS_THROUGH);
+            attributes.remove(RouteMatches.PATH_GROUPS);
+        }
         this.apiDefinition = apiDefinition;
+        record("apiDefinition");
         return this;
     }
 
@@ -132,6 +207,7 @@ class ApiContextImpl implements ApiContext {
     @Override
     public ApiContext addRequest(RpcRequest request) {
         this.requests.add(request);
+        record("requests." + request.name());
         return this;
     }
 
@@ -143,6 +219,7 @@ class ApiContextImpl implements ApiContext {
     @Override
     public ApiContext addResponse(RpcResponse response) {
         this.responses.add(response);
+        record("responses." + response.id());
         return this;
     }
 
@@ -154,18 +231,55 @@ class ApiContextImpl implements ApiContext {
     @Override
     public ApiContext setResult(Result result) {
         this.result = result;
+        record("result");
         return this;
     }
 
+    @Override
+    public Object attribute(String name) {
+        return attributes == null ? null : attributes.get(name);
+    }
+
+    @Override
+    public ApiContext setAttribute(String name, Object value) {
+        if (attributes == null) {
+            attributes = new HashMap<>(4);
+        }
+        attributes.put(name, value);
+        return this;
+    }
+
+    @Override
+    public List<String> journal() {
+        return journal == null ? Collections.emptyList() : Collections.unmodifiableList(journal);
+    }
+
+    @Override
+    public ApiContext copy() {
+        return new ApiContextImpl(this);
+    }
+
+    void clearJournal() {
+        journal = null;
+    }
+
+    private void record(String change) {
+        if (journal == null) {
+            journal = new ArrayList<>(4);
+        }
+        journal.add(change);
+    }
+
     @Override
     public String toString() {
         MoreObjects.ToStringHelper helper = MoreObjects.toStringHelper("ApiContext")
                 .add("id", id)
                 .add("method", method)
                 .add("path", path)
-                .add("params", params)
-                .add("headers", headers)
-                .add("body", body)
+                .add("params", request.params())
+                .add("headers", request.headers())
+                .add("body", bodyReplaced ? (body == null ? null : body.encode())
+                        : request.bodyString())
                 .add("variables", variables)
                 .add("apiDefinition", apiDefinition);
         if (principal != null) {
@@ -178,11 +292,47 @@ class ApiContextImpl implements ApiContext {
         return helper.toString();
     }
 
+    /**
+     * RPC请求的ID为"请求ID.序号"，直接写入一个字符数组，不需要拼接字符串.
+     *
+     * @return RPC请求的ID
+     */
     @Override
     public String nextRpcId() {
-        int counter = (int) variables.getOrDefault("rpc.sn", 0) + 1;
-        variables.put("rpc.sn", counter);
-        return id + "." + counter;
+        int sequence = ++rpcSequence;
+        int digits = 1;
+        for (int i = sequence; i >= 10; i /= 10) {
+            digits++;
+        }
+        int length = id.length();
+        char[] chars = new char[length + 1 + digits];
+        id.getChars(0, length, chars, 0);
+        chars[length] = '.';
+        for (int i = chars.length - 1; i > length; i--) {
+            chars[i] = (char) ('0' + sequence % 10);
+            sequence /= 10;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 继承另一个上下文的RPC序号，避免复制出来的上下文生成重复的RPC请求ID.
+     *
+     * @param source 源对象
+     */
+    void inheritRpcSequence(ApiContextImpl source) {
+        this.rpcSequence = Math.max(rpcSequence, source.rpcSequence);
+    }
+
+    /**
+     * 复制另一个上下文的内部属性.
+     *
+     * @param source 源对象
+     */
+    void inheritAttributes(ApiContextImpl source) {
+        if (source.attributes != null) {
+            source.attributes.forEach(this::setAttribute);
+        }
     }
 
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.github.edgar615.gateway.core.dispatch;
 
 import com.google.common.collect.ImmutableList;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
@@ -47,6 +48,19 @@ public interface Filter {
      */
     boolean shouldFilter(ApiContext apiContext);
 
+    /**
+     * 根据API的静态配置（插件、endpoint的类型、路径的风格）判断这个filter是否可能处理这个API的请求.
+     * <p>
+     * DispatchHandler会为每个API预先计算需要执行的filter，返回false的filter在这个API的请求中直接跳过，不会再调用shouldFilter.
+     * 这个方法只能依赖API本身，不能依赖请求和运行时可以修改的配置.
+     *
+     * @param apiDefinition API
+     * @return false 这个API的所有请求都不需要执行filter，true 由shouldFilter决定
+     */
+    default boolean supports(ApiDefinition apiDefinition) {
+        return true;
+    }
+
     /**
      * filter的处理方法.
      * 该方法的第二个参数用于将filter传递给下一个filter,
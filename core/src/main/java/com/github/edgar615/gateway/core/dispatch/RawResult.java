@@ -0,0 +1,116 @@
+package com.github.edgar615.gateway.core.dispatch;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Multimap;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * 透传的响应.
+ * <p>
+ * 直接保存RPC返回的字节，第一次读取responseObject或responseArray时才解析.
+ * 解析之后rawBody()返回null，输出响应时使用解析后（可能被修改过）的JSON.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+class RawResult implements Result {
+
+    private final int statusCode;
+
+    private final Buffer body;
+
+    private final boolean isArray;
+
+    private final Multimap<String, String> headers = ArrayListMultimap.create();
+
+    private Result parsed;
+
+    RawResult(int statusCode, Buffer body, boolean isArray, Multimap<String, String> headers) {
+        this.statusCode = statusCode;
+        this.body = body;
+        this.isArray = isArray;
+        if (headers != null) {
+            this.headers.putAll(headers);
+        }
+    }
+
+    @Override
+    public int statusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public boolean isArray() {
+        return isArray;
+    }
+
+    @Override
+    public JsonObject responseObject() {
+        return parse().responseObject();
+    }
+
+    @Override
+    public JsonArray responseArray() {
+        return parse().responseArray();
+    }
+
+    @Override
+    public Buffer rawBody() {
+        return parsed == null ? body : null;
+    }
+
+    @Override
+    public Multimap<String, String> headers() {
+        return ImmutableMultimap.copyOf(headers);
+    }
+
+    @Override
+    public int byteSize() {
+        return toBuffer().length();
+    }
+
+    @Override
+    public Buffer toBuffer() {
+        return parsed == null ? body : parsed.toBuffer();
+    }
+
+    @Override
+    public Result addHeader(String name, String value) {
+        this.headers.put(name, value);
+        return this;
+    }
+
+    @Override
+    public Result addHeaders(Multimap<String, String> header) {
+        this.headers.putAll(header);
+        return this;
+    }
+
+    @Override
+    public Result copy() {
+        if (parsed == null) {
+            return new RawResult(statusCode, body, isArray, headers);
+        }
+        return Result.super.copy();
+    }
+
+    private Result parse() {
+        if (parsed == null) {
+            parsed = Result.create(statusCode, body, null);
+        }
+        return parsed;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper("Result")
+                .add("statusCode", statusCode)
+                .add("rawBody", body.length() + "bytes")
+                .add("headers", headers)
+                .toString();
+    }
+}
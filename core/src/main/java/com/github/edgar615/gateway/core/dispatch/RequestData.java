@@ -0,0 +1,223 @@
+package com.github.edgar615.gateway.core.dispatch;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimap;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.edgar615.util.exception.DefaultErrorCode;
+import com.github.edgar615.util.exception.SystemException;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * 请求头、请求参数和请求体.
+ * <p>
+ * 通过HTTP请求创建时只保存Vert.x的MultiMap和Buffer，第一次读取时才转换为Multimap和JsonObject，
+ * 只转发请求的API不会读取这些数据.
+ * 同一个请求的所有上下文共享一个RequestData，所以每个请求最多转换一次.
+ * <p>
+ * 请求体是只读的（见{@link #readOnly(JsonObject)}），读取请求体不会复制JSON.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+final class RequestData {
+
+    private final MultiMap headerMap;
+
+    private final MultiMap paramMap;
+
+    private Buffer bodyBuffer;
+
+    private boolean bodyDecoded;
+
+    private boolean rawBodyChecked;
+
+    private Multimap<String, String> headers;
+
+    private Multimap<String, String> params;
+
+    private JsonObject body;
+
+    private RequestData(MultiMap headerMap, MultiMap paramMap, Buffer bodyBuffer) {
+        this.headerMap = headerMap;
+        this.paramMap = paramMap;
+        this.bodyBuffer = bodyBuffer;
+    }
+
+    /**
+     * 使用已经解析好的数据创建RequestData.
+     *
+     * @param headers 请求头
+     * @param params  请求参数
+     * @param body    请求体
+     * @return RequestData
+     */
+    static RequestData create(Multimap<String, String> headers, Multimap<String, String> params,
+                              JsonObject body) {
+        RequestData requestData = new RequestData(null, null, null);
+        requestData.headers = headers == null ? ImmutableListMultimap.of()
+                : ImmutableListMultimap.copyOf(headers);
+        requestData.params = params == null ? ImmutableListMultimap.of()
+                : ImmutableListMultimap.copyOf(params);
+        requestData.body = body == null ? null : readOnly(body);
+        requestData.bodyDecoded = true;
+        return requestData;
+    }
+
+    /**
+     * 使用HTTP请求的原始数据创建RequestData.
+     *
+     * @param headers 请求头
+     * @param params  请求参数
+     * @param body    请求体，必须是JSON对象
+     * @return RequestData
+     */
+    static RequestData wrap(MultiMap headers, MultiMap params, Buffer body) {
+        return new RequestData(headers, params, body);
+    }
+
+    Multimap<String, String> headers() {
+        if (headers == null) {
+            headers = toMultimap(headerMap);
+        }
+        return headers;
+    }
+
+    /**
+     * 返回请求头的第一个值，名称不区分大小写.
+     * 通过HTTP请求创建时直接在Vert.x的MultiMap中查找，不会转换请求头，也不会遍历所有的请求头.
+     *
+     * @param name 请求头名称
+     * @return 请求头的值，不存在时返回null
+     */
+    String header(String name) {
+        if (headerMap != null) {
+            return headerMap.get(name);
+        }
+        Collection<String> values = headers.get(name);
+        if (!values.isEmpty()) {
+            return values.iterator().next();
+        }
+        for (String key : headers.keySet()) {
+            if (key.equalsIgnoreCase(name)) {
+                return headers.get(key).iterator().next();
+            }
+        }
+        return null;
+    }
+
+    Multimap<String, String> params() {
+        if (params == null) {
+            params = toMultimap(paramMap);
+        }
+        return params;
+    }
+
+    /**
+     * 创建JSON对象的只读视图，不会复制JSON.
+     * <p>
+     * 只有第一层的属性不能修改，修改会抛出UnsupportedOperationException.
+     * 视图的copy()不会保留属性的顺序，需要修改时使用ApiContext.copyJson复制.
+     *
+     * @param json JSON对象
+     * @return 只读的JSON对象
+     */
+    static JsonObject readOnly(JsonObject json) {
+        return new JsonObject(Collections.unmodifiableMap(json.getMap()));
+    }
+
+    /**
+     * 返回只读的请求体，第一次调用时解析JSON.
+     *
+     * @return 请求体，没有请求体时返回null
+     * @throws SystemException 请求体不是JSON对象
+     */
+    JsonObject body() {
+        if (!bodyDecoded) {
+            if (bodyBuffer != null && bodyBuffer.length() > 0) {
+                try {
+                    body = readOnly(new JsonObject(bodyBuffer));
+                } catch (DecodeException e) {
+                    throw SystemException.create(DefaultErrorCode.INVALID_JSON)
+                            .set("details", "Request body must be JSON Object");
+                }
+            }
+            bodyDecoded = true;
+        }
+        return body;
+    }
+
+    /**
+     * 返回原始的请求体，通过JsonObject创建的RequestData在第一次调用时编码.
+     * <p>
+     * 透传时不创建JsonObject，第一次调用时只按顺序读一遍JSON的token，检查请求体是否是一个合法的JSON对象.
+     *
+     * @return 请求体，没有请求体时返回null
+     * @throws SystemException 请求体不是JSON对象
+     */
+    Buffer rawBody() {
+        if (bodyBuffer == null && body != null) {
+            bodyBuffer = body.toBuffer();
+        }
+        if (bodyBuffer == null || bodyBuffer.length() == 0) {
+            return null;
+        }
+        if (!bodyDecoded && !rawBodyChecked) {
+            if (!isObject(bodyBuffer)) {
+                throw SystemException.create(DefaultErrorCode.INVALID_JSON)
+                        .set("details", "Request body must be JSON Object");
+            }
+            rawBodyChecked = true;
+        }
+        return bodyBuffer;
+    }
+
+    /**
+     * 使用Jackson的JsonParser跳过整个JSON对象，语法错误或者对象之后还有其他内容都返回false.
+     */
+    private static boolean isObject(Buffer buffer) {
+        try (JsonParser parser = Json.mapper.getFactory().createParser(buffer.getBytes())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            parser.skipChildren();
+            return parser.nextToken() == null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 用于日志输出，还没有解析的请求体直接输出原始的字符串，不会抛出异常.
+     *
+     * @return 请求体，没有请求体时返回null
+     */
+    String bodyString() {
+        if (bodyDecoded) {
+            return body == null ? null : body.encode();
+        }
+        if (bodyBuffer == null || bodyBuffer.length() == 0) {
+            return null;
+        }
+        return bodyBuffer.toString();
+    }
+
+    private static Multimap<String, String> toMultimap(MultiMap multiMap) {
+        if (multiMap == null || multiMap.isEmpty()) {
+            return ImmutableListMultimap.of();
+        }
+        ImmutableListMultimap.Builder<String, String> builder = ImmutableListMultimap.builder();
+        for (String name : multiMap.names()) {
+            builder.putAll(name, multiMap.getAll(name));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.edgar615.gateway.core.dispatch;
+
+/**
+ * 请求ID的生成器.
+ * <p>
+ * 通过ServiceLoader加载，如果没有实现类，使用默认的SequenceRequestIdGenerator.
+ * 生成的ID中不能包含"."，RPC请求的ID是在请求ID后面追加".序号".
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public interface RequestIdGenerator {
+
+    /**
+     * 生成一个新的请求ID，会在所有的event loop中并发调用.
+     *
+     * @return 请求ID
+     */
+    String nextId();
+
+    /**
+     * @return 全局的请求ID生成器
+     */
+    static RequestIdGenerator instance() {
+        return RequestIdGeneratorHolder.INSTANCE;
+    }
+}
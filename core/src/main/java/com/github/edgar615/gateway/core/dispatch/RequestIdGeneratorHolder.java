@@ -0,0 +1,24 @@
+package com.github.edgar615.gateway.core.dispatch;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * 延迟加载全局的请求ID生成器.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+final class RequestIdGeneratorHolder {
+
+    static final RequestIdGenerator INSTANCE = load();
+
+    private RequestIdGeneratorHolder() {
+        throw new AssertionError("Not instantiable: " + RequestIdGeneratorHolder.class);
+    }
+
+    private static RequestIdGenerator load() {
+        Iterator<RequestIdGenerator> iterator =
+                ServiceLoader.load(RequestIdGenerator.class).iterator();
+        return iterator.hasNext() ? iterator.next() : new SequenceRequestIdGenerator();
+    }
+}
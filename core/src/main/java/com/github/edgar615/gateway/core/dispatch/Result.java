@@ -35,13 +35,34 @@ public interface Result {
      */
     JsonArray responseArray();
 
+    /**
+     * 未解析的原始响应体，只有透传的响应在读取JSON之前才有值.
+     *
+     * @return 原始响应体
+     */
+    default Buffer rawBody() {
+        return null;
+    }
+
     /**
      * @return json对象
      */
     Multimap<String, String> headers();
 
+    /**
+     * @return 输出的响应体的字节数
+     */
     int byteSize();
 
+    /**
+     * 输出的响应体.
+     *
+     * @return 编码后的响应体
+     */
+    default Buffer toBuffer() {
+        return isArray() ? responseArray().toBuffer() : responseObject().toBuffer();
+    }
+
     Result addHeader(String name, String value);
 
     Result addHeaders(Multimap<String, String> header);
@@ -72,6 +93,20 @@ public interface Result {
         return new ResultImpl(statusCode, responseArray, header);
     }
 
+    /**
+     * 创建一个透传的响应，响应体在第一次读取JSON时才会解析.
+     *
+     * @param statusCode 响应码
+     * @param data       响应数据
+     * @param isArray    响应数据是否是JSON数组
+     * @param header     响应头
+     * @return Result
+     */
+    static Result createRaw(int statusCode, Buffer data, boolean isArray,
+                            Multimap<String, String> header) {
+        return new RawResult(statusCode, data, isArray, header);
+    }
+
     /**
      * 将buffer转换为AsyncResult，如果转换为JSON数组失败，尝试转换为JSON对象，
      * 同理，如果转换为JSON对象失败，尝试转换为JSON数组.
@@ -5,6 +5,8 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
 
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
@@ -13,6 +15,9 @@ import io.vertx.core.json.JsonObject;
  * <p>
  * <b>responseObject和responseArray只有一个有效</b>
  * responseArray不为null时，responseObject必为null,isArray必为true.
+ * <p>
+ * 响应体在输出（toBuffer）或者计算byteSize时编码并缓存.
+ * responseObject和responseArray返回的是可以修改的JSON，读取它们时会丢弃缓存，下次输出时重新编码.
  *
  * @author Edgar  Date 2016/4/8
  */
@@ -48,7 +53,10 @@ class ResultImpl implements Result {
 
     private final Multimap<String, String> headers = ArrayListMultimap.create();
 
-    private final int byteSize;
+    /**
+     * 编码后的响应体，输出或者计算byteSize时编码，读取responseObject或responseArray后失效
+     */
+    private Buffer encoded;
 
     ResultImpl(int statusCode, JsonObject responseObject,
                Multimap<String, String> headers) {
@@ -59,7 +67,6 @@ class ResultImpl implements Result {
         if (headers != null) {
             this.headers.putAll(headers);
         }
-        byteSize = responseObject.encode().getBytes().length;
     }
 
     ResultImpl(int statusCode, JsonArray responseArray, Multimap<String, String> headers) {
@@ -70,7 +77,6 @@ class ResultImpl implements Result {
         if (headers != null) {
             this.headers.putAll(headers);
         }
-        byteSize = responseArray.encode().getBytes().length;
     }
 
     @Override
@@ -84,23 +90,25 @@ class ResultImpl implements Result {
     }
 
     /**
-     * 返回JsonObject格式的响应内容.
+     * 返回JsonObject格式的响应内容，调用方可能修改返回的对象，所以会丢弃已经编码的响应体.
      *
      * @return JsonObject
      */
     @Override
     public JsonObject responseObject() {
-        return responseObject == null ? null : responseObject;
+        encoded = null;
+        return responseObject;
     }
 
     /**
-     * 返回JsonArray格式的响应内容.
+     * 返回JsonArray格式的响应内容，调用方可能修改返回的对象，所以会丢弃已经编码的响应体.
      *
      * @return JsonArray
      */
     @Override
     public JsonArray responseArray() {
-        return responseArray == null ? null : responseArray;
+        encoded = null;
+        return responseArray;
     }
 
     @Override
@@ -110,7 +118,15 @@ class ResultImpl implements Result {
 
     @Override
     public int byteSize() {
-        return byteSize;
+        return toBuffer().length();
+    }
+
+    @Override
+    public Buffer toBuffer() {
+        if (encoded == null) {
+            encoded = Json.encodeToBuffer(isArray ? responseArray : responseObject);
+        }
+        return encoded;
     }
 
     @Override
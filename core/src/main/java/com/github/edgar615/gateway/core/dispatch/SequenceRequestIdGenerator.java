@@ -0,0 +1,107 @@
+package com.github.edgar615.gateway.core.dispatch;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 默认的请求ID生成器.
+ * <p>
+ * ID是32个十六进制字符：8位启动时间 + 8位节点ID + 4位线程ID + 12位计数器.
+ * <ul>
+ * <li>启动时间是创建生成器时的秒数，重启后计数器从0开始，但是启动时间不同，不会与重启前的ID重复</li>
+ * <li>节点ID在启动时随机生成，只使用一次SecureRandom</li>
+ * <li>每个线程（event loop）第一次生成ID时分配一个线程ID，线程ID用完之后启动时间向后推进至少1秒，线程ID重新从0开始</li>
+ * <li>计数器在线程内递增，同一个线程生成的ID按字符串排序也是递增的</li>
+ * </ul>
+ * 线程之间不共享任何可变状态，每次生成ID只创建一个字符串.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public class SequenceRequestIdGenerator implements RequestIdGenerator {
+
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final int EPOCH_LENGTH = 8;
+
+    private static final int NODE_LENGTH = 8;
+
+    private static final int THREAD_LENGTH = 4;
+
+    private static final int COUNTER_LENGTH = 12;
+
+    private static final int PREFIX_LENGTH = EPOCH_LENGTH + NODE_LENGTH + THREAD_LENGTH;
+
+    private static final int MAX_THREADS = 1 << (THREAD_LENGTH * 4);
+
+    private final int node;
+
+    /**
+     * 启动时间（秒），线程ID用完之后向后推进
+     */
+    private long epoch;
+
+    private int threads;
+
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(this::newState);
+
+    public SequenceRequestIdGenerator() {
+        this(new SecureRandom().nextInt());
+    }
+
+    /**
+     * @param node 节点ID，同一时间运行的网关应该使用不同的节点ID
+     */
+    public SequenceRequestIdGenerator(int node) {
+        this.node = node;
+        this.epoch = currentSeconds();
+    }
+
+    @Override
+    public String nextId() {
+        State current = state.get();
+        long counter = ++current.counter;
+        char[] chars = current.chars;
+        for (int i = chars.length - 1; i >= PREFIX_LENGTH; i--) {
+            chars[i] = DIGITS[(int) (counter & 0xf)];
+            counter >>>= 4;
+        }
+        return new String(chars);
+    }
+
+    private synchronized State newState() {
+        if (threads == MAX_THREADS) {
+            epoch = Math.max(epoch + 1, currentSeconds());
+            threads = 0;
+        }
+        char[] chars = new char[PREFIX_LENGTH + COUNTER_LENGTH];
+        writeHex((int) epoch, chars, 0, EPOCH_LENGTH);
+        writeHex(node, chars, EPOCH_LENGTH, NODE_LENGTH);
+        writeHex(threads++, chars, EPOCH_LENGTH + NODE_LENGTH, THREAD_LENGTH);
+        return new State(chars);
+    }
+
+    private static long currentSeconds() {
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    }
+
+    private static void writeHex(int value, char[] chars, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            chars[i] = DIGITS[value & 0xf];
+            value >>>= 4;
+        }
+    }
+
+    private static class State {
+
+        /**
+         * 前20个字符是启动时间、节点ID和线程ID，生成ID时只改写计数器部分
+         */
+        private final char[] chars;
+
+        private long counter;
+
+        private State(char[] chars) {
+            this.chars = chars;
+        }
+    }
+}
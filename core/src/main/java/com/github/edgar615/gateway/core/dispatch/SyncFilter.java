@@ -0,0 +1,48 @@
+package com.github.edgar615.gateway.core.dispatch;
+
+import io.vertx.core.Future;
+
+/**
+ * 同步执行的filter.
+ * <p>
+ * 不需要等待IO的filter（参数校验、黑白名单、请求替换等）实现这个接口，DispatchHandler会在同一个循环中直接执行连续的同步filter，
+ * 不再为每个filter创建Future.
+ * doFilter抛出的异常等同于completeFuture.fail().
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public interface SyncFilter extends Filter {
+
+    /**
+     * filter的同步处理方法.
+     *
+     * @param apiContext api上下文
+     * @return 传递给下一个filter的上下文
+     */
+    ApiContext doFilter(ApiContext apiContext);
+
+    @Override
+    default void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+        ApiContext result;
+        try {
+            result = doFilter(apiContext);
+        } catch (Exception e) {
+            completeFuture.fail(e);
+            return;
+        }
+        completeFuture.complete(result);
+    }
+
+    /**
+     * 记录失败的日志，返回需要抛出的异常.
+     *
+     * @param traceId   跟踪ID
+     * @param event     事件
+     * @param throwable 异常
+     * @return 传入的异常
+     */
+    default RuntimeException failed(String traceId, String event, RuntimeException throwable) {
+        LOGGER.warn("[{}] [{}] [{}]", traceId, this.getClass().getSimpleName(), event);
+        return throwable;
+    }
+}
@@ -0,0 +1,408 @@
+package com.github.edgar615.gateway.core.log;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Multimap;
+
+import com.github.edgar615.gateway.core.utils.MultimapUtils;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 访问日志.
+ * <p>
+ * event loop只判断是否采样，然后在环形缓冲区（AccessLogRing）中占用一条预先分配的记录并设置字段，
+ * 转换为字符串和写文件都在后台线程中批量完成.没有采样的请求不会创建任何字符串.
+ * 缓冲区满了之后新的日志直接丢弃，后台线程会定期输出丢弃的数量.
+ * 后台线程没有日志可写时进入休眠，生产者发布记录时如果后台线程正在休眠就唤醒它，
+ * 休眠有一个超时时间，即使错过了唤醒也只会延迟写入.
+ * <p>
+ * 日志的格式与原来的日志相同：
+ * <pre>
+ * [id] [SR] [HTTP] [GET /devices?type=1] [body] [clientIp]
+ * [id] [SS] [HTTP] [200] [128bytes] [5ms]
+ * [id.1] [CS] [HTTP] [localhost:8080] [GET /devices?type=1] [body]
+ * [id.1] [CR] [HTTP] [200] [128bytes] [3ms]
+ * </pre>
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public class AccessLog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccessLog.class);
+
+    private static final int SAMPLE_SCALE = 10000;
+
+    /**
+     * 后台线程休眠的最长时间
+     */
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long DROPPED_REPORT_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+
+    private static volatile AccessLog instance;
+
+    private final AccessLogRing ring;
+
+    private final AccessLogSink sink;
+
+    private final int sampleThreshold;
+
+    private final boolean logErrors;
+
+    private final boolean logHeaders;
+
+    private final int maxBodyLength;
+
+    private final int batchSize;
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    /**
+     * 后台线程是否正在休眠
+     */
+    private final AtomicBoolean idle = new AtomicBoolean();
+
+    /**
+     * 以下字段只在后台线程中使用
+     */
+    private final StringBuilder line = new StringBuilder(256);
+
+    private long reportedDropped;
+
+    private long lastReportOn;
+
+    AccessLog(AccessLogOptions options, AccessLogSink sink) {
+        this.ring = new AccessLogRing(options.getBufferSize());
+        this.sink = sink;
+        this.sampleThreshold = (int) Math.round(
+                Math.min(1, Math.max(0, options.getSampleRate())) * SAMPLE_SCALE);
+        this.logErrors = options.isLogErrors();
+        this.logHeaders = options.isLogHeaders();
+        this.maxBodyLength = options.getMaxBodyLength();
+        this.batchSize = Math.max(1, options.getBatchSize());
+        this.writer = new Thread(this::run, "access-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * 使用配置创建全局的访问日志，已经创建过的话直接返回原来的访问日志.
+     *
+     * @param options 配置
+     * @return AccessLog
+     */
+    public static synchronized AccessLog init(AccessLogOptions options) {
+        if (instance == null) {
+            instance = create(options);
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::close));
+        }
+        return instance;
+    }
+
+    /**
+     * 返回全局的访问日志，没有调用过init时使用默认的配置创建.
+     *
+     * @return AccessLog
+     */
+    public static AccessLog instance() {
+        AccessLog accessLog = instance;
+        if (accessLog == null) {
+            accessLog = init(new AccessLogOptions());
+        }
+        return accessLog;
+    }
+
+    /**
+     * 创建访问日志，不会修改全局的访问日志.
+     *
+     * @param options 配置
+     * @return AccessLog
+     */
+    public static AccessLog create(AccessLogOptions options) {
+        if (options.getPath() == null) {
+            return new AccessLog(options, new Slf4jAccessLogSink());
+        }
+        try {
+            return new AccessLog(options,
+                                 new RollingFileAccessLogSink(options.getPath(),
+                                                              options.getMaxFileSize(),
+                                                              options.getMaxFiles()));
+        } catch (IOException e) {
+            LOGGER.error("[AccessLog] [open] [{}], use slf4j instead", options.getPath(), e);
+            return new AccessLog(options, new Slf4jAccessLogSink());
+        }
+    }
+
+    /**
+     * 判断请求是否被采样.
+     * <p>
+     * 只使用ID中第一个"."之前的部分计算，所以RPC请求（ID为请求ID.序号）与它所属的请求的结果一致.
+     *
+     * @param id 请求ID或者RPC请求ID
+     * @return true：记录日志
+     */
+    public boolean sampled(String id) {
+        if (sampleThreshold >= SAMPLE_SCALE) {
+            return true;
+        }
+        if (sampleThreshold <= 0 || id == null) {
+            return false;
+        }
+        int hash = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c == '.') {
+                break;
+            }
+            hash = 31 * hash + c;
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) % SAMPLE_SCALE < sampleThreshold;
+    }
+
+    /**
+     * 网关收到请求.
+     *
+     * @param id        请求ID
+     * @param timestamp 收到请求的时间
+     * @param method    请求方法
+     * @param uri       请求的URI，包括查询参数
+     * @param headers   请求头
+     * @param body      请求体，可以为null
+     * @param clientIp  客户端IP
+     */
+    public void serverReceived(String id, long timestamp, HttpMethod method, String uri,
+                               MultiMap headers, Buffer body, String clientIp) {
+        if (!sampled(id)) {
+            return;
+        }
+        AccessLogRecord record = ring.claim();
+        if (record == null) {
+            return;
+        }
+        record.type = AccessLogRecord.SERVER_RECEIVED;
+        record.id = id;
+        record.timestamp = timestamp;
+        record.method = method.name();
+        record.path = uri;
+        record.headers = logHeaders ? toString(headers) : null;
+        record.body = body;
+        record.clientIp = clientIp;
+        publish(record);
+    }
+
+    /**
+     * 网关发送响应.
+     *
+     * @param id          请求ID
+     * @param statusCode  响应码
+     * @param headers     响应头
+     * @param bytes       响应的字节数
+     * @param elapsedTime 耗时，毫秒
+     */
+    public void serverSent(String id, int statusCode, MultiMap headers, long bytes,
+                           long elapsedTime) {
+        if (!sampled(id) && !(logErrors && statusCode >= 400)) {
+            return;
+        }
+        AccessLogRecord record = ring.claim();
+        if (record == null) {
+            return;
+        }
+        record.type = AccessLogRecord.SERVER_SENT;
+        record.id = id;
+        record.timestamp = System.currentTimeMillis();
+        record.statusCode = statusCode;
+        record.headers = logHeaders ? toString(headers) : null;
+        record.bytes = bytes;
+        record.elapsedTime = elapsedTime;
+        publish(record);
+    }
+
+    /**
+     * 网关向下游服务发送请求.
+     *
+     * @param id      RPC请求ID
+     * @param host    主机
+     * @param port    端口
+     * @param method  请求方法
+     * @param path    请求的路径，包括查询参数
+     * @param headers 请求头
+     * @param body    请求体，可以为null
+     */
+    public void clientSent(String id, String host, int port, HttpMethod method, String path,
+                           Multimap<String, String> headers, Buffer body) {
+        if (!sampled(id)) {
+            return;
+        }
+        AccessLogRecord record = ring.claim();
+        if (record == null) {
+            return;
+        }
+        record.type = AccessLogRecord.CLIENT_SENT;
+        record.id = id;
+        record.timestamp = System.currentTimeMillis();
+        record.host = host;
+        record.port = port;
+        record.method = method.name();
+        record.path = path;
+        record.headers = logHeaders ? MultimapUtils.convertToString(headers, "no header") : null;
+        record.body = body;
+        publish(record);
+    }
+
+    /**
+     * 网关收到下游服务的响应.
+     *
+     * @param id          RPC请求ID
+     * @param statusCode  响应码
+     * @param bytes       响应的字节数
+     * @param elapsedTime 耗时，毫秒
+     */
+    public void clientReceived(String id, int statusCode, long bytes, long elapsedTime) {
+        if (!sampled(id) && !(logErrors && statusCode >= 400)) {
+            return;
+        }
+        AccessLogRecord record = ring.claim();
+        if (record == null) {
+            return;
+        }
+        record.type = AccessLogRecord.CLIENT_RECEIVED;
+        record.id = id;
+        record.timestamp = System.currentTimeMillis();
+        record.statusCode = statusCode;
+        record.bytes = bytes;
+        record.elapsedTime = elapsedTime;
+        publish(record);
+    }
+
+    /**
+     * @return 因为缓冲区满了而丢弃的日志数量
+     */
+    public long dropped() {
+        return ring.dropped();
+    }
+
+    /**
+     * 停止后台线程，缓冲区中剩余的日志会在停止前写完.
+     */
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        idle.set(false);
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            boolean stopping = !running;
+            int count = drain();
+            if (count == 0) {
+                if (stopping) {
+                    break;
+                }
+                reportDropped();
+                park();
+            }
+        }
+        try {
+            sink.close();
+        } catch (IOException e) {
+            LOGGER.warn("[AccessLog] [close] failed", e);
+        }
+    }
+
+    /**
+     * 先标记休眠再检查一次缓冲区，避免错过在两次检查之间发布的记录.
+     */
+    private void park() {
+        idle.set(true);
+        if (running && ring.poll() == null) {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        idle.set(false);
+    }
+
+    /**
+     * 发布记录，后台线程正在休眠时唤醒它，多个生产者只有一个会调用unpark.
+     */
+    private void publish(AccessLogRecord record) {
+        ring.publish(record);
+        if (idle.get() && idle.compareAndSet(true, false)) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private int drain() {
+        int count = 0;
+        AccessLogRecord record;
+        while (count < batchSize && (record = ring.poll()) != null) {
+            try {
+                line.setLength(0);
+                record.appendTo(line, maxBodyLength);
+                sink.write(record.type, record.timestamp, line);
+            } catch (Exception e) {
+                LOGGER.warn("[AccessLog] [write] failed", e);
+            } finally {
+                ring.release(record);
+            }
+            count++;
+        }
+        if (count > 0) {
+            try {
+                sink.flush();
+            } catch (IOException e) {
+                LOGGER.warn("[AccessLog] [flush] failed", e);
+            }
+        }
+        return count;
+    }
+
+    private void reportDropped() {
+        long now = System.currentTimeMillis();
+        if (now - lastReportOn < DROPPED_REPORT_INTERVAL) {
+            return;
+        }
+        lastReportOn = now;
+        long dropped = ring.dropped();
+        if (dropped > reportedDropped) {
+            LOGGER.warn("[AccessLog] [dropped] [{}]", dropped - reportedDropped);
+            reportedDropped = dropped;
+        }
+    }
+
+    private static String toString(MultiMap map) {
+        StringBuilder s = new StringBuilder();
+        for (String key : map.names()) {
+            s.append(key)
+                    .append(":")
+                    .append(Joiner.on(",").join(map.getAll(key)))
+                    .append(";");
+        }
+        if (s.length() == 0) {
+            return "no header";
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,229 @@
+package com.github.edgar615.gateway.core.log;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * 访问日志的配置.
+ * <p>
+ * 没有设置path时，访问日志通过SLF4J（logger名称为AccessLog）输出，否则直接写入path指定的文件并按大小滚动.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public class AccessLogOptions {
+
+    public static final double DEFAULT_SAMPLE_RATE = 1;
+
+    public static final int DEFAULT_MAX_BODY_LENGTH = 1024;
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    public static final long DEFAULT_MAX_FILE_SIZE = 100 * 1024 * 1024;
+
+    public static final int DEFAULT_MAX_FILES = 10;
+
+    /**
+     * 采样率，0到1之间
+     */
+    private double sampleRate = DEFAULT_SAMPLE_RATE;
+
+    /**
+     * 响应码大于等于400的日志是否不受采样率的限制
+     */
+    private boolean logErrors = true;
+
+    /**
+     * 请求体最多记录的字节数，小于等于0表示只记录请求体的长度
+     */
+    private int maxBodyLength = DEFAULT_MAX_BODY_LENGTH;
+
+    /**
+     * 是否记录请求头和响应头
+     */
+    private boolean logHeaders;
+
+    /**
+     * 环形缓冲区的大小，会向上取整到2的幂
+     */
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    /**
+     * 后台线程每次最多写入的日志数量
+     */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * 日志文件的路径
+     */
+    private String path;
+
+    /**
+     * 单个日志文件的最大字节数
+     */
+    private long maxFileSize = DEFAULT_MAX_FILE_SIZE;
+
+    /**
+     * 滚动后最多保留的日志文件数量
+     */
+    private int maxFiles = DEFAULT_MAX_FILES;
+
+    public AccessLogOptions() {
+    }
+
+    public AccessLogOptions(JsonObject json) {
+        this();
+        if (json.getValue("sampleRate") instanceof Number) {
+            setSampleRate(((Number) json.getValue("sampleRate")).doubleValue());
+        }
+        if (json.getValue("logErrors") instanceof Boolean) {
+            setLogErrors(json.getBoolean("logErrors"));
+        }
+        if (json.getValue("maxBodyLength") instanceof Number) {
+            setMaxBodyLength(((Number) json.getValue("maxBodyLength")).intValue());
+        }
+        if (json.getValue("logHeaders") instanceof Boolean) {
+            setLogHeaders(json.getBoolean("logHeaders"));
+        }
+        if (json.getValue("bufferSize") instanceof Number) {
+            setBufferSize(((Number) json.getValue("bufferSize")).intValue());
+        }
+        if (json.getValue("batchSize") instanceof Number) {
+            setBatchSize(((Number) json.getValue("batchSize")).intValue());
+        }
+        if (json.getValue("path") instanceof String) {
+            setPath(json.getString("path"));
+        }
+        if (json.getValue("maxFileSize") instanceof Number) {
+            setMaxFileSize(((Number) json.getValue("maxFileSize")).longValue());
+        }
+        if (json.getValue("maxFiles") instanceof Number) {
+            setMaxFiles(((Number) json.getValue("maxFiles")).intValue());
+        }
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * 设置采样率.
+     * <p>
+     * 是否采样由请求ID决定，同一个请求的SR、SS以及它发起的CS、CR要么都记录，要么都不记录.
+     *
+     * @param sampleRate 采样率，0到1之间，1表示全部记录
+     * @return AccessLogOptions
+     */
+    public AccessLogOptions setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+        return this;
+    }
+
+    public boolean isLogErrors() {
+        return logErrors;
+    }
+
+    /**
+     * 设置响应码大于等于400的SS、CR日志是否不受采样率的限制.
+     *
+     * @param logErrors true：总是记录
+     * @return AccessLogOptions
+     */
+    public AccessLogOptions setLogErrors(boolean logErrors) {
+        this.logErrors = logErrors;
+        return this;
+    }
+
+    public int getMaxBodyLength() {
+        return maxBodyLength;
+    }
+
+    /**
+     * 设置请求体最多记录的字节数，超过的部分会被截断.
+     *
+     * @param maxBodyLength 字节数，小于等于0表示只记录请求体的长度
+     * @return AccessLogOptions
+     */
+    public AccessLogOptions setMaxBodyLength(int maxBodyLength) {
+        this.maxBodyLength = maxBodyLength;
+        return this;
+    }
+
+    public boolean isLogHeaders() {
+        return logHeaders;
+    }
+
+    /**
+     * 设置是否记录请求头和响应头，请求头需要在event loop中转换为字符串，只对采样的请求转换.
+     *
+     * @param logHeaders true：记录
+     * @return AccessLogOptions
+     */
+    public AccessLogOptions setLogHeaders(boolean logHeaders) {
+        this.logHeaders = logHeaders;
+        return this;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * 设置环形缓冲区的大小，缓冲区满了之后新的日志会被丢弃.
+     *
+     * @param bufferSize 缓冲区大小
+     * @return AccessLogOptions
+     */
+    public AccessLogOptions setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public AccessLogOptions setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 设置日志文件的路径.
+     *
+     * @param path 文件路径，null表示通过SLF4J输出
+     * @return AccessLogOptions
+     */
+    public AccessLogOptions setPath(String path) {
+        this.path = path;
+        return this;
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public AccessLogOptions setMaxFileSize(long maxFileSize) {
+        this.maxFileSize = maxFileSize;
+        return this;
+    }
+
+    public int getMaxFiles() {
+        return maxFiles;
+    }
+
+    /**
+     * 设置滚动后最多保留的日志文件数量，滚动后的文件名为path.1、path.2...，数字越大越旧.
+     *
+     * @param maxFiles 文件数量
+     * @return AccessLogOptions
+     */
+    public AccessLogOptions setMaxFiles(int maxFiles) {
+        this.maxFiles = maxFiles;
+        return this;
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.edgar615.gateway.core.log;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * 一条访问日志.
+ * <p>
+ * 记录预先分配在环形缓冲区中，event loop只设置字段（大部分是引用），转换为字符串在后台线程中完成.
+ * 不同类型的日志使用不同的字段，没有使用的字段保持默认值.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+final class AccessLogRecord {
+
+    static final String SERVER_RECEIVED = "SR";
+
+    static final String SERVER_SENT = "SS";
+
+    static final String CLIENT_SENT = "CS";
+
+    static final String CLIENT_RECEIVED = "CR";
+
+    /**
+     * 在环形缓冲区中的序号，由AccessLogRing设置
+     */
+    long sequence;
+
+    String type;
+
+    String id;
+
+    long timestamp;
+
+    String method;
+
+    String path;
+
+    String host;
+
+    int port;
+
+    String headers;
+
+    Buffer body;
+
+    String clientIp;
+
+    int statusCode;
+
+    long bytes;
+
+    long elapsedTime;
+
+    /**
+     * 清除引用，避免缓冲区中的记录阻止请求数据被回收.
+     */
+    void reset() {
+        type = null;
+        id = null;
+        method = null;
+        path = null;
+        host = null;
+        port = 0;
+        headers = null;
+        body = null;
+        clientIp = null;
+        statusCode = 0;
+        bytes = 0;
+        elapsedTime = 0;
+    }
+
+    /**
+     * 将日志追加到StringBuilder，格式与原来的SR/SS/CS/CR日志相同.
+     *
+     * @param s             StringBuilder
+     * @param maxBodyLength 请求体最多输出的字节数
+     */
+    void appendTo(StringBuilder s, int maxBodyLength) {
+        s.append('[').append(id).append("] [").append(type).append("] [HTTP] ");
+        switch (type) {
+            case SERVER_RECEIVED:
+                s.append('[').append(method).append(' ').append(path).append("] ");
+                appendHeaders(s);
+                appendBody(s, maxBodyLength);
+                s.append(" [").append(clientIp).append(']');
+                break;
+            case SERVER_SENT:
+                s.append('[').append(statusCode).append("] ");
+                appendHeaders(s);
+                s.append('[').append(bytes).append("bytes] [").append(elapsedTime).append("ms]");
+                break;
+            case CLIENT_SENT:
+                s.append('[').append(host).append(':').append(port).append("] [")
+                        .append(method).append(' ').append(path).append("] ");
+                appendHeaders(s);
+                appendBody(s, maxBodyLength);
+                break;
+            default:
+                s.append('[').append(statusCode).append("] [").append(bytes).append("bytes] [")
+                        .append(elapsedTime).append("ms]");
+        }
+    }
+
+    private void appendHeaders(StringBuilder s) {
+        if (headers != null) {
+            s.append('[').append(headers).append("] ");
+        }
+    }
+
+    private void appendBody(StringBuilder s, int maxBodyLength) {
+        if (body == null || body.length() == 0) {
+            s.append("[no body]");
+            return;
+        }
+        int length = body.length();
+        if (maxBodyLength <= 0) {
+            s.append('[').append(length).append("bytes]");
+        } else if (length <= maxBodyLength) {
+            s.append('[').append(body.toString()).append(']');
+        } else {
+            //不能截断多字节的字符，向前找到一个字符的开始
+            int end = maxBodyLength;
+            while (end > 0 && (body.getByte(end) & 0xC0) == 0x80) {
+                end--;
+            }
+            s.append('[').append(body.getString(0, end, "UTF-8"))
+                    .append("...(").append(length).append("bytes)]");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.edgar615.gateway.core.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 多生产者、单消费者的无锁环形缓冲区.
+ * <p>
+ * 每个槽位对应一个预先分配的AccessLogRecord和一个序号：
+ * <ul>
+ * <li>序号等于tail时，槽位空闲，生产者通过CAS tail占用槽位</li>
+ * <li>生产者填充完记录后将序号设置为tail + 1，消费者看到这个序号才读取记录</li>
+ * <li>消费者处理完记录后将序号设置为head + capacity，槽位在下一圈重新可用</li>
+ * </ul>
+ * 缓冲区满了之后claim直接返回null，生产者不会等待.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+final class AccessLogRing {
+
+    private final AccessLogRecord[] records;
+
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * 只有消费者线程读写
+     */
+    private long head;
+
+    AccessLogRing(int size) {
+        int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+        this.records = new AccessLogRecord[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            records[i] = new AccessLogRecord();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 占用一个槽位，填充完成后必须调用publish.
+     *
+     * @return 槽位中的记录，缓冲区满了返回null
+     */
+    AccessLogRecord claim() {
+        while (true) {
+            long current = tail.get();
+            int index = (int) (current & mask);
+            long diff = sequences.get(index) - current;
+            if (diff == 0) {
+                if (tail.compareAndSet(current, current + 1)) {
+                    AccessLogRecord record = records[index];
+                    record.sequence = current;
+                    return record;
+                }
+            } else if (diff < 0) {
+                dropped.incrementAndGet();
+                return null;
+            }
+        }
+    }
+
+    void publish(AccessLogRecord record) {
+        sequences.lazySet((int) (record.sequence & mask), record.sequence + 1);
+    }
+
+    /**
+     * 读取下一条已经发布的记录，只能在消费者线程中调用，处理完成后必须调用release.
+     *
+     * @return 记录，没有可读的记录返回null
+     */
+    AccessLogRecord poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        return records[index];
+    }
+
+    void release(AccessLogRecord record) {
+        record.reset();
+        sequences.lazySet((int) (head & mask), head + records.length);
+        head++;
+    }
+
+    int capacity() {
+        return records.length;
+    }
+
+    /**
+     * @return 因为缓冲区满了而丢弃的日志数量
+     */
+    long dropped() {
+        return dropped.get();
+    }
+}
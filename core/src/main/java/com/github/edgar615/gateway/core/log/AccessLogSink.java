@@ -0,0 +1,27 @@
+package com.github.edgar615.gateway.core.log;
+
+import java.io.IOException;
+
+/**
+ * 访问日志的输出，只在后台线程中调用.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+interface AccessLogSink {
+
+    /**
+     * 写入一条日志.
+     *
+     * @param type      日志的类型：SR、SS、CS、CR
+     * @param timestamp 日志的时间
+     * @param line      日志内容，不包含换行符，方法返回后会被复用
+     */
+    void write(String type, long timestamp, StringBuilder line) throws IOException;
+
+    /**
+     * 一批日志写完之后调用.
+     */
+    void flush() throws IOException;
+
+    void close() throws IOException;
+}
@@ -0,0 +1,119 @@
+package com.github.edgar615.gateway.core.log;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 将访问日志写入文件，文件超过maxFileSize之后滚动.
+ * <p>
+ * 滚动时path重命名为path.1，原来的path.1重命名为path.2，以此类推，超过maxFiles的文件被删除.
+ * 滚动失败时继续写原来的文件，再写入maxFileSize之后才重试，避免每一条日志都重试滚动.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+class RollingFileAccessLogSink implements AccessLogSink {
+
+    private static final DateTimeFormatter FORMATTER =
+            DateTimeFormatter.ISO_OFFSET_DATE_TIME.withZone(ZoneId.systemDefault());
+
+    private final File file;
+
+    private final long maxFileSize;
+
+    private final int maxFiles;
+
+    private final StringBuilder line = new StringBuilder(256);
+
+    private OutputStream out;
+
+    private long size;
+
+    /**
+     * 文件超过这个大小时滚动
+     */
+    private long rotateSize;
+
+    RollingFileAccessLogSink(String path, long maxFileSize, int maxFiles) throws IOException {
+        this.file = new File(path);
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+        this.rotateSize = maxFileSize;
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Failed to create directory: " + parent);
+        }
+        open();
+    }
+
+    @Override
+    public void write(String type, long timestamp, StringBuilder record) throws IOException {
+        line.setLength(0);
+        FORMATTER.formatTo(Instant.ofEpochMilli(timestamp), line);
+        line.append(' ').append(record).append('\n');
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        IOException failure = null;
+        if (size > 0 && size + bytes.length > rotateSize) {
+            try {
+                rotate();
+                rotateSize = maxFileSize;
+            } catch (IOException e) {
+                rotateSize = size + maxFileSize;
+                failure = e;
+            }
+        }
+        out.write(bytes);
+        size += bytes.length;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void open() throws IOException {
+        out = new BufferedOutputStream(new FileOutputStream(file, true), 64 * 1024);
+        size = file.length();
+    }
+
+    private void rotate() throws IOException {
+        out.close();
+        try {
+            File oldest = new File(file.getPath() + "." + maxFiles);
+            if (oldest.exists() && !oldest.delete()) {
+                throw new IOException("Failed to delete " + oldest);
+            }
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                File source = new File(file.getPath() + "." + i);
+                if (source.exists()
+                    && !source.renameTo(new File(file.getPath() + "." + (i + 1)))) {
+                    throw new IOException("Failed to rename " + source);
+                }
+            }
+            if (maxFiles > 0) {
+                if (!file.renameTo(new File(file.getPath() + ".1"))) {
+                    throw new IOException("Failed to rename " + file);
+                }
+            } else if (!file.delete()) {
+                throw new IOException("Failed to delete " + file);
+            }
+        } finally {
+            //滚动失败时继续写原来的文件
+            open();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.edgar615.gateway.core.log;
+
+import com.github.edgar615.gateway.core.rpc.http.SimpleHttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 通过SLF4J输出访问日志，日志的时间、格式和滚动由日志框架决定.
+ * <p>
+ * 使用与原来的日志相同的logger名称，原有的日志配置不需要修改：
+ * 网关的请求和响应（SR、SS）使用BaseHandler，下游服务的请求和响应（CS、CR）使用SimpleHttpHandler.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+class Slf4jAccessLogSink implements AccessLogSink {
+
+    private static final Logger SERVER_LOGGER =
+            LoggerFactory.getLogger("com.github.edgar615.gateway.dispatch.BaseHandler");
+
+    private static final Logger CLIENT_LOGGER = LoggerFactory.getLogger(SimpleHttpHandler.class);
+
+    @Override
+    public void write(String type, long timestamp, StringBuilder line) {
+        Logger logger = AccessLogRecord.SERVER_RECEIVED.equals(type)
+                        || AccessLogRecord.SERVER_SENT.equals(type) ? SERVER_LOGGER : CLIENT_LOGGER;
+        if (logger.isInfoEnabled()) {
+            logger.info(line.toString());
+        }
+    }
+
+    @Override
+    public void flush() {
+
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
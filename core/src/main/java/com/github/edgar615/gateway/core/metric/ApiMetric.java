@@ -1,11 +1,13 @@
 package com.github.edgar615.gateway.core.metric;
 
-import com.codahale.metrics.Counter;
 import com.codahale.metrics.MetricRegistry;
 import io.vertx.core.spi.metrics.Metrics;
 import io.vertx.ext.dropwizard.ThroughputTimer;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 /**
  * Created by Edgar on 2017/3/30.
@@ -14,16 +16,19 @@ import java.util.concurrent.TimeUnit;
  */
 public class ApiMetric implements Metrics {
 
-    public static void apiRequest(String apiName) {
-        request("api", apiName);
-    }
+    /**
+     * 按API统计请求数的类型，响应按命名空间（或者服务）统计
+     */
+    public static final String API = "api";
 
-    public static void apiResponse(String apiName, int statusCode, long duration) {
-        response("api", apiName, statusCode, duration);
-    }
+    /**
+     * type -> name -> 度量值
+     */
+    private static final Map<String, Map<String, ApiMetricHandle>> HANDLES =
+            new ConcurrentHashMap<>();
 
-    public static void serviceRequest(String service, String serviceId) {
-        request(service, serviceId);
+    public static void apiRequest(String apiName) {
+        request(API, apiName);
     }
 
     public static void serviceResponse(String service, String serviceId, int statusCode,
@@ -31,57 +36,90 @@ public class ApiMetric implements Metrics {
         response(service, serviceId, statusCode, duration);
     }
 
-    public static void request(String type, String name) {
+    /**
+     * 返回API的度量值.
+     *
+     * @param apiName API名称
+     * @return ApiMetricHandle
+     */
+    public static ApiMetricHandle apiHandle(String apiName) {
+        return handle(API, apiName);
+    }
+
+    /**
+     * 返回度量值，每个type和name只创建一次，之后直接从缓存中读取.
+     *
+     * @param type 类型
+     * @param name 名称
+     * @return ApiMetricHandle
+     */
+    public static ApiMetricHandle handle(String type, String name) {
+        Map<String, ApiMetricHandle> typeHandles = HANDLES.get(type);
+        if (typeHandles == null) {
+            typeHandles = HANDLES.computeIfAbsent(type, k -> new ConcurrentHashMap<>());
+        }
+        ApiMetricHandle handle = typeHandles.get(name);
+        if (handle == null) {
+            handle = typeHandles.computeIfAbsent(
+                    name, k -> new ApiMetricHandle(MetricHelper.registry(), type, k));
+        }
+        return handle;
+    }
+
+    /**
+     * 删除一个type下已经下线的度量值，同时从MetricRegistry中删除它们的度量值，type的汇总度量值保留.
+     *
+     * @param type      类型
+     * @param published 判断名称是否还在使用
+     */
+    public static void retain(String type, Predicate<String> published) {
+        Map<String, ApiMetricHandle> typeHandles = HANDLES.get(type);
+        if (typeHandles == null) {
+            return;
+        }
         MetricRegistry registry = MetricHelper.registry();
-        Counter request = registry.counter(MetricRegistry.name(type, "request"));
-        request.inc();
-        Counter apiRequest = registry.counter(MetricRegistry.name(type, name, "request"));
-        apiRequest.inc();
+        typeHandles.forEach((name, handle) -> {
+            if (!published.test(name) && typeHandles.remove(name, handle)) {
+                handle.unregister(registry);
+            }
+        });
+    }
+
+    /**
+     * @return 所有已经创建的度量值
+     */
+    static Iterable<ApiMetricHandle> handles() {
+        return () -> HANDLES.values().stream()
+                .flatMap(typeHandles -> typeHandles.values().stream())
+                .iterator();
     }
 
+    public static void request(String type, String name) {
+        handle(type, name).request();
+    }
 
     public static void response(String type, String name, int statusCode, long duration) {
+        handle(type, name).response(statusCode, duration);
+    }
+
+    /**
+     * 统计导入API时解析API的耗时.
+     *
+     * @param importer 导入类
+     * @param decoded  解析成功的API数量
+     * @param failed   解析失败的API数量
+     * @param duration 解析耗时，毫秒
+     */
+    public static void definitionDecode(String importer, int decoded, int failed,
+                                        long duration) {
         MetricRegistry registry = MetricHelper.registry();
-        //统计全局响应时间
-        ThroughputTimer requestThroughput = MetricHelper.getOrAdd(registry,
-                                                                  MetricRegistry
-                                                                          .name(type, "response"),
-                                                                  MetricHelper.THROUGHPUT_TIMER);
-        requestThroughput.update(duration, TimeUnit.MILLISECONDS);
-
-        //单个API的响应时间
-        ThroughputTimer apiTimer =
+        ThroughputTimer decodeTimer =
                 MetricHelper.getOrAdd(registry,
-                                      MetricRegistry.name(type, name, "response"),
+                                      MetricRegistry.name("import", importer, "decode"),
                                       MetricHelper.THROUGHPUT_TIMER);
-        apiTimer.update(duration, TimeUnit.MILLISECONDS);
-
-        //根据状态统计
-        if (statusCode >= 200 && statusCode < 300) {
-            Counter response2xx =
-                    registry.counter(MetricRegistry.name(type, "response-2xx"));
-            response2xx.inc();
-            Counter apiCounter =
-                    registry.counter(MetricRegistry.name(type, name, "response-2xx"));
-            apiCounter.inc();
-        }
-        if (statusCode >= 400 && statusCode < 500) {
-            Counter response4xx =
-                    registry.counter(MetricRegistry.name(type, "response-4xx"));
-            response4xx.inc();
-            Counter apiCounter =
-                    registry.counter(MetricRegistry.name(type, name, "response-4xx"));
-            apiCounter.inc();
-        }
-
-        if (statusCode >= 500) {
-            Counter response5xx =
-                    registry.counter(MetricRegistry.name(type, "response-5xx"));
-            response5xx.inc();
-            Counter apiCounter =
-                    registry.counter(MetricRegistry.name(type, name, "response-5xx"));
-            apiCounter.inc();
-        }
+        decodeTimer.update(duration, TimeUnit.MILLISECONDS);
+        registry.counter(MetricRegistry.name("import", importer, "decoded")).inc(decoded);
+        registry.counter(MetricRegistry.name("import", importer, "decode-failed")).inc(failed);
     }
 
     @Override
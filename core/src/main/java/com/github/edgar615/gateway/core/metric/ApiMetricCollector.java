@@ -0,0 +1,49 @@
+package com.github.edgar615.gateway.core.metric;
+
+/**
+ * 输出每个API（或者服务）的请求数、响应数和响应耗时.
+ * <p>
+ * 请求数按API统计（type为api），响应按命名空间统计（type为命名空间），与ApiMetric的统计方式一致.
+ * 每个指标只输出会更新它的handle，api的handle不输出响应，命名空间的handle不输出请求数.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public class ApiMetricCollector implements PrometheusCollector {
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        writer.family("gateway_requests_total", PrometheusWriter.COUNTER,
+                      "Requests received per API");
+        for (ApiMetricHandle handle : ApiMetric.handles()) {
+            if (ApiMetric.API.equals(handle.type())) {
+                writer.sample("gateway_requests_total", handle.requests(),
+                              "type", handle.type(), "name", handle.name());
+            }
+        }
+
+        writer.family("gateway_responses_total", PrometheusWriter.COUNTER,
+                      "Responses sent per API and status class");
+        for (ApiMetricHandle handle : ApiMetric.handles()) {
+            if (ApiMetric.API.equals(handle.type())) {
+                continue;
+            }
+            writer.sample("gateway_responses_total", handle.responses2xx(),
+                          "type", handle.type(), "name", handle.name(), "status", "2xx");
+            writer.sample("gateway_responses_total", handle.responses4xx(),
+                          "type", handle.type(), "name", handle.name(), "status", "4xx");
+            writer.sample("gateway_responses_total", handle.responses5xx(),
+                          "type", handle.type(), "name", handle.name(), "status", "5xx");
+        }
+
+        writer.family("gateway_response_duration_seconds", PrometheusWriter.HISTOGRAM,
+                      "Response time per API");
+        for (ApiMetricHandle handle : ApiMetric.handles()) {
+            if (ApiMetric.API.equals(handle.type())) {
+                continue;
+            }
+            writer.histogram("gateway_response_duration_seconds", handle.latency(),
+                             PrometheusWriter.Buckets.REQUEST,
+                             "type", handle.type(), "name", handle.name());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.edgar615.gateway.core.metric;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import io.vertx.ext.dropwizard.ThroughputTimer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一个API（或者服务）的度量值.
+ * <p>
+ * 创建时从MetricRegistry中查找或者注册所有用到的度量值，之后每次请求只调用inc/update，
+ * 不再拼接度量值的名称，也不再查找MetricRegistry.
+ * 同一个type下的汇总度量值（type.request等）在所有的handle之间共享.
+ * 响应的耗时同时记录在LatencyHistogram中，用于输出Prometheus的直方图.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public class ApiMetricHandle {
+
+    private final String type;
+
+    private final String name;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final Counter totalRequest;
+
+    private final Counter request;
+
+    private final ThroughputTimer totalResponse;
+
+    private final ThroughputTimer response;
+
+    private final Counter totalResponse2xx;
+
+    private final Counter response2xx;
+
+    private final Counter totalResponse4xx;
+
+    private final Counter response4xx;
+
+    private final Counter totalResponse5xx;
+
+    private final Counter response5xx;
+
+    ApiMetricHandle(MetricRegistry registry, String type, String name) {
+        this.type = type;
+        this.name = name;
+        this.totalRequest = registry.counter(MetricRegistry.name(type, "request"));
+        this.request = registry.counter(MetricRegistry.name(type, name, "request"));
+        this.totalResponse = MetricHelper.getOrAdd(registry, MetricRegistry.name(type, "response"),
+                                                   MetricHelper.THROUGHPUT_TIMER);
+        this.response = MetricHelper.getOrAdd(registry, MetricRegistry.name(type, name, "response"),
+                                              MetricHelper.THROUGHPUT_TIMER);
+        this.totalResponse2xx = registry.counter(MetricRegistry.name(type, "response-2xx"));
+        this.response2xx = registry.counter(MetricRegistry.name(type, name, "response-2xx"));
+        this.totalResponse4xx = registry.counter(MetricRegistry.name(type, "response-4xx"));
+        this.response4xx = registry.counter(MetricRegistry.name(type, name, "response-4xx"));
+        this.totalResponse5xx = registry.counter(MetricRegistry.name(type, "response-5xx"));
+        this.response5xx = registry.counter(MetricRegistry.name(type, name, "response-5xx"));
+    }
+
+    /**
+     * 从MetricRegistry中删除这个handle自己的度量值，type的汇总度量值不删除.
+     *
+     * @param registry MetricRegistry
+     */
+    void unregister(MetricRegistry registry) {
+        registry.remove(MetricRegistry.name(type, name, "request"));
+        registry.remove(MetricRegistry.name(type, name, "response"));
+        registry.remove(MetricRegistry.name(type, name, "response-2xx"));
+        registry.remove(MetricRegistry.name(type, name, "response-4xx"));
+        registry.remove(MetricRegistry.name(type, name, "response-5xx"));
+    }
+
+    /**
+     * 记录一次请求.
+     */
+    public void request() {
+        totalRequest.inc();
+        request.inc();
+    }
+
+    /**
+     * 记录一次响应.
+     *
+     * @param statusCode 响应码
+     * @param duration   耗时，毫秒
+     */
+    public void response(int statusCode, long duration) {
+        totalResponse.update(duration, TimeUnit.MILLISECONDS);
+        response.update(duration, TimeUnit.MILLISECONDS);
+        latency.record(TimeUnit.MILLISECONDS.toNanos(duration));
+        if (statusCode >= 200 && statusCode < 300) {
+            totalResponse2xx.inc();
+            response2xx.inc();
+        }
+        if (statusCode >= 400 && statusCode < 500) {
+            totalResponse4xx.inc();
+            response4xx.inc();
+        }
+        if (statusCode >= 500) {
+            totalResponse5xx.inc();
+            response5xx.inc();
+        }
+    }
+
+    String type() {
+        return type;
+    }
+
+    String name() {
+        return name;
+    }
+
+    long requests() {
+        return request.getCount();
+    }
+
+    long responses2xx() {
+        return response2xx.getCount();
+    }
+
+    long responses4xx() {
+        return response4xx.getCount();
+    }
+
+    long responses5xx() {
+        return response5xx.getCount();
+    }
+
+    LatencyHistogram.Snapshot latency() {
+        return latency.snapshot();
+    }
+}
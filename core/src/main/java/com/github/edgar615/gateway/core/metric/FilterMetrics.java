@@ -0,0 +1,82 @@
+package com.github.edgar615.gateway.core.metric;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 每个API、每个filter的执行统计.
+ * <p>
+ * FilterStats只在API的执行计划创建时查找一次，请求中直接使用查找到的对象.
+ * 找到API之前执行的filter统计在UNMATCHED下.
+ * API下线后通过retain删除它的统计.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public class FilterMetrics {
+
+    /**
+     * 还没有找到API时使用的API名称
+     */
+    public static final String UNMATCHED = "unmatched";
+
+    private static final FilterMetrics INSTANCE = new FilterMetrics();
+
+    private final Map<String, Map<String, FilterStats>> stats = new ConcurrentHashMap<>();
+
+    /**
+     * @return 全局的统计
+     */
+    public static FilterMetrics instance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 查找统计，不存在时创建.
+     *
+     * @param apiName    API名称
+     * @param filterName filter名称
+     * @return FilterStats
+     */
+    public FilterStats stats(String apiName, String filterName) {
+        return stats.computeIfAbsent(apiName, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(filterName, k -> new FilterStats());
+    }
+
+    /**
+     * 删除已经下线的API的统计，UNMATCHED的统计一直保留.
+     *
+     * @param published 判断API是否还在注册表中
+     */
+    public void retain(Predicate<String> published) {
+        stats.keySet().removeIf(api -> !UNMATCHED.equals(api) && !published.test(api));
+    }
+
+    /**
+     * @return API名称 -> filter名称 -> 统计
+     */
+    public Map<String, Map<String, FilterStats>> stats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * 输出统计，格式为{"API名称" : {"filter名称" : {...}}}.
+     *
+     * @param apiName API名称，null表示输出所有的API
+     * @return JsonObject
+     */
+    public JsonObject snapshot(String apiName) {
+        JsonObject json = new JsonObject();
+        stats.forEach((api, filters) -> {
+            if (apiName == null || apiName.equals(api)) {
+                JsonObject apiJson = new JsonObject();
+                filters.forEach((filter, filterStats) -> apiJson.put(filter, filterStats.toJson()));
+                json.put(api, apiJson);
+            }
+        });
+        return json;
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.edgar615.gateway.core.metric;
+
+import java.util.Map;
+
+/**
+ * 输出每个API、每个filter的耗时、跳过次数和失败次数.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public class FilterMetricsCollector implements PrometheusCollector {
+
+    private final FilterMetrics metrics;
+
+    public FilterMetricsCollector() {
+        this(FilterMetrics.instance());
+    }
+
+    FilterMetricsCollector(FilterMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        Map<String, Map<String, FilterStats>> stats = metrics.stats();
+        writer.family("gateway_filter_duration_seconds", PrometheusWriter.HISTOGRAM,
+                      "Filter execution time per API");
+        stats.forEach((api, filters) -> filters.forEach(
+                (filter, filterStats) -> writer.histogram("gateway_filter_duration_seconds",
+                                                          filterStats.latency(),
+                                                          PrometheusWriter.Buckets.FILTER,
+                                                          "api", api, "filter", filter)));
+
+        writer.family("gateway_filter_skips_total", PrometheusWriter.COUNTER,
+                      "Times shouldFilter returned false");
+        stats.forEach((api, filters) -> filters.forEach(
+                (filter, filterStats) -> writer.sample("gateway_filter_skips_total",
+                                                       filterStats.skips(),
+                                                       "api", api, "filter", filter)));
+
+        writer.family("gateway_filter_failures_total", PrometheusWriter.COUNTER,
+                      "Failed filter executions");
+        stats.forEach((api, filters) -> filters.forEach(
+                (filter, filterStats) -> writer.sample("gateway_filter_failures_total",
+                                                       filterStats.failures(),
+                                                       "api", api, "filter", filter)));
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.edgar615.gateway.core.metric;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个filter在一个API上的统计.
+ * <p>
+ * 执行次数就是耗时直方图中的数量，失败的执行同样会记录耗时.
+ * 百分位和Prometheus的直方图都从同一个LatencyHistogram计算，每次执行只记录一次.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public class FilterStats {
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAdder skips = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * 记录一次执行.
+     *
+     * @param nanos  耗时，纳秒
+     * @param failed 是否失败
+     */
+    public void record(long nanos, boolean failed) {
+        latency.record(nanos);
+        if (failed) {
+            failures.increment();
+        }
+    }
+
+    /**
+     * 记录一次shouldFilter返回false.
+     */
+    public void skip() {
+        skips.increment();
+    }
+
+    public long skips() {
+        return skips.sum();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    public LatencyHistogram.Snapshot latency() {
+        return latency.snapshot();
+    }
+
+    public JsonObject toJson() {
+        LatencyHistogram.Snapshot snapshot = latency.snapshot();
+        return new JsonObject()
+                .put("invocations", snapshot.count())
+                .put("skips", skips())
+                .put("failures", failures())
+                .put("latency", snapshot.toJson());
+    }
+}
@@ -0,0 +1,197 @@
+package com.github.edgar615.gateway.core.metric;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 纳秒级的延迟直方图.
+ * <p>
+ * 与HdrHistogram类似，使用对数-线性的桶，但是按十进制划分：每个数量级分成10个桶，上限为1、1.25、1.5、2、2.5、3、4、5、6、8乘以10的幂，
+ * 相邻上限的比例不超过1.33.一共12个数量级，覆盖到13分钟左右，更大的值计入最后一个桶.
+ * 每个桶包含上限（value <= upperBound），Prometheus常用的le（1、2.5、5乘以10的幂）都是桶的上限，
+ * 所以同一个直方图既可以计算百分位，也可以准确地输出Prometheus的直方图.
+ * 记录一个值只需要一次数组下标计算和两次原子加，不加锁、不分配内存.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public class LatencyHistogram {
+
+    /**
+     * 每个数量级中桶的上限，单位为1/4乘以10的幂
+     */
+    private static final int[] QUARTERS = {4, 5, 6, 8, 10, 12, 16, 20, 24, 32};
+
+    private static final int SUB_BUCKETS = QUARTERS.length;
+
+    private static final int DECADES = 12;
+
+    private static final int BUCKETS = DECADES * SUB_BUCKETS + 1;
+
+    private static final long[] POW10 = new long[19];
+
+    /**
+     * 每个桶的上限（包含），最后一个桶没有上限
+     */
+    private static final long[] UPPER = new long[BUCKETS];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+        for (int decade = 0; decade < DECADES; decade++) {
+            for (int sub = 0; sub < SUB_BUCKETS; sub++) {
+                UPPER[decade * SUB_BUCKETS + sub] = QUARTERS[sub] * POW10[decade] / 4;
+            }
+        }
+        UPPER[BUCKETS - 1] = Long.MAX_VALUE;
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * 记录一个值.
+     *
+     * @param nanos 纳秒，小于0按0处理
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(index(nanos));
+        total.add(nanos);
+    }
+
+    /**
+     * @return 当前数据的快照
+     */
+    public Snapshot snapshot() {
+        long[] values = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            values[i] = counts.get(i);
+        }
+        return new Snapshot(values, total.sum());
+    }
+
+    static int index(long nanos) {
+        if (nanos <= UPPER[0]) {
+            return 0;
+        }
+        if (nanos > UPPER[BUCKETS - 2]) {
+            return BUCKETS - 1;
+        }
+        //nanos所在的数量级，上一个数量级的最后一个上限（8乘以10的幂）小于10的幂，所以从这个数量级的第一个桶开始查找
+        int decade = (64 - Long.numberOfLeadingZeros(nanos)) * 1233 >>> 12;
+        if (nanos < POW10[decade]) {
+            decade--;
+        }
+        int index = decade * SUB_BUCKETS;
+        while (nanos > UPPER[index]) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * 桶的上限（包含）.
+     *
+     * @param index 桶的下标
+     * @return 纳秒，最后一个桶返回Long.MAX_VALUE
+     */
+    static long upperBound(int index) {
+        return UPPER[index];
+    }
+
+    /**
+     * 直方图的快照，百分位取所在桶的上限.
+     */
+    public static class Snapshot {
+
+        private final long[] counts;
+
+        private final long count;
+
+        private final long total;
+
+        private Snapshot(long[] counts, long total) {
+            this.counts = counts;
+            this.total = total;
+            long count = 0;
+            for (long c : counts) {
+                count += c;
+            }
+            this.count = count;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        /**
+         * @return 所有值的和，纳秒
+         */
+        public long sum() {
+            return total;
+        }
+
+        /**
+         * 返回不大于nanos的值的数量.
+         * <p>
+         * 只统计上限不超过nanos的桶，nanos是桶的上限时（例如1、2.5、5乘以10的幂）结果是准确的，否则可能偏小.
+         *
+         * @param nanos 纳秒
+         * @return 数量
+         */
+        public long countAtOrBelow(long nanos) {
+            long seen = 0;
+            for (int i = 0; i < counts.length && UPPER[i] <= nanos; i++) {
+                seen += counts[i];
+            }
+            return seen;
+        }
+
+        public long mean() {
+            return count == 0 ? 0 : total / count;
+        }
+
+        public long max() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    return upperBound(i);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @param percentile 百分位，0到100
+         * @return 纳秒
+         */
+        public long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBound(i);
+                }
+            }
+            return upperBound(counts.length - 1);
+        }
+
+        public JsonObject toJson() {
+            return new JsonObject()
+                    .put("count", count)
+                    .put("mean", mean())
+                    .put("p50", percentile(50))
+                    .put("p90", percentile(90))
+                    .put("p99", percentile(99))
+                    .put("p999", percentile(99.9))
+                    .put("max", max());
+        }
+    }
+}
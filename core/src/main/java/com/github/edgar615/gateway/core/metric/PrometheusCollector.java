@@ -0,0 +1,19 @@
+package com.github.edgar615.gateway.core.metric;
+
+/**
+ * 向Prometheus输出度量值.
+ * <p>
+ * 通过ServiceLoader加载，每个模块输出自己的度量值.
+ * 每次采集都会调用collect，实现类只读取已有的统计，不能阻塞.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public interface PrometheusCollector {
+
+    /**
+     * 输出度量值.
+     *
+     * @param writer PrometheusWriter
+     */
+    void collect(PrometheusWriter writer);
+}
@@ -0,0 +1,268 @@
+package com.github.edgar615.gateway.core.metric;
+
+import io.vertx.core.buffer.Buffer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按Prometheus文本格式（0.0.4）输出度量值.
+ * <p>
+ * 直接写入Buffer，不创建中间的JsonObject和字符串.
+ * 同一个度量值的所有样本必须连续输出，所以需要先调用family输出HELP和TYPE，再输出这个度量值的所有样本.
+ * 标签使用key, value交替的可变参数传入.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public final class PrometheusWriter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    public static final String COUNTER = "counter";
+
+    public static final String GAUGE = "gauge";
+
+    public static final String HISTOGRAM = "histogram";
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private Buffer buffer;
+
+    public PrometheusWriter(Buffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * @return 写入的Buffer，调用{@link #rollback(int)}之后会变为一个新的Buffer
+     */
+    public Buffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * @return 当前已经写入的字节数，用于{@link #rollback(int)}
+     */
+    public int mark() {
+        return buffer.length();
+    }
+
+    /**
+     * 丢弃mark之后写入的内容，避免输出不完整的度量值.
+     * <p>
+     * Buffer不能截断，所以复制mark之前的内容作为新的Buffer，只应该在采集失败时调用.
+     *
+     * @param mark {@link #mark()}的返回值
+     */
+    public void rollback(int mark) {
+        if (buffer.length() > mark) {
+            buffer = buffer.getBuffer(0, mark);
+        }
+    }
+
+    /**
+     * 输出度量值的HELP和TYPE.
+     *
+     * @param name 名称
+     * @param type 类型：counter、gauge、histogram
+     * @param help 说明
+     * @return PrometheusWriter
+     */
+    public PrometheusWriter family(String name, String type, String help) {
+        appendAscii("# HELP ").appendAscii(name).append(' ').appendEscaped(help, false)
+                .append('\n');
+        appendAscii("# TYPE ").appendAscii(name).append(' ').appendAscii(type).append('\n');
+        return this;
+    }
+
+    /**
+     * 输出一个整数样本.
+     *
+     * @param name   名称
+     * @param value  值
+     * @param labels 标签，key, value交替
+     * @return PrometheusWriter
+     */
+    public PrometheusWriter sample(String name, long value, String... labels) {
+        appendAscii(name).appendLabels(labels, null, null);
+        return append(' ').appendLong(value).append('\n');
+    }
+
+    /**
+     * 输出一个浮点数样本.
+     *
+     * @param name   名称
+     * @param value  值
+     * @param labels 标签，key, value交替
+     * @return PrometheusWriter
+     */
+    public PrometheusWriter sample(String name, double value, String... labels) {
+        appendAscii(name).appendLabels(labels, null, null);
+        return append(' ').appendDouble(value).append('\n');
+    }
+
+    /**
+     * 输出一个直方图：name_bucket、name_sum（秒）和name_count.
+     *
+     * @param name     名称，不包括后缀
+     * @param snapshot 直方图的快照，纳秒
+     * @param buckets  输出的桶
+     * @param labels   标签，key, value交替
+     * @return PrometheusWriter
+     */
+    public PrometheusWriter histogram(String name, LatencyHistogram.Snapshot snapshot,
+                                      Buckets buckets, String... labels) {
+        for (int i = 0; i < buckets.nanos.length; i++) {
+            appendAscii(name).appendAscii("_bucket").appendLabels(labels, "le", buckets.les[i]);
+            append(' ').appendLong(snapshot.countAtOrBelow(buckets.nanos[i])).append('\n');
+        }
+        appendAscii(name).appendAscii("_bucket").appendLabels(labels, "le", "+Inf");
+        append(' ').appendLong(snapshot.count()).append('\n');
+        appendAscii(name).appendAscii("_sum").appendLabels(labels, null, null);
+        append(' ').appendDouble(snapshot.sum() / NANOS_PER_SECOND).append('\n');
+        appendAscii(name).appendAscii("_count").appendLabels(labels, null, null);
+        return append(' ').appendLong(snapshot.count()).append('\n');
+    }
+
+    private PrometheusWriter appendLabels(String[] labels, String extraKey, String extraValue) {
+        if (labels.length == 0 && extraKey == null) {
+            return this;
+        }
+        append('{');
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (i > 0) {
+                append(',');
+            }
+            appendLabel(labels[i], labels[i + 1]);
+        }
+        if (extraKey != null) {
+            if (labels.length > 1) {
+                append(',');
+            }
+            appendLabel(extraKey, extraValue);
+        }
+        return append('}');
+    }
+
+    private void appendLabel(String key, String value) {
+        appendAscii(key).appendAscii("=\"").appendEscaped(value == null ? "" : value, true)
+                .append('"');
+    }
+
+    private PrometheusWriter append(char c) {
+        buffer.appendByte((byte) c);
+        return this;
+    }
+
+    /**
+     * 名称、类型等只包含ASCII字符，直接按字节写入
+     */
+    private PrometheusWriter appendAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            buffer.appendByte((byte) s.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * 转义反斜杠、换行，标签值还需要转义双引号.非ASCII的部分按UTF-8写入.
+     */
+    private PrometheusWriter appendEscaped(String s, boolean quote) {
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c == '\\') {
+                appendAscii("\\\\");
+            } else if (c == '\n') {
+                appendAscii("\\n");
+            } else if (quote && c == '"') {
+                appendAscii("\\\"");
+            } else if (c < 0x80) {
+                buffer.appendByte((byte) c);
+            } else {
+                int end = i + 1;
+                while (end < length && s.charAt(end) >= 0x80) {
+                    end++;
+                }
+                buffer.appendString(s.substring(i, end), "UTF-8");
+                i = end - 1;
+            }
+        }
+        return this;
+    }
+
+    private PrometheusWriter appendLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            return appendAscii(Long.toString(value));
+        }
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            buffer.appendByte((byte) ('0' + value / divisor % 10));
+            divisor /= 10;
+        }
+        return this;
+    }
+
+    private PrometheusWriter appendDouble(double value) {
+        if (value == (long) value) {
+            return appendLong((long) value);
+        }
+        if (Double.isNaN(value)) {
+            return appendAscii("NaN");
+        }
+        if (Double.isInfinite(value)) {
+            return appendAscii(value > 0 ? "+Inf" : "-Inf");
+        }
+        return appendAscii(Double.toString(value));
+    }
+
+    /**
+     * 直方图输出的桶，上限使用秒.
+     * <p>
+     * 上限是LatencyHistogram的桶的上限时（1、2.5、5乘以10的幂），每个桶的数量与Prometheus的le（value <= le）完全一致，
+     * 所以不需要单独按le计数.
+     */
+    public static final class Buckets {
+
+        /**
+         * 请求的耗时，1ms到10s
+         */
+        public static final Buckets REQUEST = of(0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1,
+                                                 0.25, 0.5, 1, 2.5, 5, 10);
+
+        /**
+         * filter的耗时，1us到1s
+         */
+        public static final Buckets FILTER = of(0.000001, 0.000005, 0.00001, 0.00005, 0.0001,
+                                                0.0005, 0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1);
+
+        private final long[] nanos;
+
+        private final String[] les;
+
+        private Buckets(long[] nanos, String[] les) {
+            this.nanos = nanos;
+            this.les = les;
+        }
+
+        /**
+         * @param seconds 每个桶的上限，秒，从小到大
+         * @return Buckets
+         */
+        public static Buckets of(double... seconds) {
+            long[] nanos = new long[seconds.length];
+            String[] les = new String[seconds.length];
+            for (int i = 0; i < seconds.length; i++) {
+                nanos[i] = Math.round(seconds[i] * NANOS_PER_SECOND);
+                les[i] = seconds[i] == (long) seconds[i]
+                        ? Long.toString((long) seconds[i]) : Double.toString(seconds[i]);
+            }
+            return new Buckets(nanos, les);
+        }
+    }
+}
@@ -22,4 +22,9 @@ public class OrderPlugin implements ApiPlugin {
     public String name() {
         return OrderPlugin.class.getSimpleName();
     }
+
+    @Override
+    public boolean requiresJsonBody() {
+        return false;
+    }
 }
@@ -1,5 +1,7 @@
 package com.github.edgar615.gateway.core.plugin.order;
 
+import com.github.edgar615.gateway.core.definition.ApiBinaryInput;
+import com.github.edgar615.gateway.core.definition.ApiBinaryOutput;
 import com.github.edgar615.gateway.core.definition.ApiPlugin;
 import com.github.edgar615.gateway.core.definition.ApiPluginFactory;
 import io.vertx.core.json.JsonObject;
@@ -27,4 +29,14 @@ public class OrderPluginFactory implements ApiPluginFactory {
     public JsonObject encode(ApiPlugin plugin) {
         return new JsonObject().put("order", ((OrderPlugin) plugin).order());
     }
+
+    @Override
+    public void encodeBinary(ApiPlugin plugin, ApiBinaryOutput out) {
+        out.writeLong(((OrderPlugin) plugin).order());
+    }
+
+    @Override
+    public ApiPlugin decodeBinary(ApiBinaryInput in) {
+        return new OrderPlugin((int) in.readLong());
+    }
 }
@@ -5,4 +5,33 @@ import com.github.edgar615.gateway.core.dispatch.ApiContext;
 import java.util.function.Predicate;
 
 public interface ApiPredicate extends Predicate<ApiContext> {
+
+    /**
+     * 时间的比较
+     */
+    int COST_TIME = 0;
+
+    /**
+     * 请求头、请求参数的比较
+     */
+    int COST_COMPARE = 1;
+
+    /**
+     * 客户端IP的比较
+     */
+    int COST_REMOTE_ADDR = 2;
+
+    /**
+     * 正则匹配
+     */
+    int COST_REGEX = 3;
+
+    /**
+     * PredicatePlugin会按照cost从小到大的顺序执行，开销小的条件先执行，不满足时不再执行后面的条件.
+     *
+     * @return 执行条件的开销
+     */
+    default int cost() {
+        return COST_COMPARE;
+    }
 }
@@ -2,8 +2,6 @@ package com.github.edgar615.gateway.core.plugin.predicate;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
 
-import java.time.Instant;
-import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
@@ -14,20 +12,28 @@ public class BeforePredicate implements ApiPredicate {
 
     private final String dateTime;
 
+    /**
+     * 时间对应的毫秒数，比较时不需要再创建ZonedDateTime
+     */
+    private final long epochMilli;
+
     public BeforePredicate(String datetime) {
         Objects.requireNonNull(datetime);
         this.dateTime = datetime;
         this.zonedDateTime = ZonedDateTime.parse(datetime, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+        this.epochMilli = zonedDateTime.toInstant().toEpochMilli();
     }
 
     public boolean test(ApiContext context) {
         long requestReceivedOn = (long) context.variables().getOrDefault("requestReceivedOn",
                                                                          System.currentTimeMillis
                                                                                  ());
-        ZonedDateTime now =
-                Instant.ofEpochMilli(requestReceivedOn).atOffset(ZoneOffset.ofTotalSeconds(0))
-                        .toZonedDateTime();
-        return now.isBefore(zonedDateTime);
+        return requestReceivedOn < epochMilli;
+    }
+
+    @Override
+    public int cost() {
+        return COST_TIME;
     }
 
     public String dateTime() {
@@ -2,8 +2,6 @@ package com.github.edgar615.gateway.core.plugin.predicate;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
 
-import java.time.Instant;
-import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
@@ -18,6 +16,13 @@ public class BetweenPredicate implements ApiPredicate {
 
     private final String endDateTime;
 
+    /**
+     * 开始时间和结束时间对应的毫秒数，比较时不需要再创建ZonedDateTime
+     */
+    private final long startEpochMilli;
+
+    private final long endEpochMilli;
+
     public BetweenPredicate(String startDateTime, String endDateTime) {
         Objects.requireNonNull(startDateTime);
         Objects.requireNonNull(endDateTime);
@@ -27,17 +32,20 @@ public class BetweenPredicate implements ApiPredicate {
                 ZonedDateTime.parse(startDateTime, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
         this.zoneEndDateTime =
                 ZonedDateTime.parse(endDateTime, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-        ;
+        this.startEpochMilli = zoneStartDateTime.toInstant().toEpochMilli();
+        this.endEpochMilli = zoneEndDateTime.toInstant().toEpochMilli();
     }
 
     public boolean test(ApiContext context) {
         long requestReceivedOn = (long) context.variables().getOrDefault("requestReceivedOn",
                                                                          System.currentTimeMillis
                                                                                  ());
-        ZonedDateTime now =
-                Instant.ofEpochMilli(requestReceivedOn).atOffset(ZoneOffset.ofTotalSeconds(0))
-                        .toZonedDateTime();
-        return now.isBefore(zoneEndDateTime) && now.isAfter(zoneStartDateTime);
+        return requestReceivedOn < endEpochMilli && requestReceivedOn > startEpochMilli;
+    }
+
+    @Override
+    public int cost() {
+        return COST_TIME;
     }
 
     public String startDateTime() {
@@ -0,0 +1,45 @@
+package com.github.edgar615.gateway.core.plugin.predicate;
+
+import com.google.common.base.Strings;
+
+import com.github.edgar615.gateway.core.dispatch.ApiContext;
+import com.github.edgar615.util.net.IPUtils;
+
+/**
+ * 客户端IP的数值.
+ * <p>
+ * 多个IP相关的条件只在第一次使用时解析客户端IP，解析结果和IP一起保存在上下文的内部属性中（不属于variables），IP变化后会重新解析.
+ *
+ * @author Edgar  Date 2018/12/11
+ */
+final class ClientIp {
+
+    static final String CLIENT_IP_NUMBER = "request_clientIpNumber";
+
+    private final String ip;
+
+    private final long number;
+
+    private ClientIp(String ip, long number) {
+        this.ip = ip;
+        this.number = number;
+    }
+
+    /**
+     * @param context 上下文
+     * @return 客户端IP的数值，没有客户端IP时返回-1
+     */
+    static long ipNumber(ApiContext context) {
+        String clientIp = (String) context.variables().get("request_clientIp");
+        Object cached = context.attribute(CLIENT_IP_NUMBER);
+        if (cached instanceof ClientIp && ((ClientIp) cached).ip.equals(clientIp)) {
+            return ((ClientIp) cached).number;
+        }
+        if (Strings.isNullOrEmpty(clientIp)) {
+            return -1;
+        }
+        long number = IPUtils.ipToLong(clientIp);
+        context.setAttribute(CLIENT_IP_NUMBER, new ClientIp(clientIp, number));
+        return number;
+    }
+}
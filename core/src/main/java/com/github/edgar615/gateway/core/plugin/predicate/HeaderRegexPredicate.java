@@ -6,32 +6,42 @@ import com.github.edgar615.gateway.core.utils.MultimapUtils;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
+import java.util.regex.Pattern;
 
 public class HeaderRegexPredicate implements ApiPredicate {
 
     private final Map<String, String> headers = new HashMap<>();
 
+    /**
+     * 编译后的正则表达式
+     */
+    private final Map<String, Pattern> patterns = new HashMap<>();
+
     public HeaderRegexPredicate(Map<String, String> headers) {
         Objects.requireNonNull(headers);
         this.headers.putAll(headers);
+        headers.forEach((name, regex) -> patterns.put(name, Pattern.compile(regex)));
     }
 
     public boolean test(ApiContext context) {
-        Set<String> names = headers.keySet();
-        for (String name : names) {
-            String value = headers.get(name);
-            String headerValue = MultimapUtils.getCaseInsensitive(context.headers(), name);
+        for (Map.Entry<String, Pattern> entry : patterns.entrySet()) {
+            String headerValue =
+                    MultimapUtils.getCaseInsensitive(context.headers(), entry.getKey());
             if (headerValue == null) {
                 return false;
             }
-            if (!headerValue.matches(value)) {
+            if (!entry.getValue().matcher(headerValue).matches()) {
                 return false;
             }
         }
         return true;
     }
 
+    @Override
+    public int cost() {
+        return COST_REGEX;
+    }
+
     public Map<String, String> headers() {
         return headers;
     }
@@ -1,30 +1,77 @@
 package com.github.edgar615.gateway.core.plugin.predicate;
 
 import com.github.edgar615.gateway.core.definition.ApiPlugin;
+import com.github.edgar615.gateway.core.dispatch.ApiContext;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
+/**
+ * 路由的匹配条件，所有的条件都满足时才会选择这个路由.
+ * <p>
+ * 添加条件时会将条件按照{@link ApiPredicate#cost()}重新排序，开销小的条件（时间、请求头的比较）排在正则匹配之前，
+ * 请求时按照这个顺序执行，不满足时不再执行后面的条件.
+ */
 public class PredicatePlugin implements ApiPlugin {
 
     private final List<ApiPredicate> predicates = new ArrayList<>();
 
+    /**
+     * 按照开销排序后的条件
+     */
+    private volatile ApiPredicate[] program = new ApiPredicate[0];
+
     @Override
     public String name() {
         return PredicatePlugin.class.getSimpleName();
     }
 
-    public PredicatePlugin add(ApiPredicate predicate) {
+    @Override
+    public boolean requiresJsonBody() {
+        return false;
+    }
+
+    public synchronized PredicatePlugin add(ApiPredicate predicate) {
         this.predicates.add(predicate);
+        compile();
         return this;
     }
 
-    public PredicatePlugin addAll(List<ApiPredicate> predicates) {
+    public synchronized PredicatePlugin addAll(List<ApiPredicate> predicates) {
         this.predicates.addAll(predicates);
+        compile();
         return this;
     }
 
+    /**
+     * @return 条件，按照添加的顺序
+     */
     public List<ApiPredicate> predicates() {
-        return predicates;
+        return Collections.unmodifiableList(predicates);
+    }
+
+    /**
+     * 判断请求是否满足所有的条件.
+     *
+     * @param context 上下文
+     * @return 如果满足所有的条件，返回true
+     */
+    public boolean test(ApiContext context) {
+        ApiPredicate[] program = this.program;
+        for (int i = 0; i < program.length; i++) {
+            if (!program[i].test(context)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void compile() {
+        //排序是稳定的，开销相同的条件保持添加的顺序
+        List<ApiPredicate> sorted = new ArrayList<>(predicates);
+        sorted.sort(Comparator.comparingInt(ApiPredicate::cost));
+        this.program = sorted.toArray(new ApiPredicate[sorted.size()]);
     }
 }
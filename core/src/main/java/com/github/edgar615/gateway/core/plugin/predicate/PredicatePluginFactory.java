@@ -48,6 +48,15 @@ public class PredicatePluginFactory implements ApiPluginFactory {
             if (predicate.getValue("remoteAddr") instanceof JsonObject) {
                 plugin.addAll(remoteAddrPredicate(predicate.getJsonObject("remoteAddr")));
             }
+            if (predicate.getValue("weight") instanceof Integer) {
+                plugin.add(new WeightPredicate(predicate.getInteger("weight")));
+            }
+            if (predicate.getValue("weight") instanceof JsonObject) {
+                JsonObject weight = predicate.getJsonObject("weight");
+                plugin.add(new WeightPredicate(weight.getString("key", WeightPredicate.CLIENT_IP),
+                                               weight.getInteger("offset", 0),
+                                               weight.getInteger("weight", 0)));
+            }
             return plugin;
         }
         return null;
@@ -70,6 +79,14 @@ public class PredicatePluginFactory implements ApiPluginFactory {
                                 .add(((BetweenPredicate) predicate).endDateTime());
                 jsonObject.put("between", between);
             }
+            if (predicate instanceof WeightPredicate) {
+                WeightPredicate weightPredicate = (WeightPredicate) predicate;
+                JsonObject weight = new JsonObject()
+                        .put("key", weightPredicate.key())
+                        .put("offset", weightPredicate.offset())
+                        .put("weight", weightPredicate.weight());
+                jsonObject.put("weight", weight);
+            }
             JsonObject header = encodeHeader(predicate);
             if (!header.isEmpty() && jsonObject.getValue("header") == null) {
                 jsonObject.put("header", header);
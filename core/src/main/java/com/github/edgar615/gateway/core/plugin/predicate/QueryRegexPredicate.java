@@ -6,32 +6,42 @@ import com.github.edgar615.gateway.core.utils.MultimapUtils;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
+import java.util.regex.Pattern;
 
 public class QueryRegexPredicate implements ApiPredicate {
 
     private final Map<String, String> query = new HashMap<>();
 
+    /**
+     * 编译后的正则表达式
+     */
+    private final Map<String, Pattern> patterns = new HashMap<>();
+
     public QueryRegexPredicate(Map<String, String> query) {
         Objects.requireNonNull(query);
         this.query.putAll(query);
+        query.forEach((name, regex) -> patterns.put(name, Pattern.compile(regex)));
     }
 
     public boolean test(ApiContext context) {
-        Set<String> names = query.keySet();
-        for (String name : names) {
-            String value = query.get(name);
-            String queryValue = MultimapUtils.getCaseInsensitive(context.params(), name);
+        for (Map.Entry<String, Pattern> entry : patterns.entrySet()) {
+            String queryValue =
+                    MultimapUtils.getCaseInsensitive(context.params(), entry.getKey());
             if (queryValue == null) {
                 return false;
             }
-            if (!queryValue.matches(value)) {
+            if (!entry.getValue().matcher(queryValue).matches()) {
                 return false;
             }
         }
         return true;
     }
 
+    @Override
+    public int cost() {
+        return COST_REGEX;
+    }
+
     public Map<String, String> query() {
         return query;
     }
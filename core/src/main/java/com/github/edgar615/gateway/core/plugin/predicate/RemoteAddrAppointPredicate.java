@@ -1,8 +1,7 @@
 package com.github.edgar615.gateway.core.plugin.predicate;
 
 import com.google.common.base.Splitter;
-import com.google.common.base.Strings;
-import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
 
@@ -11,40 +10,77 @@ import java.util.List;
 import java.util.Objects;
 
 public class RemoteAddrAppointPredicate implements ApiPredicate {
+
+    /**
+     * 匹配任意值的IP段
+     */
+    private static final int ANY = -1;
+
+    /**
+     * 无法匹配任何值的IP段
+     */
+    private static final int NONE = -2;
+
     /**
      * IP的集合
      */
     private final List<String> appoint = new ArrayList<>();
 
+    /**
+     * 编译后的规则，每个规则有4段，*用ANY表示，不足4段的部分用ANY补齐
+     */
+    private final List<int[]> rules = new ArrayList<>();
+
     public RemoteAddrAppointPredicate(List<String> appoint) {
         Objects.requireNonNull(appoint);
         this.appoint.addAll(appoint);
+        for (String rule : appoint) {
+            this.rules.add(compile(rule));
+        }
     }
 
     public boolean test(ApiContext context) {
-        String clientIp = (String) context.variables().get("request_clientIp");
-        if (Strings.isNullOrEmpty(clientIp)) {
+        long ipNumber = ClientIp.ipNumber(context);
+        if (ipNumber < 0) {
             return false;
         }
-        return appoint.stream()
-                       .filter(r -> checkIp(r, clientIp))
-                       .count() > 0;
+        for (int[] rule : rules) {
+            if (checkIp(rule, ipNumber)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int cost() {
+        return COST_REMOTE_ADDR;
     }
 
     public List<String> appoint() {
         return appoint;
     }
 
-    private boolean checkIp(String rule, String clientIp) {
-        List<String> rules = Lists.newArrayList(Splitter.on(".").trimResults().split(rule));
-        for (int i = rules.size(); i < 5; i++) {
-            rules.add("*");
+    private static int[] compile(String rule) {
+        int[] segments = {ANY, ANY, ANY, ANY};
+        int i = 0;
+        for (String segment : Splitter.on(".").trimResults().split(rule)) {
+            if (i == segments.length) {
+                break;
+            }
+            if (!"*".equals(segment)) {
+                Integer value = Ints.tryParse(segment);
+                segments[i] = value == null ? NONE : value;
+            }
+            i++;
         }
-        List<String> ips = Lists.newArrayList(Splitter.on(".").trimResults().split(clientIp));
+        return segments;
+    }
+
+    private static boolean checkIp(int[] rule, long ipNumber) {
         for (int i = 0; i < 4; i++) {
-            String r = rules.get(i);
-            String ip = ips.get(i);
-            if (!r.equals(ip) && !"*".equals(r)) {
+            int segment = (int) (ipNumber >> (24 - 8 * i)) & 0xFF;
+            if (rule[i] != ANY && rule[i] != segment) {
                 return false;
             }
         }
@@ -1,10 +1,8 @@
 package com.github.edgar615.gateway.core.plugin.predicate;
 
 import com.google.common.base.Preconditions;
-import com.google.common.base.Strings;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.util.net.IPUtils;
 
 public class RemoteAddrHashPredicate implements ApiPredicate {
     /**
@@ -26,15 +24,19 @@ public class RemoteAddrHashPredicate implements ApiPredicate {
     }
 
     public boolean test(ApiContext context) {
-        String clientIp = (String) context.variables().get("request_clientIp");
-        if (Strings.isNullOrEmpty(clientIp)) {
+        long ipNumber = ClientIp.ipNumber(context);
+        if (ipNumber < 0) {
             return false;
         }
-        long ipNumber = IPUtils.ipToLong(clientIp);
         long ipHash = ipNumber % 100;
         return ipHash >= start && ipHash <= end;
     }
 
+    @Override
+    public int cost() {
+        return COST_REMOTE_ADDR;
+    }
+
     public int start() {
         return start;
     }
@@ -1,10 +1,8 @@
 package com.github.edgar615.gateway.core.plugin.predicate;
 
 import com.google.common.base.Preconditions;
-import com.google.common.base.Strings;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.util.net.IPUtils;
 
 public class RemoteAddrRangePredicate implements ApiPredicate {
     /**
@@ -27,14 +25,18 @@ public class RemoteAddrRangePredicate implements ApiPredicate {
     }
 
     public boolean test(ApiContext context) {
-        String clientIp = (String) context.variables().get("request_clientIp");
-        if (Strings.isNullOrEmpty(clientIp)) {
+        long ipNumber = ClientIp.ipNumber(context);
+        if (ipNumber < 0) {
             return false;
         }
-        long ipNumber = IPUtils.ipToLong(clientIp);
         return ipNumber >= start && ipNumber <= end;
     }
 
+    @Override
+    public int cost() {
+        return COST_REMOTE_ADDR;
+    }
+
     public long start() {
         return start;
     }
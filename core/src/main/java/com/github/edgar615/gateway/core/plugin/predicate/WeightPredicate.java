@@ -1,20 +1,149 @@
 package com.github.edgar615.gateway.core.plugin.predicate;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
 
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按权重切分流量.
+ * <p>
+ * 对请求的某个值（默认为客户端IP）计算hash，映射到0-99共100个桶中，桶的编号在[offset, offset + weight)之间的请求满足条件.
+ * 同一个值总是落在同一个桶中，多个路由可以通过offset划分互不重叠的区间.
+ * <p>
+ * key支持下列格式:
+ * <pre>
+ *   $clientIp 客户端IP
+ *   $header.x 请求头，忽略大小写
+ *   $query.x 请求参数
+ *   $user.x 用户的属性
+ *   $var.x 上下文的变量
+ * </pre>
+ * hash使用String.hashCode（String会缓存这个值）再经过murmur3的fmix32打散，不需要加锁.
+ * 每个桶的命中次数用AtomicLongArray记录，用来验证流量的切分是否符合预期.
+ *
+ * @author Edgar  Date 2018/12/12
+ */
 public class WeightPredicate implements ApiPredicate {
 
+    public static final String CLIENT_IP = "$clientIp";
+
+    private static final String HEADER_PREFIX = "$header.";
+
+    static final int BUCKETS = 100;
+
+    /**
+     * 计算hash的值
+     */
+    private final String key;
+
+    /**
+     * key为请求头时的请求头名称
+     */
+    private final String headerName;
+
+    private final int offset;
+
     private final int weight;
 
+    /**
+     * 每个桶的命中次数
+     */
+    private final AtomicLongArray hits = new AtomicLongArray(BUCKETS);
+
     public WeightPredicate(int weight) {
-        Preconditions.checkArgument(weight >= 0, "weight must great than 0");
-        Preconditions.checkArgument(weight <= 100, "weight must less than 100");
+        this(CLIENT_IP, 0, weight);
+    }
+
+    public WeightPredicate(String key, int offset, int weight) {
+        Preconditions.checkNotNull(key);
+        Preconditions.checkArgument(weight >= 0 && weight <= BUCKETS,
+                                    "weight must be between 0 and 100");
+        Preconditions.checkArgument(offset >= 0 && offset + weight <= BUCKETS,
+                                    "offset and offset + weight must be between 0 and 100");
+        this.key = key;
+        this.headerName = key.startsWith(HEADER_PREFIX) ? key.substring(HEADER_PREFIX.length())
+                : null;
+        this.offset = offset;
         this.weight = weight;
     }
 
     public boolean test(ApiContext context) {
-        return false;
+        String value = value(context);
+        if (Strings.isNullOrEmpty(value)) {
+            return false;
+        }
+        int bucket = bucket(value);
+        hits.incrementAndGet(bucket);
+        return bucket >= offset && bucket < offset + weight;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public int offset() {
+        return offset;
+    }
+
+    public int weight() {
+        return weight;
+    }
+
+    /**
+     * @param bucket 桶的编号，0-99
+     * @return 落在这个桶中的请求数
+     */
+    public long hits(int bucket) {
+        return hits.get(bucket);
+    }
+
+    /**
+     * @return 满足条件的请求数
+     */
+    public long matchCount() {
+        long count = 0;
+        for (int i = offset; i < offset + weight; i++) {
+            count += hits.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return 计算过hash的请求数
+     */
+    public long totalCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += hits.get(i);
+        }
+        return count;
+    }
+
+    static int bucket(String value) {
+        int h = value.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return (h & Integer.MAX_VALUE) % BUCKETS;
+    }
+
+    private String value(ApiContext context) {
+        if (CLIENT_IP.equals(key)) {
+            return (String) context.variables().get("request_clientIp");
+        }
+        if (headerName != null) {
+            return context.header(headerName);
+        }
+        Object value = context.getValueByKeyword(key);
+        //未定义的格式会直接返回key
+        if (value == null || value == key) {
+            return null;
+        }
+        return value.toString();
     }
 }
@@ -23,4 +23,9 @@ public interface ScopePlugin extends ApiPlugin {
     default String name() {
         return ScopePlugin.class.getSimpleName();
     }
+
+    @Override
+    default boolean requiresJsonBody() {
+        return false;
+    }
 }
@@ -1,5 +1,7 @@
 package com.github.edgar615.gateway.core.plugin.scope;
 
+import com.github.edgar615.gateway.core.definition.ApiBinaryInput;
+import com.github.edgar615.gateway.core.definition.ApiBinaryOutput;
 import com.github.edgar615.gateway.core.definition.ApiPlugin;
 import com.github.edgar615.gateway.core.definition.ApiPluginFactory;
 import io.vertx.core.json.JsonObject;
@@ -36,4 +38,14 @@ public class ScopePluginFactory implements ApiPluginFactory {
         ScopePlugin scopePlugin = (ScopePlugin) plugin;
         return new JsonObject().put("scope", scopePlugin.scope());
     }
+
+    @Override
+    public void encodeBinary(ApiPlugin plugin, ApiBinaryOutput out) {
+        out.writeString(((ScopePlugin) plugin).scope());
+    }
+
+    @Override
+    public ApiPlugin decodeBinary(ApiBinaryInput in) {
+        return new ScopePluginImpl(in.readString());
+    }
 }
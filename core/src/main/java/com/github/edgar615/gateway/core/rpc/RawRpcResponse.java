@@ -0,0 +1,137 @@
+package com.github.edgar615.gateway.core.rpc;
+
+import com.google.common.base.MoreObjects;
+
+import com.github.edgar615.util.exception.DefaultErrorCode;
+import com.github.edgar615.util.exception.SystemException;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * 透传的响应.
+ * <p>
+ * 创建时只根据首尾的字符判断响应是JSON对象还是JSON数组，第一次读取responseObject或responseArray时才解析.
+ * 解析之后rawBody()返回null，因为解析出来的JSON可能被修改.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+class RawRpcResponse implements RpcResponse {
+
+    private final String id;
+
+    private final int statusCode;
+
+    private final Buffer body;
+
+    private final boolean isArray;
+
+    private final long elapsedTime;
+
+    private RpcResponse parsed;
+
+    RawRpcResponse(String id, int statusCode, Buffer body, long elapsedTime) {
+        this.id = id;
+        this.statusCode = statusCode;
+        this.body = body;
+        this.elapsedTime = elapsedTime;
+        this.isArray = isArray(body);
+    }
+
+    private RawRpcResponse(RawRpcResponse source) {
+        this.id = source.id;
+        this.statusCode = source.statusCode;
+        this.body = source.body;
+        this.elapsedTime = source.elapsedTime;
+        this.isArray = source.isArray;
+    }
+
+    @Override
+    public int statusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public boolean isArray() {
+        return isArray;
+    }
+
+    @Override
+    public JsonObject responseObject() {
+        return parse().responseObject();
+    }
+
+    @Override
+    public JsonArray responseArray() {
+        return parse().responseArray();
+    }
+
+    @Override
+    public Buffer rawBody() {
+        return parsed == null ? body : null;
+    }
+
+    @Override
+    public long elapsedTime() {
+        return elapsedTime;
+    }
+
+    @Override
+    public String id() {
+        return id;
+    }
+
+    @Override
+    public RpcResponse copy() {
+        if (parsed == null) {
+            return new RawRpcResponse(this);
+        }
+        return parsed.copy();
+    }
+
+    private RpcResponse parse() {
+        if (parsed == null) {
+            parsed = RpcResponse.create(id, statusCode, body, elapsedTime);
+        }
+        return parsed;
+    }
+
+    /**
+     * 根据第一个和最后一个非空白字符判断响应是否是JSON数组.
+     *
+     * @param body 响应体
+     * @return JSON数组返回true，JSON对象返回false
+     */
+    private static boolean isArray(Buffer body) {
+        int start = 0;
+        int end = body.length() - 1;
+        while (start <= end && Character.isWhitespace(body.getByte(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(body.getByte(end))) {
+            end--;
+        }
+        if (start < end) {
+            byte first = body.getByte(start);
+            byte last = body.getByte(end);
+            if (first == '{' && last == '}') {
+                return false;
+            }
+            if (first == '[' && last == ']') {
+                return true;
+            }
+        }
+        throw SystemException.create(DefaultErrorCode.INVALID_JSON)
+                .set("details", "The result of RPC is incorrect, It should be a JSON object");
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper("RpcResponse")
+                .add("id", id)
+                .add("statusCode", statusCode)
+                .add("rawBody", body.length() + "bytes")
+                .add("elapsedTime", elapsedTime)
+                .toString();
+    }
+}
@@ -33,6 +33,15 @@ public interface RpcResponse {
      */
     JsonArray responseArray();
 
+    /**
+     * 未解析的原始响应体，只有透传的响应在读取JSON之前才有值.
+     *
+     * @return 原始响应体
+     */
+    default Buffer rawBody() {
+        return null;
+    }
+
     /**
      * 耗时时间=endTime - startTime .
      *
@@ -73,6 +82,19 @@ public interface RpcResponse {
         return new RpcResponseImpl(id, statusCode, responseArray, elapsedTime);
     }
 
+    /**
+     * 创建一个透传的响应，响应体在第一次读取JSON时才会解析.
+     *
+     * @param id          id
+     * @param statusCode  响应码
+     * @param data        响应数据，必须是JSON对象或者JSON数组
+     * @param elapsedTime 耗时
+     * @return RpcResponse
+     */
+    static RpcResponse createRaw(String id, int statusCode, Buffer data, long elapsedTime) {
+        return new RawRpcResponse(id, statusCode, data, elapsedTime);
+    }
+
     /**
      * 将buffer转换为AsyncResult，如果转换为JSON数组失败，尝试转换为JSON对象，
      * 同理，如果转换为JSON对象失败，尝试转换为JSON数组.
@@ -9,6 +9,7 @@ import com.github.edgar615.gateway.core.rpc.CircuitBreakerExecutable;
 import com.github.edgar615.gateway.core.rpc.Fallbackable;
 import com.github.edgar615.gateway.core.rpc.RpcRequest;
 import com.github.edgar615.gateway.core.rpc.RpcResponse;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.json.JsonObject;
 
@@ -53,6 +54,16 @@ public abstract class HttpRpcRequest implements RpcRequest, CircuitBreakerExecut
      */
     private JsonObject body;
 
+    /**
+     * 透传的请求体
+     */
+    private Buffer rawBody;
+
+    /**
+     * 是否透传请求体和响应体
+     */
+    private boolean passThrough;
+
     /**
      * 请求超时时间，只有大于100的超时时间才有效
      */
@@ -113,6 +124,34 @@ public abstract class HttpRpcRequest implements RpcRequest, CircuitBreakerExecut
         return this;
     }
 
+    /**
+     * 透传的请求体，设置之后body()不再使用.
+     *
+     * @return 请求体
+     */
+    public Buffer rawBody() {
+        return rawBody;
+    }
+
+    public HttpRpcRequest setRawBody(Buffer rawBody) {
+        this.rawBody = rawBody;
+        return this;
+    }
+
+    /**
+     * 是否透传请求体和响应体，透传时直接发送rawBody，响应体在读取JSON时才会解析.
+     *
+     * @return 透传返回true
+     */
+    public boolean passThrough() {
+        return passThrough;
+    }
+
+    public HttpRpcRequest setPassThrough(boolean passThrough) {
+        this.passThrough = passThrough;
+        return this;
+    }
+
     public int timeout() {
         return timeout;
     }
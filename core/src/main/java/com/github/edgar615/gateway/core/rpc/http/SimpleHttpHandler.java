@@ -4,10 +4,10 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
 
 import com.github.edgar615.gateway.core.definition.SimpleHttpEndpoint;
+import com.github.edgar615.gateway.core.log.AccessLog;
 import com.github.edgar615.gateway.core.rpc.RpcHandler;
 import com.github.edgar615.gateway.core.rpc.RpcRequest;
 import com.github.edgar615.gateway.core.rpc.RpcResponse;
-import com.github.edgar615.gateway.core.utils.MultimapUtils;
 import com.github.edgar615.util.exception.DefaultErrorCode;
 import com.github.edgar615.util.exception.SystemException;
 import io.vertx.core.Future;
@@ -36,8 +36,11 @@ public class SimpleHttpHandler implements RpcHandler {
 
     private final HttpClient httpClient;
 
+    private final AccessLog accessLog;
+
     public SimpleHttpHandler(Vertx vertx, JsonObject config) {
         this.httpClient = vertx.createHttpClient();
+        this.accessLog = AccessLog.instance();
     }
 
     //  @Override
@@ -56,9 +59,11 @@ public class SimpleHttpHandler implements RpcHandler {
             );
         }
 
-        logClientSend(request);
         Future<RpcResponse> future = Future.future();
         String path = requestPath(request);
+        Buffer body = requestBody(request);
+        accessLog.clientSent(request.id(), request.host(), request.port(), request.method(), path,
+                             request.headers(), body);
         final Duration duration = new Duration();
         HttpClientRequest httpClientRequest =
                 httpClient
@@ -66,14 +71,15 @@ public class SimpleHttpHandler implements RpcHandler {
                         .putHeader("content-type", "application/json; charset=utf-8");
         httpClientRequest.handler(response -> {
             duration.setRepliedOn(System.currentTimeMillis());
-            response.bodyHandler(body -> {
+            response.bodyHandler(responseBody -> {
                 duration.setBodyHandledOn(System.currentTimeMillis());
-                RpcResponse rpcResponse =
-                        RpcResponse.create(request.id(),
-                                           response.statusCode(),
-                                           body,
-                                           duration.duration());
-                logClientReceived(rpcResponse, body, duration);
+                RpcResponse rpcResponse = request.passThrough()
+                        ? RpcResponse.createRaw(request.id(), response.statusCode(),
+                                                responseBody, duration.duration())
+                        : RpcResponse.create(request.id(), response.statusCode(), responseBody,
+                                             duration.duration());
+                accessLog.clientReceived(rpcResponse.id(), rpcResponse.statusCode(),
+                                         responseBody.length(), rpcResponse.elapsedTime());
                 future.complete(rpcResponse);
             }).exceptionHandler(throwable -> {
                 if (!future.isComplete()) {
@@ -90,7 +96,7 @@ public class SimpleHttpHandler implements RpcHandler {
         exceptionHandler(future, httpClientRequest);
         timeout(request, httpClientRequest);
 
-        endRequest(request, httpClientRequest);
+        endRequest(request, httpClientRequest, body);
         return future;
     }
 
@@ -110,7 +116,7 @@ public class SimpleHttpHandler implements RpcHandler {
     private boolean checkBody(HttpRpcRequest request) {
         return (request.method() == HttpMethod.POST
                 || request.method() == HttpMethod.PUT)
-               && request.body() == null;
+               && request.rawBody() == null && request.body() == null;
     }
 
     private void header(HttpRpcRequest rpcRequest, HttpClientRequest request) {
@@ -133,17 +139,29 @@ public class SimpleHttpHandler implements RpcHandler {
         }
     }
 
-    private void endRequest(HttpRpcRequest rpcRequest, HttpClientRequest request) {
+    /**
+     * POST和PUT请求的请求体，透传的请求直接使用原始的请求体.
+     * 请求体只编码一次，发送请求和记录日志使用同一个Buffer.
+     */
+    private Buffer requestBody(HttpRpcRequest rpcRequest) {
+        if (rpcRequest.method() != HttpMethod.POST && rpcRequest.method() != HttpMethod.PUT) {
+            return null;
+        }
+        Buffer body = rpcRequest.rawBody();
+        if (body == null) {
+            body = rpcRequest.body().toBuffer();
+        }
+        return body;
+    }
+
+    private void endRequest(HttpRpcRequest rpcRequest, HttpClientRequest request, Buffer body) {
         if (rpcRequest.method() == HttpMethod.GET) {
             request.end();
         } else if (rpcRequest.method() == HttpMethod.DELETE) {
             request.end();
-        } else if (rpcRequest.method() == HttpMethod.POST) {
-            request.setChunked(true)
-                    .end(rpcRequest.body().encode());
-        } else if (rpcRequest.method() == HttpMethod.PUT) {
-            request.setChunked(true)
-                    .end(rpcRequest.body().encode());
+        } else if (rpcRequest.method() == HttpMethod.POST
+                   || rpcRequest.method() == HttpMethod.PUT) {
+            request.setChunked(true).end(body);
         }
     }
 
@@ -183,22 +201,6 @@ public class SimpleHttpHandler implements RpcHandler {
                      duration.getRepliedOn() - duration.getCreatedon(), throwable);
     }
 
-    private void logClientReceived(RpcResponse rpcResponse, Buffer body, Duration duration) {
-        LOGGER.info("[{}] [CR] [HTTP] [{}] [{}bytes] [{}ms]", rpcResponse.id(),
-                    rpcResponse.statusCode(),
-                    body.getBytes().length,
-                    rpcResponse.elapsedTime());
-    }
-
-    private void logClientSend(HttpRpcRequest httpRpcRequest) {
-        LOGGER.info("[{}] [CS] [HTTP] [{}:{}] [{} {}] [{}] [{}] [{}]", httpRpcRequest.id(),
-                    httpRpcRequest.host(), httpRpcRequest.port(),
-                    httpRpcRequest.method().name(), httpRpcRequest.path(),
-                    MultimapUtils.convertToString(httpRpcRequest.headers(), "no header"),
-                    MultimapUtils.convertToString(httpRpcRequest.params(), "no param"),
-                    httpRpcRequest.body() == null ? "no body" : httpRpcRequest.body().encode());
-    }
-
     /**
      * 为了更准确的度量http请求的性能，需要记录HTTP各个阶段的时间。
      */
@@ -53,6 +53,8 @@ public class SimpleHttpRequest extends HttpRpcRequest {
         copyReq.setHttpMethod(method());
         copyReq.setTimeout(timeout());
         copyReq.setBody(body());
+        copyReq.setRawBody(rawBody());
+        copyReq.setPassThrough(passThrough());
         copyReq.addParams(ArrayListMultimap.create(params()));
         copyReq.addHeaders(ArrayListMultimap.create(headers()));
         if (fallback() != null) {
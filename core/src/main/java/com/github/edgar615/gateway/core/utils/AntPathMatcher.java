@@ -50,6 +50,16 @@ public class AntPathMatcher {
         this.trimTokens = trimTokens;
     }
 
+    /**
+     * 使用当前的配置预编译ant路径，需要多次匹配同一个路径时应该使用预编译的路径.
+     *
+     * @param pattern ant路径
+     * @return AntPathPattern
+     */
+    public AntPathPattern compile(final String pattern) {
+        return new AntPathPattern(pattern, pathSeparator, ignoreCase, matchStart, trimTokens);
+    }
+
     /**
      * ant风格的路径匹配
      *
@@ -0,0 +1,304 @@
+package com.github.edgar615.gateway.core.utils;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Splitter;
+
+import java.util.List;
+
+/**
+ * 预编译的ant路径.
+ * <p>
+ * {@link AntPathMatcher}每匹配一个字符都会通过substring创建新的字符串，并且每次请求都需要重新解析路径.
+ * 这个类在创建时解析一次路径：
+ * <ul>
+ * <li>路径转换为字符数组，匹配时只移动数组和请求路径的下标，只有遇到*时才会递归</li>
+ * <li>第一个通配符之前的字符在匹配前一次性比较，不匹配的请求可以直接返回</li>
+ * <li>extractPathWithinPattern需要的第一个包含通配符的路径段提前计算好，请求路径不包含空白和连续的/时直接截取</li>
+ * </ul>
+ * 匹配规则与{@link AntPathMatcher}完全一致，实例创建后不再修改，可以在多个线程中共享.
+ *
+ * @author Edgar  Date 2018/12/6
+ */
+public final class AntPathPattern {
+
+    private static final char ASTERISK = '*';
+
+    private static final char QUESTION = '?';
+
+    private static final char BLANK = ' ';
+
+    private static final int ASCII_CASE_DIFFERENCE_VALUE = 32;
+
+    private static final String SEPARATOR = "/";
+
+    private static final Splitter SPLITTER =
+            Splitter.on(SEPARATOR).trimResults().omitEmptyStrings();
+
+    private final String pattern;
+
+    private final char[] chars;
+
+    /**
+     * 第一个通配符之前的字符数量
+     */
+    private final int literalPrefix;
+
+    /**
+     * 第一个包含通配符的路径段，-1表示路径不包含通配符
+     */
+    private final int wildcardSegment;
+
+    /**
+     * extractPathWithinPattern的结果是否以/开头
+     */
+    private final boolean leadingSeparator;
+
+    private final char pathSeparator;
+
+    private final boolean ignoreCase;
+
+    private final boolean matchStart;
+
+    private final boolean trimTokens;
+
+    AntPathPattern(String pattern, char pathSeparator, boolean ignoreCase, boolean matchStart,
+                   boolean trimTokens) {
+        this.pattern = pattern;
+        this.chars = pattern.toCharArray();
+        this.pathSeparator = pathSeparator;
+        this.ignoreCase = ignoreCase;
+        this.matchStart = matchStart;
+        this.trimTokens = trimTokens;
+        int prefix = 0;
+        while (prefix < chars.length && chars[prefix] != ASTERISK && chars[prefix] != QUESTION) {
+            prefix++;
+        }
+        this.literalPrefix = prefix;
+        List<String> parts = SPLITTER.splitToList(pattern);
+        int segment = -1;
+        for (int i = 0; i < parts.size(); i++) {
+            String part = parts.get(i);
+            if (part.indexOf(ASTERISK) > -1 || part.indexOf(QUESTION) > -1) {
+                segment = i;
+                break;
+            }
+        }
+        this.wildcardSegment = segment;
+        this.leadingSeparator = segment == 0 && !pattern.startsWith(SEPARATOR);
+    }
+
+    /**
+     * 使用默认的配置编译ant路径.
+     *
+     * @param pattern ant路径
+     * @return AntPathPattern
+     */
+    public static AntPathPattern compile(String pattern) {
+        return new AntPathMatcher.Builder().build().compile(pattern);
+    }
+
+    /**
+     * @return ant路径
+     */
+    public String pattern() {
+        return pattern;
+    }
+
+    /**
+     * ant风格的路径匹配.
+     *
+     * @param path 请求路径
+     * @return 如果匹配返回true
+     */
+    public boolean isMatch(String path) {
+        return isMatch(path, path.length());
+    }
+
+    /**
+     * ant风格的路径匹配，只使用请求路径的前end个字符，用来在不截取字符串的情况下忽略最后的/.
+     *
+     * @param path 请求路径
+     * @param end  请求路径的结束位置
+     * @return 如果匹配返回true
+     */
+    public boolean isMatch(String path, int end) {
+        if (!ignoreCase && !trimTokens && end >= literalPrefix) {
+            for (int i = 0; i < literalPrefix; i++) {
+                if (path.charAt(i) != chars[i]) {
+                    return false;
+                }
+            }
+            return match(path, literalPrefix, literalPrefix, end);
+        }
+        return match(path, 0, 0, end);
+    }
+
+    /**
+     * 返回请求路径中与通配符匹配的部分，与{@link AntPathMatcher#extractPathWithinPattern(String,
+     * String)}的结果一致.
+     *
+     * @param path 请求路径
+     * @return 与通配符匹配的部分
+     */
+    public String extractPathWithinPattern(String path) {
+        if (wildcardSegment < 0) {
+            return "";
+        }
+        //找到第wildcardSegment个非空的路径段
+        int segment = 0;
+        int start = 0;
+        int length = path.length();
+        while (start < length) {
+            int end = segmentEnd(path, start);
+            if (!isBlank(path, start, end)) {
+                if (segment == wildcardSegment) {
+                    break;
+                }
+                segment++;
+            }
+            start = end + 1;
+        }
+        if (start >= length) {
+            return "";
+        }
+        int last = length;
+        while (last > start && path.charAt(last - 1) == '/') {
+            last--;
+        }
+        if (!leadingSeparator && isClean(path, start, last)) {
+            return path.substring(start, last);
+        }
+        StringBuilder builder = new StringBuilder(last - start + 1);
+        boolean pathStarted = false;
+        while (start < last) {
+            int end = segmentEnd(path, start);
+            int from = start;
+            int to = end;
+            while (from < to && CharMatcher.whitespace().matches(path.charAt(from))) {
+                from++;
+            }
+            while (to > from && CharMatcher.whitespace().matches(path.charAt(to - 1))) {
+                to--;
+            }
+            if (from < to) {
+                if (pathStarted || leadingSeparator) {
+                    builder.append(SEPARATOR);
+                }
+                builder.append(path, from, to);
+                pathStarted = true;
+            }
+            start = end + 1;
+        }
+        return builder.toString();
+    }
+
+    private boolean match(String path, int p, int s, int end) {
+        int length = chars.length;
+        while (true) {
+            if (p == length) {
+                return s == end;
+            }
+            char patternChar = chars[p];
+            if (s == end && patternChar == pathSeparator) {
+                if (matchStart) {
+                    return true;
+                } else if (length - p == 2 && chars[p + 1] == ASTERISK) {
+                    return false;
+                }
+                p++;
+                continue;
+            }
+            if (patternChar == ASTERISK) {
+                if (p == length - 1) {
+                    //最后一个*不能匹配分隔符
+                    for (int i = s; i < end; i++) {
+                        if (path.charAt(i) == pathSeparator) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                char next = chars[p + 1];
+                if (next == ASTERISK && length - p > 2 && match(path, p + 3, s, end)) {
+                    return true;
+                }
+                //*后面是普通字符时，只需要从相同的字符开始尝试
+                boolean literalNext = next != ASTERISK && next != QUESTION
+                                      && !ignoreCase && !trimTokens;
+                for (int i = s; i < end; i++) {
+                    if (literalNext && path.charAt(i) != next) {
+                        continue;
+                    }
+                    if (match(path, p + 1, i, end)) {
+                        return true;
+                    }
+                }
+                p++;
+                s = end;
+                continue;
+            }
+            int pointer = s;
+            if (trimTokens) {
+                while (pointer < end && path.charAt(pointer) == BLANK) {
+                    pointer++;
+                }
+            }
+            if (pointer == end) {
+                return false;
+            }
+            if (patternChar != QUESTION && !equal(path.charAt(pointer), patternChar)) {
+                return false;
+            }
+            p++;
+            s = pointer + 1;
+        }
+    }
+
+    private int segmentEnd(String path, int start) {
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.length() : end;
+    }
+
+    private boolean isBlank(String path, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!CharMatcher.whitespace().matches(path.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断路径中是否没有连续的/，并且每个路径段的首尾都不是空白字符.
+     */
+    private boolean isClean(String path, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c == '/') {
+                if (i == start || path.charAt(i - 1) == '/') {
+                    return false;
+                }
+            } else if (CharMatcher.whitespace().matches(c)
+                       && (i == start || i == end - 1
+                           || path.charAt(i - 1) == '/' || path.charAt(i + 1) == '/')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean equal(char pathChar, char patternChar) {
+        if (ignoreCase) {
+            return pathChar == patternChar ||
+                   ((pathChar > patternChar) ?
+                           pathChar == patternChar + ASCII_CASE_DIFFERENCE_VALUE :
+                           pathChar == patternChar - ASCII_CASE_DIFFERENCE_VALUE);
+        }
+        return pathChar == patternChar;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
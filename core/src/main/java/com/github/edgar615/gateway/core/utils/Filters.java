@@ -96,9 +96,10 @@ public class Filters {
                     } catch (Exception e) {
                         //ignore
                     }
-                    Filter.LOGGER.debug("[{}] [filterEnd] [{}] [{}ms]", apiContext.id(),
+                    Filter.LOGGER.debug("[{}] [filterEnd] [{}] [{}ms] {}", apiContext.id(),
                                         filter.getClass().getSimpleName(),
-                                        System.currentTimeMillis() - filterStarted);
+                                        System.currentTimeMillis() - filterStarted,
+                                        apiContext.journal());
                 }
             });
         }
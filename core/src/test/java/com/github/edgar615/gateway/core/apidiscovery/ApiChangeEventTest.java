@@ -0,0 +1,115 @@
+package com.github.edgar615.gateway.core.apidiscovery;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.gateway.core.definition.SimpleHttpEndpoint;
+import com.github.edgar615.gateway.core.plugin.scope.ScopePlugin;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ * @author Edgar  Date 2018/12/13
+ */
+public class ApiChangeEventTest {
+
+    @Test
+    public void testMerge() {
+        ApiChangeEvent first = new ApiChangeEvent(1, Lists.newArrayList("a", "b"),
+                                                  Collections.emptyList(),
+                                                  Lists.newArrayList("c"),
+                                                  ImmutableMap.of("a", "1", "b", "1"), "s");
+        ApiChangeEvent second = new ApiChangeEvent(2, Lists.newArrayList("c"),
+                                                   Lists.newArrayList("a"),
+                                                   Lists.newArrayList("b"),
+                                                   ImmutableMap.of("a", "2", "c", "2"), "s");
+        ApiChangeEvent merged = first.merge(second);
+        Assert.assertEquals(2, merged.generation());
+        Assert.assertEquals(Lists.newArrayList("a"), merged.added());
+        Assert.assertEquals(Lists.newArrayList("c"), merged.updated());
+        Assert.assertEquals(Lists.newArrayList("b"), merged.removed());
+        Assert.assertEquals(ImmutableMap.of("a", "2", "c", "2"), merged.hashes());
+        Assert.assertEquals("s", merged.source());
+    }
+
+    @Test
+    public void testJson() {
+        ApiChangeEvent event = new ApiChangeEvent(3, Lists.newArrayList("a"),
+                                                  Collections.emptyList(),
+                                                  Collections.emptyList(),
+                                                  ImmutableMap.of("a", "1"), "s");
+        ApiChangeEvent decoded = ApiChangeEvent.fromJson(event.toJson());
+        Assert.assertEquals(3, decoded.generation());
+        Assert.assertEquals(event.hashes(), decoded.hashes());
+        Assert.assertEquals("s", decoded.source());
+
+        ApiChangeEvent names = new ApiChangeEvent(3, Lists.newArrayList("a"),
+                                                  Collections.emptyList(),
+                                                  Collections.emptyList());
+        Assert.assertFalse(names.toJson().containsKey("hashes"));
+        Assert.assertNull(ApiChangeEvent.fromJson(names.toJson()).source());
+    }
+
+    @Test
+    public void testCanonicalJsonShouldIgnoreKeyOrder() {
+        JsonObject first = new JsonObject()
+                .put("name", "device.get")
+                .put("authentication", true)
+                .put("rate.limiter", new JsonArray().add(new JsonObject().put("b", 1).put("a", 2)));
+        JsonObject second = new JsonObject()
+                .put("rate.limiter", new JsonArray().add(new JsonObject().put("a", 2).put("b", 1)))
+                .put("authentication", true)
+                .put("name", "device.get");
+        Assert.assertNotEquals(first.encode(), second.encode());
+        Assert.assertEquals(ApiChangeBroadcaster.canonical(first).encode(),
+                            ApiChangeBroadcaster.canonical(second).encode());
+    }
+
+    @Test
+    public void testRepublishMutatedDefinitionShouldBeUpdated() {
+        ApiDefinition definition = ApiDefinition
+                .create("device.get", HttpMethod.GET, "/devices", Lists.newArrayList(
+                        SimpleHttpEndpoint.http("device.get", HttpMethod.GET, "/devices", 8080,
+                                                "localhost")));
+        ApiRegistrySnapshot first =
+                ApiRegistrySnapshot.EMPTY.putAll(Lists.newArrayList(definition), false);
+        String hash = first.hash("device.get");
+        Assert.assertSame(hash, first.hash("device.get"));
+
+        definition.addPlugin(ScopePlugin.create("device:read"));
+        ApiRegistrySnapshot second = first.putAll(Lists.newArrayList(definition), false);
+        ApiChangeEvent event = first.diff(second, Collections.singleton("device.get"));
+        Assert.assertEquals(Lists.newArrayList("device.get"), event.updated());
+        Assert.assertNotEquals(hash, second.hash("device.get"));
+        Assert.assertTrue(first.diff(second, Collections.emptySet()).isEmpty());
+
+        ApiRegistrySnapshot third = second.removeAll(Lists.newArrayList("other"));
+        Assert.assertSame(second.hash("device.get"), third.hash("device.get"));
+    }
+
+    @Test
+    public void testApplyShouldRemoveAndPutInOneSnapshot() {
+        ApiDefinition first = ApiDefinition
+                .create("device.get", HttpMethod.GET, "/devices", Lists.newArrayList(
+                        SimpleHttpEndpoint.http("device.get", HttpMethod.GET, "/devices", 8080,
+                                                "localhost")));
+        ApiDefinition second = ApiDefinition
+                .create("device.add", HttpMethod.POST, "/devices", Lists.newArrayList(
+                        SimpleHttpEndpoint.http("device.add", HttpMethod.POST, "/devices", 8080,
+                                                "localhost")));
+        ApiRegistrySnapshot previous =
+                ApiRegistrySnapshot.EMPTY.putAll(Lists.newArrayList(first), false);
+        ApiRegistrySnapshot next = previous.apply(Lists.newArrayList(second),
+                                                  Lists.newArrayList("device.get"));
+        Assert.assertEquals(previous.generation() + 1, next.generation());
+        ApiChangeEvent event = previous.diff(next, Collections.singleton("device.add"));
+        Assert.assertEquals(Lists.newArrayList("device.add"), event.added());
+        Assert.assertEquals(Lists.newArrayList("device.get"), event.removed());
+    }
+}
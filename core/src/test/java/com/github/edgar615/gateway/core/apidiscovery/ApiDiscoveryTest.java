@@ -4,8 +4,10 @@ import com.google.common.collect.Lists;
 
 import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.definition.SimpleHttpEndpoint;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
@@ -15,6 +17,11 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -257,4 +264,303 @@ public class ApiDiscoveryTest {
         Awaitility.await().until(() -> check3.get());
     }
 
+    @Test
+    public void testSnapshot(TestContext testContext) {
+        SimpleHttpEndpoint httpEndpoint = SimpleHttpEndpoint
+                .http("get_device", HttpMethod.GET, "devices/",
+                      80, "localhost");
+
+        ApiDefinition apiDefinition = ApiDefinition
+                .create("get_device", HttpMethod.GET, "device/", Lists.newArrayList(httpEndpoint));
+
+        ApiRegistrySnapshot before = discovery.snapshot();
+        AtomicBoolean completed = new AtomicBoolean();
+        discovery.publish(apiDefinition, ar -> completed.set(true));
+        Awaitility.await().until(() -> completed.get());
+
+        ApiRegistrySnapshot after = discovery.snapshot();
+        testContext.assertEquals(before.generation() + 1, after.generation());
+        testContext.assertEquals(after.generation(), discovery.generation());
+        testContext.assertEquals(0, before.size());
+        testContext.assertEquals(1, after.size());
+        testContext.assertEquals(apiDefinition, after.definition("get_device"));
+
+        ApiDiscovery other = ApiDiscovery.create(vertx, new ApiDiscoveryOptions());
+        testContext.assertEquals(after, other.snapshot());
+    }
+
+    @Test
+    public void testPublishAll(TestContext testContext) {
+        SimpleHttpEndpoint httpEndpoint = SimpleHttpEndpoint
+                .http("get_device", HttpMethod.GET, "devices/",
+                      80, "localhost");
+        ApiDefinition getDevice = ApiDefinition
+                .create("get_device", HttpMethod.GET, "device/", Lists.newArrayList(httpEndpoint));
+        ApiDefinition addDevice = ApiDefinition
+                .create("add_device", HttpMethod.POST, "device/", Lists.newArrayList(httpEndpoint));
+        ApiDefinition delDevice = ApiDefinition
+                .create("del_device", HttpMethod.DELETE, "device/",
+                        Lists.newArrayList(httpEndpoint));
+
+        List<ApiChangeEvent> events = new CopyOnWriteArrayList<>();
+        vertx.eventBus().<JsonObject>consumer(ApiDiscoveryOptions.DEFAULT_CHANGED_ADDRESS,
+                                              msg -> events.add(
+                                                      ApiChangeEvent.fromJson(msg.body())));
+
+        long generation = discovery.generation();
+        AtomicBoolean completed = new AtomicBoolean();
+        discovery.publishAll(Lists.newArrayList(getDevice, addDevice), ar -> {
+            testContext.assertTrue(ar.succeeded());
+            testContext.assertEquals(generation + 1, ar.result().generation());
+            testContext.assertEquals(Lists.newArrayList("get_device", "add_device"),
+                                     ar.result().added());
+            completed.set(true);
+        });
+        Awaitility.await().until(() -> completed.get() && events.size() == 1);
+        testContext.assertEquals(2, events.get(0).added().size());
+        testContext.assertEquals(2, discovery.snapshot().size());
+
+        AtomicBoolean replaced = new AtomicBoolean();
+        discovery.replaceAll(Lists.newArrayList(getDevice, delDevice), ar -> {
+            testContext.assertTrue(ar.succeeded());
+            testContext.assertEquals(generation + 2, ar.result().generation());
+            testContext.assertEquals(Lists.newArrayList("del_device"), ar.result().added());
+            //显式发布的API即使没有变化也认为是替换
+            testContext.assertEquals(Lists.newArrayList("get_device"), ar.result().updated());
+            testContext.assertEquals(Lists.newArrayList("add_device"), ar.result().removed());
+            replaced.set(true);
+        });
+        Awaitility.await().until(() -> replaced.get());
+
+        AtomicBoolean removed = new AtomicBoolean();
+        discovery.unpublishAll(Lists.newArrayList("get_device", "del_device", "unknown"), ar -> {
+            testContext.assertTrue(ar.succeeded());
+            testContext.assertEquals(generation + 3, ar.result().generation());
+            testContext.assertEquals(2, ar.result().removed().size());
+            removed.set(true);
+        });
+        Awaitility.await().until(() -> removed.get());
+        testContext.assertEquals(0, discovery.snapshot().size());
+
+        AtomicBoolean unchanged = new AtomicBoolean();
+        discovery.unpublishAll(Lists.newArrayList("unknown"), ar -> {
+            testContext.assertTrue(ar.result().isEmpty());
+            testContext.assertEquals(generation + 3, discovery.generation());
+            unchanged.set(true);
+        });
+        Awaitility.await().until(() -> unchanged.get());
+        //注册表没有变化时不发送事件
+        Awaitility.await().until(() -> events.size() == 3);
+        testContext.assertEquals(generation + 3, events.get(2).generation());
+    }
+
+    @Test
+    public void testDeltaEvents(TestContext testContext) {
+        ApiDiscovery deltaDiscovery = ApiDiscovery.create(vertx, new ApiDiscoveryOptions()
+                .setDeltaEvents(true).setChangeBatchInterval(100));
+        SimpleHttpEndpoint httpEndpoint = SimpleHttpEndpoint
+                .http("get_device", HttpMethod.GET, "devices/",
+                      80, "localhost");
+        ApiDefinition getDevice = ApiDefinition
+                .create("get_device", HttpMethod.GET, "device/", Lists.newArrayList(httpEndpoint));
+        ApiDefinition addDevice = ApiDefinition
+                .create("add_device", HttpMethod.POST, "device/", Lists.newArrayList(httpEndpoint));
+
+        List<ApiChangeEvent> events = new CopyOnWriteArrayList<>();
+        List<Object> published = new CopyOnWriteArrayList<>();
+        vertx.eventBus().<JsonObject>consumer(ApiDiscoveryOptions.DEFAULT_CHANGED_ADDRESS,
+                                              msg -> events.add(
+                                                      ApiChangeEvent.fromJson(msg.body())));
+        vertx.eventBus().consumer(ApiDiscoveryOptions.DEFAULT_PUBLISHED_ADDRESS,
+                                  msg -> published.add(msg.body()));
+
+        AtomicBoolean completed = new AtomicBoolean();
+        deltaDiscovery.publish(getDevice, ar -> {
+            deltaDiscovery.publish(addDevice, ar2 -> {
+                deltaDiscovery.unpublish("add_device", ar3 -> completed.set(ar3.succeeded()));
+            });
+        });
+        Awaitility.await().until(() -> completed.get() && events.size() == 1);
+        ApiChangeEvent event = events.get(0);
+        testContext.assertEquals(Lists.newArrayList("get_device"), event.added());
+        testContext.assertEquals(Lists.newArrayList("add_device"), event.removed());
+        testContext.assertEquals(1, event.hashes().size());
+        testContext.assertNotNull(event.source());
+        testContext.assertTrue(published.isEmpty());
+
+        //模拟另一个节点发送的事件，只拉取hash不同的API
+        List<Object> fetched = new CopyOnWriteArrayList<>();
+        vertx.eventBus().<JsonArray>consumer("peer.definitions", msg -> {
+            fetched.addAll(msg.body().getList());
+            msg.reply(new JsonArray().add(addDevice.toJson()));
+        });
+        AtomicBoolean subscribed = new AtomicBoolean();
+        deltaDiscovery.subscribeChanges(ar -> subscribed.set(ar.succeeded()));
+        Awaitility.await().until(() -> subscribed.get());
+        vertx.eventBus().publish(ApiDiscoveryOptions.DEFAULT_CHANGED_ADDRESS, new JsonObject()
+                .put("generation", 1)
+                .put("added", new JsonArray().add("add_device"))
+                .put("updated", new JsonArray().add("get_device"))
+                .put("hashes", new JsonObject().put("add_device", "0")
+                        .put("get_device", event.hashes().get("get_device")))
+                .put("source", "peer.definitions"));
+        Awaitility.await().until(() -> deltaDiscovery.snapshot().definition("add_device") != null);
+        testContext.assertEquals(Lists.newArrayList("add_device"), fetched);
+    }
+
+    @Test
+    public void testCloseShouldReleaseBroadcaster(TestContext testContext) {
+        ApiDiscoveryOptions options = new ApiDiscoveryOptions().setDeltaEvents(true);
+        ApiDiscovery first = ApiDiscovery.create(vertx, options);
+        ApiDiscovery second = ApiDiscovery.create(vertx, options);
+        SimpleHttpEndpoint httpEndpoint = SimpleHttpEndpoint
+                .http("get_device", HttpMethod.GET, "devices/",
+                      80, "localhost");
+        ApiDefinition getDevice = ApiDefinition
+                .create("get_device", HttpMethod.GET, "device/", Lists.newArrayList(httpEndpoint));
+        List<ApiChangeEvent> events = new CopyOnWriteArrayList<>();
+        vertx.eventBus().<JsonObject>consumer(ApiDiscoveryOptions.DEFAULT_CHANGED_ADDRESS,
+                                              msg -> events.add(
+                                                      ApiChangeEvent.fromJson(msg.body())));
+        first.publish(getDevice, ar -> {
+        });
+        Awaitility.await().until(() -> events.size() == 1);
+        String source = events.get(0).source();
+
+        //另一个ApiDiscovery还在使用，不会注销拉取API的地址
+        first.close();
+        AtomicBoolean replied = new AtomicBoolean();
+        vertx.eventBus().send(source, new JsonArray(), ar -> replied.set(ar.succeeded()));
+        Awaitility.await().until(() -> replied.get());
+
+        second.close();
+        AtomicBoolean failed = new AtomicBoolean();
+        vertx.setTimer(100, l -> vertx.eventBus()
+                .send(source, new JsonArray(), ar -> failed.set(ar.failed())));
+        Awaitility.await().until(() -> failed.get());
+    }
+
+    @Test
+    public void testRestoreSnapshot(TestContext testContext) throws IOException {
+        String snapshotPath = Files.createTempDirectory("api").resolve("api.snapshot").toString();
+        SimpleHttpEndpoint httpEndpoint = SimpleHttpEndpoint
+                .http("get_device", HttpMethod.GET, "devices/",
+                      80, "localhost");
+        ApiDefinition getDevice = ApiDefinition
+                .create("get_device", HttpMethod.GET, "device/", Lists.newArrayList(httpEndpoint));
+        ApiDefinition addDevice = ApiDefinition
+                .create("add_device", HttpMethod.POST, "device/", Lists.newArrayList(httpEndpoint));
+
+        ApiDiscovery writer = ApiDiscovery.create(vertx, new ApiDiscoveryOptions()
+                .setName("snapshot-writer")
+                .setSnapshotPath(snapshotPath));
+        AtomicBoolean published = new AtomicBoolean();
+        writer.publishAll(Lists.newArrayList(getDevice, addDevice), ar -> published.set(true));
+        Awaitility.await().until(() -> published.get() && Files.exists(Paths.get(snapshotPath)));
+
+        Vertx other = Vertx.vertx();
+        ApiDiscovery reader = ApiDiscovery.create(other, new ApiDiscoveryOptions()
+                .setSnapshotPath(snapshotPath));
+        AtomicBoolean restored = new AtomicBoolean();
+        reader.restoreSnapshot(ar -> {
+            testContext.assertTrue(ar.succeeded());
+            testContext.assertEquals(2, ar.result().added().size());
+            restored.set(true);
+        });
+        Awaitility.await().until(() -> restored.get());
+        testContext.assertEquals(2, reader.snapshot().size());
+        testContext.assertEquals(addDevice.toJson(),
+                                 reader.snapshot().definition("add_device").toJson());
+        other.close();
+    }
+
+    @Test
+    public void testFailedImporterShouldKeepRestoredAndWriteSnapshot(TestContext testContext)
+            throws IOException {
+        String snapshotPath = Files.createTempDirectory("api").resolve("api.snapshot").toString();
+        SimpleHttpEndpoint httpEndpoint = SimpleHttpEndpoint
+                .http("get_device", HttpMethod.GET, "devices/",
+                      80, "localhost");
+        ApiDefinition getDevice = ApiDefinition
+                .create("get_device", HttpMethod.GET, "device/", Lists.newArrayList(httpEndpoint));
+        ApiDefinition addDevice = ApiDefinition
+                .create("add_device", HttpMethod.POST, "device/", Lists.newArrayList(httpEndpoint));
+        new ApiSnapshotStore(snapshotPath)
+                .write(ApiRegistrySnapshot.EMPTY.putAll(Lists.newArrayList(getDevice), false));
+
+        Vertx other = Vertx.vertx();
+        ApiDiscovery reader = ApiDiscovery.create(other, new ApiDiscoveryOptions()
+                .setSnapshotPath(snapshotPath));
+        AtomicBoolean restored = new AtomicBoolean();
+        reader.restoreSnapshot(ar -> restored.set(ar.succeeded()));
+        Awaitility.await().until(() -> restored.get());
+
+        AtomicBoolean failed = new AtomicBoolean();
+        reader.registerImporter(new ApiImporter() {
+            @Override
+            public void start(Vertx vertx, ApiPublisher publisher, JsonObject config,
+                              Future<Void> future) {
+                future.fail("import failed");
+            }
+
+            @Override
+            public void restart(Future<Void> complete) {
+                complete.complete();
+            }
+        }, new JsonObject(), ar -> failed.set(ar.failed()));
+        Awaitility.await().until(() -> failed.get());
+
+        //恢复的API保留，之后的修改可以写入快照文件
+        reader.publishAll(Lists.newArrayList(addDevice), ar -> {
+        });
+        Awaitility.await().until(() -> new ApiSnapshotStore(snapshotPath).read().size() == 2);
+        testContext.assertNotNull(reader.snapshot().definition("get_device"));
+        other.close();
+    }
+
+    @Test
+    public void testRestoreTimeoutShouldNotWaitForUnfinishedImporter(TestContext testContext)
+            throws IOException {
+        String snapshotPath = Files.createTempDirectory("api").resolve("api.snapshot").toString();
+        SimpleHttpEndpoint httpEndpoint = SimpleHttpEndpoint
+                .http("get_device", HttpMethod.GET, "devices/",
+                      80, "localhost");
+        ApiDefinition getDevice = ApiDefinition
+                .create("get_device", HttpMethod.GET, "device/", Lists.newArrayList(httpEndpoint));
+        ApiDefinition addDevice = ApiDefinition
+                .create("add_device", HttpMethod.POST, "device/", Lists.newArrayList(httpEndpoint));
+        new ApiSnapshotStore(snapshotPath)
+                .write(ApiRegistrySnapshot.EMPTY.putAll(Lists.newArrayList(getDevice), false));
+
+        Vertx other = Vertx.vertx();
+        ApiDiscovery reader = ApiDiscovery.create(other, new ApiDiscoveryOptions()
+                .setSnapshotPath(snapshotPath)
+                .setRestoreTimeout(200));
+        AtomicBoolean started = new AtomicBoolean();
+        //导入类一直不结束
+        reader.registerImporter(new ApiImporter() {
+            @Override
+            public void start(Vertx vertx, ApiPublisher publisher, JsonObject config,
+                              Future<Void> future) {
+                started.set(true);
+            }
+
+            @Override
+            public void restart(Future<Void> complete) {
+                complete.complete();
+            }
+        }, new JsonObject(), ar -> testContext.fail());
+        Awaitility.await().until(() -> started.get());
+        AtomicBoolean restored = new AtomicBoolean();
+        reader.restoreSnapshot(ar -> restored.set(ar.succeeded()));
+        Awaitility.await().until(() -> restored.get());
+
+        //超时之后恢复的API保留，之后的修改可以写入快照文件
+        other.setTimer(300, l -> reader.publishAll(Lists.newArrayList(addDevice), ar -> {
+        }));
+        Awaitility.await().until(() -> new ApiSnapshotStore(snapshotPath).read().size() == 2);
+        testContext.assertNotNull(reader.snapshot().definition("get_device"));
+        other.close();
+    }
+
 }
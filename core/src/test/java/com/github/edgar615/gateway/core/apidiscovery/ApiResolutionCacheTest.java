@@ -0,0 +1,73 @@
+package com.github.edgar615.gateway.core.apidiscovery;
+
+import com.google.common.collect.Lists;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.gateway.core.definition.SimpleHttpEndpoint;
+import io.vertx.core.http.HttpMethod;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Created by Edgar on 2018/12/4.
+ *
+ * @author Edgar  Date 2018/12/4
+ */
+public class ApiResolutionCacheTest {
+
+    private final List<ApiDefinition> definitions = Lists.newArrayList(
+            ApiDefinition.create("device.list", HttpMethod.GET, "/devices",
+                                 Lists.newArrayList(SimpleHttpEndpoint
+                                                            .http("get_device", HttpMethod.GET,
+                                                                  "devices/", 80,
+                                                                  "localhost"))));
+
+    @Test
+    public void testHitAndMiss() {
+        ApiResolutionCache cache = new ApiResolutionCache(10);
+        Assert.assertNull(cache.get(1, "GET", "/devices"));
+        cache.put(1, "GET", "/devices", definitions);
+        Assert.assertSame(definitions, cache.get(1, "get", "/devices/"));
+        Assert.assertEquals(1, cache.hitCount());
+        Assert.assertEquals(1, cache.missCount());
+        Assert.assertNull(cache.get(1, "POST", "/devices"));
+        Assert.assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    public void testGenerationChanged() {
+        ApiResolutionCache cache = new ApiResolutionCache(10);
+        Assert.assertNull(cache.get(1, "GET", "/devices"));
+        cache.put(1, "GET", "/devices", definitions);
+        Assert.assertNull(cache.get(2, "GET", "/devices"));
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(2, cache.generation());
+        //旧版本的结果不会写入缓存
+        cache.put(1, "GET", "/devices", definitions);
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testStaleGenerationShouldBypassCache() {
+        ApiResolutionCache cache = new ApiResolutionCache(10);
+        Assert.assertNull(cache.get(2, "GET", "/devices"));
+        cache.put(2, "GET", "/devices", definitions);
+        Assert.assertNull(cache.get(1, "GET", "/devices"));
+        Assert.assertEquals(2, cache.generation());
+        Assert.assertEquals(1, cache.size());
+        Assert.assertSame(definitions, cache.get(2, "GET", "/devices"));
+    }
+
+    @Test
+    public void testEviction() {
+        ApiResolutionCache cache = new ApiResolutionCache(2);
+        Assert.assertNull(cache.get(1, "GET", "/devices"));
+        for (int i = 0; i < 5; i++) {
+            cache.put(1, "GET", "/devices/" + i, definitions);
+        }
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(3, cache.evictionCount());
+    }
+}
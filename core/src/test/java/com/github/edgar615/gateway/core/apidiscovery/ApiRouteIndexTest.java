@@ -0,0 +1,145 @@
+package com.github.edgar615.gateway.core.apidiscovery;
+
+import com.google.common.collect.Lists;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.gateway.core.definition.Endpoint;
+import com.github.edgar615.gateway.core.definition.SimpleHttpEndpoint;
+import io.vertx.core.http.HttpMethod;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Created by Edgar on 2018/12/3.
+ *
+ * @author Edgar  Date 2018/12/3
+ */
+public class ApiRouteIndexTest {
+
+    private ApiRouteIndex index;
+
+    @Before
+    public void setUp() {
+        List<Endpoint> endpoints = Lists.newArrayList(SimpleHttpEndpoint
+                                                              .http("get_device", HttpMethod.GET,
+                                                                    "devices/", 80, "localhost"));
+        List<ApiDefinition> definitions = Lists.newArrayList(
+                ApiDefinition.create("device.get", HttpMethod.GET, "/devices/1", endpoints),
+                ApiDefinition.create("device.list", HttpMethod.GET, "/devices", endpoints),
+                ApiDefinition.create("device.add", HttpMethod.POST, "/devices", endpoints),
+                ApiDefinition.createRegex("device.regex", HttpMethod.GET, "/devices/([\\d]+)",
+                                          endpoints),
+                ApiDefinition.createRegex("device.regex2", HttpMethod.GET,
+                                          "/devices/([\\d]+)/(\\w+)", endpoints),
+                ApiDefinition.createRegex("device.regex3", HttpMethod.GET,
+                                          "/devices/(\\d+)/(name|type)", endpoints),
+                ApiDefinition.createRegex("user.regex", HttpMethod.GET, "/users?/([\\d]+)",
+                                          endpoints),
+                ApiDefinition.createAnt("device.ant", HttpMethod.GET, "/devices/**", endpoints),
+                ApiDefinition.createAnt("alie.ant", HttpMethod.GET, "/**/alie", endpoints));
+        index = ApiRouteIndex.create(definitions);
+    }
+
+    @Test
+    public void testExact() {
+        Assert.assertEquals(Lists.newArrayList("device.list"), names("GET", "/devices"));
+        Assert.assertEquals(Lists.newArrayList("device.list"), names("get", "/devices/"));
+        Assert.assertEquals(Lists.newArrayList("device.get"), names("GET", "/devices/1"));
+        Assert.assertEquals(Lists.newArrayList("device.add"), names("POST", "/devices"));
+    }
+
+    @Test
+    public void testRegexBeforeAnt() {
+        Assert.assertEquals(Lists.newArrayList("device.regex"), names("GET", "/devices/2"));
+        Assert.assertEquals(Lists.newArrayList("device.ant"), names("GET", "/devices/abc"));
+    }
+
+    @Test
+    public void testRegexGroups() {
+        List<ApiDefinition> definitions = index.match("GET", "/devices/2/type/");
+        Assert.assertTrue(definitions instanceof RouteMatches);
+        Assert.assertEquals(Lists.newArrayList("device.regex2", "device.regex3"),
+                            names("GET", "/devices/2/type"));
+        for (ApiDefinition definition : definitions) {
+            Assert.assertArrayEquals(new String[]{"2", "type"},
+                                     RouteMatches.pathGroups(definitions, definition));
+        }
+        definitions = index.match("GET", "/user/3");
+        Assert.assertEquals(1, definitions.size());
+        Assert.assertArrayEquals(new String[]{"3"},
+                                 RouteMatches.pathGroups(definitions, definitions.get(0)));
+        Assert.assertEquals(Lists.newArrayList("user.regex"), names("GET", "/users/3"));
+    }
+
+    @Test
+    public void testRegexPrefix() {
+        Assert.assertEquals(Lists.newArrayList("", "devices"),
+                            ApiRouteIndex.regexPrefix("/devices/([\\d]+)"));
+        Assert.assertEquals(Lists.newArrayList(""), ApiRouteIndex.regexPrefix("/users?/([\\d]+)"));
+        Assert.assertEquals(Lists.newArrayList(""), ApiRouteIndex.regexPrefix("/devices/?"));
+        Assert.assertTrue(ApiRouteIndex.regexPrefix("/devices/1|/users/1").isEmpty());
+    }
+
+    @Test
+    public void testRegexLiteralAffixes() {
+        Assert.assertEquals("/devices/",
+                            RegexRoutes.literalPrefix(Pattern.compile("/devices/(\\d+)")));
+        Assert.assertEquals("/user",
+                            RegexRoutes.literalPrefix(Pattern.compile("/users?/(\\d+)")));
+        Assert.assertEquals("", RegexRoutes.literalPrefix(Pattern.compile("/a/1|/b/1")));
+        Assert.assertEquals("", RegexRoutes.literalPrefix(Pattern.compile("(?i)/devices")));
+        Assert.assertEquals("/status",
+                            RegexRoutes.literalSuffix(Pattern.compile("/devices/\\d/status")));
+        Assert.assertEquals("", RegexRoutes.literalSuffix(Pattern.compile("/devices/(\\d+)")));
+        Assert.assertEquals("", RegexRoutes.literalSuffix(Pattern.compile("/devices/\\x41")));
+        Pattern ignoreCase = Pattern.compile("/devices/1", Pattern.CASE_INSENSITIVE);
+        Assert.assertEquals("", RegexRoutes.literalSuffix(ignoreCase));
+    }
+
+    @Test
+    public void testRegexWithDifferentSuffix() {
+        List<Endpoint> endpoints = Lists.newArrayList(SimpleHttpEndpoint
+                                                              .http("get_device", HttpMethod.GET,
+                                                                    "devices/", 80, "localhost"));
+        ApiRouteIndex index = ApiRouteIndex.create(Lists.newArrayList(
+                ApiDefinition.createRegex("device.status", HttpMethod.GET,
+                                          "/devices/(\\d+)/status", endpoints),
+                ApiDefinition.createRegex("device.owner", HttpMethod.GET,
+                                          "/devices/(\\d+)/owner", endpoints),
+                ApiDefinition.createRegex("device.any", HttpMethod.GET,
+                                          "/devices/(\\d+)/(\\w+)", endpoints)));
+        List<ApiDefinition> definitions = index.match("GET", "/devices/1/owner");
+        Assert.assertEquals(Lists.newArrayList("device.owner", "device.any"),
+                            definitions.stream().map(d -> d.name()).collect(Collectors.toList()));
+        Assert.assertArrayEquals(new String[]{"1"},
+                                 RouteMatches.pathGroups(definitions, definitions.get(0)));
+        Assert.assertArrayEquals(new String[]{"1", "owner"},
+                                 RouteMatches.pathGroups(definitions, definitions.get(1)));
+    }
+
+    @Test
+    public void testAnt() {
+        Assert.assertEquals(Lists.newArrayList("alie.ant"), names("GET", "/trip/api/alie"));
+        Assert.assertEquals(Lists.newArrayList("alie.ant", "device.ant"),
+                            names("GET", "/devices/abc/alie"));
+        Assert.assertTrue(names("GET", "/trip/api").isEmpty());
+    }
+
+    @Test
+    public void testMethod() {
+        Assert.assertTrue(names("PUT", "/devices").isEmpty());
+        Assert.assertNull(index.match("UNKNOWN", "/devices"));
+    }
+
+    private List<String> names(String method, String path) {
+        return index.match(method, path).stream()
+                .map(ApiDefinition::name)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.edgar615.gateway.core.definition;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
+
+import com.github.edgar615.gateway.core.plugin.order.OrderPlugin;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * @author Edgar  Date 2018/12/10
+ */
+public class ApiDefinitionBinaryCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        SimpleHttpEndpoint httpEndpoint = SimpleHttpEndpoint
+                .http("add_device", HttpMethod.POST, "/devices", 8080, "localhost");
+        Multimap<String, String> header = ArrayListMultimap.create();
+        header.put("x-device-type", "sensor");
+        Endpoint eventbusEndpoint = EventbusEndpoint.publish("device_added", "device.added",
+                                                             "add", header);
+        ApiDefinition exact = ApiDefinition.create("add_device", HttpMethod.POST, "/devices",
+                                                   Lists.newArrayList(httpEndpoint,
+                                                                      eventbusEndpoint));
+        exact.addPlugin(new OrderPlugin(-1));
+        exact.addPlugin(new MockPlugin());
+        ApiDefinition regex = ApiDefinition.createRegex("get_device", HttpMethod.GET,
+                                                        "/devices/([\\d+]+)",
+                                                        Lists.newArrayList(httpEndpoint));
+        AntPathApiDefinition ant = (AntPathApiDefinition) ApiDefinition
+                .createAnt("all_device", HttpMethod.GET, "/devices/**",
+                           Lists.newArrayList(httpEndpoint));
+        ant.addIgnoredPattern("/devices/admin/**");
+
+        Buffer buffer = ApiDefinitionBinaryCodec.encode(3, Lists.newArrayList(exact, regex, ant));
+        Assert.assertEquals(3,
+                            ApiDefinitionBinaryCodec.generation(ByteBuffer.wrap(buffer.getBytes())));
+        List<ApiDefinition> definitions =
+                ApiDefinitionBinaryCodec.decode(ByteBuffer.wrap(buffer.getBytes()));
+        Assert.assertEquals(3, definitions.size());
+        Assert.assertEquals(exact.toJson(), definitions.get(0).toJson());
+        Assert.assertEquals(-1, definitions.get(0).plugin(OrderPlugin.class).order());
+        Assert.assertNotNull(definitions.get(0).plugin(MockPlugin.class));
+        Assert.assertTrue(definitions.get(1) instanceof RegexPathApiDefinition);
+        Assert.assertEquals(regex.toJson(), definitions.get(1).toJson());
+        Assert.assertTrue(definitions.get(2) instanceof AntPathApiDefinition);
+        Assert.assertEquals(ant.toJson(), definitions.get(2).toJson());
+    }
+
+    @Test
+    public void testJsonValue() {
+        JsonObject jsonObject = new JsonObject()
+                .put("string", "s")
+                .put("int", -3)
+                .put("long", Long.MAX_VALUE)
+                .put("double", 1.5)
+                .put("boolean", true)
+                .putNull("null")
+                .put("array", new JsonArray().add(1).add("s").add(new JsonObject().put("a", "s")));
+        ApiBinaryOutput out = new ApiBinaryOutput();
+        out.writeJson(jsonObject);
+        ApiBinaryInput in = new ApiBinaryInput(ByteBuffer.wrap(out.toBuffer().getBytes()));
+        Assert.assertEquals(jsonObject, in.readJson());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testInvalidSnapshotShouldThrowIllegalStateException() {
+        ApiDefinitionBinaryCodec.decode(ByteBuffer.wrap("{\"name\":\"x\"}".getBytes()));
+    }
+}
@@ -77,6 +77,7 @@ public class ApiDefinitionTest {
         Assert.assertEquals(1, apiDefinition.plugins().size());
 
         Assert.assertSame(plugin, apiDefinition.plugin(MockPlugin.class.getSimpleName()));
+        Assert.assertSame(plugin, apiDefinition.plugin(MockPlugin.class));
 
         Assert.assertNull(apiDefinition.plugin(UUID.randomUUID().toString()));
 
@@ -97,6 +98,7 @@ public class ApiDefinitionTest {
         apiDefinition.removePlugin(MockPlugin.class.getSimpleName());
 
         Assert.assertNull(apiDefinition.plugin(MockPlugin.class.getSimpleName()));
+        Assert.assertNull(apiDefinition.plugin(MockPlugin.class));
 
     }
 
@@ -221,4 +223,31 @@ public class ApiDefinitionTest {
 
     }
 
+    @Test
+    public void testPassThroughShouldCheckPluginsAndEndpoints() {
+        SimpleHttpEndpoint httpEndpoint =
+                SimpleHttpEndpoint.http("get_device", HttpMethod.GET, "/devices",
+                                        80, "localhost");
+        ApiDefinition apiDefinition = ApiDefinition
+                .create("get_device", HttpMethod.GET, "devices/", Lists.newArrayList(httpEndpoint));
+        Assert.assertTrue(apiDefinition.passThrough());
+
+        apiDefinition.addPlugin(new MockPlugin());
+        Assert.assertTrue(apiDefinition.passThrough());
+
+        apiDefinition.addPlugin(new ApiPlugin() {
+            @Override
+            public String name() {
+                return "BodyPlugin";
+            }
+        });
+        Assert.assertFalse(apiDefinition.passThrough());
+
+        apiDefinition = ApiDefinition
+                .create("get_device", HttpMethod.GET, "devices/",
+                        Lists.newArrayList(httpEndpoint, SimpleHttpEndpoint
+                                .http("get_user", HttpMethod.GET, "/users", 80, "localhost")));
+        Assert.assertFalse(apiDefinition.passThrough());
+    }
+
 }
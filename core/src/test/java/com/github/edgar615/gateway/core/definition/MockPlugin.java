@@ -10,4 +10,9 @@ public class MockPlugin implements ApiPlugin {
     public String name() {
         return MockPlugin.class.getSimpleName();
     }
+
+    @Override
+    public boolean requiresJsonBody() {
+        return false;
+    }
 }
@@ -0,0 +1,92 @@
+package com.github.edgar615.gateway.core.dispatch;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+
+import com.github.edgar615.gateway.core.rpc.http.SimpleHttpRequest;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Edgar  Date 2018/12/15
+ */
+public class ApiContextCopyTest {
+
+    @Test
+    public void testCopyShouldShareRequestData() {
+        Multimap<String, String> headers = ArrayListMultimap.create();
+        headers.put("h1", "h1.1");
+        headers.put("h1", "h1.2");
+        Multimap<String, String> params = ArrayListMultimap.create();
+        params.put("p1", "p1.1");
+        JsonObject body = new JsonObject().put("password", "111111").put("accountType", 1);
+        ApiContext apiContext = ApiContext.create(HttpMethod.POST, "/devices", headers, params,
+                                                  body);
+        ApiContext copyContext = apiContext.copy();
+        Assert.assertEquals(apiContext.id(), copyContext.id());
+        Assert.assertSame(apiContext.headers(), copyContext.headers());
+        Assert.assertSame(apiContext.params(), copyContext.params());
+        Assert.assertEquals(2, copyContext.headers().get("h1").size());
+        Assert.assertEquals("111111", copyContext.getValueByKeyword("$body.password"));
+        Assert.assertEquals("password", copyContext.body().fieldNames().iterator().next());
+
+        try {
+            copyContext.body().put("password", "222222");
+            Assert.fail();
+        } catch (UnsupportedOperationException e) {
+            Assert.assertEquals("111111", copyContext.body().getString("password"));
+        }
+    }
+
+    @Test
+    public void testBodyShouldNotCopyWithoutWrite() {
+        JsonObject body = new JsonObject().put("password", "111111").put("accountType", 1);
+        ApiContext apiContext = ApiContext.create(HttpMethod.POST, "/devices", null, null, body);
+        ApiContext copyContext = apiContext.copy();
+        JsonObject first = copyContext.body();
+        Assert.assertSame(first, copyContext.body());
+        Assert.assertSame(first, apiContext.body());
+        Assert.assertSame(first, copyContext.copy().body());
+    }
+
+    @Test
+    public void testSetBodyShouldOnlyAffectCurrentContext() {
+        JsonObject body = new JsonObject().put("password", "111111").put("accountType", 1);
+        ApiContext apiContext = ApiContext.create(HttpMethod.POST, "/devices", null, null, body);
+        ApiContext copyContext = apiContext.copy();
+        JsonObject newBody = copyContext.copyJson(copyContext.body()).put("password", "222222");
+        copyContext.setBody(newBody);
+        Assert.assertEquals("body", copyContext.journal().get(0));
+        Assert.assertEquals("222222", copyContext.body().getString("password"));
+        Assert.assertEquals("222222", copyContext.getValueByKeyword("$body.password"));
+        Assert.assertEquals("password", copyContext.body().fieldNames().iterator().next());
+        Assert.assertSame(copyContext.body(), copyContext.copy().body());
+        Assert.assertEquals("111111", apiContext.body().getString("password"));
+    }
+
+    @Test
+    public void testJournalShouldRecordChangesAfterCopy() {
+        ApiContext apiContext = ApiContext.create(HttpMethod.GET, "/devices", null, null, null);
+        apiContext.addVariable("foo", "bar");
+        apiContext.addRequest(SimpleHttpRequest.create("1", "a"));
+
+        ApiContext copyContext = apiContext.copy();
+        Assert.assertTrue(copyContext.journal().isEmpty());
+        Assert.assertEquals("bar", copyContext.variables().get("foo"));
+        Assert.assertSame(apiContext.requests().get(0), copyContext.requests().get(0));
+
+        copyContext.addVariable("foo", "baz");
+        copyContext.addRequest(SimpleHttpRequest.create("2", "b"));
+        copyContext.setPrincipal(new JsonObject().put("userId", 1));
+        Assert.assertEquals("variables.foo", copyContext.journal().get(0));
+        Assert.assertEquals("requests.b", copyContext.journal().get(1));
+        Assert.assertEquals("principal", copyContext.journal().get(2));
+
+        Assert.assertEquals("bar", apiContext.variables().get("foo"));
+        Assert.assertEquals(1, apiContext.requests().size());
+        Assert.assertNull(apiContext.principal());
+        Assert.assertEquals(2, copyContext.requests().size());
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.edgar615.gateway.core.dispatch;
+
+import com.google.common.collect.Lists;
+
+import com.github.edgar615.gateway.core.apidiscovery.RouteMatches;
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.gateway.core.definition.SimpleHttpEndpoint;
+import com.github.edgar615.util.exception.SystemException;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Edgar  Date 2018/12/15
+ */
+public class ApiContextWrapTest {
+
+    @Test
+    public void testWrapShouldMaterializeOnceAcrossCopies() {
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap()
+                .add("h1", "h1.1")
+                .add("h1", "h1.2");
+        MultiMap params = MultiMap.caseInsensitiveMultiMap().add("p1", "p1.1");
+        Buffer body = new JsonObject().put("password", "111111").put("accountType", 1).toBuffer();
+        ApiContext apiContext = ApiContext.wrap("1", HttpMethod.POST, "/devices", headers, params,
+                                                body);
+        ApiContext copyContext = apiContext.copy();
+
+        Assert.assertEquals(2, copyContext.headers().get("h1").size());
+        Assert.assertSame(copyContext.headers(), apiContext.headers());
+        Assert.assertEquals("p1.1", apiContext.params().get("p1").iterator().next());
+        Assert.assertSame(copyContext.params(), apiContext.params());
+        Assert.assertEquals("111111", copyContext.getValueByKeyword("$body.password"));
+        Assert.assertEquals(1, apiContext.body().getInteger("accountType").intValue());
+
+        Assert.assertSame(apiContext.body(), copyContext.body());
+
+        copyContext.setBody(copyContext.copyJson(copyContext.body()).put("password", "222222"));
+        Assert.assertEquals("222222", copyContext.body().getString("password"));
+        Assert.assertEquals("111111", apiContext.body().getString("password"));
+    }
+
+    @Test
+    public void testEmptyRequestShouldNotHaveBody() {
+        ApiContext apiContext = ApiContext.wrap("1", HttpMethod.GET, "/devices",
+                                                MultiMap.caseInsensitiveMultiMap(),
+                                                MultiMap.caseInsensitiveMultiMap(), null);
+        Assert.assertTrue(apiContext.headers().isEmpty());
+        Assert.assertTrue(apiContext.params().isEmpty());
+        Assert.assertNull(apiContext.body());
+
+        apiContext = ApiContext.wrap("1", HttpMethod.POST, "/devices", null, null,
+                                     Buffer.buffer());
+        Assert.assertNull(apiContext.body());
+    }
+
+    @Test
+    public void testInvalidJsonShouldFailOnlyWhenBodyIsRead() {
+        ApiContext apiContext = ApiContext.wrap("1", HttpMethod.POST, "/devices",
+                                                MultiMap.caseInsensitiveMultiMap(),
+                                                MultiMap.caseInsensitiveMultiMap(),
+                                                Buffer.buffer("username=edgar"));
+        Assert.assertEquals("/devices", apiContext.path());
+        Assert.assertTrue(apiContext.toString().contains("body=username=edgar"));
+        try {
+            apiContext.body();
+            Assert.fail();
+        } catch (Exception e) {
+            Assert.assertTrue(e instanceof SystemException);
+        }
+    }
+
+    @Test
+    public void testRawBodyShouldRejectNonObjectBody() {
+        ApiContext apiContext = ApiContext.wrap("1", HttpMethod.POST, "/devices",
+                                                MultiMap.caseInsensitiveMultiMap(),
+                                                MultiMap.caseInsensitiveMultiMap(),
+                                                Buffer.buffer(" {\"username\":\"edgar\"}\n"));
+        Assert.assertEquals(" {\"username\":\"edgar\"}\n", apiContext.rawBody().toString());
+
+        apiContext = ApiContext.wrap("1", HttpMethod.POST, "/devices",
+                                     MultiMap.caseInsensitiveMultiMap(),
+                                     MultiMap.caseInsensitiveMultiMap(),
+                                     Buffer.buffer("username=edgar"));
+        try {
+            apiContext.rawBody();
+            Assert.fail();
+        } catch (Exception e) {
+            Assert.assertTrue(e instanceof SystemException);
+        }
+
+        apiContext = ApiContext.wrap("1", HttpMethod.POST, "/devices",
+                                     MultiMap.caseInsensitiveMultiMap(),
+                                     MultiMap.caseInsensitiveMultiMap(),
+                                     Buffer.buffer("{\"username\":}"));
+        try {
+            apiContext.rawBody();
+            Assert.fail();
+        } catch (Exception e) {
+            Assert.assertTrue(e instanceof SystemException);
+        }
+    }
+
+    @Test
+    public void testAttributesShouldBeCopiedButNotVisible() {
+        ApiContext apiContext = ApiContext.wrap("1", HttpMethod.GET, "/devices",
+                                                MultiMap.caseInsensitiveMultiMap(),
+                                                MultiMap.caseInsensitiveMultiMap(), null);
+        apiContext.setAttribute(ApiContext.PASS_THROUGH, true);
+        ApiContext copyContext = apiContext.copy();
+        Assert.assertTrue(copyContext.passThrough());
+        Assert.assertTrue(copyContext.variables().isEmpty());
+        Assert.assertTrue(copyContext.journal().isEmpty());
+        Assert.assertFalse(copyContext.toString().contains("passThrough"));
+
+        copyContext.setAttribute(RouteMatches.PATH_GROUPS, new String[]{"1"});
+        SimpleHttpEndpoint httpEndpoint = SimpleHttpEndpoint
+                .http("get_device", HttpMethod.GET, "devices/", 80, "localhost");
+        copyContext.setApiDefinition(ApiDefinition.create("device.get", HttpMethod.GET, "/devices",
+                                                          Lists.newArrayList(httpEndpoint)));
+        Assert.assertNull(copyContext.attribute(RouteMatches.PATH_GROUPS));
+        Assert.assertNull(copyContext.attribute(ApiContext.PASS_THROUGH));
+    }
+}
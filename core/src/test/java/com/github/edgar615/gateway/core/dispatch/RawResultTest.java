@@ -0,0 +1,31 @@
+package com.github.edgar615.gateway.core.dispatch;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Edgar  Date 2018/12/15
+ */
+public class RawResultTest {
+
+    @Test
+    public void testRawBodyShouldBeKeptUntilParsed() {
+        Buffer buffer = new JsonObject().put("foo", "bar").toBuffer();
+        Result result = Result.createRaw(200, buffer, false, null);
+        result.addHeader("h1", "h1.1");
+        Assert.assertSame(buffer, result.rawBody());
+        Assert.assertEquals(buffer.length(), result.byteSize());
+
+        Result copy = result.copy();
+        Assert.assertSame(buffer, copy.rawBody());
+        Assert.assertEquals("h1.1", copy.headers().get("h1").iterator().next());
+
+        result.responseObject().put("foo", "baz");
+        Assert.assertNull(result.rawBody());
+        Assert.assertEquals("baz", result.responseObject().getString("foo"));
+        Assert.assertEquals("h1.1", result.headers().get("h1").iterator().next());
+        Assert.assertSame(buffer, copy.rawBody());
+    }
+}
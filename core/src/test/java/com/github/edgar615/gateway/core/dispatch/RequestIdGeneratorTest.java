@@ -0,0 +1,83 @@
+package com.github.edgar615.gateway.core.dispatch;
+
+import io.vertx.core.http.HttpMethod;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * @author Edgar  Date 2018/12/15
+ */
+public class RequestIdGeneratorTest {
+
+    @Test
+    public void testIdShouldBeMonotonicInThread() {
+        SequenceRequestIdGenerator generator = new SequenceRequestIdGenerator(0x1234abcd);
+        String id1 = generator.nextId();
+        String id2 = generator.nextId();
+        Assert.assertEquals(32, id1.length());
+        Assert.assertEquals("1234abcd", id1.substring(8, 16));
+        Assert.assertTrue(id1.endsWith("000000000001"));
+        Assert.assertTrue(id1.compareTo(id2) < 0);
+        Assert.assertEquals(id1.substring(0, 20), id2.substring(0, 20));
+    }
+
+    @Test
+    public void testIdShouldBeUniqueAcrossThreads() throws InterruptedException {
+        SequenceRequestIdGenerator generator = new SequenceRequestIdGenerator(1);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        int threads = 4;
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    ids.add(generator.nextId());
+                }
+                latch.countDown();
+            }).start();
+        }
+        latch.await();
+        Assert.assertEquals(threads * 1000, ids.size());
+    }
+
+    @Test
+    public void testRpcIdShouldContinueAfterCopy() {
+        ApiContext apiContext = ApiContext.create("abc", HttpMethod.GET, "/devices", null, null,
+                                                  null);
+        for (int i = 1; i <= 9; i++) {
+            Assert.assertEquals("abc." + i, apiContext.nextRpcId());
+        }
+        ApiContext copyContext = apiContext.copy();
+        Assert.assertEquals("abc.10", copyContext.nextRpcId());
+        ApiContext newContext = ApiContext.create("abc", HttpMethod.GET, "/devices", null, null,
+                                                  null);
+        ApiContext.copyProperties(copyContext, newContext);
+        Assert.assertEquals("abc.11", newContext.nextRpcId());
+        Assert.assertEquals("abc.10", apiContext.nextRpcId());
+    }
+
+    @Test
+    public void testEpochShouldAdvanceWhenThreadIdsAreExhausted() throws InterruptedException {
+        SequenceRequestIdGenerator generator = new SequenceRequestIdGenerator(1);
+        String first = generator.nextId();
+        Set<String> prefixes = ConcurrentHashMap.newKeySet();
+        prefixes.add(first.substring(0, 20));
+        for (int i = 1; i <= 0x10000; i++) {
+            Thread thread = new Thread(() -> prefixes.add(generator.nextId().substring(0, 20)));
+            thread.start();
+            thread.join();
+        }
+        Assert.assertEquals(0x10001, prefixes.size());
+        String last = null;
+        for (String prefix : prefixes) {
+            if (prefix.endsWith("0000") && !prefix.equals(first.substring(0, 20))) {
+                last = prefix;
+            }
+        }
+        Assert.assertNotNull(last);
+        Assert.assertTrue(last.substring(0, 8).compareTo(first.substring(0, 8)) > 0);
+    }
+}
@@ -7,6 +7,8 @@ import io.vertx.core.json.JsonObject;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Created by Edgar on 2017/1/6.
  *
@@ -101,4 +103,34 @@ public class ResultTest {
             Assert.assertEquals(1024, ex.getErrorCode().getNumber());
         }
     }
+
+    @Test
+    public void testBodyShouldBeEncodedOnce() {
+        JsonObject jsonObject = new JsonObject().put("foo", "bar").put("name", "中文");
+        Result result = Result.createJsonObject(200, jsonObject, null);
+        Buffer body = result.toBuffer();
+        Assert.assertSame(body, result.toBuffer());
+        Assert.assertEquals(jsonObject.encode(), body.toString());
+        Assert.assertEquals(jsonObject.encode().getBytes(StandardCharsets.UTF_8).length,
+                            result.byteSize());
+
+        JsonArray jsonArray = new JsonArray().add(jsonObject);
+        result = Result.createJsonArray(200, jsonArray, null);
+        Assert.assertEquals(jsonArray.encode(), result.toBuffer().toString());
+    }
+
+    @Test
+    public void testMutateAfterByteSizeShouldBeEncodedAgain() {
+        Result result = Result.createJsonObject(200, new JsonObject().put("foo", "bar"), null);
+        int size = result.byteSize();
+        result.responseObject().put("name", "edgar");
+        Assert.assertEquals(new JsonObject().put("foo", "bar").put("name", "edgar").encode(),
+                            result.toBuffer().toString());
+        Assert.assertTrue(result.byteSize() > size);
+
+        result = Result.createJsonArray(200, new JsonArray().add(1), null);
+        result.byteSize();
+        result.responseArray().add(2);
+        Assert.assertEquals("[1,2]", result.toBuffer().toString());
+    }
 }
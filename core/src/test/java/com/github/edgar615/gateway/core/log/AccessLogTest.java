@@ -0,0 +1,162 @@
+package com.github.edgar615.gateway.core.log;
+
+import com.google.common.collect.ArrayListMultimap;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @author Edgar  Date 2018/12/15
+ */
+public class AccessLogTest {
+
+    @Test
+    public void testRingShouldDropWhenFull() {
+        AccessLogRing ring = new AccessLogRing(4);
+        Assert.assertEquals(4, ring.capacity());
+        for (int i = 0; i < 4; i++) {
+            AccessLogRecord record = ring.claim();
+            record.id = "" + i;
+            ring.publish(record);
+        }
+        Assert.assertNull(ring.claim());
+        Assert.assertEquals(1, ring.dropped());
+
+        AccessLogRecord record = ring.poll();
+        Assert.assertEquals("0", record.id);
+        ring.release(record);
+        Assert.assertNull(record.id);
+        Assert.assertNotNull(ring.claim());
+        Assert.assertEquals("1", ring.poll().id);
+    }
+
+    @Test
+    public void testRpcShouldBeSampledWithRequest() {
+        AccessLog accessLog = new AccessLog(new AccessLogOptions().setSampleRate(0.5),
+                                            new CaptureSink());
+        int sampled = 0;
+        for (int i = 0; i < 1000; i++) {
+            String id = "request-" + i;
+            Assert.assertEquals(accessLog.sampled(id), accessLog.sampled(id + ".1"));
+            if (accessLog.sampled(id)) {
+                sampled++;
+            }
+        }
+        Assert.assertTrue(sampled > 400 && sampled < 600);
+        accessLog.close();
+    }
+
+    @Test
+    public void testErrorShouldIgnoreSampleRate() {
+        CaptureSink sink = new CaptureSink();
+        AccessLog accessLog = new AccessLog(new AccessLogOptions().setSampleRate(0), sink);
+        accessLog.serverReceived("1", System.currentTimeMillis(), HttpMethod.GET, "/devices",
+                                 MultiMap.caseInsensitiveMultiMap(), null, "127.0.0.1");
+        accessLog.serverSent("1", 200, MultiMap.caseInsensitiveMultiMap(), 10, 1);
+        accessLog.clientReceived("1.1", 500, 10, 1);
+        accessLog.close();
+        Assert.assertEquals(1, sink.lines.size());
+        Assert.assertEquals("[1.1] [CR] [HTTP] [500] [10bytes] [1ms]", sink.lines.get(0));
+    }
+
+    @Test
+    public void testBodyShouldBeTruncated() {
+        CaptureSink sink = new CaptureSink();
+        AccessLog accessLog = new AccessLog(new AccessLogOptions().setMaxBodyLength(5)
+                                                    .setLogHeaders(true), sink);
+        accessLog.clientSent("1.1", "localhost", 8080, HttpMethod.POST, "/devices?type=1",
+                             ArrayListMultimap.create(), Buffer.buffer("0123456789"));
+        accessLog.serverReceived("1", System.currentTimeMillis(), HttpMethod.GET, "/devices",
+                                 MultiMap.caseInsensitiveMultiMap().add("h1", "v1"),
+                                 Buffer.buffer("0123"), "127.0.0.1");
+        accessLog.close();
+        Assert.assertEquals("[1.1] [CS] [HTTP] [localhost:8080] [POST /devices?type=1] "
+                            + "[no header] [01234...(10bytes)]", sink.lines.get(0));
+        Assert.assertEquals("[1] [SR] [HTTP] [GET /devices] [h1:v1;] [0123] [127.0.0.1]",
+                            sink.lines.get(1));
+    }
+
+    @Test
+    public void testBodyShouldBeTruncatedOnCharBoundary() {
+        CaptureSink sink = new CaptureSink();
+        AccessLog accessLog = new AccessLog(new AccessLogOptions().setMaxBodyLength(4), sink);
+        accessLog.clientSent("1.1", "localhost", 8080, HttpMethod.POST, "/devices",
+                             ArrayListMultimap.create(), Buffer.buffer("a设备b", "UTF-8"));
+        accessLog.close();
+        Assert.assertEquals("[1.1] [CS] [HTTP] [localhost:8080] [POST /devices] "
+                            + "[a设...(8bytes)]", sink.lines.get(0));
+    }
+
+    @Test
+    public void testFailedRotationShouldBackOff() throws Exception {
+        File file = Files.createTempDirectory("log").resolve("access.log").toFile();
+        //path.1是一个非空的目录，滚动时无法删除
+        File blocker = new File(file.getPath() + ".1");
+        Assert.assertTrue(new File(blocker, "keep").mkdirs());
+        RollingFileAccessLogSink sink = new RollingFileAccessLogSink(file.getPath(), 200, 1);
+        int failures = 0;
+        for (int i = 0; i < 40; i++) {
+            try {
+                sink.write(AccessLogRecord.CLIENT_RECEIVED, System.currentTimeMillis(),
+                           new StringBuilder("request-" + i));
+            } catch (IOException e) {
+                failures++;
+            }
+        }
+        sink.close();
+        Assert.assertTrue(failures > 0 && failures < 10);
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals(40, lines.size());
+    }
+
+    @Test
+    public void testFileShouldRotate() throws Exception {
+        File file = Files.createTempDirectory("log").resolve("logs/access.log").toFile();
+        AccessLog accessLog = AccessLog.create(new AccessLogOptions()
+                                                       .setPath(file.getPath())
+                                                       .setMaxFileSize(200)
+                                                       .setMaxFiles(2));
+        for (int i = 0; i < 20; i++) {
+            accessLog.clientReceived("request-" + i, 200, 10, 1);
+        }
+        accessLog.close();
+        Assert.assertTrue(file.exists());
+        Assert.assertTrue(new File(file.getPath() + ".1").exists());
+        Assert.assertTrue(new File(file.getPath() + ".2").exists());
+        Assert.assertFalse(new File(file.getPath() + ".3").exists());
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        Assert.assertTrue(file.length() <= 200);
+        Assert.assertTrue(lines.get(lines.size() - 1)
+                                  .endsWith(" [request-19] [CR] [HTTP] [200] [10bytes] [1ms]"));
+    }
+
+    private static class CaptureSink implements AccessLogSink {
+
+        private final List<String> lines = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void write(String type, long timestamp, StringBuilder line) {
+            lines.add(line.toString());
+        }
+
+        @Override
+        public void flush() {
+
+        }
+
+        @Override
+        public void close() {
+
+        }
+    }
+}
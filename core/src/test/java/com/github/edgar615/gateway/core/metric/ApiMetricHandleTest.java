@@ -0,0 +1,58 @@
+package com.github.edgar615.gateway.core.metric;
+
+import com.codahale.metrics.MetricRegistry;
+import io.vertx.ext.dropwizard.ThroughputTimer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.UUID;
+
+/**
+ * @author Edgar  Date 2018/12/15
+ */
+public class ApiMetricHandleTest {
+
+    @Test
+    public void testHandleShouldBeCreatedOnce() {
+        String type = UUID.randomUUID().toString();
+        ApiMetricHandle handle = ApiMetric.handle(type, "test_api");
+        Assert.assertSame(handle, ApiMetric.handle(type, "test_api"));
+        Assert.assertNotSame(handle, ApiMetric.handle(type, "test_api2"));
+    }
+
+    @Test
+    public void testHandleShouldUpdateRegistry() {
+        String type = UUID.randomUUID().toString();
+        ApiMetricHandle handle = ApiMetric.handle(type, "test_api");
+        ApiMetric.handle(type, "test_api2").request();
+        handle.request();
+        handle.response(200, 1);
+        handle.response(404, 1);
+        handle.response(503, 1);
+
+        MetricRegistry registry = MetricHelper.registry();
+        Assert.assertEquals(2, registry.counter(type + ".request").getCount());
+        Assert.assertEquals(1, registry.counter(type + ".test_api.request").getCount());
+        Assert.assertEquals(1, registry.counter(type + ".test_api.response-2xx").getCount());
+        Assert.assertEquals(1, registry.counter(type + ".test_api.response-4xx").getCount());
+        Assert.assertEquals(1, registry.counter(type + ".response-5xx").getCount());
+        ThroughputTimer timer = (ThroughputTimer) registry.getMetrics()
+                .get(type + ".test_api.response");
+        Assert.assertEquals(3, timer.getCount());
+    }
+
+    @Test
+    public void testRetainShouldRemoveUnpublishedHandles() {
+        String type = UUID.randomUUID().toString();
+        ApiMetricHandle kept = ApiMetric.handle(type, "test_api");
+        ApiMetricHandle removed = ApiMetric.handle(type, "test_api2");
+        removed.request();
+        ApiMetric.retain(type, "test_api"::equals);
+
+        MetricRegistry registry = MetricHelper.registry();
+        Assert.assertSame(kept, ApiMetric.handle(type, "test_api"));
+        Assert.assertFalse(registry.getMetrics().containsKey(type + ".test_api2.request"));
+        Assert.assertEquals(1, registry.counter(type + ".request").getCount());
+        Assert.assertNotSame(removed, ApiMetric.handle(type, "test_api2"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.edgar615.gateway.core.metric;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Edgar  Date 2018/12/15
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketShouldContainValue() {
+        long previous = 0;
+        for (long nanos = 0; nanos < 1_000_000_000_000L; nanos = nanos * 9 / 8 + 1) {
+            int index = LatencyHistogram.index(nanos);
+            Assert.assertTrue(nanos <= LatencyHistogram.upperBound(index));
+            if (index > 0) {
+                Assert.assertTrue(nanos > LatencyHistogram.upperBound(index - 1));
+            }
+            Assert.assertTrue(index >= previous);
+            previous = index;
+        }
+        Assert.assertEquals(0, LatencyHistogram.index(-1));
+        Assert.assertEquals(LatencyHistogram.index(Long.MAX_VALUE),
+                            LatencyHistogram.index(Long.MAX_VALUE / 2));
+    }
+
+    @Test
+    public void testDecimalBoundsShouldBeUpperBounds() {
+        for (long pow = 1000; pow <= 1_000_000_000L; pow *= 10) {
+            for (long bound : new long[]{pow, pow * 5 / 2, pow * 5}) {
+                int index = LatencyHistogram.index(bound);
+                Assert.assertEquals(bound, LatencyHistogram.upperBound(index));
+                Assert.assertEquals(index + 1, LatencyHistogram.index(bound + 1));
+            }
+        }
+    }
+
+    @Test
+    public void testPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(100, snapshot.count());
+        Assert.assertEquals(50500, snapshot.mean());
+        long p50 = snapshot.percentile(50);
+        Assert.assertTrue(p50 >= 50000 && p50 <= 50000 * 1.25);
+        long p99 = snapshot.percentile(99);
+        Assert.assertTrue(p99 >= 99000 && p99 <= 99000 * 1.25);
+        Assert.assertTrue(snapshot.max() >= 100000);
+        Assert.assertEquals(0, new LatencyHistogram().snapshot().percentile(99));
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.edgar615.gateway.core.metric;
+
+import io.vertx.core.buffer.Buffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.UUID;
+
+/**
+ * @author Edgar  Date 2018/12/15
+ */
+public class PrometheusWriterTest {
+
+    @Test
+    public void testSampleShouldEscapeLabels() {
+        PrometheusWriter writer = new PrometheusWriter(Buffer.buffer());
+        writer.family("test_total", PrometheusWriter.COUNTER, "Test\nhelp")
+                .sample("test_total", 1024L, "name", "a\"b\\c\nd", "api", "设备")
+                .sample("test_gauge", -5L)
+                .sample("test_ratio", 0.5);
+        Assert.assertEquals("# HELP test_total Test\\nhelp\n"
+                            + "# TYPE test_total counter\n"
+                            + "test_total{name=\"a\\\"b\\\\c\\nd\",api=\"设备\"} 1024\n"
+                            + "test_gauge -5\n"
+                            + "test_ratio 0.5\n",
+                            writer.buffer().toString("UTF-8"));
+    }
+
+    @Test
+    public void testHistogramShouldBeCumulative() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500_000);
+        histogram.record(3_000_000);
+        histogram.record(20_000_000_000L);
+        PrometheusWriter writer = new PrometheusWriter(Buffer.buffer());
+        writer.histogram("test_seconds", histogram.snapshot(),
+                         PrometheusWriter.Buckets.of(0.001, 0.005, 1), "api", "test");
+        Assert.assertEquals("test_seconds_bucket{api=\"test\",le=\"0.001\"} 1\n"
+                            + "test_seconds_bucket{api=\"test\",le=\"0.005\"} 2\n"
+                            + "test_seconds_bucket{api=\"test\",le=\"1\"} 2\n"
+                            + "test_seconds_bucket{api=\"test\",le=\"+Inf\"} 3\n"
+                            + "test_seconds_sum{api=\"test\"} 20.0035\n"
+                            + "test_seconds_count{api=\"test\"} 3\n",
+                            writer.buffer().toString("UTF-8"));
+    }
+
+    @Test
+    public void testValueOnUpperBoundShouldBeCountedInThatBucket() {
+        String type = UUID.randomUUID().toString();
+        ApiMetricHandle handle = ApiMetric.handle(type, "test_api");
+        handle.response(200, 1);
+        handle.response(200, 10);
+        PrometheusWriter writer = new PrometheusWriter(Buffer.buffer());
+        writer.histogram("test_seconds", handle.latency(), PrometheusWriter.Buckets.REQUEST);
+        String text = writer.buffer().toString("UTF-8");
+        Assert.assertTrue(text.contains("test_seconds_bucket{le=\"0.001\"} 1\n"));
+        Assert.assertTrue(text.contains("test_seconds_bucket{le=\"0.005\"} 1\n"));
+        Assert.assertTrue(text.contains("test_seconds_bucket{le=\"0.01\"} 2\n"));
+        Assert.assertTrue(text.contains("test_seconds_bucket{le=\"+Inf\"} 2\n"));
+
+        FilterStats stats = new FilterStats();
+        stats.record(1_000, false);
+        stats.record(1_001, false);
+        writer = new PrometheusWriter(Buffer.buffer());
+        writer.histogram("test_seconds", stats.latency(), PrometheusWriter.Buckets.FILTER);
+        text = writer.buffer().toString("UTF-8");
+        Assert.assertTrue(text.contains("test_seconds_bucket{le=\"1.0E-6\"} 1\n"));
+        Assert.assertTrue(text.contains("test_seconds_bucket{le=\"5.0E-6\"} 2\n"));
+    }
+
+    @Test
+    public void testApiMetricShouldBeCollected() {
+        String type = UUID.randomUUID().toString();
+        String api = UUID.randomUUID().toString();
+        ApiMetric.apiHandle(api).request();
+        ApiMetricHandle handle = ApiMetric.handle(type, "test_api");
+        handle.response(503, 2);
+        PrometheusWriter writer = new PrometheusWriter(Buffer.buffer());
+        new ApiMetricCollector().collect(writer);
+        String text = writer.buffer().toString("UTF-8");
+        String apiLabels = "{type=\"api\",name=\"" + api + "\"";
+        Assert.assertTrue(text.contains("gateway_requests_total" + apiLabels + "} 1\n"));
+        Assert.assertFalse(text.contains("gateway_responses_total" + apiLabels));
+        Assert.assertFalse(text.contains("gateway_response_duration_seconds_count" + apiLabels));
+        String labels = "{type=\"" + type + "\",name=\"test_api\"";
+        Assert.assertFalse(text.contains("gateway_requests_total" + labels));
+        Assert.assertTrue(text.contains("gateway_responses_total" + labels
+                                        + ",status=\"5xx\"} 1\n"));
+        Assert.assertTrue(text.contains("gateway_response_duration_seconds_bucket" + labels
+                                        + ",le=\"0.001\"} 0\n"));
+        Assert.assertTrue(text.contains("gateway_response_duration_seconds_bucket" + labels
+                                        + ",le=\"0.0025\"} 1\n"));
+        Assert.assertEquals(1, text.split("# TYPE gateway_requests_total", -1).length - 1);
+    }
+
+    @Test
+    public void testRollbackShouldDiscardPartialOutput() {
+        PrometheusWriter writer = new PrometheusWriter(Buffer.buffer());
+        writer.sample("test_total", 1L);
+        int mark = writer.mark();
+        writer.family("broken_total", PrometheusWriter.COUNTER, "Broken")
+                .sample("broken_total", 2L);
+        writer.rollback(mark);
+        writer.sample("test_gauge", 3L);
+        Assert.assertEquals("test_total 1\ntest_gauge 3\n", writer.buffer().toString("UTF-8"));
+    }
+}
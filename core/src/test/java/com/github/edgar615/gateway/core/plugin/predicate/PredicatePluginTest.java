@@ -1,14 +1,20 @@
 package com.github.edgar615.gateway.core.plugin.predicate;
 
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 
 import com.github.edgar615.gateway.core.definition.ApiPlugin;
+import com.github.edgar615.gateway.core.dispatch.ApiContext;
+import io.vertx.core.http.HttpMethod;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class PredicatePluginTest {
 
     @Test
@@ -101,4 +107,30 @@ public class PredicatePluginTest {
         Assert.assertTrue(remoteAddr.getValue("hash") instanceof JsonObject);
         Assert.assertTrue(remoteAddr.getValue("range") instanceof JsonObject);
     }
+
+    @Test
+    public void testCheapPredicateShouldRunFirst() {
+        List<String> executed = new ArrayList<>();
+        PredicatePlugin plugin = new PredicatePlugin();
+        plugin.add(new HeaderRegexPredicate(ImmutableMap.of("X-Api-Version", "\\d+")) {
+            @Override
+            public boolean test(ApiContext context) {
+                executed.add("regex");
+                return super.test(context);
+            }
+        });
+        plugin.add(new BeforePredicate("2018-08-05T17:05:02.717+08:00") {
+            @Override
+            public boolean test(ApiContext context) {
+                executed.add("before");
+                return super.test(context);
+            }
+        });
+        ApiContext apiContext = ApiContext.create(HttpMethod.GET, "/", ArrayListMultimap.create(),
+                                                  ArrayListMultimap.create(), null);
+        Assert.assertFalse(plugin.test(apiContext));
+        Assert.assertEquals(Lists.newArrayList("before"), executed);
+        Assert.assertEquals(2, plugin.predicates().size());
+        Assert.assertTrue(plugin.predicates().get(0) instanceof HeaderRegexPredicate);
+    }
 }
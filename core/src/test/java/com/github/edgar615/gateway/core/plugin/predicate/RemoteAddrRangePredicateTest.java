@@ -31,4 +31,16 @@ public class RemoteAddrRangePredicateTest {
         apiContext.addVariable("request_clientIp", "169.168.1.5");
         Assert.assertFalse(predicate.test(apiContext));
     }
+
+    @Test
+    public void testClientIpNumberShouldNotBeVariable() {
+        RemoteAddrRangePredicate predicate = new RemoteAddrRangePredicate(3221225731l, 3232235781l);
+        ApiContext apiContext = ApiContext.create(HttpMethod.GET, "/", ArrayListMultimap.create(),
+                                                  ArrayListMultimap.create(), null);
+        apiContext.addVariable("request_clientIp", "192.168.1.3");
+        Assert.assertTrue(predicate.test(apiContext));
+        Assert.assertEquals(1, apiContext.variables().size());
+        Assert.assertNotNull(apiContext.attribute(ClientIp.CLIENT_IP_NUMBER));
+        Assert.assertTrue(predicate.test(apiContext.copy()));
+    }
 }
@@ -0,0 +1,109 @@
+package com.github.edgar615.gateway.core.plugin.predicate;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+
+import com.github.edgar615.gateway.core.dispatch.ApiContext;
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Edgar  Date 2018/12/12
+ */
+public class WeightPredicateTest {
+
+    @Test
+    public void testHeaderKeyShouldBeStable() {
+        WeightPredicate predicate = new WeightPredicate("$header.x-user-id", 0, 30);
+        Multimap<String, String> header = ArrayListMultimap.create();
+        header.put("X-User-Id", "10001");
+        ApiContext apiContext
+                = ApiContext.create(HttpMethod.GET, "/", header, ArrayListMultimap.create(), null);
+        boolean result = predicate.test(apiContext);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(result, predicate.test(apiContext));
+        }
+        Assert.assertEquals(result,
+                            WeightPredicate.bucket("10001") < 30);
+        Assert.assertEquals(11, predicate.hits(WeightPredicate.bucket("10001")));
+    }
+
+    @Test
+    public void testHeaderKeyShouldIgnoreCase() {
+        WeightPredicate predicate = new WeightPredicate("$header.x-user-id", 0, 100);
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap().add("X-User-Id", "10001");
+        ApiContext apiContext = ApiContext.wrap("1", HttpMethod.GET, "/", headers,
+                                                MultiMap.caseInsensitiveMultiMap(), null);
+        Assert.assertTrue(predicate.test(apiContext));
+        Assert.assertEquals(1, predicate.hits(WeightPredicate.bucket("10001")));
+        Assert.assertEquals("10001", apiContext.header("X-USER-ID"));
+        Assert.assertNull(apiContext.header("x-device-id"));
+    }
+
+    @Test
+    public void testMissingKeyShouldReturnFalse() {
+        WeightPredicate predicate = new WeightPredicate(100);
+        ApiContext apiContext = ApiContext.create(HttpMethod.GET, "/", ArrayListMultimap.create(),
+                                                  ArrayListMultimap.create(), null);
+        Assert.assertFalse(predicate.test(apiContext));
+        Assert.assertEquals(0, predicate.totalCount());
+    }
+
+    @Test
+    public void testSplit() {
+        WeightPredicate canary = new WeightPredicate(WeightPredicate.CLIENT_IP, 0, 20);
+        WeightPredicate rest = new WeightPredicate(WeightPredicate.CLIENT_IP, 20, 80);
+        ApiContext apiContext = ApiContext.create(HttpMethod.GET, "/", ArrayListMultimap.create(),
+                                                  ArrayListMultimap.create(), null);
+        int total = 20000;
+        for (int i = 0; i < total; i++) {
+            //连续的IP
+            apiContext.addVariable("request_clientIp", "10.0." + (i / 256) + "." + (i % 256));
+            Assert.assertTrue(canary.test(apiContext) ^ rest.test(apiContext));
+        }
+        Assert.assertEquals(total, canary.totalCount());
+        double ratio = canary.matchCount() * 1.0 / total;
+        Assert.assertTrue("ratio:" + ratio, ratio > 0.18 && ratio < 0.22);
+    }
+
+    @Test
+    public void testWeightShouldBeBetween0And100() {
+        try {
+            new WeightPredicate(WeightPredicate.CLIENT_IP, 10, -5);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("weight must be between 0 and 100", e.getMessage());
+        }
+        try {
+            new WeightPredicate(WeightPredicate.CLIENT_IP, 90, 20);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("offset and offset + weight must be between 0 and 100",
+                                e.getMessage());
+        }
+        Assert.assertEquals(0, new WeightPredicate(WeightPredicate.CLIENT_IP, 100, 0).weight());
+    }
+
+    @Test
+    public void testDecode() {
+        JsonObject predicate = new JsonObject()
+                .put("weight", new JsonObject().put("key", "$user.userId").put("offset", 10)
+                        .put("weight", 20));
+        PredicatePlugin plugin = (PredicatePlugin) new PredicatePluginFactory()
+                .decode(new JsonObject().put("predicate", predicate));
+        WeightPredicate weightPredicate = (WeightPredicate) plugin.predicates().get(0);
+        Assert.assertEquals("$user.userId", weightPredicate.key());
+        Assert.assertEquals(10, weightPredicate.offset());
+        Assert.assertEquals(20, weightPredicate.weight());
+        Assert.assertEquals(predicate, new PredicatePluginFactory().encode(plugin));
+
+        plugin = (PredicatePlugin) new PredicatePluginFactory()
+                .decode(new JsonObject().put("predicate", new JsonObject().put("weight", 5)));
+        weightPredicate = (WeightPredicate) plugin.predicates().get(0);
+        Assert.assertEquals(WeightPredicate.CLIENT_IP, weightPredicate.key());
+        Assert.assertEquals(5, weightPredicate.weight());
+    }
+}
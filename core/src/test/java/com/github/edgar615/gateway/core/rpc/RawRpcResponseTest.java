@@ -0,0 +1,51 @@
+package com.github.edgar615.gateway.core.rpc;
+
+import com.github.edgar615.util.exception.SystemException;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Edgar  Date 2018/12/15
+ */
+public class RawRpcResponseTest {
+
+    @Test
+    public void testRawBodyShouldBeKeptUntilParsed() {
+        Buffer buffer = Buffer.buffer(" {\"foo\":\"bar\"}\n");
+        RpcResponse rpcResponse = RpcResponse.createRaw("test", 200, buffer, 0);
+        Assert.assertFalse(rpcResponse.isArray());
+        Assert.assertSame(buffer, rpcResponse.rawBody());
+        Assert.assertSame(buffer, rpcResponse.copy().rawBody());
+
+        Assert.assertEquals("bar", rpcResponse.responseObject().getString("foo"));
+        Assert.assertNull(rpcResponse.responseArray());
+        Assert.assertNull(rpcResponse.rawBody());
+    }
+
+    @Test
+    public void testJsonArray() {
+        JsonArray jsonArray = new JsonArray().add(new JsonObject().put("foo", "bar"));
+        RpcResponse rpcResponse = RpcResponse.createRaw("test", 200, jsonArray.toBuffer(), 0);
+        Assert.assertTrue(rpcResponse.isArray());
+        Assert.assertEquals(jsonArray.encode(), rpcResponse.responseArray().encode());
+    }
+
+    @Test
+    public void testInvalidJson() {
+        try {
+            RpcResponse.createRaw("test", 200, Buffer.buffer("foo"), 0);
+            Assert.fail();
+        } catch (Exception e) {
+            Assert.assertTrue(e instanceof SystemException);
+        }
+        try {
+            RpcResponse.createRaw("test", 200, Buffer.buffer("{"), 0);
+            Assert.fail();
+        } catch (Exception e) {
+            Assert.assertTrue(e instanceof SystemException);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.edgar615.gateway.core.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Created by Edgar on 2018/12/6.
+ *
+ * @author Edgar  Date 2018/12/6
+ */
+public class AntPathPatternTest {
+
+    private static final String[] PATTERNS = {"/trip/api/*x", "/trip/api/?x", "/**/alie",
+            "/devices/**", "/devices/*", "/devices/*/name", "/a/**/b/*.html", "/**", "/*",
+            "devices/*", "/docs/*/test/*.html", "/a/b"};
+
+    private static final String[] PATHS = {"", "/", "/trip/api/x", "/trip/api/ax",
+            "/trip/api/abx", "/trip/api/abc", "/trip/api/alie", "/devices", "/devices/",
+            "/devices/1", "/devices/1/name", "/devices/1/2/name", "/a/b", "/a/b/c.html",
+            "/a/x/y/b/c.html", "/docs/cvs/test/commit.html", "devices/1", "//devices//1//",
+            "/devices/ 1 /2"};
+
+    @Test
+    public void testSameAsMatcher() {
+        AntPathMatcher matcher = new AntPathMatcher.Builder().build();
+        for (String pattern : PATTERNS) {
+            AntPathPattern antPathPattern = AntPathPattern.compile(pattern);
+            for (String path : PATHS) {
+                Assert.assertEquals(pattern + " " + path, matcher.isMatch(pattern, path),
+                                    antPathPattern.isMatch(path));
+                Assert.assertEquals(pattern + " " + path,
+                                    matcher.extractPathWithinPattern(pattern, path),
+                                    antPathPattern.extractPathWithinPattern(path));
+            }
+        }
+    }
+
+    @Test
+    public void testEnd() {
+        AntPathPattern pattern = AntPathPattern.compile("/devices/*");
+        Assert.assertTrue(pattern.isMatch("/devices/1/", 10));
+        Assert.assertFalse(pattern.isMatch("/devices/1/"));
+    }
+
+    @Test
+    public void testIgnoreCase() {
+        AntPathPattern pattern =
+                new AntPathMatcher.Builder().withIgnoreCase().build().compile("/Devices/*");
+        Assert.assertTrue(pattern.isMatch("/devices/1"));
+        Assert.assertTrue(pattern.isMatch("/DEVICES/1"));
+    }
+
+}
@@ -13,12 +13,10 @@ import com.github.edgar615.util.exception.DefaultErrorCode;
 import com.github.edgar615.util.exception.SystemException;
 import com.github.edgar615.util.validation.Rule;
 import com.github.edgar615.util.validation.Validations;
-import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.ServiceLoader;
 import java.util.stream.Collectors;
@@ -98,27 +96,17 @@ class ApiPluginCmd implements ApiCmd {
     private void doSubCmd(ApiDiscovery discovery, List<ApiDefinition> definitions,
                           ApiSubCmd subCmd,
                           JsonObject jsonObject, Future<JsonObject> complete) {
-        List<Future> futures = new ArrayList<>();
         for (ApiDefinition definition : definitions) {
-            Future<Void> future = Future.future();
-            futures.add(future);
             subCmd.handle(definition, jsonObject);
-            discovery.publish(definition, ar -> {
-                if (ar.succeeded()) {
-                    future.complete();
-                } else {
-                    future.fail(ar.cause());
-                }
-            });
         }
-        CompositeFuture.all(futures)
-                .setHandler(ar -> {
-                    if (ar.succeeded()) {
-                        complete.complete(succeedResult());
-                    } else {
-                        complete.fail(ar.cause());
-                    }
-                });
+        //所有的API在一次修改中发布
+        discovery.publishAll(definitions, ar -> {
+            if (ar.succeeded()) {
+                complete.complete(succeedResult());
+            } else {
+                complete.fail(ar.cause());
+            }
+        });
     }
 
 }
@@ -8,12 +8,10 @@ import com.github.edgar615.gateway.core.apidiscovery.ApiDiscoveryOptions;
 import com.github.edgar615.gateway.core.cmd.ApiCmd;
 import com.github.edgar615.util.validation.Rule;
 import com.github.edgar615.util.validation.Validations;
-import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -82,25 +80,13 @@ class DeleteApiCmd implements ApiCmd {
 
     private void deleteByName(ApiDiscovery discovery, List<String> names,
                               Future<JsonObject> complete) {
-        List<Future> futures = new ArrayList<>();
-        for (String name : names) {
-            Future<Void> future = Future.future();
-            futures.add(future);
-            discovery.unpublish(name, ar -> {
-                if (ar.succeeded()) {
-                    future.complete();
-                } else {
-                    future.fail(ar.cause());
-                }
-            });
-        }
-        CompositeFuture.all(futures)
-                .setHandler(ar -> {
-                    if (ar.succeeded()) {
-                        complete.complete(succeedResult());
-                    } else {
-                        complete.fail(ar.cause());
-                    }
-                });
+        //所有的API在一次修改中删除
+        discovery.unpublishAll(names, ar -> {
+            if (ar.succeeded()) {
+                complete.complete(succeedResult());
+            } else {
+                complete.fail(ar.cause());
+            }
+        });
     }
 }
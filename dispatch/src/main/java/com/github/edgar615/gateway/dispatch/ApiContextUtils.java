@@ -1,24 +1,14 @@
 package com.github.edgar615.gateway.dispatch;
 
 import com.google.common.base.Strings;
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Multimap;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.util.exception.DefaultErrorCode;
-import com.github.edgar615.util.exception.SystemException;
-import io.vertx.core.MultiMap;
+import com.github.edgar615.gateway.core.dispatch.RequestIdGenerator;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServerRequest;
-import io.vertx.core.json.DecodeException;
-import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-import java.util.UUID;
-
 /**
  * Created by Edgar on 2016/10/14.
  *
@@ -29,55 +19,43 @@ public class ApiContextUtils {
         throw new AssertionError("Not instantiable: " + ApiContextUtils.class);
     }
 
-    private static Multimap<String, String> toMultimap(MultiMap multiMap) {
-        Multimap<String, String> guavaMultimap = ArrayListMultimap.create();
-        Set<String> names = multiMap.names();
-        for (String paramName : names) {
-            guavaMultimap.putAll(paramName, multiMap.getAll(paramName));
-        }
-        return guavaMultimap;
-    }
-
+    /**
+     * 创建API上下文.
+     * <p>
+     * 上下文直接使用请求中的请求头、请求参数和请求体，在filter第一次读取时才会解析.
+     * 请求ID和客户端IP优先使用BaseHandler中已经计算好的值.
+     *
+     * @param rc RoutingContext
+     * @return ApiContext
+     */
     public static ApiContext apiContext(RoutingContext rc) {
+        HttpServerRequest req = rc.request();
         String path = rc.normalisedPath();
-        HttpMethod method = rc.request().method();
-        Multimap<String, String> headers = toMultimap(rc.request().headers());
-        Multimap<String, String> params = toMultimap(rc.request().params());
-        JsonObject body = null;
+        HttpMethod method = req.method();
+        Buffer body = null;
         if (method == HttpMethod.POST || method == HttpMethod.PUT
             || method == HttpMethod.DELETE) {
-            if (rc.getBody() != null && rc.getBody().length() > 0) {
-                try {
-                    body = rc.getBodyAsJson();
-                } catch (DecodeException e) {
-                    throw SystemException.create(DefaultErrorCode.INVALID_JSON)
-                            .set("details", "Request body must be JSON Object");
-                }
-            }
+            body = rc.getBody();
+        }
+        String id = rc.get("x-request-id");
+        if (id == null) {
+            id = RequestIdGenerator.instance().nextId();
+        }
+        String clientIp = rc.get("x-client-ip");
+        if (clientIp == null) {
+            clientIp = getClientIp(req);
         }
-        String id = (String) rc.data().getOrDefault("x-request-id", UUID.randomUUID().toString());
         long createdOn = System.currentTimeMillis();
         rc.data().put("requestReceivedOn", createdOn);
-        ApiContext apiContext = ApiContext.create(id, method, path, headers, params, body);
+        ApiContext apiContext =
+                ApiContext.wrap(id, method, path, req.headers(), req.params(), body);
         apiContext.addVariable("requestReceivedOn", createdOn);
-        Map<String, Object> variables = getVariables(rc);
-        variables.forEach((key, value) -> apiContext.addVariable(key, value));
+        apiContext.addVariable("request_time", createdOn);
+        apiContext.addVariable("request_path", req.path());
+        apiContext.addVariable("request_clientIp", clientIp);
         return apiContext;
     }
 
-    private static Map<String, Object> getVariables(RoutingContext rc) {
-        Map<String, Object> variables = new HashMap<>();
-        HttpServerRequest req = rc.request();
-        variables.put("request_time", System.currentTimeMillis());
-//    variables.put("request.scheme", req.scheme());
-//    variables.put("request.method", req.method().name());
-//    variables.put("request.query_string", req.query());
-//    variables.put("request.uri", req.uri());
-        variables.put("request_path", req.path());
-        variables.put("request_clientIp", getClientIp(req));
-        return variables;
-    }
-
     private static String getClientIp(HttpServerRequest request) {
         String ip = request.getHeader("X-Forwarded-For");
         if (!Strings.isNullOrEmpty(ip) && !"unKnown".equalsIgnoreCase(ip)) {
@@ -1,32 +1,40 @@
 package com.github.edgar615.gateway.dispatch;
 
-import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
 
-import com.github.edgar615.gateway.core.metric.ApiMetric;
+import com.github.edgar615.gateway.core.dispatch.RequestIdGenerator;
+import com.github.edgar615.gateway.core.log.AccessLog;
+import com.github.edgar615.gateway.core.metric.ApiMetricHandle;
 import io.vertx.core.Handler;
-import io.vertx.core.MultiMap;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.ext.web.RoutingContext;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.UUID;
 
 /**
  * http请求的辅助类.所有的请求都可以接受这个处理类，该类主要做一下通用的设置然后就会将请求传递给下一个处理类.
  * <p>
  * 设置响应的content-type为application/json;charset=utf-8
+ * <p>
+ * 请求和响应的日志通过AccessLog异步记录.
  *
  * @author Edgar  Date 2016/2/18
  */
 public class BaseHandler implements Handler<RoutingContext> {
-    private static final Logger LOGGER = LoggerFactory.getLogger(BaseHandler.class);
+
+    private final AccessLog accessLog;
+
+    private BaseHandler(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
 
     public static Handler<RoutingContext> create() {
-        return new BaseHandler();
+        return new BaseHandler(AccessLog.instance());
+    }
+
+    public static Handler<RoutingContext> create(AccessLog accessLog) {
+        return new BaseHandler(accessLog);
     }
 
     @Override
@@ -34,17 +42,14 @@ public class BaseHandler implements Handler<RoutingContext> {
         rc.response().setChunked(true)
                 .putHeader("content-type", "application/json;charset=utf-8");
 
-        String id = UUID.randomUUID().toString();
+        String id = RequestIdGenerator.instance().nextId();
         rc.put("x-request-id", id);
         long start = System.currentTimeMillis();
         rc.put("x-request-time", start);
-        LOGGER.info("[{}] [SR] [HTTP] [{} {}] [{}] [{}] [{}] [{}]", id,
-                    rc.request().method().name(),
-                    rc.normalisedPath(),
-                    mutiMapToString(rc.request().headers(), "no header"),
-                    mutiMapToString(rc.request().params(), "no param"),
-                    body(rc), getClientIp(rc.request())
-        );
+        String clientIp = getClientIp(rc.request());
+        rc.put("x-client-ip", clientIp);
+        accessLog.serverReceived(id, start, rc.request().method(), rc.request().uri(),
+                                 rc.request().headers(), rc.getBody(), clientIp);
 
         rc.addHeadersEndHandler(v -> {
             rc.response().putHeader("x-server-time",
@@ -54,21 +59,13 @@ public class BaseHandler implements Handler<RoutingContext> {
 
         rc.addBodyEndHandler(v -> {
             long duration = System.currentTimeMillis() - start;
-            LOGGER.info("[{}] [SS] [HTTP] [{}] [{}] [{}bytes] [{}ms]", id,
-                        rc.response().getStatusCode(),
-                        mutiMapToString(rc.response().headers(), "no header"),
-                        rc.response().bytesWritten(),
-                        duration);
+            accessLog.serverSent(id, rc.response().getStatusCode(), rc.response().headers(),
+                                 rc.response().bytesWritten(), duration);
             responseMetric(rc, duration);
         });
         rc.next();
     }
 
-    private String body(RoutingContext rc) {
-        return (rc.getBody() == null || rc.getBody().length() == 0)
-                ? "no body" : rc.getBody().toString();
-    }
-
     private String getClientIp(HttpServerRequest request) {
         String ip = request.getHeader("X-Forwarded-For");
         if (!Strings.isNullOrEmpty(ip) && !"unKnown".equalsIgnoreCase(ip)) {
@@ -88,30 +85,14 @@ public class BaseHandler implements Handler<RoutingContext> {
     }
 
     private void responseMetric(RoutingContext rc, long duration) {
-        String namespace = (String) rc.data().get("namespace");
-        String apiName = (String) rc.data().get("apiName");
-        if (!Strings.isNullOrEmpty(apiName)
-            && !Strings.isNullOrEmpty(namespace)) {
+        ApiMetricHandle apiMetric = (ApiMetricHandle) rc.data().get("apiMetric");
+        if (apiMetric != null) {
             try {
-                ApiMetric.response(namespace, apiName, rc.response().getStatusCode(), duration);
+                apiMetric.response(rc.response().getStatusCode(), duration);
             } catch (Exception e) {
                 //ignore
             }
         }
     }
 
-    private String mutiMapToString(MultiMap map, String defaultString) {
-        StringBuilder s = new StringBuilder();
-        for (String key : map.names()) {
-            s.append(key)
-                    .append(":")
-                    .append(Joiner.on(",").join(map.getAll(key)))
-                    .append(";");
-        }
-        if (s.length() == 0) {
-            return defaultString;
-        }
-        return s.toString();
-    }
-
 }
\ No newline at end of file
@@ -1,17 +1,19 @@
 package com.github.edgar615.gateway.dispatch;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
+import com.github.edgar615.gateway.core.apidiscovery.ApiDiscovery;
+import com.github.edgar615.gateway.core.apidiscovery.ApiDiscoveryOptions;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
 import com.github.edgar615.gateway.core.dispatch.Filter;
 import com.github.edgar615.gateway.core.dispatch.FilterFactory;
 import com.github.edgar615.gateway.core.dispatch.Result;
+import com.github.edgar615.gateway.core.metric.FilterMetrics;
 import com.github.edgar615.gateway.core.utils.Consts;
 import com.github.edgar615.gateway.core.utils.Filters;
-import com.github.edgar615.util.vertx.task.Task;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 import org.slf4j.Logger;
@@ -20,8 +22,8 @@ import org.slf4j.LoggerFactory;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * API请求的处理类.
@@ -38,15 +40,17 @@ import java.util.stream.Collectors;
  * 调用方                                                                            RPC -> 微服务
  *               <- POST Filter <- POST Filter <- POST Filter
  * </pre>
+ * 每个API的执行计划（FilterPlan）在注册表的每个版本中只计算一次，找到API之后，Filter.supports返回false的filter直接跳过.
+ * 连续的SyncFilter在同一个循环中执行，只有异步的filter需要等待Future完成.
  * Created by edgar on 16-9-12.
  */
 public class DispatchHandler implements Handler<RoutingContext> {
     private static final Logger LOGGER = LoggerFactory.getLogger(DispatchHandler.class);
 
     /**
-     * 过滤器集合
+     * 过滤器链，PRE类型的filter在POST类型的filter之前
      */
-    private final List<Filter> filters;
+    private final FilterChain filterChain;
 
     private final String namespace;
 
@@ -56,11 +60,26 @@ public class DispatchHandler implements Handler<RoutingContext> {
                 .stream().map(f -> f.create(vertx, config))
                 .collect(Collectors.toList());
         Filters.sort(filterList);
-        this.filters = ImmutableList.copyOf(filterList);
-        this.filters.forEach(filter -> {
+        Filter[] filters = Stream.concat(
+                filterList.stream().filter(f -> Filter.PRE.equalsIgnoreCase(f.type())),
+                filterList.stream().filter(f -> Filter.POST.equalsIgnoreCase(f.type())))
+                .toArray(Filter[]::new);
+        for (Filter filter : filters) {
             Filter.LOGGER.info("[ApiGateway] [Filter] [{}] [{}] [{}]",
                                filter.getClass().getSimpleName(), filter.type(), filter.order());
-        });
+        }
+        JsonObject dicoveryConfig = config.getJsonObject("api.discovery", new JsonObject());
+        ApiDiscovery discovery =
+                ApiDiscovery.create(vertx, new ApiDiscoveryOptions(dicoveryConfig));
+        //filter.metrics为false时不统计每个filter的耗时
+        FilterMetrics metrics = config.getBoolean("filter.metrics", true)
+                ? FilterMetrics.instance() : null;
+        //注册表的版本变化后删除已经下线的API的度量值
+        MetricsEvictor evictor = MetricsEvictor.instance();
+        evictor.register(vertx, namespace, discovery);
+        this.filterChain = new FilterChain(filters, discovery::generation, metrics,
+                                           generation -> evictor.evict(vertx, discovery,
+                                                                       generation));
     }
 
     /**
@@ -78,36 +97,33 @@ public class DispatchHandler implements Handler<RoutingContext> {
     public void handle(RoutingContext rc) {
         rc.data().put("namespace", namespace);
         //创建上下文
-        Task<ApiContext> task = Task.create();
-        task.complete(ApiContextUtils.apiContext(rc));
-        task = doFilter(task, f -> Filter.PRE.equalsIgnoreCase(f.type()), rc);
-        task = doFilter(task, f -> Filter.POST.equalsIgnoreCase(f.type()), rc);
-        task = task.andThen("Response", apiContext -> response(rc, apiContext));
-//    task = doFilter(task, f -> Filter.AFTER_RESP.equalsIgnoreCase(f.type()));
-        task.onFailure(throwable -> rc.fail(throwable));
-    }
-
-    /**
-     * 执行filter，在每个filter执行成功完后将apiContext存入RoutingContext用于度量处理
-     *
-     * @param task
-     * @param filterPredicate
-     * @param rc
-     * @return
-     */
-    public Task<ApiContext> doFilter(Task<ApiContext> task, Predicate<Filter> filterPredicate,
-                                     RoutingContext rc) {
-        List<Filter> postFilters = filters.stream()
-                .filter(filterPredicate)
-                .collect(Collectors.toList());
-        return Filters
-                .doFilter(task, postFilters, apiContext -> {
-                    if (apiContext.apiDefinition() != null) {
-                        rc.data().put("apiName", apiContext.apiDefinition().name());
-                    } else {
-                        System.out.println(postFilters);
-                    }
-                });
+        ApiContext apiContext = ApiContextUtils.apiContext(rc);
+        //找到API后记录请求数，并将API的名称和响应的度量值存入RoutingContext用于度量处理
+        filterChain.execute(apiContext, plan -> {
+            if (!rc.data().containsKey("apiName")) {
+                try {
+                    plan.requestMetric().request();
+                } catch (Exception e) {
+                    //ignore
+                }
+            }
+            rc.data().put("apiName", plan.apiDefinition().name());
+            try {
+                rc.data().put("apiMetric", plan.responseMetric(namespace));
+            } catch (Exception e) {
+                //ignore
+            }
+        }, null, ar -> {
+            if (ar.failed()) {
+                rc.fail(ar.cause());
+                return;
+            }
+            try {
+                response(rc, ar.result());
+            } catch (Exception e) {
+                rc.fail(e);
+            }
+        });
     }
 
     private void response(RoutingContext rc, ApiContext apiContext) {
@@ -115,7 +131,6 @@ public class DispatchHandler implements Handler<RoutingContext> {
         rc.response().putHeader("x-request-id", apiContext.id());
         Result result = apiContext.result();
         int statusCode = result.statusCode();
-        boolean isArray = result.isArray();
         //设置请求头
         for (Map.Entry<String, Object> entry : apiContext.variables().entrySet()) {
             if (entry.getKey().startsWith(Consts.RESPONSE_HEADER)) {
@@ -124,17 +139,12 @@ public class DispatchHandler implements Handler<RoutingContext> {
             }
         }
 //todo 格式化输出的判断 - **pretty**:  bool 是否开启格式化 ， 默认为false
-        if (isArray) {
-            rc.response()
-                    .setStatusCode(statusCode)
-                    .setChunked(true)
-                    .end(result.responseArray().encode());
-        } else {
-            rc.response()
-                    .setStatusCode(statusCode)
-                    .setChunked(true)
-                    .end(result.responseObject().encode());
-        }
+        //透传的响应直接输出原始的字节，其他响应只编码一次
+        Buffer body = result.toBuffer();
+        rc.response()
+                .setStatusCode(statusCode)
+                .setChunked(true)
+                .end(body);
     }
 
 }
@@ -1,5 +1,6 @@
 package com.github.edgar615.gateway.dispatch;
 
+import com.github.edgar615.gateway.core.dispatch.RequestIdGenerator;
 import com.github.edgar615.gateway.core.eventbus.EventbusUtils;
 import com.github.edgar615.gateway.core.utils.Consts;
 import com.github.edgar615.util.exception.DefaultErrorCode;
@@ -16,7 +17,6 @@ import org.slf4j.LoggerFactory;
 
 import java.net.ConnectException;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * 异常的处理类.
@@ -38,7 +38,10 @@ public class FailureHandler implements Handler<RoutingContext> {
     }
 
     public void doHandle(RoutingContext rc, Throwable throwable) {
-        String id = (String) rc.data().getOrDefault("x-request-id", UUID.randomUUID().toString());
+        String id = rc.get("x-request-id");
+        if (id == null) {
+            id = RequestIdGenerator.instance().nextId();
+        }
         rc.data().put("responsedOn", System.currentTimeMillis());
         JsonObject failureMsg = new JsonObject();
         HttpServerResponse response = rc.response();
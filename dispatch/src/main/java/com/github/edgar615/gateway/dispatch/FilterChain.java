@@ -0,0 +1,272 @@
+package com.github.edgar615.gateway.dispatch;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.gateway.core.dispatch.ApiContext;
+import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
+import com.github.edgar615.gateway.core.metric.FilterMetrics;
+import com.github.edgar615.gateway.core.metric.FilterStats;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 按顺序执行filter.
+ * <p>
+ * 找到API之前会检查所有的filter，找到API之后只检查执行计划（FilterPlan）中的filter.
+ * 找到API之后先检查请求体，之后的filter读取请求体不会再抛出INVALID_JSON.
+ * SyncFilter在同一个循环中直接执行，只有异步的filter才会创建Future并在完成后从下一个filter继续执行.
+ * <p>
+ * 设置了FilterMetrics时，记录每个filter在每个API上的耗时（纳秒）、执行次数、跳过次数和失败次数.
+ * 为了减少System.nanoTime的调用，上一个filter的结束时间就是下一个filter的开始时间，
+ * 所以一个filter的耗时也包括它之前被跳过的filter的shouldFilter的耗时.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+final class FilterChain {
+
+    private final Filter[] filters;
+
+    private final String[] filterNames;
+
+    private final LongSupplier generation;
+
+    private final FilterMetrics metrics;
+
+    /**
+     * 注册表版本变化后的回调
+     */
+    private final LongConsumer generationChanged;
+
+    /**
+     * 找到API之前执行的filter的统计
+     */
+    private final FilterStats[] unmatchedStats;
+
+    private volatile FilterPlanTable planTable;
+
+    /**
+     * @param filters    按执行顺序排列的filter
+     * @param generation 注册表的版本，版本变化后重新计算执行计划
+     */
+    FilterChain(Filter[] filters, LongSupplier generation) {
+        this(filters, generation, null);
+    }
+
+    /**
+     * @param filters    按执行顺序排列的filter
+     * @param generation 注册表的版本，版本变化后重新计算执行计划
+     * @param metrics    filter的统计，null表示不统计
+     */
+    FilterChain(Filter[] filters, LongSupplier generation, FilterMetrics metrics) {
+        this(filters, generation, metrics, null);
+    }
+
+    /**
+     * @param filters           按执行顺序排列的filter
+     * @param generation        注册表的版本，版本变化后重新计算执行计划
+     * @param metrics           filter的统计，null表示不统计
+     * @param generationChanged 重新计算执行计划时的回调，参数是新的版本，可以为null
+     */
+    FilterChain(Filter[] filters, LongSupplier generation, FilterMetrics metrics,
+                LongConsumer generationChanged) {
+        this.filters = filters;
+        this.generation = generation;
+        this.metrics = metrics;
+        this.generationChanged = generationChanged;
+        this.filterNames = new String[filters.length];
+        for (int i = 0; i < filters.length; i++) {
+            //匿名类没有simpleName
+            String simpleName = filters[i].getClass().getSimpleName();
+            filterNames[i] = simpleName.isEmpty() ? filters[i].getClass().getName() : simpleName;
+        }
+        if (metrics == null) {
+            this.unmatchedStats = null;
+        } else {
+            this.unmatchedStats = new FilterStats[filters.length];
+            for (int i = 0; i < filters.length; i++) {
+                unmatchedStats[i] = metrics.stats(FilterMetrics.UNMATCHED, filterNames[i]);
+            }
+        }
+        this.planTable = new FilterPlanTable(generation.getAsLong(), filters);
+    }
+
+    /**
+     * 执行所有的filter.
+     *
+     * @param apiContext    API上下文
+     * @param filterEnded   每个filter执行成功后的回调
+     * @param resultHandler 所有filter执行完成或者某个filter失败后的回调
+     */
+    void execute(ApiContext apiContext, Handler<ApiContext> filterEnded,
+                 Handler<AsyncResult<ApiContext>> resultHandler) {
+        execute(apiContext, null, filterEnded, resultHandler);
+    }
+
+    /**
+     * 执行所有的filter.
+     *
+     * @param apiContext    API上下文
+     * @param planChanged   找到API或者API变化后的回调，参数是API的执行计划，可以为null
+     * @param filterEnded   每个filter执行成功后的回调，可以为null
+     * @param resultHandler 所有filter执行完成或者某个filter失败后的回调
+     */
+    void execute(ApiContext apiContext, Handler<FilterPlan> planChanged,
+                 Handler<ApiContext> filterEnded,
+                 Handler<AsyncResult<ApiContext>> resultHandler) {
+        long mark = metrics == null ? 0 : System.nanoTime();
+        execute(apiContext, 0, null, mark, planChanged, filterEnded, resultHandler);
+    }
+
+    /**
+     * @param mark 上一个filter结束的时间，没有统计时为0
+     */
+    private void execute(ApiContext apiContext, int index, FilterPlan plan, long mark,
+                         Handler<FilterPlan> planChanged, Handler<ApiContext> filterEnded,
+                         Handler<AsyncResult<ApiContext>> resultHandler) {
+        boolean debug = Filter.LOGGER.isDebugEnabled();
+        FilterStats stats = null;
+        int asyncIndex = -1;
+        ApiContext asyncContext = null;
+        Future<ApiContext> asyncFuture = null;
+        try {
+            for (int i = index; i < filters.length; i++) {
+                stats = null;
+                Filter filter = filters[i];
+                ApiDefinition apiDefinition = apiContext.apiDefinition();
+                if (apiDefinition != null) {
+                    if (plan == null || plan.apiDefinition() != apiDefinition) {
+                        plan = plan(apiDefinition);
+                        apiContext.setAttribute(ApiContext.PASS_THROUGH, plan.passThrough());
+                        checkBody(apiContext, plan);
+                        if (planChanged != null) {
+                            planChanged.handle(plan);
+                        }
+                    }
+                    if (!plan.accept(i)) {
+                        continue;
+                    }
+                }
+                if (metrics != null) {
+                    stats = apiDefinition == null ? unmatchedStats[i]
+                            : plan.stats(metrics, filterNames)[i];
+                }
+                if (!filter.shouldFilter(apiContext)) {
+                    if (stats != null) {
+                        stats.skip();
+                    }
+                    continue;
+                }
+                long filterStarted = 0;
+                if (debug) {
+                    Filter.LOGGER.debug("[{}] [filterStart] [{}]", apiContext.id(), filterNames[i]);
+                    filterStarted = System.currentTimeMillis();
+                }
+                if (filter instanceof SyncFilter) {
+                    apiContext = ((SyncFilter) filter).doFilter(apiContext.copy());
+                    if (stats != null) {
+                        long now = System.nanoTime();
+                        stats.record(now - mark, false);
+                        mark = now;
+                    }
+                    filterEnd(apiContext, i, filterStarted, filterEnded);
+                    continue;
+                }
+                int filterIndex = i;
+                FilterPlan current = plan;
+                FilterStats currentStats = stats;
+                long started = filterStarted;
+                long filterMark = mark;
+                Future<ApiContext> completeFuture = Future.future();
+                completeFuture.setHandler(ar -> {
+                    long now = 0;
+                    if (currentStats != null) {
+                        now = System.nanoTime();
+                        currentStats.record(now - filterMark, ar.failed());
+                    }
+                    if (ar.failed()) {
+                        resultHandler.handle(Future.failedFuture(ar.cause()));
+                        return;
+                    }
+                    filterEnd(ar.result(), filterIndex, started, filterEnded);
+                    execute(ar.result(), filterIndex + 1, current, now, planChanged,
+                            filterEnded, resultHandler);
+                });
+                asyncIndex = i;
+                asyncContext = apiContext.copy();
+                asyncFuture = completeFuture;
+                break;
+            }
+        } catch (Exception e) {
+            if (stats != null) {
+                stats.record(System.nanoTime() - mark, true);
+            }
+            resultHandler.handle(Future.failedFuture(e));
+            return;
+        }
+        if (asyncIndex < 0) {
+            resultHandler.handle(Future.succeededFuture(apiContext));
+            return;
+        }
+        //异步filter在try之外执行：filter同步完成时，之后的filter已经在completeFuture的回调中执行完毕，
+        //这时抛出的异常不能再交给resultHandler
+        try {
+            filters[asyncIndex].doFilter(asyncContext, asyncFuture);
+        } catch (Exception e) {
+            if (!asyncFuture.tryFail(e)) {
+                Filter.LOGGER.error("[{}] [filterFailed] [{}]", asyncContext.id(),
+                                    filterNames[asyncIndex], e);
+            }
+        }
+    }
+
+    /**
+     * 找到API之后立即检查请求体，请求体不是JSON对象时由当前的try处理，
+     * 不会在之后某个filter的异步回调中失败，错误码也不会因为filter的顺序而变化.
+     * 透传的API只检查原始的请求体，不解析JSON.
+     *
+     * @param apiContext API上下文
+     * @param plan       API的执行计划
+     */
+    private void checkBody(ApiContext apiContext, FilterPlan plan) {
+        if (plan.passThrough()) {
+            apiContext.rawBody();
+        } else {
+            apiContext.body();
+        }
+    }
+
+    private void filterEnd(ApiContext apiContext, int index, long filterStarted,
+                           Handler<ApiContext> filterEnded) {
+        if (Filter.LOGGER.isDebugEnabled()) {
+            Filter.LOGGER.debug("[{}] [filterEnd] [{}] [{}ms] {}", apiContext.id(),
+                                filterNames[index], System.currentTimeMillis() - filterStarted,
+                                apiContext.journal());
+        }
+        if (filterEnded != null) {
+            filterEnded.handle(apiContext);
+        }
+    }
+
+    /**
+     * 查找API的执行计划，注册表的版本变化后重新计算，并通知generationChanged.
+     *
+     * @param apiDefinition API
+     * @return FilterPlan
+     */
+    private FilterPlan plan(ApiDefinition apiDefinition) {
+        long generation = this.generation.getAsLong();
+        FilterPlanTable table = this.planTable;
+        if (table.generation() != generation) {
+            table = new FilterPlanTable(generation, filters);
+            this.planTable = table;
+            if (generationChanged != null) {
+                generationChanged.accept(generation);
+            }
+        }
+        return table.plan(apiDefinition);
+    }
+}
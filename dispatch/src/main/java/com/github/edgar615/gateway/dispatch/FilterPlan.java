@@ -0,0 +1,145 @@
+package com.github.edgar615.gateway.dispatch;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.metric.ApiMetric;
+import com.github.edgar615.gateway.core.metric.ApiMetricHandle;
+import com.github.edgar615.gateway.core.metric.FilterMetrics;
+import com.github.edgar615.gateway.core.metric.FilterStats;
+
+/**
+ * 一个API的执行计划.
+ * <p>
+ * 根据Filter.supports预先计算这个API需要执行的filter，请求中只对这些filter调用shouldFilter，其他的filter直接跳过.
+ * accepted的下标和DispatchHandler中filter数组的下标一致.
+ * 是否透传请求体（{@link ApiDefinition#passThrough()}）也在创建执行计划时计算，同一个版本的注册表中每个API只计算一次.
+ *
+ * @author Edgar  Date 2018/12/14
+ */
+final class FilterPlan {
+
+    private final ApiDefinition apiDefinition;
+
+    private final boolean[] accepted;
+
+    private final int size;
+
+    private final boolean passThrough;
+
+    /**
+     * 需要执行的filter的统计，第一次使用时查找
+     */
+    private volatile FilterStats[] stats;
+
+    /**
+     * API请求的度量值，第一次使用时查找
+     */
+    private volatile ApiMetricHandle requestMetric;
+
+    /**
+     * API响应的度量值，第一次使用时查找
+     */
+    private volatile ApiMetricHandle responseMetric;
+
+    private FilterPlan(ApiDefinition apiDefinition, boolean[] accepted, int size) {
+        this.apiDefinition = apiDefinition;
+        this.accepted = accepted;
+        this.size = size;
+        this.passThrough = apiDefinition.passThrough();
+    }
+
+    /**
+     * 创建执行计划.
+     *
+     * @param apiDefinition API
+     * @param filters       排序后的filter
+     * @return FilterPlan
+     */
+    static FilterPlan create(ApiDefinition apiDefinition, Filter[] filters) {
+        boolean[] accepted = new boolean[filters.length];
+        int size = 0;
+        for (int i = 0; i < filters.length; i++) {
+            accepted[i] = filters[i].supports(apiDefinition);
+            if (accepted[i]) {
+                size++;
+            }
+        }
+        return new FilterPlan(apiDefinition, accepted, size);
+    }
+
+    ApiDefinition apiDefinition() {
+        return apiDefinition;
+    }
+
+    /**
+     * @return true 直接透传请求体和响应体
+     */
+    boolean passThrough() {
+        return passThrough;
+    }
+
+    /**
+     * @param index filter的下标
+     * @return true 需要调用filter的shouldFilter
+     */
+    boolean accept(int index) {
+        return accepted[index];
+    }
+
+    /**
+     * 返回需要执行的filter的统计，下标和filter数组的下标一致，不需要执行的filter为null.
+     *
+     * @param metrics     统计
+     * @param filterNames filter的名称
+     * @return FilterStats数组
+     */
+    FilterStats[] stats(FilterMetrics metrics, String[] filterNames) {
+        FilterStats[] current = stats;
+        if (current == null) {
+            current = new FilterStats[accepted.length];
+            for (int i = 0; i < accepted.length; i++) {
+                if (accepted[i]) {
+                    current[i] = metrics.stats(apiDefinition.name(), filterNames[i]);
+                }
+            }
+            stats = current;
+        }
+        return current;
+    }
+
+    /**
+     * 返回API请求的度量值.
+     *
+     * @return ApiMetricHandle
+     */
+    ApiMetricHandle requestMetric() {
+        ApiMetricHandle current = requestMetric;
+        if (current == null) {
+            current = ApiMetric.apiHandle(apiDefinition.name());
+            requestMetric = current;
+        }
+        return current;
+    }
+
+    /**
+     * 返回API响应的度量值，同一个DispatchHandler的namespace不会变化，所以只查找一次.
+     *
+     * @param namespace 命名空间
+     * @return ApiMetricHandle
+     */
+    ApiMetricHandle responseMetric(String namespace) {
+        ApiMetricHandle current = responseMetric;
+        if (current == null) {
+            current = ApiMetric.handle(namespace, apiDefinition.name());
+            responseMetric = current;
+        }
+        return current;
+    }
+
+    /**
+     * @return 需要执行的filter的数量
+     */
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.edgar615.gateway.dispatch;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.gateway.core.dispatch.Filter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 某个版本的注册表对应的执行计划.
+ * <p>
+ * 注册表中的API在发布后不会被修改（ApiDefinition按引用比较），所以每个API只需要计算一次执行计划.
+ * 注册表的版本变化后，DispatchHandler会创建一个新的FilterPlanTable，旧的执行计划随之释放.
+ *
+ * @author Edgar  Date 2018/12/14
+ */
+final class FilterPlanTable {
+
+    private final long generation;
+
+    private final Filter[] filters;
+
+    private final Map<ApiDefinition, FilterPlan> plans = new ConcurrentHashMap<>();
+
+    FilterPlanTable(long generation, Filter[] filters) {
+        this.generation = generation;
+        this.filters = filters;
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * 查找API的执行计划，不存在时创建.
+     *
+     * @param apiDefinition API
+     * @return FilterPlan
+     */
+    FilterPlan plan(ApiDefinition apiDefinition) {
+        FilterPlan plan = plans.get(apiDefinition);
+        if (plan == null) {
+            plan = FilterPlan.create(apiDefinition, filters);
+            plans.putIfAbsent(apiDefinition, plan);
+        }
+        return plan;
+    }
+
+    int size() {
+        return plans.size();
+    }
+}
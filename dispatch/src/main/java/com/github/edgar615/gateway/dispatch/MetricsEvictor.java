@@ -0,0 +1,138 @@
+package com.github.edgar615.gateway.dispatch;
+
+import com.github.edgar615.gateway.core.apidiscovery.ApiDiscovery;
+import com.github.edgar615.gateway.core.apidiscovery.ApiRegistrySnapshot;
+import com.github.edgar615.gateway.core.metric.ApiMetric;
+import com.github.edgar615.gateway.core.metric.FilterMetrics;
+import io.vertx.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 删除已经下线的API的度量值，避免API名称一直累积.
+ * <p>
+ * ApiMetric和FilterMetrics在整个JVM中共享，按API名称统计，而注册表是每个Vertx一份.
+ * 每个Vertx的注册表版本变化后，由这个Vertx中第一个发现变化的DispatchHandler删除一次，
+ * 删除时处理所有命名空间的度量值，只删除在所有Vertx的注册表中都不存在的API.
+ * 删除时需要遍历所有的度量值，在worker线程中执行.
+ *
+ * @author Edgar  Date 2018/12/17
+ */
+final class MetricsEvictor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsEvictor.class);
+
+    private static final MetricsEvictor INSTANCE = new MetricsEvictor();
+
+    /**
+     * Vertx -> 这个Vertx的注册表，Vertx被回收后自动删除
+     */
+    private final Map<Vertx, Registry> registries = new WeakHashMap<>();
+
+    /**
+     * 所有DispatchHandler的命名空间，响应的度量值按命名空间统计
+     */
+    private final Set<String> namespaces = new HashSet<>();
+
+    static MetricsEvictor instance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 注册一个DispatchHandler的命名空间和注册表.
+     *
+     * @param vertx     Vertx对象
+     * @param namespace 命名空间
+     * @param discovery ApiDiscovery
+     */
+    synchronized void register(Vertx vertx, String namespace, ApiDiscovery discovery) {
+        namespaces.add(namespace);
+        registry(vertx, discovery);
+    }
+
+    /**
+     * 注册表的版本变化后删除已经下线的API的度量值，同一个Vertx中每个版本只删除一次.
+     *
+     * @param vertx      Vertx对象
+     * @param discovery  ApiDiscovery
+     * @param generation 注册表的版本
+     */
+    void evict(Vertx vertx, ApiDiscovery discovery, long generation) {
+        synchronized (this) {
+            Registry registry = registry(vertx, discovery);
+            if (registry.evictedGeneration >= generation) {
+                return;
+            }
+            registry.evictedGeneration = generation;
+        }
+        vertx.executeBlocking(f -> {
+            retain();
+            f.complete();
+        }, false, ar -> {
+            if (ar.failed()) {
+                LOGGER.warn("[ApiGateway] [evictMetrics] failed", ar.cause());
+            }
+        });
+    }
+
+    /**
+     * 删除所有Vertx的注册表中都不存在的API的度量值.
+     */
+    void retain() {
+        List<ApiRegistrySnapshot> snapshots = new ArrayList<>();
+        Set<String> types;
+        synchronized (this) {
+            for (Registry registry : registries.values()) {
+                ApiDiscovery discovery = registry.discovery.get();
+                if (discovery != null) {
+                    snapshots.add(discovery.snapshot());
+                }
+            }
+            types = new HashSet<>(namespaces);
+        }
+        Predicate<String> published = name -> {
+            for (ApiRegistrySnapshot snapshot : snapshots) {
+                if (snapshot.definition(name) != null) {
+                    return true;
+                }
+            }
+            return false;
+        };
+        FilterMetrics.instance().retain(published);
+        ApiMetric.retain(ApiMetric.API, published);
+        for (String type : types) {
+            ApiMetric.retain(type, published);
+        }
+    }
+
+    private Registry registry(Vertx vertx, ApiDiscovery discovery) {
+        Registry registry = registries.computeIfAbsent(vertx, k -> new Registry());
+        //ApiDiscovery引用了Vertx，只保存弱引用，否则Vertx永远不会被回收
+        if (registry.discovery.get() != discovery) {
+            registry.discovery = new WeakReference<>(discovery);
+        }
+        return registry;
+    }
+
+    private static class Registry {
+
+        /**
+         * 同一个Vertx中的ApiDiscovery共享注册表，使用任意一个即可
+         */
+        private WeakReference<ApiDiscovery> discovery = new WeakReference<>(null);
+
+        /**
+         * 已经删除过度量值的注册表版本
+         */
+        private long evictedGeneration;
+    }
+}
@@ -4,6 +4,7 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
@@ -55,6 +56,22 @@ public abstract class AbstractReplaceFilter {
 
     }
 
+    /**
+     * 透传的请求体和响应体没有解析为JSON，只有包含以$开头的字符串时才需要解析之后替换.
+     * 这里只查找"$，属性名以$开头时也会返回true，只是多解析一次.
+     *
+     * @param body 原始的请求体或响应体
+     * @return 可能有需要替换的变量返回true
+     */
+    protected boolean hasPlaceholder(Buffer body) {
+        for (int i = 0, last = body.length() - 1; i < last; i++) {
+            if (body.getByte(i) == '"' && body.getByte(i + 1) == '$') {
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected JsonObject replaceBody(ApiContext apiContext, JsonObject body) {
         JsonObject newBody = new JsonObject();
         if (body != null) {
@@ -1,9 +1,9 @@
 package com.github.edgar615.gateway.filter;
 
+import com.github.edgar615.gateway.core.definition.AntPathApiDefinition;
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
-import com.github.edgar615.gateway.core.utils.AntPathMatcher;
-import io.vertx.core.Future;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,7 +16,7 @@ import org.slf4j.LoggerFactory;
  * <p>
  * Created by edgar on 18-1-11.
  */
-public class AntPathParamFilter implements Filter {
+public class AntPathParamFilter implements SyncFilter {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AntPathParamFilter.class);
 
@@ -37,12 +37,16 @@ public class AntPathParamFilter implements Filter {
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
-        AntPathMatcher matcher = new AntPathMatcher.Builder().build();
-        String pattern = apiContext.apiDefinition().path();
-        String extractPath = matcher.extractPathWithinPattern(pattern, apiContext.path());
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.antStyle();
+    }
+
+    @Override
+    public ApiContext doFilter(ApiContext apiContext) {
+        AntPathApiDefinition apiDefinition = (AntPathApiDefinition) apiContext.apiDefinition();
+        String extractPath = apiDefinition.pattern().extractPathWithinPattern(apiContext.path());
         apiContext.addVariable("extractPath", extractPath);
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
 }
@@ -2,6 +2,7 @@ package com.github.edgar615.gateway.filter;
 
 import com.github.edgar615.gateway.core.apidiscovery.ApiDiscovery;
 import com.github.edgar615.gateway.core.apidiscovery.ApiDiscoveryOptions;
+import com.github.edgar615.gateway.core.apidiscovery.RouteMatches;
 import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
 import com.github.edgar615.gateway.core.dispatch.Filter;
@@ -13,9 +14,7 @@ import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * 该filter根据请求从API路由注册表中读取到对应的API定义.
@@ -56,6 +55,12 @@ public class ApiFindFilter implements Filter {
         return apiContext.apiDefinition() == null;
     }
 
+    @Override
+    public boolean supports(ApiDefinition apiDefinition) {
+        //已经找到API的请求不需要再查找
+        return false;
+    }
+
     @Override
     public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
         discovery.filter(apiContext.method().name(), apiContext.path(), ar -> {
@@ -67,7 +72,13 @@ public class ApiFindFilter implements Filter {
                 List<ApiDefinition> apiDefinitions = ar.result();
                 ApiDefinition apiDefinition =
                         extractApi(apiContext, ApiDefinition.extractInOrder(apiDefinitions));
-                completeFuture.complete(apiContext.setApiDefinition(apiDefinition));
+                apiContext.setApiDefinition(apiDefinition);
+                //正则路由在匹配时已经读取了分组，PathParamFilter不需要再匹配一次
+                String[] pathGroups = RouteMatches.pathGroups(apiDefinitions, apiDefinition);
+                if (pathGroups != null) {
+                    apiContext.setAttribute(RouteMatches.PATH_GROUPS, pathGroups);
+                }
+                completeFuture.complete(apiContext);
                 return;
             } catch (SystemException e) {
                 failed(completeFuture, apiContext.id(), "ApiFindFailure", e);
@@ -80,50 +91,53 @@ public class ApiFindFilter implements Filter {
     }
 
     private boolean predicate(ApiContext context, ApiDefinition apiDefinition) {
-        if (apiDefinition.plugin(PredicatePlugin.class.getSimpleName()) == null) {
-            return true;
-        }
-        PredicatePlugin predicatePlugin =
-                (PredicatePlugin) apiDefinition.plugin(PredicatePlugin.class.getSimpleName());
-        return predicatePlugin.predicates().stream().allMatch(p -> p.test(context));
+        PredicatePlugin predicatePlugin = apiDefinition.plugin(PredicatePlugin.class);
+        return predicatePlugin == null || predicatePlugin.test(context);
     }
 
     private int order(ApiDefinition definition) {
-        OrderPlugin orderPlugin =
-                (OrderPlugin) definition.plugin(OrderPlugin.class.getSimpleName());
+        OrderPlugin orderPlugin = definition.plugin(OrderPlugin.class);
         if (orderPlugin != null) {
             return orderPlugin.order();
         }
         return Integer.MAX_VALUE;
     }
 
-
+    /**
+     * 从满足条件的API中选择order最小的API，不需要对所有的API排序.
+     * 如果order最小的API有多个，无法确定使用哪个API.
+     */
     private ApiDefinition extractApi(ApiContext context, List<ApiDefinition> apiDefinitions) {
-        List<ApiDefinition> predicateList = apiDefinitions.stream()
-                .filter(d -> predicate(context, d))
-                .collect(Collectors.toList());
-        if (predicateList.isEmpty()) {//没有API
+        ApiDefinition selected = null;
+        int selectedOrder = 0;
+        boolean conflict = false;
+        for (int i = 0; i < apiDefinitions.size(); i++) {
+            ApiDefinition definition = apiDefinitions.get(i);
+            if (!predicate(context, definition)) {
+                continue;
+            }
+            int order = order(definition);
+            if (selected == null || order < selectedOrder) {
+                selected = definition;
+                selectedOrder = order;
+                conflict = false;
+            } else if (order == selectedOrder) {
+                conflict = true;
+            }
+        }
+        if (selected == null) {//没有API
             throw SystemException.create(DefaultErrorCode.RESOURCE_NOT_FOUND)
                     .set("details", String.format("Api: %s:%s",
                                                   context.method().name(),
                                                   context.path()));
         }
-        if (predicateList.size() == 1) {//只有一个
-            return predicateList.get(0);
-        }
-        //有多个，用order排序
-        List<ApiDefinition> sortedDefinitions =
-                predicateList.stream().sorted(Comparator.comparingInt(this::order))
-                        .collect(Collectors.toList());
-        ApiDefinition d1 = sortedDefinitions.get(0);
-        ApiDefinition d2 = sortedDefinitions.get(1);
-        if (order(d1) == order(d2)) {
+        if (conflict) {
             throw SystemException.create(DefaultErrorCode.CONFLICT)
                     .set("details", String.format("Api: %s:%s",
                                                   context.method().name(),
                                                   context.path()));
         }
-        return d1;
+        return selected;
     }
 
 }
@@ -1,12 +1,12 @@
 package com.github.edgar615.gateway.filter;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.definition.DummyEndpoint;
 import com.github.edgar615.gateway.core.definition.Endpoint;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.gateway.core.rpc.RpcRequest;
 import com.github.edgar615.gateway.core.rpc.dummy.DummyRequest;
-import io.vertx.core.Future;
 import io.vertx.core.json.JsonObject;
 
 /**
@@ -14,7 +14,7 @@ import io.vertx.core.json.JsonObject;
  *
  * @author Edgar  Date 2016/11/18
  */
-public class DummyRequestFilter implements Filter {
+public class DummyRequestFilter implements SyncFilter {
 
     DummyRequestFilter() {
     }
@@ -36,12 +36,18 @@ public class DummyRequestFilter implements Filter {
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.endpoints().stream()
+                .anyMatch(e -> e instanceof DummyEndpoint);
+    }
+
+    @Override
+    public ApiContext doFilter(ApiContext apiContext) {
         apiContext.apiDefinition().endpoints().stream()
                 .filter(e -> e instanceof DummyEndpoint)
                 .map(e -> toRpc(apiContext, e))
                 .forEach(req -> apiContext.addRequest(req));
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
 
@@ -2,13 +2,13 @@ package com.github.edgar615.gateway.filter;
 
 import com.google.common.collect.Multimap;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.definition.Endpoint;
 import com.github.edgar615.gateway.core.definition.EventbusEndpoint;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.gateway.core.rpc.RpcRequest;
 import com.github.edgar615.gateway.core.rpc.eventbus.EventbusRpcRequest;
-import io.vertx.core.Future;
 import io.vertx.core.json.JsonObject;
 
 /**
@@ -19,7 +19,7 @@ import io.vertx.core.json.JsonObject;
  *
  * @author Edgar  Date 2016/11/18
  */
-public class EventBusRequestFilter implements Filter {
+public class EventBusRequestFilter implements SyncFilter {
 
     EventBusRequestFilter() {
     }
@@ -41,12 +41,18 @@ public class EventBusRequestFilter implements Filter {
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.endpoints().stream()
+                .anyMatch(e -> e instanceof EventbusEndpoint);
+    }
+
+    @Override
+    public ApiContext doFilter(ApiContext apiContext) {
         apiContext.apiDefinition().endpoints().stream()
                 .filter(e -> e instanceof EventbusEndpoint)
                 .map(e -> toRpc(apiContext, e))
                 .forEach(req -> apiContext.addRequest(req));
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
 
@@ -58,10 +64,9 @@ public class EventBusRequestFilter implements Filter {
             String address = eventbusEndpoint.address();
             String policy = eventbusEndpoint.policy();
             Multimap header = eventbusEndpoint.headers();
-            JsonObject message = apiContext.body();
-            if (message == null) {
-                message = new JsonObject();
-            }
+            //请求体是只读的，RPC请求会被之后的filter修改
+            JsonObject message = apiContext.body() == null ? new JsonObject()
+                    : apiContext.copyJson(apiContext.body());
             return EventbusRpcRequest.create(id, name, address, policy, header, message);
 
         }
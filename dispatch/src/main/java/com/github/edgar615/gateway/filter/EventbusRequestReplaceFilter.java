@@ -3,10 +3,9 @@ package com.github.edgar615.gateway.filter;
 import com.google.common.collect.Multimap;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.gateway.core.rpc.RpcRequest;
 import com.github.edgar615.gateway.core.rpc.eventbus.EventbusRpcRequest;
-import io.vertx.core.Future;
 import io.vertx.core.json.JsonObject;
 
 /**
@@ -20,7 +19,7 @@ import io.vertx.core.json.JsonObject;
  * 对于params和headers，如果新值是集合或者数组，将集合或数组的元素一个个放入params或headers，而不是将一个集合直接放入.
  * 例如：q1 : $header.h1对应的值是[h1.1, h1.2]，那么最终替换之后的新值是 q1 : [h1.1,h1.2]而不是 q1 : [[h1.1,h1.2]]
  */
-public class EventbusRequestReplaceFilter extends AbstractRequestReplaceFilter implements Filter {
+public class EventbusRequestReplaceFilter extends AbstractRequestReplaceFilter implements SyncFilter {
     EventbusRequestReplaceFilter() {
     }
 
@@ -31,14 +30,14 @@ public class EventbusRequestReplaceFilter extends AbstractRequestReplaceFilter i
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+    public ApiContext doFilter(ApiContext apiContext) {
         for (int i = 0; i < apiContext.requests().size(); i++) {
             RpcRequest request = apiContext.requests().get(i);
             if (request instanceof EventbusRpcRequest) {
                 replace(apiContext, (EventbusRpcRequest) request);
             }
         }
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
     private void replace(ApiContext apiContext, EventbusRpcRequest request) {
@@ -1,13 +1,12 @@
 package com.github.edgar615.gateway.filter;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
 import com.github.edgar615.gateway.core.dispatch.Result;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.gateway.core.rpc.RpcRequest;
 import com.github.edgar615.gateway.core.rpc.RpcResponse;
 import com.github.edgar615.util.exception.DefaultErrorCode;
 import com.github.edgar615.util.exception.SystemException;
-import io.vertx.core.Future;
 import io.vertx.core.json.JsonObject;
 
 import java.util.List;
@@ -27,7 +26,7 @@ import java.util.List;
  * 该filter的order=0
  * Created by edgar on 16-11-5.
  */
-public class ExtractResultFilter implements Filter {
+public class ExtractResultFilter implements SyncFilter {
     ExtractResultFilter() {
     }
 
@@ -48,13 +47,12 @@ public class ExtractResultFilter implements Filter {
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+    public ApiContext doFilter(ApiContext apiContext) {
         List<RpcResponse> results = apiContext.responses();
         Result result = null;
         if (results.size() == 0) {
-            completeFuture.fail(SystemException.create(DefaultErrorCode.UNKOWN)
-                                        .set("details", "The result of RPC was not found"));
-            return;
+            throw SystemException.create(DefaultErrorCode.UNKOWN)
+                    .set("details", "The result of RPC was not found");
         } else if (results.size() == 1) {
             result = extractResult(results.get(0));
         } else {
@@ -65,7 +63,7 @@ public class ExtractResultFilter implements Filter {
         }
 
         apiContext.setResult(result);
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
     private String getName(String respId, ApiContext apiContext) {
@@ -113,6 +111,9 @@ public class ExtractResultFilter implements Filter {
         int statusCode = response.statusCode();
 //    result.put("statusCode", statusCode);
         boolean isArray = response.isArray();
+        if (response.rawBody() != null) {
+            return Result.createRaw(statusCode, response.rawBody(), isArray, null);
+        }
         if (isArray) {
             return Result.createJsonArray(statusCode, response.responseArray(), null);
         } else {
@@ -5,12 +5,11 @@ import com.google.common.base.Splitter;
 import com.google.common.collect.Multimap;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.gateway.core.rpc.RpcRequest;
 import com.github.edgar615.gateway.core.rpc.http.HttpRpcRequest;
 import com.github.edgar615.util.exception.DefaultErrorCode;
 import com.github.edgar615.util.exception.SystemException;
-import io.vertx.core.Future;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
@@ -23,8 +22,10 @@ import java.util.List;
  * <b>params和headers中的所有值都是String</b>
  * 对于params和headers，如果新值是集合或者数组，将集合或数组的元素一个个放入params或headers，而不是将一个集合直接放入.(不考虑嵌套的集合)
  * 例如：q1 : $header.h1对应的值是[h1.1, h1.2]，那么最终替换之后的新值是 q1 : [h1.1,h1.2]而不是 q1 : [[h1.1,h1.2]]
+ * <p>
+ * 透传的请求只有原始的请求体，其中有以$开头的字符串时先解析为JSON再替换，否则直接转发.
  */
-public class HttpRequestReplaceFilter extends AbstractRequestReplaceFilter implements Filter {
+public class HttpRequestReplaceFilter extends AbstractRequestReplaceFilter implements SyncFilter {
     HttpRequestReplaceFilter() {
     }
 
@@ -35,14 +36,14 @@ public class HttpRequestReplaceFilter extends AbstractRequestReplaceFilter imple
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+    public ApiContext doFilter(ApiContext apiContext) {
         for (int i = 0; i < apiContext.requests().size(); i++) {
             RpcRequest request = apiContext.requests().get(i);
             if (request instanceof HttpRpcRequest) {
                 replace(apiContext, (HttpRpcRequest) request);
             }
         }
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
     private void replace(ApiContext apiContext, HttpRpcRequest request) {
@@ -50,6 +51,12 @@ public class HttpRequestReplaceFilter extends AbstractRequestReplaceFilter imple
         Multimap<String, String> headers = replaceHeader(apiContext, request.headers());
         request.clearHeaders().addHeaders(headers);
         request.clearParams().addParams(params);
+        if (request.body() == null && request.rawBody() != null
+            && hasPlaceholder(request.rawBody())) {
+            //透传的请求体中有需要替换的变量，解析之后按JSON发送，FilterChain已经检查过请求体
+            request.setBody(request.rawBody().toJsonObject());
+            request.setRawBody(null);
+        }
         if (request.body() != null) {
             JsonObject body = replaceBody(apiContext, request.body());
             request.setBody(body);
@@ -1,9 +1,10 @@
 package com.github.edgar615.gateway.filter;
 
+import com.github.edgar615.gateway.core.apidiscovery.RouteMatches;
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.definition.RegexPathApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
-import io.vertx.core.Future;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,11 +20,13 @@ import java.util.regex.Pattern;
  * <p>
  * 所有的参数名将保存在上下文变量中，可以通过$var.param0变量来获得。
  * <p>
+ * 如果ApiFindFilter在查找API时已经将正则分组保存在上下文的内部属性{@link RouteMatches#PATH_GROUPS}中，直接使用这些分组，不再重新匹配.
+ * <p>
  * 示例:API定义的路径为/devices/([\d+]+)，请求的路径为/devices/1，那么对应的参数名为param0，参数值为1
  * <p>
  * Created by edgar on 17-1-4.
  */
-public class PathParamFilter implements Filter {
+public class PathParamFilter implements SyncFilter {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PathParamFilter.class);
 
@@ -44,15 +47,17 @@ public class PathParamFilter implements Filter {
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
-        RegexPathApiDefinition apiDefinition = (RegexPathApiDefinition) apiContext.apiDefinition();
-        Pattern pattern = apiDefinition.pattern();
-        String path = apiContext.path();
-        Matcher matcher = pattern.matcher(path);
-        if (matcher.matches()) {
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.regexStyle();
+    }
+
+    @Override
+    public ApiContext doFilter(ApiContext apiContext) {
+        String[] groups = pathGroups(apiContext);
+        if (groups != null) {
             try {
-                for (int i = 0; i < matcher.groupCount(); i++) {
-                    String group = matcher.group(i + 1);
+                for (int i = 0; i < groups.length; i++) {
+                    String group = groups[i];
                     if (group != null) {
                         final String k = "param" + i;
                         final String value = URLDecoder.decode(group, "UTF-8");
@@ -64,7 +69,26 @@ public class PathParamFilter implements Filter {
                             PathParamFilter.class.getSimpleName(), "PathDecodeFailed");
             }
         }
-        completeFuture.complete(apiContext);
+        return apiContext;
+    }
+
+    private String[] pathGroups(ApiContext apiContext) {
+        Object pathGroups = apiContext.attribute(RouteMatches.PATH_GROUPS);
+        if (pathGroups instanceof String[]) {
+            return (String[]) pathGroups;
+        }
+        RegexPathApiDefinition apiDefinition = (RegexPathApiDefinition) apiContext.apiDefinition();
+        Pattern pattern = apiDefinition.pattern();
+        String path = apiContext.path();
+        Matcher matcher = pattern.matcher(path);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String[] groups = new String[matcher.groupCount()];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = matcher.group(i + 1);
+        }
+        return groups;
     }
 
 }
@@ -3,17 +3,17 @@ package com.github.edgar615.gateway.filter;
 import com.google.common.collect.Multimap;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
 import com.github.edgar615.gateway.core.dispatch.Result;
-import io.vertx.core.Future;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import io.vertx.core.json.JsonObject;
 
 /**
  * 将Result中的请求头，请求参数，请求体按照ResponseTransformerPlugin中的配置处理.
  * 目前body只考虑JsonObject类型的result修改，对JsonArray暂不支持.
+ * 透传的响应体中有以$开头的字符串时先解析为JSON再替换，否则直接转发.
  * Created by edgar on 16-9-20.
  */
-public class ResponseReplaceFilter extends AbstractReplaceFilter implements Filter {
+public class ResponseReplaceFilter extends AbstractReplaceFilter implements SyncFilter {
 
     ResponseReplaceFilter() {
     }
@@ -34,7 +34,7 @@ public class ResponseReplaceFilter extends AbstractReplaceFilter implements Filt
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+    public ApiContext doFilter(ApiContext apiContext) {
         Result result = apiContext.result();
         //如果body的JsonObject直接添加，如果是JsonArray，不支持body的修改
         boolean isArray = result.isArray();
@@ -42,7 +42,11 @@ public class ResponseReplaceFilter extends AbstractReplaceFilter implements Filt
         Multimap<String, String> header =
                 replaceHeader(apiContext, result.headers());
 
-        if (!isArray) {
+        if (result.rawBody() != null && (isArray || !hasPlaceholder(result.rawBody()))) {
+            //透传的响应体中没有需要替换的变量，直接转发
+            apiContext.setResult(Result.createRaw(result.statusCode(), result.rawBody(), isArray,
+                                                  header));
+        } else if (!isArray) {
             JsonObject body = replaceBody(apiContext, result.responseObject());
             apiContext.setResult(Result.createJsonObject(result.statusCode(),
                                                          body, header));
@@ -50,7 +54,7 @@ public class ResponseReplaceFilter extends AbstractReplaceFilter implements Filt
             apiContext.setResult(Result.createJsonArray(result.statusCode(),
                                                         result.responseArray(), header));
         }
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
 }
\ No newline at end of file
@@ -1,11 +1,11 @@
 package com.github.edgar615.gateway.filter;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.definition.SimpleHttpEndpoint;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.gateway.core.rpc.RpcRequest;
 import com.github.edgar615.gateway.core.rpc.http.SimpleHttpRequest;
-import io.vertx.core.Future;
 
 /**
  * simple-http类型的endpoint需要经过这个Filter转换为RpcRequest.
@@ -13,7 +13,7 @@ import io.vertx.core.Future;
  *
  * @author Edgar  Date 2016/11/18
  */
-public class SimpleHttpRequestFilter implements Filter {
+public class SimpleHttpRequestFilter implements SyncFilter {
 
     SimpleHttpRequestFilter() {
     }
@@ -35,13 +35,19 @@ public class SimpleHttpRequestFilter implements Filter {
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.endpoints().stream()
+                .anyMatch(e -> e instanceof SimpleHttpEndpoint);
+    }
+
+    @Override
+    public ApiContext doFilter(ApiContext apiContext) {
         apiContext.apiDefinition().endpoints().stream()
                 .filter(e -> e instanceof SimpleHttpEndpoint)
                 .map(e -> (SimpleHttpEndpoint) e)
                 .map(e -> toRpc(apiContext, e))
                 .forEach(r -> apiContext.addRequest(r));
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
 
@@ -53,7 +59,14 @@ public class SimpleHttpRequestFilter implements Filter {
         httpRpcRequest.addParams(apiContext.params());
 //    httpRpcRequest.addHeaders(apiContext.headers());
         httpRpcRequest.addHeader("x-request-id", httpRpcRequest.id());
-        httpRpcRequest.setBody(apiContext.body());
+        if (apiContext.passThrough()) {
+            //透传请求体和响应体
+            httpRpcRequest.setPassThrough(true);
+            httpRpcRequest.setRawBody(apiContext.rawBody());
+        } else if (apiContext.body() != null) {
+            //请求体是只读的，RPC请求会被之后的filter修改
+            httpRpcRequest.setBody(apiContext.copyJson(apiContext.body()));
+        }
         httpRpcRequest.setHost(endpoint.host());
         httpRpcRequest.setPort(endpoint.port());
         return httpRpcRequest;
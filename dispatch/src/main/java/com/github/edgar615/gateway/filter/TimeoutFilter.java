@@ -4,13 +4,12 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.gateway.core.utils.MultimapUtils;
 import com.github.edgar615.util.exception.DefaultErrorCode;
 import com.github.edgar615.util.exception.SystemException;
 import com.github.edgar615.util.validation.Rule;
 import com.github.edgar615.util.validation.Validations;
-import io.vertx.core.Future;
 import io.vertx.core.json.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,7 +37,7 @@ import java.time.Instant;
  * 该filter的order=0
  * Created by edgar on 16-9-20.
  */
-public class TimeoutFilter implements Filter {
+public class TimeoutFilter implements SyncFilter {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TimeoutFilter.class);
 
@@ -71,7 +70,7 @@ public class TimeoutFilter implements Filter {
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+    public ApiContext doFilter(ApiContext apiContext) {
         //校验参数
         Validations.validate(apiContext.params(), commonParamRule);
         Multimap<String, String> params = ArrayListMultimap.create(apiContext.params());
@@ -83,9 +82,9 @@ public class TimeoutFilter implements Filter {
             || (timestamp < currentTime - timeout)) {
             SystemException ex = SystemException.create(DefaultErrorCode.EXPIRE)
                     .set("details", "timestamp:" + timestamp + " is incorrect");
-            failed(completeFuture, apiContext.id(), "TimeoutTripped", ex);
+            throw failed(apiContext.id(), "TimeoutTripped", ex);
         } else {
-            completeFuture.complete(apiContext);
+            return apiContext;
         }
     }
 
@@ -1,6 +1,7 @@
 package com.github.edgar615.gateway.metric;
 
 import com.github.edgar615.gateway.core.cmd.ApiCmd;
+import com.github.edgar615.gateway.core.metric.FilterMetrics;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
@@ -8,6 +9,8 @@ import io.vertx.ext.dropwizard.MetricsService;
 
 /**
  * Created by Edgar on 2017/4/1.
+ * <p>
+ * 参数filter为true时返回每个filter的统计，可以通过api参数只返回一个API的统计，否则返回name对应的度量值.
  *
  * @author Edgar  Date 2017/4/1
  */
@@ -27,6 +30,10 @@ class ApiMetricCmd implements ApiCmd {
     @Override
     public Future<JsonObject> doHandle(JsonObject jsonObject) {
         try {
+            if (jsonObject.getBoolean("filter", false)) {
+                return Future.succeededFuture(
+                        FilterMetrics.instance().snapshot(jsonObject.getString("api")));
+            }
             String name = jsonObject.getString("name", "");
             JsonObject metrics = metricsService.getMetricsSnapshot(name);
             if (metrics == null) {
@@ -0,0 +1,33 @@
+package com.github.edgar615.gateway.metric;
+
+import com.github.edgar615.gateway.core.metric.FilterMetrics;
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * 输出每个filter的统计，用于采集.
+ * <p>
+ * 请求参数api可以只输出一个API的统计，格式与api.metric命令的filter统计相同.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public class FilterMetricsHandler implements Handler<RoutingContext> {
+
+    private final FilterMetrics metrics;
+
+    private FilterMetricsHandler(FilterMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public static Handler<RoutingContext> create() {
+        return new FilterMetricsHandler(FilterMetrics.instance());
+    }
+
+    @Override
+    public void handle(RoutingContext rc) {
+        String apiName = rc.request().getParam("api");
+        rc.response()
+                .putHeader("content-type", "application/json;charset=utf-8")
+                .end(metrics.snapshot(apiName).toBuffer());
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.edgar615.gateway.metric;
+
+import com.google.common.collect.Lists;
+
+import com.github.edgar615.gateway.core.metric.PrometheusCollector;
+import com.github.edgar615.gateway.core.metric.PrometheusWriter;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * 以Prometheus文本格式输出所有的度量值，用于管理端口.
+ * <p>
+ * 通过ServiceLoader加载所有的PrometheusCollector，每次采集都直接写入Buffer.
+ * 响应的Buffer在发送完成之前不能修改，所以每次采集使用新的Buffer，但是按上一次的大小预先分配，避免扩容时的复制.
+ * 某个PrometheusCollector抛出异常时，丢弃它已经写入的内容，其他的度量值正常输出.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public class PrometheusHandler implements Handler<HttpServerRequest> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrometheusHandler.class);
+
+    private static final int INITIAL_SIZE = 4096;
+
+    private final String path;
+
+    private final PrometheusCollector[] collectors;
+
+    private volatile int sizeHint = INITIAL_SIZE;
+
+    private PrometheusHandler(String path, List<PrometheusCollector> collectors) {
+        this.path = path;
+        this.collectors = collectors.toArray(new PrometheusCollector[collectors.size()]);
+    }
+
+    /**
+     * 创建PrometheusHandler
+     *
+     * @param path 输出度量值的路径
+     * @return PrometheusHandler
+     */
+    public static PrometheusHandler create(String path) {
+        List<PrometheusCollector> collectors =
+                Lists.newArrayList(ServiceLoader.load(PrometheusCollector.class));
+        for (PrometheusCollector collector : collectors) {
+            LOGGER.info("[ApiGateway] [PrometheusCollector] [{}]",
+                        collector.getClass().getSimpleName());
+        }
+        return new PrometheusHandler(path, collectors);
+    }
+
+    @Override
+    public void handle(HttpServerRequest request) {
+        if (!path.equals(request.path())) {
+            request.response().setStatusCode(404).end();
+            return;
+        }
+        Buffer buffer = render();
+        request.response()
+                .putHeader("content-type", PrometheusWriter.CONTENT_TYPE)
+                .end(buffer);
+    }
+
+    Buffer render() {
+        Buffer buffer = Buffer.buffer(sizeHint);
+        PrometheusWriter writer = new PrometheusWriter(buffer);
+        for (PrometheusCollector collector : collectors) {
+            int mark = writer.mark();
+            try {
+                collector.collect(writer);
+            } catch (Exception e) {
+                writer.rollback(mark);
+                LOGGER.warn("[Prometheus] [collect] [{}] failed",
+                            collector.getClass().getSimpleName(), e);
+            }
+        }
+        Buffer rendered = writer.buffer();
+        //多留一点空间给新增的度量值
+        sizeHint = rendered.length() + rendered.length() / 8 + 64;
+        return rendered;
+    }
+}
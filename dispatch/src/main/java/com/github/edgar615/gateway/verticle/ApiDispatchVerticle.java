@@ -1,11 +1,16 @@
 package com.github.edgar615.gateway.verticle;
 
 import com.github.edgar615.gateway.core.cmd.CmdRegister;
+import com.github.edgar615.gateway.core.log.AccessLog;
+import com.github.edgar615.gateway.core.log.AccessLogOptions;
 import com.github.edgar615.gateway.core.utils.Consts;
 import com.github.edgar615.gateway.dispatch.BaseHandler;
 import com.github.edgar615.gateway.dispatch.DispatchHandler;
 import com.github.edgar615.gateway.dispatch.FailureHandler;
+import com.github.edgar615.gateway.metric.FilterMetricsHandler;
+import com.github.edgar615.gateway.metric.PrometheusHandler;
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServerOptions;
@@ -31,6 +36,9 @@ public class ApiDispatchVerticle extends AbstractVerticle {
     public void start(Future<Void> startFuture) throws Exception {
         LOGGER.info("[Verticle] [start] start {}",
                     ApiDispatchVerticle.class.getSimpleName());
+        //访问日志，必须在创建RPC处理类之前初始化
+        AccessLog.init(new AccessLogOptions(config().getJsonObject("access.log",
+                                                                   new JsonObject())));
         //读取命令
         Future<Void> importCmdFuture = Future.future();
         new CmdRegister().initialize(vertx, config(), importCmdFuture);
@@ -53,7 +61,47 @@ public class ApiDispatchVerticle extends AbstractVerticle {
         router.route().handler(dispatchHandler)
                 .failureHandler(FailureHandler.create());
 
-        startHttpServer(router, startFuture);
+        //Prometheus的度量值和filter的统计使用单独的端口
+        Future<Void> httpFuture = Future.future();
+        startHttpServer(router, httpFuture);
+        Future<Void> metricsFuture = Future.future();
+        startMetricsServer(metricsFuture);
+        CompositeFuture.all(httpFuture, metricsFuture).setHandler(ar -> {
+            if (ar.succeeded()) {
+                startFuture.complete();
+            } else {
+                startFuture.fail(ar.cause());
+            }
+        });
+    }
+
+    private void startMetricsServer(Future<Void> completeFuture) {
+        if (!(config().getValue("metrics.port") instanceof Integer)) {
+            completeFuture.complete();
+            return;
+        }
+        int port = config().getInteger("metrics.port");
+        String path = config().getString("metrics.path", "/metrics");
+        Router router = Router.router(vertx);
+        PrometheusHandler prometheusHandler = PrometheusHandler.create(path);
+        router.get(path).handler(rc -> prometheusHandler.handle(rc.request()));
+        //filter的统计只在管理端口上提供
+        if (config().getValue("filter.metrics.path") instanceof String) {
+            router.get(config().getString("filter.metrics.path"))
+                    .handler(FilterMetricsHandler.create());
+        }
+        vertx.createHttpServer()
+                .requestHandler(router::accept)
+                .listen(port, ar -> {
+                    if (ar.succeeded()) {
+                        LOGGER.info("[ApiDispatch] [start] metrics listening port: {}", port);
+                        completeFuture.complete();
+                    } else {
+                        LOGGER.error("[ApiDispatch] [start] metrics listening port failed: {}",
+                                     port, ar.cause());
+                        completeFuture.fail(ar.cause());
+                    }
+                });
     }
 
     private void startHttpServer(Router router, Future<Void> startFuture) {
@@ -0,0 +1,403 @@
+package com.github.edgar615.gateway.dispatch;
+
+import com.google.common.collect.Lists;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.gateway.core.definition.SimpleHttpEndpoint;
+import com.github.edgar615.gateway.core.dispatch.ApiContext;
+import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
+import com.github.edgar615.gateway.core.metric.FilterMetrics;
+import com.github.edgar615.gateway.core.metric.FilterStats;
+import com.github.edgar615.util.exception.DefaultErrorCode;
+import com.github.edgar615.util.exception.SystemException;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Edgar  Date 2018/12/15
+ */
+public class FilterChainTest {
+
+    private final ApiDefinition definition = ApiDefinition
+            .create("get_device", HttpMethod.GET, "/devices", Lists.newArrayList(
+                    SimpleHttpEndpoint.http("get_device", HttpMethod.GET, "/devices", 8080,
+                                            "localhost")));
+
+    @Test
+    public void testSyncAndAsyncFilterShouldRunInOrder() {
+        List<String> executed = new ArrayList<>();
+        Future<ApiContext> pending = Future.future();
+        Filter[] filters = new Filter[]{new FindFilter(executed),
+                new RecordFilter("sync1", executed),
+                new AsyncFilter("async", executed, pending),
+                new RecordFilter("sync2", executed)};
+        FilterChain chain = new FilterChain(filters, () -> 1);
+        List<String> ended = new ArrayList<>();
+        AtomicReference<AsyncResult<ApiContext>> result = new AtomicReference<>();
+        ApiContext apiContext = ApiContext.create(HttpMethod.GET, "/devices", null, null, null);
+        chain.execute(apiContext, ctx -> ended.add(ctx.apiDefinition().name()), result::set);
+
+        Assert.assertEquals(Lists.newArrayList("find", "sync1", "async"), executed);
+        Assert.assertNull(result.get());
+
+        pending.complete();
+        Assert.assertEquals(Lists.newArrayList("find", "sync1", "async", "sync2"), executed);
+        Assert.assertEquals(4, ended.size());
+        Assert.assertTrue(result.get().succeeded());
+        Assert.assertSame(definition, result.get().result().apiDefinition());
+        Assert.assertEquals("sync2", result.get().result().variables().get("last"));
+        Assert.assertNull(apiContext.variables().get("last"));
+    }
+
+    @Test
+    public void testPlanChangedShouldBeCalledOnceAcrossAsyncFilter() {
+        List<String> executed = new ArrayList<>();
+        Future<ApiContext> pending = Future.future();
+        Filter[] filters = new Filter[]{new FindFilter(executed),
+                new AsyncFilter("async", executed, pending),
+                new RecordFilter("sync", executed)};
+        FilterChain chain = new FilterChain(filters, () -> 1);
+        List<FilterPlan> plans = new ArrayList<>();
+        AtomicReference<AsyncResult<ApiContext>> result = new AtomicReference<>();
+        chain.execute(ApiContext.create(HttpMethod.GET, "/devices", null, null, null),
+                      plans::add, null, result::set);
+        pending.complete();
+
+        Assert.assertTrue(result.get().succeeded());
+        Assert.assertEquals(1, plans.size());
+        Assert.assertSame(definition, plans.get(0).apiDefinition());
+        Assert.assertSame(plans.get(0).requestMetric(), plans.get(0).requestMetric());
+        Assert.assertSame(plans.get(0).responseMetric("test"),
+                          plans.get(0).responseMetric("test"));
+    }
+
+    @Test
+    public void testSyncFilterExceptionShouldFailChain() {
+        List<String> executed = new ArrayList<>();
+        Filter[] filters = new Filter[]{new FindFilter(executed), new SyncFilter() {
+            @Override
+            public String type() {
+                return PRE;
+            }
+
+            @Override
+            public int order() {
+                return 0;
+            }
+
+            @Override
+            public boolean shouldFilter(ApiContext apiContext) {
+                return true;
+            }
+
+            @Override
+            public ApiContext doFilter(ApiContext apiContext) {
+                throw SystemException.create(DefaultErrorCode.INVALID_REQ);
+            }
+        }, new RecordFilter("sync", executed)};
+        FilterChain chain = new FilterChain(filters, () -> 1);
+        AtomicReference<AsyncResult<ApiContext>> result = new AtomicReference<>();
+        chain.execute(ApiContext.create(HttpMethod.GET, "/devices", null, null, null), ctx -> {
+        }, result::set);
+
+        Assert.assertEquals(Lists.newArrayList("find"), executed);
+        Assert.assertTrue(result.get().failed());
+        Assert.assertTrue(result.get().cause() instanceof SystemException);
+    }
+
+    @Test
+    public void testInvalidBodyShouldFailWhenApiIsFound() {
+        List<String> executed = new ArrayList<>();
+        Filter[] filters = new Filter[]{new FindFilter(executed),
+                new RecordFilter("sync", executed)};
+        FilterChain chain = new FilterChain(filters, () -> 1);
+        AtomicReference<AsyncResult<ApiContext>> result = new AtomicReference<>();
+        ApiContext apiContext = ApiContext.wrap("1", HttpMethod.POST, "/devices",
+                                                MultiMap.caseInsensitiveMultiMap(),
+                                                MultiMap.caseInsensitiveMultiMap(),
+                                                Buffer.buffer("username=edgar"));
+        chain.execute(apiContext, ctx -> {
+        }, result::set);
+
+        Assert.assertEquals(Lists.newArrayList("find"), executed);
+        Assert.assertTrue(result.get().failed());
+        SystemException ex = (SystemException) result.get().cause();
+        Assert.assertEquals(DefaultErrorCode.INVALID_JSON, ex.getErrorCode());
+    }
+
+    @Test
+    public void testSyncCompletedAsyncFilterFollowedByFailureShouldFailOnce() {
+        List<String> executed = new ArrayList<>();
+        FilterMetrics metrics = new FilterMetrics();
+        Future<ApiContext> completed = Future.succeededFuture();
+        Filter[] filters = new Filter[]{new FindFilter(executed),
+                new AsyncFilter("async", executed, completed), new ThrowFilter()};
+        FilterChain chain = new FilterChain(filters, () -> 1, metrics);
+        List<AsyncResult<ApiContext>> results = new ArrayList<>();
+        chain.execute(ApiContext.create(HttpMethod.GET, "/devices", null, null, null), ctx -> {
+        }, results::add);
+
+        Assert.assertEquals(Lists.newArrayList("find", "async"), executed);
+        Assert.assertEquals(1, results.size());
+        Assert.assertTrue(results.get(0).failed());
+        FilterStats async = metrics.stats("get_device", "AsyncFilter");
+        Assert.assertEquals(1, async.latency().count());
+        Assert.assertEquals(0, async.failures());
+        FilterStats fail = metrics.stats("get_device", "ThrowFilter");
+        Assert.assertEquals(1, fail.latency().count());
+        Assert.assertEquals(1, fail.failures());
+    }
+
+    @Test
+    public void testAsyncFilterExceptionShouldFailOnce() {
+        List<String> executed = new ArrayList<>();
+        FilterMetrics metrics = new FilterMetrics();
+        Filter[] filters = new Filter[]{new FindFilter(executed), new Filter() {
+            @Override
+            public String type() {
+                return PRE;
+            }
+
+            @Override
+            public int order() {
+                return 0;
+            }
+
+            @Override
+            public boolean shouldFilter(ApiContext apiContext) {
+                return true;
+            }
+
+            @Override
+            public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+                throw SystemException.create(DefaultErrorCode.INVALID_REQ);
+            }
+        }, new RecordFilter("sync", executed)};
+        FilterChain chain = new FilterChain(filters, () -> 1, metrics);
+        List<AsyncResult<ApiContext>> results = new ArrayList<>();
+        chain.execute(ApiContext.create(HttpMethod.GET, "/devices", null, null, null), ctx -> {
+        }, results::add);
+
+        Assert.assertEquals(Lists.newArrayList("find"), executed);
+        Assert.assertEquals(1, results.size());
+        Assert.assertTrue(results.get(0).cause() instanceof SystemException);
+    }
+
+    @Test
+    public void testMetricsShouldCountInvocationsSkipsAndFailures() {
+        List<String> executed = new ArrayList<>();
+        FilterMetrics metrics = new FilterMetrics();
+        Filter[] filters = new Filter[]{new FindFilter(executed),
+                new RecordFilter("sync", executed), new FindFilter(executed),
+                new FailFilter()};
+        FilterChain chain = new FilterChain(filters, () -> 1, metrics);
+        List<AsyncResult<ApiContext>> results = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            chain.execute(ApiContext.create(HttpMethod.GET, "/devices", null, null, null), ctx -> {
+            }, results::add);
+        }
+        Assert.assertEquals(2, results.size());
+        Assert.assertTrue(results.get(0).failed());
+
+        FilterStats find = metrics.stats(FilterMetrics.UNMATCHED, "FindFilter");
+        Assert.assertEquals(2, find.latency().count());
+        Assert.assertTrue(find.latency().max() > 0);
+        FilterStats sync = metrics.stats("get_device", "RecordFilter");
+        Assert.assertEquals(2, sync.latency().count());
+        Assert.assertEquals(0, sync.skips());
+        FilterStats skipped = metrics.stats("get_device", "FindFilter");
+        Assert.assertEquals(0, skipped.latency().count());
+        Assert.assertEquals(2, skipped.skips());
+        FilterStats fail = metrics.stats("get_device", "FailFilter");
+        Assert.assertEquals(2, fail.latency().count());
+        Assert.assertEquals(2, fail.failures());
+        Assert.assertEquals(2, metrics.snapshot("get_device").getJsonObject("get_device")
+                .getJsonObject("FailFilter").getLong("failures").longValue());
+    }
+
+    @Test
+    public void testGenerationChangedShouldEvictUnpublishedStats() {
+        List<String> executed = new ArrayList<>();
+        FilterMetrics metrics = new FilterMetrics();
+        AtomicLong generation = new AtomicLong(1);
+        List<Long> changed = new ArrayList<>();
+        Filter[] filters = new Filter[]{new FindFilter(executed),
+                new RecordFilter("sync", executed)};
+        FilterChain chain = new FilterChain(filters, generation::get, metrics, g -> {
+            changed.add(g);
+            metrics.retain(name -> false);
+        });
+        metrics.stats("deleted_api", "RecordFilter");
+        chain.execute(ApiContext.create(HttpMethod.GET, "/devices", null, null, null), ctx -> {
+        }, ar -> {
+        });
+        Assert.assertTrue(changed.isEmpty());
+        Assert.assertTrue(metrics.stats().containsKey("deleted_api"));
+
+        generation.set(2);
+        chain.execute(ApiContext.create(HttpMethod.GET, "/devices", null, null, null), ctx -> {
+        }, ar -> {
+        });
+        Assert.assertEquals(Lists.newArrayList(2L), changed);
+        Assert.assertFalse(metrics.stats().containsKey("deleted_api"));
+        Assert.assertTrue(metrics.stats().containsKey(FilterMetrics.UNMATCHED));
+    }
+
+    private class FindFilter implements SyncFilter {
+
+        private final List<String> executed;
+
+        private FindFilter(List<String> executed) {
+            this.executed = executed;
+        }
+
+        @Override
+        public String type() {
+            return PRE;
+        }
+
+        @Override
+        public int order() {
+            return 0;
+        }
+
+        @Override
+        public boolean shouldFilter(ApiContext apiContext) {
+            return apiContext.apiDefinition() == null;
+        }
+
+        @Override
+        public ApiContext doFilter(ApiContext apiContext) {
+            executed.add("find");
+            apiContext.setApiDefinition(definition);
+            return apiContext;
+        }
+    }
+
+    private static class RecordFilter implements SyncFilter {
+
+        private final String name;
+
+        private final List<String> executed;
+
+        private RecordFilter(String name, List<String> executed) {
+            this.name = name;
+            this.executed = executed;
+        }
+
+        @Override
+        public String type() {
+            return PRE;
+        }
+
+        @Override
+        public int order() {
+            return 0;
+        }
+
+        @Override
+        public boolean shouldFilter(ApiContext apiContext) {
+            return true;
+        }
+
+        @Override
+        public ApiContext doFilter(ApiContext apiContext) {
+            executed.add(name);
+            apiContext.addVariable("last", name);
+            return apiContext;
+        }
+    }
+
+    private static class AsyncFilter implements Filter {
+
+        private final String name;
+
+        private final List<String> executed;
+
+        private final Future<ApiContext> pending;
+
+        private AsyncFilter(String name, List<String> executed, Future<ApiContext> pending) {
+            this.name = name;
+            this.executed = executed;
+            this.pending = pending;
+        }
+
+        @Override
+        public String type() {
+            return PRE;
+        }
+
+        @Override
+        public int order() {
+            return 0;
+        }
+
+        @Override
+        public boolean shouldFilter(ApiContext apiContext) {
+            return true;
+        }
+
+        @Override
+        public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+            executed.add(name);
+            pending.setHandler(ar -> completeFuture.complete(apiContext));
+        }
+    }
+
+    private static class ThrowFilter implements SyncFilter {
+
+        @Override
+        public String type() {
+            return PRE;
+        }
+
+        @Override
+        public int order() {
+            return 0;
+        }
+
+        @Override
+        public boolean shouldFilter(ApiContext apiContext) {
+            return true;
+        }
+
+        @Override
+        public ApiContext doFilter(ApiContext apiContext) {
+            throw SystemException.create(DefaultErrorCode.INVALID_REQ);
+        }
+    }
+
+    private static class FailFilter implements Filter {
+
+        @Override
+        public String type() {
+            return PRE;
+        }
+
+        @Override
+        public int order() {
+            return 0;
+        }
+
+        @Override
+        public boolean shouldFilter(ApiContext apiContext) {
+            return true;
+        }
+
+        @Override
+        public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+            completeFuture.fail(SystemException.create(DefaultErrorCode.INVALID_REQ));
+        }
+    }
+}
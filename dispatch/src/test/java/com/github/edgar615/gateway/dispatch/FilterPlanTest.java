@@ -0,0 +1,85 @@
+package com.github.edgar615.gateway.dispatch;
+
+import com.google.common.collect.Lists;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.gateway.core.definition.SimpleHttpEndpoint;
+import com.github.edgar615.gateway.core.dispatch.ApiContext;
+import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.filter.AntPathParamFilter;
+import com.github.edgar615.gateway.filter.PathParamFilter;
+import io.vertx.core.Future;
+import io.vertx.core.http.HttpMethod;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Edgar  Date 2018/12/14
+ */
+public class FilterPlanTest {
+
+    private final Filter[] filters = new Filter[]{new PathParamFilter(), new AntPathParamFilter(),
+            new AlwaysFilter()};
+
+    private final SimpleHttpEndpoint endpoint = SimpleHttpEndpoint
+            .http("get_device", HttpMethod.GET, "/devices", 8080, "localhost");
+
+    @Test
+    public void testPlanShouldSkipUnsupportedFilter() {
+        ApiDefinition regex = ApiDefinition.createRegex("get_device", HttpMethod.GET,
+                                                        "/devices/([\\d+]+)",
+                                                        Lists.newArrayList(endpoint));
+        FilterPlan plan = FilterPlan.create(regex, filters);
+        Assert.assertSame(regex, plan.apiDefinition());
+        Assert.assertTrue(plan.accept(0));
+        Assert.assertFalse(plan.accept(1));
+        Assert.assertTrue(plan.accept(2));
+        Assert.assertEquals(2, plan.size());
+
+        ApiDefinition exact = ApiDefinition.create("get_device", HttpMethod.GET, "/devices",
+                                                   Lists.newArrayList(endpoint));
+        plan = FilterPlan.create(exact, filters);
+        Assert.assertFalse(plan.accept(0));
+        Assert.assertFalse(plan.accept(1));
+        Assert.assertTrue(plan.accept(2));
+        Assert.assertEquals(1, plan.size());
+    }
+
+    @Test
+    public void testPlanShouldBeCachedByDefinition() {
+        FilterPlanTable table = new FilterPlanTable(1, filters);
+        ApiDefinition definition = ApiDefinition.create("get_device", HttpMethod.GET, "/devices",
+                                                         Lists.newArrayList(endpoint));
+        FilterPlan plan = table.plan(definition);
+        Assert.assertSame(plan, table.plan(definition));
+        Assert.assertEquals(1, table.size());
+
+        ApiDefinition copy = ApiDefinition.create("get_device", HttpMethod.GET, "/devices",
+                                                  Lists.newArrayList(endpoint));
+        Assert.assertNotSame(plan, table.plan(copy));
+        Assert.assertEquals(2, table.size());
+    }
+
+    private static class AlwaysFilter implements Filter {
+
+        @Override
+        public String type() {
+            return PRE;
+        }
+
+        @Override
+        public int order() {
+            return 0;
+        }
+
+        @Override
+        public boolean shouldFilter(ApiContext apiContext) {
+            return true;
+        }
+
+        @Override
+        public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+            completeFuture.complete(apiContext);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.edgar615.gateway.dispatch;
+
+import com.google.common.collect.Lists;
+
+import com.github.edgar615.gateway.core.apidiscovery.ApiDiscovery;
+import com.github.edgar615.gateway.core.apidiscovery.ApiDiscoveryOptions;
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.gateway.core.definition.SimpleHttpEndpoint;
+import com.github.edgar615.gateway.core.metric.ApiMetric;
+import com.github.edgar615.gateway.core.metric.ApiMetricHandle;
+import com.github.edgar615.gateway.core.metric.FilterMetrics;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpMethod;
+import org.awaitility.Awaitility;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Edgar  Date 2018/12/17
+ */
+public class MetricsEvictorTest {
+
+    private Vertx vertx1;
+
+    private Vertx vertx2;
+
+    @Before
+    public void setUp() {
+        vertx1 = Vertx.vertx();
+        vertx2 = Vertx.vertx();
+    }
+
+    @After
+    public void tearDown() {
+        vertx1.close();
+        vertx2.close();
+    }
+
+    @Test
+    public void testEvictShouldCoverAllNamespacesAndVertx() {
+        String namespace1 = UUID.randomUUID().toString();
+        String namespace2 = UUID.randomUUID().toString();
+        String shared = UUID.randomUUID().toString();
+        String removed = UUID.randomUUID().toString();
+        ApiDiscovery discovery1 = ApiDiscovery.create(vertx1, new ApiDiscoveryOptions());
+        ApiDiscovery discovery2 = ApiDiscovery.create(vertx2, new ApiDiscoveryOptions());
+        publish(discovery1, Lists.newArrayList(definition(shared), definition(removed)));
+        publish(discovery2, Lists.newArrayList(definition(shared)));
+
+        MetricsEvictor evictor = MetricsEvictor.instance();
+        evictor.register(vertx1, namespace1, discovery1);
+        evictor.register(vertx2, namespace2, discovery2);
+        ApiMetricHandle sharedHandle = ApiMetric.handle(namespace2, shared);
+        ApiMetricHandle removedHandle = ApiMetric.handle(namespace2, removed);
+        ApiMetricHandle removedApiHandle = ApiMetric.apiHandle(removed);
+        FilterMetrics.instance().stats(removed, "RecordFilter");
+
+        AtomicBoolean unpublished = new AtomicBoolean();
+        discovery1.unpublishAll(Lists.newArrayList(shared, removed),
+                                ar -> unpublished.set(ar.succeeded()));
+        Awaitility.await().until(() -> unpublished.get());
+        long generation = discovery1.generation();
+        evictor.evict(vertx1, discovery1, generation);
+        Awaitility.await().until(
+                () -> !FilterMetrics.instance().stats().containsKey(removed));
+        //其他命名空间的度量值也会删除，其他Vertx中还存在的API不删除
+        Assert.assertNotSame(removedHandle, ApiMetric.handle(namespace2, removed));
+        Assert.assertNotSame(removedApiHandle, ApiMetric.apiHandle(removed));
+        Assert.assertSame(sharedHandle, ApiMetric.handle(namespace2, shared));
+
+        //同一个版本号在另一个Vertx中仍然会删除
+        FilterMetrics.instance().stats(removed, "RecordFilter");
+        evictor.evict(vertx2, discovery2, generation);
+        Awaitility.await().until(
+                () -> !FilterMetrics.instance().stats().containsKey(removed));
+    }
+
+    private ApiDefinition definition(String name) {
+        SimpleHttpEndpoint httpEndpoint = SimpleHttpEndpoint
+                .http("get_device", HttpMethod.GET, "devices/", 80, "localhost");
+        return ApiDefinition.create(name, HttpMethod.GET, "devices/" + name,
+                                    Lists.newArrayList(httpEndpoint));
+    }
+
+    private void publish(ApiDiscovery discovery, List<ApiDefinition> definitions) {
+        AtomicBoolean published = new AtomicBoolean();
+        discovery.publishAll(definitions, ar -> published.set(ar.succeeded()));
+        Awaitility.await().until(() -> published.get());
+    }
+}
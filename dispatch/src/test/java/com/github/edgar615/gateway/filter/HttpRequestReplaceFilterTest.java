@@ -12,6 +12,7 @@ import com.github.edgar615.gateway.core.rpc.http.SimpleHttpRequest;
 import com.github.edgar615.gateway.core.utils.Filters;
 import com.github.edgar615.util.vertx.task.Task;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
@@ -985,5 +986,55 @@ public class HttpRequestReplaceFilterTest {
 
     }
 
+    @Test
+    public void testReplaceRawBodyWithPlaceholder(TestContext testContext) {
+        Multimap<String, String> headers = ArrayListMultimap.create();
+        headers.put("h1", "h1.1");
+
+        ApiContext apiContext =
+                ApiContext.create(HttpMethod.POST, "/devices", headers, null, null);
 
+        HttpRpcRequest replaced = SimpleHttpRequest.create(UUID.randomUUID().toString(),
+                                                           "add_device")
+                .setHost("localhost")
+                .setPort(8080)
+                .setHttpMethod(HttpMethod.POST)
+                .setPath("/")
+                .setPassThrough(true)
+                .setRawBody(Buffer.buffer("{\"b1\":\"$header.h1\",\"foo\":\"bar\"}"));
+        HttpRpcRequest raw = SimpleHttpRequest.create(UUID.randomUUID().toString(),
+                                                      "add_user")
+                .setHost("localhost")
+                .setPort(8080)
+                .setHttpMethod(HttpMethod.POST)
+                .setPath("/")
+                .setPassThrough(true)
+                .setRawBody(Buffer.buffer("{\"foo\":\"bar\"}"));
+        apiContext.addRequest(replaced);
+        apiContext.addRequest(raw);
+
+        Filter filter =
+                Filter.create(HttpRequestReplaceFilter.class.getSimpleName(), vertx,
+                              new JsonObject());
+        filters.add(filter);
+
+        Task<ApiContext> task = Task.create();
+        task.complete(apiContext);
+        Async async = testContext.async();
+        Filters.doFilter(task, filters)
+                .andThen(context -> {
+                    HttpRpcRequest request = (HttpRpcRequest) context.requests().get(0);
+                    testContext.assertNull(request.rawBody());
+                    testContext.assertEquals("h1.1", request.body().getString("b1"));
+                    testContext.assertEquals("bar", request.body().getString("foo"));
+
+                    request = (HttpRpcRequest) context.requests().get(1);
+                    testContext.assertNull(request.body());
+                    testContext.assertEquals("{\"foo\":\"bar\"}", request.rawBody().toString());
+                    async.complete();
+                }).onFailure(t -> {
+            t.printStackTrace();
+            testContext.fail();
+        });
+    }
 }
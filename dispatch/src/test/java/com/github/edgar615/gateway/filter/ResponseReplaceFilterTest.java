@@ -11,6 +11,7 @@ import com.github.edgar615.gateway.core.dispatch.Result;
 import com.github.edgar615.gateway.core.utils.Filters;
 import com.github.edgar615.util.vertx.task.Task;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
@@ -591,5 +592,61 @@ public class ResponseReplaceFilterTest {
 
     }
 
+    @Test
+    public void testReplaceRawBodyWithPlaceholder(TestContext testContext) {
+        Multimap<String, String> headers = ArrayListMultimap.create();
+        headers.put("h1", "h1.1");
+
+        ApiContext apiContext =
+                ApiContext.create(HttpMethod.GET, "/devices", headers, null, null);
+        apiContext.setResult(Result.createRaw(200,
+                                              Buffer.buffer("{\"b1\":\"$header.h1\",\"foo\":1}"),
+                                              false, null));
 
+        Filter filter =
+                Filter.create(ResponseReplaceFilter.class.getSimpleName(), vertx,
+                              new JsonObject());
+        filters.add(filter);
+
+        Task<ApiContext> task = Task.create();
+        task.complete(apiContext);
+        Async async = testContext.async();
+        Filters.doFilter(task, filters)
+                .andThen(context -> {
+                    Result result = context.result();
+                    testContext.assertNull(result.rawBody());
+                    testContext.assertEquals("h1.1", result.responseObject().getString("b1"));
+                    testContext.assertEquals(1, result.responseObject().getInteger("foo"));
+                    async.complete();
+                }).onFailure(t -> {
+            t.printStackTrace();
+            testContext.fail();
+        });
+    }
+
+    @Test
+    public void testRawBodyWithoutPlaceholderShouldPassThrough(TestContext testContext) {
+        ApiContext apiContext =
+                ApiContext.create(HttpMethod.GET, "/devices", null, null, null);
+        apiContext.setResult(Result.createRaw(200, Buffer.buffer("{\"foo\":\"bar$\"}"),
+                                              false, null));
+
+        Filter filter =
+                Filter.create(ResponseReplaceFilter.class.getSimpleName(), vertx,
+                              new JsonObject());
+        filters.add(filter);
+
+        Task<ApiContext> task = Task.create();
+        task.complete(apiContext);
+        Async async = testContext.async();
+        Filters.doFilter(task, filters)
+                .andThen(context -> {
+                    testContext.assertEquals("{\"foo\":\"bar$\"}",
+                                             context.result().rawBody().toString());
+                    async.complete();
+                }).onFailure(t -> {
+            t.printStackTrace();
+            testContext.fail();
+        });
+    }
 }
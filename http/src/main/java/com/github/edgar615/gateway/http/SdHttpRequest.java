@@ -61,6 +61,8 @@ public class SdHttpRequest extends HttpRpcRequest {
         copyReq.setHttpMethod(method());
         copyReq.setTimeout(timeout());
         copyReq.setBody(body());
+        copyReq.setRawBody(rawBody());
+        copyReq.setPassThrough(passThrough());
         copyReq.addParams(ArrayListMultimap.create(params()));
         copyReq.addHeaders(ArrayListMultimap.create(headers()));
         if (fallback() != null) {
@@ -49,6 +49,8 @@ public class SdHttpRpcHandler implements RpcHandler {
         httpRequest.setHost(sdRequest.host());
         httpRequest.setPort(sdRequest.port());
         httpRequest.setBody(sdRequest.body());
+        httpRequest.setRawBody(sdRequest.rawBody());
+        httpRequest.setPassThrough(sdRequest.passThrough());
         httpRequest.addParams(sdRequest.params());
         httpRequest.addHeaders(sdRequest.headers());
 
@@ -1,5 +1,6 @@
 package com.github.edgar615.gateway.http.filter;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
 import com.github.edgar615.gateway.core.dispatch.Filter;
 import com.github.edgar615.gateway.core.rpc.RpcRequest;
@@ -90,8 +91,20 @@ public class ServiceDiscoveryFilter implements Filter {
                 .anyMatch(e -> e instanceof SdHttpEndpoint);
     }
 
+    @Override
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.endpoints().stream()
+                .anyMatch(e -> e instanceof SdHttpEndpoint);
+    }
+
     @Override
     public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+        //toRpc在服务发现的回调中执行，先在这里读取请求体，请求体不是JSON对象时直接抛出异常
+        if (apiContext.passThrough()) {
+            apiContext.rawBody();
+        } else {
+            apiContext.body();
+        }
         List<Future<Record>> futures =
                 apiContext.apiDefinition().endpoints().stream()
                         .filter(e -> e instanceof SdHttpEndpoint)
@@ -123,8 +136,7 @@ public class ServiceDiscoveryFilter implements Filter {
         List<ServiceFilter> serviceFilters = new ArrayList<>();
         serviceFilters.add(circuitBreakerFilter);
         ServiceSplitterPlugin serviceSplitterPlugin =
-                (ServiceSplitterPlugin) apiContext.apiDefinition()
-                        .plugin(ServiceSplitterPlugin.class.getSimpleName());
+                apiContext.apiDefinition().plugin(ServiceSplitterPlugin.class);
         if (serviceSplitterPlugin != null && serviceSplitterPlugin.traffic(service) != null) {
             ServiceTraffic traffic = serviceSplitterPlugin.traffic(service);
             String tag = traffic.decision(apiContext);
@@ -153,7 +165,14 @@ public class ServiceDiscoveryFilter implements Filter {
         httpRpcRequest.addParams(apiContext.params());
 //    httpRpcRequest.addHeaders(apiContext.headers());
         httpRpcRequest.addHeader("x-request-id", httpRpcRequest.id());
-        httpRpcRequest.setBody(apiContext.body());
+        if (apiContext.passThrough()) {
+            //透传请求体和响应体
+            httpRpcRequest.setPassThrough(true);
+            httpRpcRequest.setRawBody(apiContext.rawBody());
+        } else if (apiContext.body() != null) {
+            //请求体是只读的，RPC请求会被之后的filter修改
+            httpRpcRequest.setBody(apiContext.copyJson(apiContext.body()));
+        }
         List<Record> instances = records.stream()
                 .filter(r -> r != null)
                 .filter(r -> endpoint.service().equalsIgnoreCase(r.getName()))
@@ -1,19 +1,20 @@
 package com.github.edgar615.gateway.http.filter;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
 import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.gateway.http.SdHttpEndpoint;
 import com.github.edgar615.gateway.http.splitter.ServiceSplitterPlugin;
 import com.github.edgar615.gateway.http.splitter.ServiceSplitterPluginFactory;
 import com.github.edgar615.gateway.http.splitter.ServiceTraffic;
-import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 
 import java.util.Map;
 import java.util.stream.Collectors;
 
-public class ServiceSplitterFilter implements Filter {
+public class ServiceSplitterFilter implements SyncFilter {
 
     private final Vertx vertx;
 
@@ -50,7 +51,14 @@ public class ServiceSplitterFilter implements Filter {
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+    public boolean supports(ApiDefinition apiDefinition) {
+        return splitterPlugin != null
+               && apiDefinition.endpoints().stream()
+                       .anyMatch(e -> e instanceof SdHttpEndpoint);
+    }
+
+    @Override
+    public ApiContext doFilter(ApiContext apiContext) {
         Map<String, ServiceTraffic> traffics
                 = apiContext.apiDefinition().endpoints().stream()
                 .filter(e -> e instanceof SdHttpEndpoint)
@@ -59,13 +67,12 @@ public class ServiceSplitterFilter implements Filter {
                 .filter(s -> splitterPlugin.traffic(s) != null)
                 .collect(Collectors.toMap(s -> s, s -> splitterPlugin.traffic(s)));
         if (traffics.isEmpty()) {
-            completeFuture.complete(apiContext);
-            return;
+            return apiContext;
         }
         ServiceSplitterPlugin serviceSplitterPlugin = new ServiceSplitterPlugin();
         traffics.forEach((k, v) -> serviceSplitterPlugin.addTraffic(k, v));
         apiContext.apiDefinition().addPlugin(serviceSplitterPlugin);
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
 }
@@ -0,0 +1,46 @@
+package com.github.edgar615.gateway.http.loadbalance;
+
+import com.github.edgar615.gateway.core.metric.PrometheusCollector;
+import com.github.edgar615.gateway.core.metric.PrometheusWriter;
+
+/**
+ * 输出每个服务节点的请求数、当前请求数和权重.
+ *
+ * @author Edgar  Date 2018/12/15
+ */
+public class LoadBalanceCollector implements PrometheusCollector {
+
+    private final LoadBalanceStats stats;
+
+    public LoadBalanceCollector() {
+        this(LoadBalanceStats.instance());
+    }
+
+    LoadBalanceCollector(LoadBalanceStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public void collect(PrometheusWriter writer) {
+        writer.family("gateway_upstream_requests_total", PrometheusWriter.COUNTER,
+                      "Requests sent to each service instance");
+        for (ServiceStats serviceStats : stats.all()) {
+            writer.sample("gateway_upstream_requests_total", serviceStats.requests(),
+                          "service", serviceStats.serviceId());
+        }
+
+        writer.family("gateway_upstream_active_requests", PrometheusWriter.GAUGE,
+                      "In-flight requests to each service instance");
+        for (ServiceStats serviceStats : stats.all()) {
+            writer.sample("gateway_upstream_active_requests", serviceStats.activeRequests(),
+                          "service", serviceStats.serviceId());
+        }
+
+        writer.family("gateway_upstream_weight", PrometheusWriter.GAUGE,
+                      "Load balance weight of each service instance");
+        for (ServiceStats serviceStats : stats.all()) {
+            writer.sample("gateway_upstream_weight", serviceStats.weight(),
+                          "service", serviceStats.serviceId());
+        }
+    }
+}
@@ -5,6 +5,8 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.cache.RemovalListener;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -54,4 +56,13 @@ public class LoadBalanceStats {
             return cache.asMap().get(serviceId);
         }
     }
+
+    /**
+     * 返回所有的服务状态，只用于输出度量值，不会更新缓存的访问时间.
+     *
+     * @return ServiceStats的集合
+     */
+    public Collection<ServiceStats> all() {
+        return Collections.unmodifiableCollection(cache.asMap().values());
+    }
 }
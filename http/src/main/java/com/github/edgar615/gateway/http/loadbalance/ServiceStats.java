@@ -1,6 +1,7 @@
 package com.github.edgar615.gateway.http.loadbalance;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 描述服务节点的状态.
@@ -27,6 +28,11 @@ public class ServiceStats {
      */
     private AtomicInteger activeRequests = new AtomicInteger();
 
+    /**
+     * 请求总数
+     */
+    private final LongAdder requests = new LongAdder();
+
     /**
      * 服务节点的权重，需要基于服务的响应时间动态变化
      */
@@ -68,6 +74,7 @@ public class ServiceStats {
      */
     public ServiceStats incActiveRequests() {
         activeRequests.incrementAndGet();
+        requests.increment();
         return this;
     }
 
@@ -134,6 +141,15 @@ public class ServiceStats {
         return activeRequests.get();
     }
 
+    /**
+     * 请求总数
+     *
+     * @return
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
     /**
      * 当前权重
      *
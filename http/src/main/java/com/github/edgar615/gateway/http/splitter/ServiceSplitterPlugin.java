@@ -29,4 +29,9 @@ public class ServiceSplitterPlugin implements ApiPlugin {
     public String name() {
         return ServiceSplitterPlugin.class.getSimpleName();
     }
+
+    @Override
+    public boolean requiresJsonBody() {
+        return false;
+    }
 }
@@ -17,9 +17,14 @@ import com.github.edgar615.gateway.http.splitter.IpPolicy;
 import com.github.edgar615.gateway.http.splitter.IpRangePolicy;
 import com.github.edgar615.gateway.http.splitter.ServiceSplitterPlugin;
 import com.github.edgar615.gateway.http.splitter.ServiceTraffic;
+import com.github.edgar615.util.exception.DefaultErrorCode;
+import com.github.edgar615.util.exception.SystemException;
 import com.github.edgar615.util.net.IPUtils;
 import com.github.edgar615.util.vertx.task.Task;
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
@@ -211,6 +216,28 @@ public class ServiceDiscoveryFilterTest {
         });
     }
 
+    @Test
+    public void testInvalidBodyShouldFailBeforeServiceLookup(TestContext testContext) {
+        ApiContext apiContext = ApiContext.wrap("1", HttpMethod.POST, "/devices",
+                                                MultiMap.caseInsensitiveMultiMap(),
+                                                MultiMap.caseInsensitiveMultiMap(),
+                                                Buffer.buffer("username=edgar"));
+        SdHttpEndpoint httpEndpoint =
+                SdHttpEndpoint.http("add_device", HttpMethod.POST, "devices/", "device");
+        apiContext.setApiDefinition(ApiDefinition
+                .create("add_device", HttpMethod.POST, "devices/",
+                        Lists.newArrayList(httpEndpoint)));
+        Future<ApiContext> completeFuture = Future.future();
+        try {
+            filter.doFilter(apiContext, completeFuture);
+            testContext.fail();
+        } catch (SystemException e) {
+            testContext.assertEquals(DefaultErrorCode.INVALID_JSON, e.getErrorCode());
+        }
+        testContext.assertFalse(completeFuture.isComplete());
+        testContext.assertTrue(apiContext.requests().isEmpty());
+    }
+
     @Test
     public void testTagService(TestContext testContext) {
         add3Servers();
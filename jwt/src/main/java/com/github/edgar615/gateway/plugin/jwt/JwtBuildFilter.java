@@ -1,5 +1,6 @@
 package com.github.edgar615.gateway.plugin.jwt;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
 import com.github.edgar615.gateway.core.dispatch.Filter;
 import com.github.edgar615.gateway.core.dispatch.Result;
@@ -112,8 +113,7 @@ public class JwtBuildFilter implements Filter {
         if (apiContext.apiDefinition() == null) {
             return false;
         }
-        JwtBuildPlugin plugin = (JwtBuildPlugin) apiContext.apiDefinition()
-                .plugin(JwtBuildPlugin.class.getSimpleName());
+        JwtBuildPlugin plugin = apiContext.apiDefinition().plugin(JwtBuildPlugin.class);
         if (plugin == null) {
             return false;
         }
@@ -126,6 +126,11 @@ public class JwtBuildFilter implements Filter {
                && result.responseObject().containsKey(userKey);
     }
 
+    @Override
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.plugin(JwtBuildPlugin.class) != null;
+    }
+
     @Override
     public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
         JWTAuth provider = JWTAuth.create(vertx, jwtAuthOptions);
@@ -2,6 +2,7 @@ package com.github.edgar615.gateway.plugin.jwt;
 
 import com.google.common.base.Strings;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
 import com.github.edgar615.gateway.core.dispatch.Filter;
 import com.github.edgar615.util.exception.DefaultErrorCode;
@@ -88,10 +89,15 @@ public class JwtFilter implements Filter {
     @Override
     public boolean shouldFilter(ApiContext apiContext) {
         return apiContext.apiDefinition()
-                       .plugin(JwtPlugin.class.getSimpleName()) != null
+                       .plugin(JwtPlugin.class) != null
                && apiContext.principal() == null;
     }
 
+    @Override
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.plugin(JwtPlugin.class) != null;
+    }
+
     @Override
     public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
         try {
@@ -20,4 +20,9 @@ public interface JwtPlugin extends ApiPlugin {
         return JwtPlugin.class.getSimpleName();
     }
 
+    @Override
+    default boolean requiresJsonBody() {
+        return false;
+    }
+
 }
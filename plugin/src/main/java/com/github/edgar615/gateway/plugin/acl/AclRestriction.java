@@ -88,4 +88,9 @@ public interface AclRestriction extends ApiPlugin {
     default String name() {
         return AclRestriction.class.getSimpleName();
     }
+
+    @Override
+    default boolean requiresJsonBody() {
+        return false;
+    }
 }
@@ -1,10 +1,9 @@
 package com.github.edgar615.gateway.plugin.acl;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.util.exception.DefaultErrorCode;
 import com.github.edgar615.util.exception.SystemException;
-import io.vertx.core.Future;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
@@ -30,7 +29,7 @@ import java.util.List;
  * }
  * Created by edgar on 16-12-24.
  */
-public class AclRestrictionFilter implements Filter {
+public class AclRestrictionFilter implements SyncFilter {
 
     private final List<String> globalBlacklist = new ArrayList<>();
 
@@ -59,13 +58,12 @@ public class AclRestrictionFilter implements Filter {
         }
         return !globalBlacklist.isEmpty()
                || !globalWhitelist.isEmpty()
-               || apiContext.apiDefinition().plugin(AclRestriction.class.getSimpleName()) != null;
+               || apiContext.apiDefinition().plugin(AclRestriction.class) != null;
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
-        AclRestriction plugin = (AclRestriction) apiContext.apiDefinition()
-                .plugin(AclRestriction.class.getSimpleName());
+    public ApiContext doFilter(ApiContext apiContext) {
+        AclRestriction plugin = apiContext.apiDefinition().plugin(AclRestriction.class);
         List<String> blacklist = new ArrayList<>(globalBlacklist);
         List<String> whitelist = new ArrayList<>(globalWhitelist);
         if (plugin != null) {
@@ -75,18 +73,16 @@ public class AclRestrictionFilter implements Filter {
         String group = apiContext.principal().getString(groupKey, "anonymous");
         //匹配到白名单则允许通过
         if (satisfyList(group, whitelist)) {
-            completeFuture.complete(apiContext);
-            return;
+            return apiContext;
         }
         //匹配到黑名单则禁止通过
         if (satisfyList(group, blacklist)) {
             SystemException systemException =
                     SystemException.create(DefaultErrorCode.PERMISSION_DENIED)
                             .set("details", "The group is forbidden");
-            failed(completeFuture, apiContext.id(), "AclForbidden", systemException);
-            return;
+            throw failed(apiContext.id(), "AclForbidden", systemException);
         }
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
     @Override
@@ -3,13 +3,13 @@ package com.github.edgar615.gateway.plugin.arg;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.util.exception.DefaultErrorCode;
 import com.github.edgar615.util.exception.SystemException;
 import com.github.edgar615.util.validation.Rule;
 import com.github.edgar615.util.validation.Validations;
-import io.vertx.core.Future;
 import io.vertx.core.json.JsonObject;
 
 import java.util.HashMap;
@@ -22,7 +22,7 @@ import java.util.Map;
  * 该filter的order=100
  * Created by edgar on 16-10-28.
  */
-public class BodyArgFilter implements Filter {
+public class BodyArgFilter implements SyncFilter {
 
     BodyArgFilter() {
     }
@@ -39,14 +39,17 @@ public class BodyArgFilter implements Filter {
 
     @Override
     public boolean shouldFilter(ApiContext apiContext) {
-        return apiContext.apiDefinition().plugin(BodyArgPlugin.class.getSimpleName()) != null;
+        return apiContext.apiDefinition().plugin(BodyArgPlugin.class) != null;
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
-        BodyArgPlugin plugin =
-                (BodyArgPlugin) apiContext.apiDefinition()
-                        .plugin(BodyArgPlugin.class.getSimpleName());
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.plugin(BodyArgPlugin.class) != null;
+    }
+
+    @Override
+    public ApiContext doFilter(ApiContext apiContext) {
+        BodyArgPlugin plugin = apiContext.apiDefinition().plugin(BodyArgPlugin.class);
         if (apiContext.body() == null) {
             throw SystemException.create(DefaultErrorCode.INVALID_JSON)
                     .set("details", "Request body must be JSON Object");
@@ -57,24 +60,23 @@ public class BodyArgFilter implements Filter {
         plugin.parameters().forEach(p -> rules.putAll(p.name(), p.rules()));
         try {
             Validations.validate(newContext.body().getMap(), rules);
-            completeFuture.complete(newContext);
-        } catch (Exception e) {
-            failed(completeFuture, apiContext.id(), "BodyInvalid", e);
+            return newContext;
+        } catch (RuntimeException e) {
+            throw failed(apiContext.id(), "BodyInvalid", e);
         }
     }
 
     public ApiContext checkDefaultValue(ApiContext apiContext, BodyArgPlugin plugin) {
         Map<String, Object> defaultMap = allocateDefaultValue(apiContext, plugin);
-        JsonObject body = apiContext.body().copy();
+        if (defaultMap.isEmpty()) {
+            return apiContext;
+        }
+        //请求体是只读的，复制之后再修改
+        JsonObject body = apiContext.copyJson(apiContext.body());
         defaultMap.forEach((k, v) -> {
             body.put(k, v);
         });
-        ApiContext context =
-                ApiContext
-                        .create(apiContext.id(), apiContext.method(), apiContext.path(), apiContext
-                                .headers(), apiContext.params(), body);
-        ApiContext.copyProperties(apiContext, context);
-        return context;
+        return apiContext.setBody(body);
     }
 
     public Map<String, Object> allocateDefaultValue(ApiContext apiContext, BodyArgPlugin plugin) {
@@ -3,9 +3,8 @@ package com.github.edgar615.gateway.plugin.arg;
 import com.google.common.collect.ArrayListMultimap;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.util.validation.ValidationException;
-import io.vertx.core.Future;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import org.slf4j.Logger;
@@ -26,7 +25,7 @@ import java.util.Set;
  * 该filter的order=99
  * Created by edgar on 16-10-28.
  */
-public class StrictArgFilter implements Filter {
+public class StrictArgFilter implements SyncFilter {
     private static final Logger LOGGER = LoggerFactory.getLogger(StrictArgFilter.class);
 
     private final Set<String> excludeQuery = new HashSet<>();
@@ -51,9 +50,7 @@ public class StrictArgFilter implements Filter {
 
     @Override
     public boolean shouldFilter(ApiContext apiContext) {
-        StrictArgPlugin plugin
-                = (StrictArgPlugin) apiContext.apiDefinition()
-                .plugin(StrictArgPlugin.class.getSimpleName());
+        StrictArgPlugin plugin = apiContext.apiDefinition().plugin(StrictArgPlugin.class);
         if (plugin == null) {
             return enabled;
         } else {
@@ -62,10 +59,8 @@ public class StrictArgFilter implements Filter {
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
-        UrlArgPlugin urlArgPlugin =
-                (UrlArgPlugin) apiContext.apiDefinition()
-                        .plugin(UrlArgPlugin.class.getSimpleName());
+    public ApiContext doFilter(ApiContext apiContext) {
+        UrlArgPlugin urlArgPlugin = apiContext.apiDefinition().plugin(UrlArgPlugin.class);
 
         ArrayListMultimap error = ArrayListMultimap.create();
         if (!apiContext.params().isEmpty()) {
@@ -78,9 +73,7 @@ public class StrictArgFilter implements Filter {
             throw new ValidationException(error);
         }
 
-        BodyArgPlugin bodyArgPlugin =
-                (BodyArgPlugin) apiContext.apiDefinition()
-                        .plugin(BodyArgPlugin.class.getSimpleName());
+        BodyArgPlugin bodyArgPlugin = apiContext.apiDefinition().plugin(BodyArgPlugin.class);
         ArrayListMultimap bodyError = ArrayListMultimap.create();
         if (apiContext.body() != null) {
             apiContext.body().fieldNames().stream()
@@ -90,7 +83,7 @@ public class StrictArgFilter implements Filter {
         if (!bodyError.isEmpty()) {
             throw new ValidationException(bodyError);
         }
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
     @Override
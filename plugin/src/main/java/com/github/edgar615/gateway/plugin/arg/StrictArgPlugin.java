@@ -21,4 +21,9 @@ public class StrictArgPlugin implements ApiPlugin {
     public boolean strict() {
         return strict;
     }
+
+    @Override
+    public boolean requiresJsonBody() {
+        return strict;
+    }
 }
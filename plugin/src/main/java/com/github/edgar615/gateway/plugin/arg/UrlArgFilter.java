@@ -3,11 +3,11 @@ package com.github.edgar615.gateway.plugin.arg;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.util.validation.Rule;
 import com.github.edgar615.util.validation.Validations;
-import io.vertx.core.Future;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -19,7 +19,7 @@ import java.util.Map;
  * 该filter的order=100
  * Created by edgar on 16-10-28.
  */
-public class UrlArgFilter implements Filter {
+public class UrlArgFilter implements SyncFilter {
     UrlArgFilter() {
     }
 
@@ -35,22 +35,25 @@ public class UrlArgFilter implements Filter {
 
     @Override
     public boolean shouldFilter(ApiContext apiContext) {
-        return apiContext.apiDefinition().plugin(UrlArgPlugin.class.getSimpleName()) != null;
+        return apiContext.apiDefinition().plugin(UrlArgPlugin.class) != null;
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
-        UrlArgPlugin plugin =
-                (UrlArgPlugin) apiContext.apiDefinition()
-                        .plugin(UrlArgPlugin.class.getSimpleName());
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.plugin(UrlArgPlugin.class) != null;
+    }
+
+    @Override
+    public ApiContext doFilter(ApiContext apiContext) {
+        UrlArgPlugin plugin = apiContext.apiDefinition().plugin(UrlArgPlugin.class);
         ApiContext newContext = checkDefaultValue(apiContext, plugin);
         final Multimap<String, Rule> rules = ArrayListMultimap.create();
         plugin.parameters().forEach(p -> rules.putAll(p.name(), p.rules()));
         try {
             Validations.validate(newContext.params(), rules);
-            completeFuture.complete(newContext);
-        } catch (Exception e) {
-            failed(completeFuture, apiContext.id(), "QueryStringInvalid", e);
+            return newContext;
+        } catch (RuntimeException e) {
+            throw failed(apiContext.id(), "QueryStringInvalid", e);
         }
 
     }
@@ -39,4 +39,9 @@ public interface UrlArgPlugin extends ApiPlugin, ArgPlugin {
     default String name() {
         return UrlArgPlugin.class.getSimpleName();
     }
+
+    @Override
+    default boolean requiresJsonBody() {
+        return false;
+    }
 }
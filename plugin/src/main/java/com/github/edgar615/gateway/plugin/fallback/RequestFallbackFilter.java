@@ -1,17 +1,17 @@
 package com.github.edgar615.gateway.plugin.fallback;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.gateway.core.rpc.Fallbackable;
 import com.github.edgar615.gateway.core.rpc.RpcRequest;
-import io.vertx.core.Future;
 
 /**
  * Created by Edgar on 2017/8/7.
  *
  * @author Edgar  Date 2017/8/7
  */
-public class RequestFallbackFilter implements Filter {
+public class RequestFallbackFilter implements SyncFilter {
     @Override
     public String type() {
         return PRE;
@@ -24,13 +24,17 @@ public class RequestFallbackFilter implements Filter {
 
     @Override
     public boolean shouldFilter(ApiContext apiContext) {
-        return apiContext.apiDefinition().plugin(FallbackPlugin.class.getSimpleName()) != null;
+        return apiContext.apiDefinition().plugin(FallbackPlugin.class) != null;
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
-        FallbackPlugin plugin = (FallbackPlugin) apiContext.apiDefinition()
-                .plugin(FallbackPlugin.class.getSimpleName());
+    public boolean supports(ApiDefinition apiDefinition) {
+        return apiDefinition.plugin(FallbackPlugin.class) != null;
+    }
+
+    @Override
+    public ApiContext doFilter(ApiContext apiContext) {
+        FallbackPlugin plugin = apiContext.apiDefinition().plugin(FallbackPlugin.class);
         for (RpcRequest request : apiContext.requests()) {
             if (plugin.fallback().containsKey(request.name())
                 && request instanceof Fallbackable) {
@@ -38,6 +42,6 @@ public class RequestFallbackFilter implements Filter {
                 fallbackable.setFallback(plugin.fallback().get(request.name()).copy());
             }
         }
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 }
@@ -31,8 +31,7 @@ public class DeleteBlacklistCmd implements ApiSubCmd {
     public void handle(ApiDefinition definition, JsonObject jsonObject) {
         Validations.validate(jsonObject.getMap(), rules);
         String ip = jsonObject.getString("ip");
-        IpRestriction ipRestriction =
-                (IpRestriction) definition.plugin(IpRestriction.class.getSimpleName());
+        IpRestriction ipRestriction = definition.plugin(IpRestriction.class);
         if (ipRestriction != null) {
             ipRestriction.removeBlacklist(ip);
         }
@@ -91,4 +91,9 @@ public interface IpRestriction extends ApiPlugin {
     default String name() {
         return IpRestriction.class.getSimpleName();
     }
+
+    @Override
+    default boolean requiresJsonBody() {
+        return false;
+    }
 }
@@ -4,10 +4,9 @@ import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.util.exception.DefaultErrorCode;
 import com.github.edgar615.util.exception.SystemException;
-import io.vertx.core.Future;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
@@ -31,7 +30,7 @@ import java.util.List;
  * </pre>
  * Created by edgar on 16-12-24.
  */
-public class IpRestrictionFilter implements Filter {
+public class IpRestrictionFilter implements SyncFilter {
 
     private final List<String> globalBlacklist = new ArrayList<>();
 
@@ -56,14 +55,12 @@ public class IpRestrictionFilter implements Filter {
     public boolean shouldFilter(ApiContext apiContext) {
         return !globalBlacklist.isEmpty()
                || !globalWhitelist.isEmpty()
-               || apiContext.apiDefinition().plugin(IpRestriction.class.getSimpleName()) != null;
+               || apiContext.apiDefinition().plugin(IpRestriction.class) != null;
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
-        IpRestriction plugin =
-                (IpRestriction) apiContext.apiDefinition()
-                        .plugin(IpRestriction.class.getSimpleName());
+    public ApiContext doFilter(ApiContext apiContext) {
+        IpRestriction plugin = apiContext.apiDefinition().plugin(IpRestriction.class);
         List<String> blacklist = new ArrayList<>(globalBlacklist);
         List<String> whitelist = new ArrayList<>(globalWhitelist);
         if (plugin != null) {
@@ -74,17 +71,15 @@ public class IpRestrictionFilter implements Filter {
 
         //匹配到白名单则允许通过
         if (satisfyList(clientIp, whitelist)) {
-            completeFuture.complete(apiContext);
-            return;
+            return apiContext;
         }
         //匹配到黑名单则禁止通过
         if (satisfyList(clientIp, blacklist)) {
             SystemException e = SystemException.create(DefaultErrorCode.PERMISSION_DENIED)
                     .set("details", "The ip is forbidden");
-            failed(completeFuture, apiContext.id(), "IpForbidden", e);
-            return;
+            throw failed(apiContext.id(), "IpForbidden", e);
         }
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
     @Override
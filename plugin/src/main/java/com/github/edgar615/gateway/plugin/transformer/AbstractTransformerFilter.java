@@ -3,7 +3,7 @@ package com.github.edgar615.gateway.plugin.transformer;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import io.vertx.core.json.JsonObject;
 
 import java.util.Collection;
@@ -14,7 +14,7 @@ import java.util.concurrent.atomic.AtomicReference;
  *
  * @author Edgar  Date 2017/12/4
  */
-public abstract class AbstractTransformerFilter implements Filter {
+public abstract class AbstractTransformerFilter implements SyncFilter {
 
     @Override
     public String type() {
@@ -5,7 +5,6 @@ import com.google.common.collect.Multimap;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
 import com.github.edgar615.gateway.core.rpc.RpcRequest;
 import com.github.edgar615.gateway.core.rpc.eventbus.EventbusRpcRequest;
-import io.vertx.core.Future;
 import io.vertx.core.json.JsonObject;
 
 import java.util.concurrent.atomic.AtomicReference;
@@ -37,13 +36,13 @@ public class EventbusRequestTransformerFilter extends AbstractTransformerFilter
                     .anyMatch(e -> e instanceof EventbusRpcRequest)) {
             return reference.get() != null
                    || apiContext.apiDefinition()
-                              .plugin(RequestTransformerPlugin.class.getSimpleName()) != null;
+                              .plugin(RequestTransformerPlugin.class) != null;
         }
         return false;
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+    public ApiContext doFilter(ApiContext apiContext) {
         for (int i = 0; i < apiContext.requests().size(); i++) {
             RpcRequest request = apiContext.requests().get(i);
             if (request instanceof EventbusRpcRequest) {
@@ -53,7 +52,7 @@ public class EventbusRequestTransformerFilter extends AbstractTransformerFilter
                 transformer(apiContext, (EventbusRpcRequest) request);
             }
         }
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
     @Override
@@ -73,8 +72,7 @@ public class EventbusRequestTransformerFilter extends AbstractTransformerFilter
     private void transformer(ApiContext apiContext, EventbusRpcRequest request) {
         String name = request.name();
         RequestTransformerPlugin plugin =
-                (RequestTransformerPlugin) apiContext.apiDefinition()
-                        .plugin(RequestTransformerPlugin.class.getSimpleName());
+                apiContext.apiDefinition().plugin(RequestTransformerPlugin.class);
         if (plugin == null) {
             return;
         }
@@ -5,7 +5,9 @@ import com.google.common.collect.Multimap;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
 import com.github.edgar615.gateway.core.rpc.RpcRequest;
 import com.github.edgar615.gateway.core.rpc.http.HttpRpcRequest;
-import io.vertx.core.Future;
+import com.github.edgar615.util.exception.DefaultErrorCode;
+import com.github.edgar615.util.exception.SystemException;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 
 import java.util.concurrent.atomic.AtomicReference;
@@ -15,6 +17,9 @@ import java.util.concurrent.atomic.AtomicReference;
  * <p>
  * 执行的顺序为: remove replace add
  * <p>
+ * 全局的转换配置在filter上，ApiDefinition.passThrough()无法知道，所以透传的请求只有原始的请求体（rawBody）.
+ * 需要修改请求体时先将rawBody解析为JSON，之后按JSON发送.
+ * <p>
  * 该filter的order=15000。
  * <p>
  * 接受的参数
@@ -72,13 +77,13 @@ public class HttpRequestTransformerFilter extends AbstractTransformerFilter {
                     .anyMatch(e -> e instanceof HttpRpcRequest)) {
             return reference.get() != null
                    || apiContext.apiDefinition()
-                              .plugin(RequestTransformerPlugin.class.getSimpleName()) != null;
+                              .plugin(RequestTransformerPlugin.class) != null;
         }
         return false;
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+    public ApiContext doFilter(ApiContext apiContext) {
         for (int i = 0; i < apiContext.requests().size(); i++) {
             RpcRequest request = apiContext.requests().get(i);
             if (request instanceof HttpRpcRequest) {
@@ -88,7 +93,7 @@ public class HttpRequestTransformerFilter extends AbstractTransformerFilter {
                 transformer(apiContext, (HttpRpcRequest) request);
             }
         }
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
     @Override
@@ -99,8 +104,7 @@ public class HttpRequestTransformerFilter extends AbstractTransformerFilter {
     private void transformer(ApiContext apiContext, HttpRpcRequest request) {
         String name = request.name();
         RequestTransformerPlugin plugin =
-                (RequestTransformerPlugin) apiContext.apiDefinition()
-                        .plugin(RequestTransformerPlugin.class.getSimpleName());
+                apiContext.apiDefinition().plugin(RequestTransformerPlugin.class);
         if (plugin == null) {
             return;
         }
@@ -115,9 +119,28 @@ public class HttpRequestTransformerFilter extends AbstractTransformerFilter {
         request.clearParams().addParams(params);
         Multimap<String, String> headers = tranformerHeaders(request.headers(), transformer);
         request.clearHeaders().addHeaders(headers);
+        if (request.body() == null && request.rawBody() != null && hasBodyRules(transformer)) {
+            request.setBody(decodeBody(request.rawBody()));
+            request.setRawBody(null);
+        }
         if (request.body() != null) {
             JsonObject body = tranformerBody(request.body(), transformer);
             request.setBody(body);
         }
     }
-}
\ No newline at end of file
+
+    private boolean hasBodyRules(RequestTransformer transformer) {
+        return !transformer.bodyRemoved().isEmpty()
+               || !transformer.bodyReplaced().isEmpty()
+               || !transformer.bodyAdded().isEmpty();
+    }
+
+    private JsonObject decodeBody(Buffer rawBody) {
+        try {
+            return rawBody.toJsonObject();
+        } catch (Exception e) {
+            throw SystemException.wrap(DefaultErrorCode.INVALID_JSON, e)
+                    .set("details", "Request body must be JSON Object");
+        }
+    }
+}
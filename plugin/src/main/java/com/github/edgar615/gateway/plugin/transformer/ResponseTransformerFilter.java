@@ -4,9 +4,8 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
 import com.github.edgar615.gateway.core.dispatch.Result;
-import io.vertx.core.Future;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import io.vertx.core.json.JsonObject;
 
 import java.util.Collection;
@@ -46,7 +45,7 @@ import java.util.concurrent.atomic.AtomicReference;
  * }
  * Created by edgar on 16-9-20.
  */
-public class ResponseTransformerFilter implements Filter {
+public class ResponseTransformerFilter implements SyncFilter {
 
     private final AtomicReference<ResponseTransformerPlugin> reference = new AtomicReference<>();
 
@@ -71,23 +70,22 @@ public class ResponseTransformerFilter implements Filter {
         }
         return reference.get() != null
                || apiContext.apiDefinition()
-                          .plugin(ResponseTransformerPlugin.class.getSimpleName()) != null;
+                          .plugin(ResponseTransformerPlugin.class) != null;
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
+    public ApiContext doFilter(ApiContext apiContext) {
 
         if (reference.get() != null) {
             doTransfomer(apiContext, reference.get());
         }
         ResponseTransformerPlugin plugin =
-                (ResponseTransformerPlugin) apiContext.apiDefinition()
-                        .plugin(ResponseTransformerPlugin.class.getSimpleName());
+                apiContext.apiDefinition().plugin(ResponseTransformerPlugin.class);
 
         if (plugin != null) {
             doTransfomer(apiContext, plugin);
         }
-        completeFuture.complete(apiContext);
+        return apiContext;
     }
 
     @Override
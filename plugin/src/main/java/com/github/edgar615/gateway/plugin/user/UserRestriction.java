@@ -88,4 +88,9 @@ public interface UserRestriction extends ApiPlugin {
     default String name() {
         return UserRestriction.class.getSimpleName();
     }
+
+    @Override
+    default boolean requiresJsonBody() {
+        return false;
+    }
 }
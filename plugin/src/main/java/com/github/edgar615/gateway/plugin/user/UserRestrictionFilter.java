@@ -1,10 +1,9 @@
 package com.github.edgar615.gateway.plugin.user;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
-import com.github.edgar615.gateway.core.dispatch.Filter;
+import com.github.edgar615.gateway.core.dispatch.SyncFilter;
 import com.github.edgar615.util.exception.DefaultErrorCode;
 import com.github.edgar615.util.exception.SystemException;
-import io.vertx.core.Future;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
@@ -27,7 +26,7 @@ import java.util.List;
  * }
  * Created by edgar on 16-12-24.
  */
-public class UserRestrictionFilter implements Filter {
+public class UserRestrictionFilter implements SyncFilter {
 
     private final List<String> globalBlacklist = new ArrayList<>();
 
@@ -56,14 +55,13 @@ public class UserRestrictionFilter implements Filter {
         }
         return !globalBlacklist.isEmpty()
                || !globalWhitelist.isEmpty()
-               || apiContext.apiDefinition().plugin(UserRestriction.class.getSimpleName())
+               || apiContext.apiDefinition().plugin(UserRestriction.class)
                   != null;
     }
 
     @Override
-    public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
-        UserRestriction plugin = (UserRestriction) apiContext.apiDefinition()
-                .plugin(UserRestriction.class.getSimpleName());
+    public ApiContext doFilter(ApiContext apiContext) {
+        UserRestriction plugin = apiContext.apiDefinition().plugin(UserRestriction.class);
         List<String> blacklist = new ArrayList<>(globalBlacklist);
         List<String> whitelist = new ArrayList<>(globalWhitelist);
         if (plugin != null) {
@@ -74,17 +72,15 @@ public class UserRestrictionFilter implements Filter {
 
         //匹配到白名单则允许通过
         if (satisfyList(userId, whitelist)) {
-            completeFuture.complete(apiContext);
-            return;
+            return apiContext;
         }
         //匹配到黑名单则禁止通过
         if (satisfyList(userId, blacklist)) {
             SystemException e = SystemException.create(DefaultErrorCode.PERMISSION_DENIED)
                     .set("details", "The user is forbidden");
-            failed(completeFuture, apiContext.id(), "UserForbidden", e);
-            return;
+            throw failed(apiContext.id(), "UserForbidden", e);
         }
-        completeFuture.complete(apiContext);
+        return apiContext;
 
     }
 
@@ -956,6 +956,45 @@ public class HttpRequestTransformerFilterTest {
         });
     }
 
+    @Test
+    public void testGlobalBodyRulesShouldApplyToPassThrough(TestContext testContext) {
+        JsonObject config = new JsonObject()
+                .put("body.add", new JsonArray().add("b1:b1.1"))
+                .put("body.remove", new JsonArray().add("b2"));
+        filter = new HttpRequestTransformerFilter(
+                new JsonObject().put("request.transformer", config));
+        filters.clear();
+        filters.add(filter);
+        //单个endpoint并且没有插件，透传原始的请求体
+        testContext.assertTrue(apiContext.apiDefinition().passThrough());
+        SimpleHttpRequest httpRpcRequest = SimpleHttpRequest.create(UUID.randomUUID().toString(),
+                                                                    "add_device");
+        httpRpcRequest.setHost("localhost")
+                .setPort(8080)
+                .setHttpMethod(HttpMethod.POST)
+                .setPath("/")
+                .setRawBody(new JsonObject().put("b2", "b2.1").put("b3", "b3.1").toBuffer())
+                .setPassThrough(true);
+        apiContext.addRequest(httpRpcRequest);
+
+        Task<ApiContext> task = Task.create();
+        task.complete(apiContext);
+        AtomicBoolean check1 = new AtomicBoolean();
+        Filters.doFilter(task, filters)
+                .andThen(context -> {
+                    SimpleHttpRequest request = (SimpleHttpRequest) context.requests().get(0);
+                    testContext.assertNull(request.rawBody());
+                    testContext.assertEquals("b1.1", request.body().getString("b1"));
+                    testContext.assertEquals("b3.1", request.body().getString("b3"));
+                    testContext.assertFalse(request.body().containsKey("b2"));
+                    check1.set(true);
+                }).onFailure(t -> {
+            t.printStackTrace();
+            testContext.fail();
+        });
+        Awaitility.await().until(() -> check1.get());
+    }
+
     private void createApiContext() {
         Multimap<String, String> params = ArrayListMultimap.create();
         params.put("q3", "v3");
@@ -1,5 +1,6 @@
 package com.github.edgar615.gateway.plugin.ratelimit;
 
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
 import com.github.edgar615.gateway.core.dispatch.Filter;
 import com.github.edgar615.gateway.core.utils.Consts;
@@ -79,18 +80,20 @@ public class RateLimiterFilter implements Filter {
 
     @Override
     public boolean shouldFilter(ApiContext apiContext) {
-        RateLimiterPlugin plugin =
-                (RateLimiterPlugin) apiContext.apiDefinition()
-                        .plugin(RateLimiterPlugin.class.getSimpleName());
+        RateLimiterPlugin plugin = apiContext.apiDefinition().plugin(RateLimiterPlugin.class);
         return plugin != null && !plugin.rateLimiters().isEmpty()
                && luaLoaded.get();
     }
 
+    @Override
+    public boolean supports(ApiDefinition apiDefinition) {
+        RateLimiterPlugin plugin = apiDefinition.plugin(RateLimiterPlugin.class);
+        return plugin != null && !plugin.rateLimiters().isEmpty();
+    }
+
     @Override
     public void doFilter(ApiContext apiContext, Future<ApiContext> completeFuture) {
-        RateLimiterPlugin plugin =
-                (RateLimiterPlugin) apiContext.apiDefinition()
-                        .plugin(RateLimiterPlugin.class.getSimpleName());
+        RateLimiterPlugin plugin = apiContext.apiDefinition().plugin(RateLimiterPlugin.class);
         List<TokenBucketRule> rules = createRule(apiContext, plugin);
         if (rules.size() == 0) {
             completeFuture.complete(apiContext);
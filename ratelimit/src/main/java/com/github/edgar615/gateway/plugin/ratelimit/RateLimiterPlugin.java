@@ -41,4 +41,9 @@ public interface RateLimiterPlugin extends ApiPlugin {
     default String name() {
         return RateLimiterPlugin.class.getSimpleName();
     }
+
+    @Override
+    default boolean requiresJsonBody() {
+        return false;
+    }
 }
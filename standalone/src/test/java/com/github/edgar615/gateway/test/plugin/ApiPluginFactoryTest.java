@@ -0,0 +1,63 @@
+package com.github.edgar615.gateway.test.plugin;
+
+import com.github.edgar615.gateway.core.definition.ApiPlugin;
+import com.github.edgar615.gateway.core.definition.ApiPluginFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 检查所有注册的插件是否声明了需要JSON格式的请求体、响应体.
+ * 新增插件时需要在这里补充声明，避免需要读取请求体的插件被透传.
+ *
+ * @author Edgar  Date 2018/12/18
+ */
+public class ApiPluginFactoryTest {
+
+    @Test
+    public void testRequiresJsonBodyShouldBeDeclared() {
+        Map<String, Boolean> expected = new HashMap<>();
+        //core
+        expected.put("OrderPlugin", false);
+        expected.put("PredicatePlugin", false);
+        expected.put("ScopePlugin", false);
+        //plugin
+        expected.put("AclRestriction", false);
+        expected.put("IpRestriction", false);
+        expected.put("UserRestriction", false);
+        expected.put("UrlArgPlugin", false);
+        expected.put("BodyArgPlugin", true);
+        expected.put("StrictArgPlugin", true);
+        expected.put("RequestTransformerPlugin", true);
+        expected.put("ResponseTransformerPlugin", true);
+        expected.put("FallbackPlugin", true);
+        //appkey，签名时需要读取请求体
+        expected.put("AppKeyPlugin", true);
+        expected.put("AppKeyRestriction", false);
+        //auth
+        expected.put("AuthenticationPlugin", false);
+        expected.put("UserLoaderPlugin", false);
+        //jwt，创建的token需要加入响应体
+        expected.put("JwtPlugin", false);
+        expected.put("JwtBuildPlugin", true);
+        //ratelimit
+        expected.put("RateLimiterPlugin", false);
+        //http
+        expected.put("ServiceSplitterPlugin", false);
+        //version-splitter
+        expected.put("VersionPlugin", false);
+        expected.put("VersionSplitterPlugin", false);
+
+        Assert.assertEquals(expected.keySet(), ApiPlugin.factories.stream()
+                .map(f -> f.name())
+                .collect(Collectors.toSet()));
+        for (ApiPluginFactory factory : ApiPlugin.factories) {
+            ApiPlugin plugin = factory.create();
+            Assert.assertEquals(factory.name(), expected.get(factory.name()),
+                                plugin.requiresJsonBody());
+        }
+    }
+}
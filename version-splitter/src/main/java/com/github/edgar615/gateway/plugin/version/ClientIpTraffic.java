@@ -1,11 +1,12 @@
 package com.github.edgar615.gateway.plugin.version;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
 
 import com.github.edgar615.gateway.core.dispatch.ApiContext;
+import com.github.edgar615.util.net.IPUtils;
 
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Created by Edgar on 2018/4/3.
@@ -27,12 +28,15 @@ public class ClientIpTraffic implements VersionTraffic {
     @Override
     public String decision(ApiContext apiContext) {
         String clientIp = (String) apiContext.variables().get("request_clientIp");
-        Optional<IpPolicy> optional =
-                policies.stream()
-                        .filter(p -> p.satisfy(clientIp))
-                        .findFirst();
-        if (optional.isPresent()) {
-            return optional.get().version();
+        if (Strings.isNullOrEmpty(clientIp)) {
+            return null;
+        }
+        //只解析一次IP
+        long ipNumber = IPUtils.ipToLong(clientIp);
+        for (IpPolicy policy : policies) {
+            if (policy.satisfy(clientIp, ipNumber)) {
+                return policy.version();
+            }
         }
         return null;
     }
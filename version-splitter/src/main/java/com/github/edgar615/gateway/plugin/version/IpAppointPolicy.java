@@ -1,7 +1,9 @@
 package com.github.edgar615.gateway.plugin.version;
 
 import com.google.common.base.Splitter;
-import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
+
+import com.github.edgar615.util.net.IPUtils;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,11 +15,26 @@ import java.util.List;
  */
 public class IpAppointPolicy implements IpPolicy {
 
+    /**
+     * 匹配任意值的IP段
+     */
+    private static final int ANY = -1;
+
+    /**
+     * 无法匹配任何值的IP段
+     */
+    private static final int NONE = -2;
+
     /**
      * IP的集合
      */
     private final List<String> appoint = new ArrayList<>();
 
+    /**
+     * 编译后的规则，每个规则有4段，*用ANY表示，不足4段的部分用ANY补齐
+     */
+    private final List<int[]> rules = new ArrayList<>();
+
     /**
      * 版本号
      */
@@ -27,6 +44,7 @@ public class IpAppointPolicy implements IpPolicy {
 
     public IpAppointPolicy addIp(String ip) {
         this.appoint.add(ip);
+        this.rules.add(compile(ip));
         return this;
     }
 
@@ -41,21 +59,39 @@ public class IpAppointPolicy implements IpPolicy {
 
     @Override
     public boolean satisfy(String ip) {
-        return appoint.stream()
-                       .filter(r -> checkIp(r, ip))
-                       .count() > 0;
+        return satisfy(ip, IPUtils.ipToLong(ip));
     }
 
-    private boolean checkIp(String rule, String clientIp) {
-        List<String> rules = Lists.newArrayList(Splitter.on(".").trimResults().split(rule));
-        for (int i = rules.size(); i < 5; i++) {
-            rules.add("*");
+    @Override
+    public boolean satisfy(String ip, long ipNumber) {
+        for (int[] rule : rules) {
+            if (checkIp(rule, ipNumber)) {
+                return true;
+            }
         }
-        List<String> ips = Lists.newArrayList(Splitter.on(".").trimResults().split(clientIp));
+        return false;
+    }
+
+    private static int[] compile(String rule) {
+        int[] segments = {ANY, ANY, ANY, ANY};
+        int i = 0;
+        for (String segment : Splitter.on(".").trimResults().split(rule)) {
+            if (i == segments.length) {
+                break;
+            }
+            if (!"*".equals(segment)) {
+                Integer value = Ints.tryParse(segment);
+                segments[i] = value == null ? NONE : value;
+            }
+            i++;
+        }
+        return segments;
+    }
+
+    private static boolean checkIp(int[] rule, long ipNumber) {
         for (int i = 0; i < 4; i++) {
-            String r = rules.get(i);
-            String ip = ips.get(i);
-            if (!r.equals(ip) && !"*".equals(r)) {
+            int segment = (int) (ipNumber >> (24 - 8 * i)) & 0xFF;
+            if (rule[i] != ANY && rule[i] != segment) {
                 return false;
             }
         }
@@ -51,7 +51,11 @@ public class IpHashPolicy implements IpPolicy {
 
     @Override
     public boolean satisfy(String ip) {
-        long ipNumber = IPUtils.ipToLong(ip);
+        return satisfy(ip, IPUtils.ipToLong(ip));
+    }
+
+    @Override
+    public boolean satisfy(String ip, long ipNumber) {
         long ipHash = ipNumber % 100;
         return ipHash >= start && ipHash <= end;
     }
@@ -10,4 +10,15 @@ public interface IpPolicy {
     String version();
 
     boolean satisfy(String ip);
+
+    /**
+     * 判断IP是否满足策略，ClientIpTraffic每个请求只解析一次IP，多个策略共用解析结果.
+     *
+     * @param ip       IP
+     * @param ipNumber IP的数值
+     * @return 满足返回true
+     */
+    default boolean satisfy(String ip, long ipNumber) {
+        return satisfy(ip);
+    }
 }
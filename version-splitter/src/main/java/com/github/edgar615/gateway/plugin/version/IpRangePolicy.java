@@ -51,7 +51,11 @@ public class IpRangePolicy implements IpPolicy {
 
     @Override
     public boolean satisfy(String ip) {
-        long ipNumber = IPUtils.ipToLong(ip);
+        return satisfy(ip, IPUtils.ipToLong(ip));
+    }
+
+    @Override
+    public boolean satisfy(String ip, long ipNumber) {
         return ipNumber >= start && ipNumber <= end;
     }
 }
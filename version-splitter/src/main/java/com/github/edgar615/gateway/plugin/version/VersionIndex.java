@@ -0,0 +1,147 @@
+package com.github.edgar615.gateway.plugin.version;
+
+import com.google.common.base.Strings;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.util.base.VersionUtils;
+import com.github.edgar615.util.exception.DefaultErrorCode;
+import com.github.edgar615.util.exception.SystemException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 一组API的版本索引.
+ * <p>
+ * 同一个请求匹配到的多个API中，有且只有一个API包含VersionSplitterPlugin，其余的API通过VersionPlugin声明版本号.
+ * 创建索引时将版本号转为小写后排序，请求时通过二分查找定位版本.
+ * 没有满足的版本时使用二分查找的插入位置：floor取小于请求版本的最高版本，ceil取大于请求版本的最低版本；
+ * 没有这样的版本或者请求中没有版本号时，floor取最低版本，ceil取最高版本.
+ *
+ * @author Edgar  Date 2018/12/12
+ */
+final class VersionIndex {
+
+    /**
+     * 小写版本号的顺序：都以v开头时按版本比较，否则按字符串比较.
+     * 比较结果相同时再按字符串比较，只有完全相同的版本号才相等.
+     */
+    private static final Comparator<String> VERSION_ORDER = (version1, version2) -> {
+        int result;
+        if (version1.startsWith("v") && version2.startsWith("v")) {
+            result = VersionUtils.compareVersion(version1, version2);
+        } else {
+            result = version1.compareTo(version2);
+        }
+        return result != 0 ? result : version1.compareTo(version2);
+    };
+
+    private final VersionSplitterPlugin plugin;
+
+    /**
+     * 排序后的版本号
+     */
+    private final String[] versions;
+
+    /**
+     * 与versions对应的API，多个API的版本号相同时为null
+     */
+    private final ApiDefinition[] definitions;
+
+    /**
+     * 没有满足的版本时是否向上匹配
+     */
+    private final boolean ceil;
+
+    private VersionIndex(VersionSplitterPlugin plugin, String[] versions,
+                         ApiDefinition[] definitions) {
+        this.plugin = plugin;
+        this.versions = versions;
+        this.definitions = definitions;
+        this.ceil = "ceil".equalsIgnoreCase(plugin.unSatisfyStrategy());
+    }
+
+    /**
+     * 创建索引.
+     *
+     * @param apiDefinitions 同一个请求匹配到的API
+     * @return VersionIndex
+     * @throws SystemException 包含VersionSplitterPlugin的API不是一个时抛出CONFLICT
+     */
+    static VersionIndex create(List<ApiDefinition> apiDefinitions) {
+        VersionSplitterPlugin plugin = null;
+        int splitterCount = 0;
+        List<ApiDefinition> versionDefinitions = new ArrayList<>(apiDefinitions.size());
+        for (ApiDefinition definition : apiDefinitions) {
+            VersionSplitterPlugin splitterPlugin = definition.plugin(VersionSplitterPlugin.class);
+            if (splitterPlugin != null) {
+                plugin = splitterPlugin;
+                splitterCount++;
+            }
+            VersionPlugin versionPlugin = definition.plugin(VersionPlugin.class);
+            if (versionPlugin != null && versionPlugin.version() != null) {
+                versionDefinitions.add(definition);
+            }
+        }
+        if (splitterCount != 1) {//有且只能由一个匹配版本号的插件，其他情况异常
+            throw SystemException.create(DefaultErrorCode.CONFLICT);
+        }
+
+        versionDefinitions.sort(Comparator.comparing(
+                d -> d.plugin(VersionPlugin.class).version().toLowerCase(), VERSION_ORDER));
+        String[] versions = new String[versionDefinitions.size()];
+        ApiDefinition[] definitions = new ApiDefinition[versionDefinitions.size()];
+        int size = 0;
+        for (ApiDefinition definition : versionDefinitions) {
+            String version = definition.plugin(VersionPlugin.class).version().toLowerCase();
+            if (size > 0 && versions[size - 1].equals(version)) {
+                //版本号重复
+                definitions[size - 1] = null;
+                continue;
+            }
+            versions[size] = version;
+            definitions[size] = definition;
+            size++;
+        }
+        return new VersionIndex(plugin, Arrays.copyOf(versions, size),
+                                Arrays.copyOf(definitions, size));
+    }
+
+    VersionSplitterPlugin plugin() {
+        return plugin;
+    }
+
+    /**
+     * 根据版本号查找API.
+     *
+     * @param version 版本号，为null时floor取最低版本，ceil取最高版本
+     * @return ApiDefinition
+     * @throws SystemException 多个API的版本号相同时抛出CONFLICT，没有API声明版本号时抛出RESOURCE_NOT_FOUND
+     */
+    ApiDefinition match(String version) {
+        if (versions.length == 0) {
+            throw SystemException.create(DefaultErrorCode.RESOURCE_NOT_FOUND);
+        }
+        int index;
+        if (Strings.isNullOrEmpty(version)) {
+            index = ceil ? versions.length - 1 : 0;
+        } else {
+            index = Arrays.binarySearch(versions, version.toLowerCase(), VERSION_ORDER);
+            if (index < 0) {
+                //插入位置是第一个大于请求版本的版本
+                int insertion = -index - 1;
+                if (ceil) { //向上匹配
+                    index = Math.min(insertion, versions.length - 1);
+                } else {//默认向下匹配 floor
+                    index = Math.max(insertion - 1, 0);
+                }
+            }
+        }
+        if (definitions[index] == null) {//匹配到多个API，异常
+            throw SystemException.create(DefaultErrorCode.CONFLICT);
+        }
+        return definitions[index];
+    }
+}
@@ -18,6 +18,11 @@ public class VersionPlugin implements ApiPlugin {
         return VersionPlugin.class.getSimpleName();
     }
 
+    @Override
+    public boolean requiresJsonBody() {
+        return false;
+    }
+
     public String version() {
         return version;
     }
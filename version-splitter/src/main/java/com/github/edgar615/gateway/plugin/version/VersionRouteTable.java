@@ -0,0 +1,51 @@
+package com.github.edgar615.gateway.plugin.version;
+
+import com.google.common.collect.ImmutableList;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 某个版本的注册表对应的版本索引.
+ * <p>
+ * 注册表中的API在发布后不会被修改，所以用请求匹配到的API列表作为KEY（ApiDefinition按引用比较），
+ * 同一组API只需要创建一次索引. 注册表的版本变化后，VersionSplitterFilter会创建一个新的VersionRouteTable，旧的索引随之释放.
+ *
+ * @author Edgar  Date 2018/12/12
+ */
+final class VersionRouteTable {
+
+    private final long generation;
+
+    private final Map<List<ApiDefinition>, VersionIndex> indexes = new ConcurrentHashMap<>();
+
+    VersionRouteTable(long generation) {
+        this.generation = generation;
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * 查找API列表对应的版本索引，不存在时创建.
+     *
+     * @param apiDefinitions 请求匹配到的API
+     * @return VersionIndex
+     */
+    VersionIndex index(List<ApiDefinition> apiDefinitions) {
+        VersionIndex index = indexes.get(apiDefinitions);
+        if (index == null) {
+            index = VersionIndex.create(apiDefinitions);
+            indexes.putIfAbsent(ImmutableList.copyOf(apiDefinitions), index);
+        }
+        return index;
+    }
+
+    int size() {
+        return indexes.size();
+    }
+}
@@ -16,7 +16,7 @@ import com.github.edgar615.gateway.core.definition.ApiPlugin;
 public class VersionSplitterPlugin implements ApiPlugin {
 
     /**
-     * floor默认取最低版本，ceil默认取最高的版本
+     * 没有满足的版本时，floor取小于请求版本的最高版本，ceil取大于请求版本的最低版本
      */
     private String unSatisfyStrategy;
 
@@ -54,4 +54,9 @@ public class VersionSplitterPlugin implements ApiPlugin {
     public String name() {
         return VersionSplitterPlugin.class.getSimpleName();
     }
+
+    @Override
+    public boolean requiresJsonBody() {
+        return false;
+    }
 }
@@ -0,0 +1,110 @@
+package com.github.edgar615.gateway.plugin.version;
+
+import com.google.common.collect.Lists;
+
+import com.github.edgar615.gateway.core.definition.ApiDefinition;
+import com.github.edgar615.gateway.core.definition.SimpleHttpEndpoint;
+import com.github.edgar615.util.exception.DefaultErrorCode;
+import com.github.edgar615.util.exception.SystemException;
+import io.vertx.core.http.HttpMethod;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * @author Edgar  Date 2018/12/12
+ */
+public class VersionIndexTest {
+
+    @Test
+    public void testFloor() {
+        List<ApiDefinition> definitions = Lists.newArrayList(
+                splitter(new VersionSplitterPlugin().floor(new RequestVersionTraffic())),
+                version("menu_v2", "v1.1.0"), version("menu_v1", "v1.0.0"),
+                version("menu_v3", "v1.2.0"));
+        VersionIndex index = VersionIndex.create(definitions);
+        Assert.assertEquals("menu_v2", index.match("V1.1.0").name());
+        Assert.assertEquals("menu_v3", index.match("V1.2.0").name());
+        //没有满足的版本时取小于请求版本的最高版本
+        Assert.assertEquals("menu_v2", index.match("v1.1.5").name());
+        Assert.assertEquals("menu_v3", index.match("v2.0.0").name());
+        //没有更低的版本时取最低版本
+        Assert.assertEquals("menu_v1", index.match("v0.9.0").name());
+        Assert.assertEquals("menu_v1", index.match(null).name());
+    }
+
+    @Test
+    public void testCeil() {
+        List<ApiDefinition> definitions = Lists.newArrayList(
+                splitter(new VersionSplitterPlugin().ceil(new RequestVersionTraffic())),
+                version("menu_v2", "20171108"), version("menu_v1", "20171101"));
+        VersionIndex index = VersionIndex.create(definitions);
+        Assert.assertEquals("menu_v1", index.match("20171101").name());
+        //没有满足的版本时取大于请求版本的最低版本
+        Assert.assertEquals("menu_v1", index.match("20171001").name());
+        Assert.assertEquals("menu_v2", index.match("20171105").name());
+        //没有更高的版本时取最高版本
+        Assert.assertEquals("menu_v2", index.match("20171201").name());
+        Assert.assertEquals("menu_v2", index.match("").name());
+    }
+
+    @Test
+    public void testNeighbourShouldFollowVersionOrder() {
+        List<ApiDefinition> definitions = Lists.newArrayList(
+                splitter(new VersionSplitterPlugin().floor(new RequestVersionTraffic())),
+                version("menu_v10", "v1.10.0"), version("menu_v9", "v1.9.0"),
+                version("menu_v2", "v1.2.0"));
+        VersionIndex index = VersionIndex.create(definitions);
+        //按版本比较，v1.10.0高于v1.9.0
+        Assert.assertEquals("menu_v9", index.match("v1.9.5").name());
+        Assert.assertEquals("menu_v10", index.match("v1.11.0").name());
+        Assert.assertEquals("menu_v2", index.match("v1.5.0").name());
+    }
+
+    @Test
+    public void testDuplicateVersionShouldThrowConflict() {
+        List<ApiDefinition> definitions = Lists.newArrayList(
+                splitter(new VersionSplitterPlugin().floor(new RequestVersionTraffic())),
+                version("menu_v1", "20171101"), version("menu_v2", "20171101"),
+                version("menu_v3", "20171108"));
+        VersionIndex index = VersionIndex.create(definitions);
+        Assert.assertEquals("menu_v3", index.match("20171108").name());
+        try {
+            index.match("20171101");
+            Assert.fail();
+        } catch (SystemException e) {
+            Assert.assertEquals(DefaultErrorCode.CONFLICT, e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void testRouteTableShouldReuseIndex() {
+        List<ApiDefinition> definitions = Lists.newArrayList(
+                splitter(new VersionSplitterPlugin().floor(new RequestVersionTraffic())),
+                version("menu_v1", "20171101"));
+        VersionRouteTable table = new VersionRouteTable(1);
+        VersionIndex index = table.index(definitions);
+        Assert.assertSame(index, table.index(Lists.newArrayList(definitions)));
+        Assert.assertEquals(1, table.size());
+    }
+
+    private ApiDefinition splitter(VersionSplitterPlugin plugin) {
+        ApiDefinition definition = version("menu", null);
+        definition.addPlugin(plugin);
+        return definition;
+    }
+
+    private ApiDefinition version(String name, String version) {
+        SimpleHttpEndpoint httpEndpoint = SimpleHttpEndpoint.http("add_menu", HttpMethod.POST,
+                                                                  "/menus", 8080, "localhost");
+        ApiDefinition definition = ApiDefinition.create(name, HttpMethod.POST, "/menus",
+                                                        Lists.newArrayList(httpEndpoint));
+        if (version != null) {
+            VersionPlugin versionPlugin = new VersionPlugin();
+            versionPlugin.setVersion(version);
+            definition.addPlugin(versionPlugin);
+        }
+        return definition;
+    }
+}